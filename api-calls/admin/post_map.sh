@@ -0,0 +1,17 @@
+#!/bin/sh
+
+base_url=$(cd $(dirname $0) && ../utility/base_url.sh)
+
+if [ $# -ge 2 ] ; then
+    curl \
+      --include \
+      --request POST \
+      --header "Content-Type: application/json" \
+      --data-binary @"$2" \
+      "$base_url/admin/maps?name=$1&activate=${3:-false}"
+else
+    echo "Usage: ./post_map.sh name file.json [activate]"
+    echo ""
+    echo "The file may be a JSON array of pacdots or a GeoJSON FeatureCollection."
+    echo ""
+fi
@@ -0,0 +1,14 @@
+#!/bin/sh
+
+cd $(dirname $0)
+base_url=$(../utility/base_url.sh)
+
+if [ -z "$1" ]; then
+  echo "Usage: $0 <game id>"
+  exit 1
+fi
+
+curl \
+  --request GET --include \
+  -H "Content-Type: application/json" \
+  "$base_url/archive/games/$1"
@@ -0,0 +1,19 @@
+#!/bin/sh
+
+cd $(dirname $0)
+base_url=$(../utility/base_url.sh)
+
+if [ $# -ge 1 ] ; then
+    nodes=$(printf '"%s",' "$@")
+    curl \
+      --include \
+      --request PUT  \
+      --header "Content-Type: application/json" \
+      --data '{"nodes":['${nodes%,}']}' \
+      $base_url/cluster/nodes
+else
+    echo "Usage: ./put_nodes.sh node_url [node_url ...]"
+    echo ""
+    echo "e.g. ./put_nodes.sh http://localhost:8080 http://localhost:8081"
+    echo ""
+fi
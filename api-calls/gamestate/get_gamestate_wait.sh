@@ -0,0 +1,19 @@
+#!/bin/sh
+
+cd $(dirname $0)
+base_url=$(../utility/base_url.sh)
+game_states=$(../utility/game_states.sh)
+
+if [ $# -ge 1 ] ; then
+    curl \
+      --request GET --include \
+      -H "Content-Type: application/json" \
+      $base_url/gamestate?waitForChangeFrom="$1"
+else
+    echo "Usage: ./get_gamestate_wait.sh state"
+    echo ""
+    echo "Waits until the game state is no longer the given state."
+    echo ""
+    echo "$game_states"
+    echo ""
+fi
@@ -0,0 +1,14 @@
+#!/bin/sh
+
+cd $(dirname $0)
+base_url=$(../utility/base_url.sh)
+
+if [ -z "$1" ]; then
+  echo "Usage: $0 <PACMAN_SCORE|GHOSTS_CAPTURE_MILLIS|PACMAN_CLEAR_MILLIS> [offset] [limit]"
+  exit 1
+fi
+
+curl \
+  --request GET --include \
+  -H "Content-Type: application/json" \
+  "$base_url/leaderboard?board=$1&offset=${2:-0}&limit=${3:-10}"
@@ -0,0 +1,12 @@
+#!/bin/sh
+
+cd $(dirname $0)
+base_url=$(../utility/base_url.sh)
+
+map=${1:-downtown_vancouver}
+
+curl \
+  --request GET --include \
+  -H "Accept-Encoding: gzip" \
+  "$base_url/maps/$map/heatmap" \
+  --output -
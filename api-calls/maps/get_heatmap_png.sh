@@ -0,0 +1,13 @@
+#!/bin/sh
+
+cd $(dirname $0)
+base_url=$(../utility/base_url.sh)
+
+map=${1:-downtown_vancouver}
+output=${2:-heatmap_$map.png}
+
+curl \
+  --request GET --fail \
+  --output "$output" \
+  "$base_url/maps/$map/heatmap?format=png" \
+  && echo "Saved the heatmap of $map to $output"
@@ -0,0 +1,9 @@
+#!/bin/sh
+
+cd $(dirname $0)
+base_url=$(../utility/base_url.sh)
+
+curl \
+  --request GET --include --compressed \
+  -H "Accept: application/json;profile=columnar" \
+  $base_url/pacdots
@@ -0,0 +1,13 @@
+#!/bin/sh
+
+cd $(dirname $0)
+base_url=$(../utility/base_url.sh)
+
+latitude=${1:-49.2823}
+longitude=${2:--123.1207}
+k=${3:-5}
+
+curl \
+  --request GET --include \
+  -H "Content-Type: application/json" \
+  "$base_url/pacdots/nearest?lat=$latitude&lon=$longitude&k=$k"
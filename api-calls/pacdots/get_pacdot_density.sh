@@ -0,0 +1,11 @@
+#!/bin/sh
+
+cd $(dirname $0)
+base_url=$(../utility/base_url.sh)
+
+level=${1:-2}
+
+curl \
+  --request GET --include \
+  -H "Content-Type: application/json" \
+  "$base_url/pacdots/density?level=$level"
@@ -0,0 +1,15 @@
+#!/bin/sh
+
+cd $(dirname $0)
+base_url=$(../utility/base_url.sh)
+
+zoom=${1:-16}
+x=${2:-10354}
+y=${3:-22427}
+etag=${4}
+
+curl \
+  --request GET --include \
+  -H "Content-Type: application/json" \
+  ${etag:+-H "If-None-Match: $etag"} \
+  "$base_url/pacdots/tiles/$zoom/$x/$y"
@@ -0,0 +1,17 @@
+#!/bin/sh
+
+cd $(dirname $0)
+base_url=$(../utility/base_url.sh)
+player_names=$(../utility/player_names.sh)
+
+if [ $# -ge 1 ] ; then
+    curl \
+      --request GET --include \
+      -H "Content-Type: application/json" \
+      "$base_url/player/$1/trail?since=${2:-0}"
+else
+    echo "Usage: ./get_player_trail.sh name [since]"
+    echo ""
+    echo "$player_names"
+    echo ""
+fi
@@ -0,0 +1,10 @@
+#!/bin/sh
+
+cd $(dirname $0)
+base_url=$(../utility/base_url.sh)
+
+seq=$1
+
+curl \
+  --request POST --include \
+  "$base_url/replication/ack?seq=$seq"
@@ -0,0 +1,8 @@
+#!/bin/sh
+
+cd $(dirname $0)
+base_url=$(../utility/base_url.sh)
+
+curl \
+  --request GET --include --no-buffer \
+  $base_url/spectate
@@ -0,0 +1,20 @@
+#!/bin/sh
+#
+# Measures the capacity of the server: plays any number of simulated games,
+# each on its own server in one JVM, and prints throughput, latency
+# percentiles per endpoint and garbage collection pauses. See
+# src/test/java/com/pm/server/loadtest/LoadGenerator.java for the options.
+#
+# Usage: scripts/load_test.sh [options...]
+#
+#   scripts/load_test.sh --loadtest.games=20 --loadtest.seconds=120
+#   scripts/load_test.sh --loadtest.games=50 --game.tick.millis=50
+#
+# JVM options for the run, such as the heap size or collector, go in
+# MAVEN_OPTS.
+
+cd $(dirname $0)/..
+
+mvn -B -q test-compile exec:java -Dexec.classpathScope=test \
+  -Dstart-class=com.pm.server.loadtest.LoadGenerator \
+  -Dexec.args="$*"
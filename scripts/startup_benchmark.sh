@@ -0,0 +1,61 @@
+#!/bin/sh
+#
+# Measures the time from launching the server to its first 200 response on
+# GET /, over several cold starts, and prints each time and the best.
+#
+# Usage: scripts/startup_benchmark.sh [runs] [java options...]
+#
+#   scripts/startup_benchmark.sh 5
+#   scripts/startup_benchmark.sh 5 -Dspring.profiles.active=lean
+#
+# Runs the packaged WAR by default. With the lean Maven profile built on
+# JDK 13+ (mvn package -Plean), run from the exploded class path with the
+# class data sharing archive and the profile's JVM options:
+#
+#   APP="-XX:SharedArchiveFile=target/pm-server.jsa @target/classpath.args \
+#     com.pm.server.PmServerApplication" scripts/startup_benchmark.sh 5 \
+#     --add-opens java.base/java.lang=ALL-UNNAMED -XX:TieredStopAtLevel=1 \
+#     -XX:+UseSerialGC -Dspring.profiles.active=lean
+
+cd $(dirname $0)/..
+
+runs=${1:-5}
+[ $# -gt 0 ] && shift
+
+port=${PORT:-18080}
+app=${APP:-"-jar target/pm-server-2.0.0.war"}
+
+now_millis() {
+  date +%s%3N
+}
+
+best=
+run=1
+while [ $run -le $runs ]; do
+
+  start=$(now_millis)
+  java "$@" -Dserver.port=$port -Dlog4j.configurationFile=log4j.prod.xml \
+    $app > /dev/null 2>&1 &
+  pid=$!
+
+  until [ "$(curl --silent --output /dev/null --write-out '%{http_code}' \
+      http://localhost:$port/)" = "200" ]; do
+    if ! kill -0 $pid 2> /dev/null; then
+      echo "Server exited before answering" >&2
+      exit 1
+    fi
+    sleep 0.01
+  done
+  elapsed=$(( $(now_millis) - start ))
+
+  kill $pid
+  wait $pid 2> /dev/null
+
+  echo "run $run: $elapsed ms"
+  if [ -z "$best" ] || [ $elapsed -lt $best ]; then
+    best=$elapsed
+  fi
+  run=$(( run + 1 ))
+done
+
+echo "best: $best ms"
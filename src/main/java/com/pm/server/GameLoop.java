@@ -0,0 +1,226 @@
+package com.pm.server;
+
+import com.pm.server.event.GameTickEvent;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.ApplicationEventPublisherAware;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Decides when inputs that change the game are applied.
+ *
+ * <p>
+ *     By default (<code>game.tick.millis</code> of 0) the server is event
+ *     driven: inputs are applied as soon as they arrive, and timers as soon
+ *     as they fire.
+ * </p>
+ * <p>
+ *     With a positive tick, inputs and fired timers are queued instead. Every
+ *     tick, on the game scheduler thread, the loop applies the queued inputs
+ *     in arrival order, then runs the tick tasks (such as applying buffered
+ *     player locations), and finally publishes a single
+ *     {@link GameTickEvent}. The cost of a game is then bounded per tick
+ *     rather than per request, and all mutations happen on one thread.
+ * </p>
+ */
+@Component
+public class GameLoop implements ApplicationEventPublisherAware {
+
+	/**
+	 * A request's change to the game, which may be rejected.
+	 */
+	@FunctionalInterface
+	public interface GameInput<T> {
+		T apply() throws PmServerException;
+	}
+
+	private final ScheduledExecutorService gameScheduler;
+
+	private final long tickMillis;
+
+	private final Queue<Runnable> inputs = new ConcurrentLinkedQueue<>();
+
+	private final List<Runnable> tickTasks = new CopyOnWriteArrayList<>();
+
+	private ApplicationEventPublisher eventPublisher;
+
+	private ScheduledFuture<?> ticker;
+
+	private volatile Thread tickThread;
+
+	private long tick = 0;
+
+	private final static Logger log =
+			LogManager.getLogger(GameLoop.class.getName());
+
+	@Autowired
+	public GameLoop(
+			ScheduledExecutorService gameScheduler,
+			@Value("${game.tick.millis}") Long tickMillis) {
+		this.gameScheduler = gameScheduler;
+		this.tickMillis = tickMillis;
+	}
+
+	@PostConstruct
+	public void start() {
+		if(isTicking()) {
+			log.info("Game loop ticking every {} ms", tickMillis);
+			ticker = gameScheduler.scheduleAtFixedRate(
+					this::tick, tickMillis, tickMillis, TimeUnit.MILLISECONDS
+			);
+		}
+	}
+
+	@PreDestroy
+	public void stop() {
+		if(ticker != null) {
+			ticker.cancel(false);
+		}
+	}
+
+	@Override
+	public void setApplicationEventPublisher(
+			ApplicationEventPublisher eventPublisher) {
+		this.eventPublisher = eventPublisher;
+	}
+
+	public boolean isTicking() {
+		return tickMillis > 0;
+	}
+
+	/**
+	 * Applies an input now, or queues it for the next tick.
+	 *
+	 * @param input Input whose outcome the caller does not wait for
+	 */
+	public void execute(Runnable input) {
+		if(!isTicking() || Thread.currentThread() == tickThread) {
+			input.run();
+		}
+		else {
+			inputs.add(input);
+		}
+	}
+
+	/**
+	 * Applies an input now, or waits for the next tick to apply it.
+	 *
+	 * @param input Input to apply
+	 * @return The result of the input
+	 * @throws PmServerException If the input was rejected, or the loop did
+	 *         not apply it within ten ticks
+	 */
+	public <T> T call(GameInput<T> input) throws PmServerException {
+
+		if(!isTicking() || Thread.currentThread() == tickThread) {
+			return input.apply();
+		}
+
+		CompletableFuture<T> result = new CompletableFuture<>();
+		inputs.add(() -> {
+			try {
+				result.complete(input.apply());
+			}
+			catch(PmServerException | RuntimeException e) {
+				result.completeExceptionally(e);
+			}
+		});
+
+		try {
+			return result.get(
+					Math.max(1000, tickMillis * 10), TimeUnit.MILLISECONDS
+			);
+		}
+		catch(ExecutionException e) {
+			if(e.getCause() instanceof PmServerException) {
+				throw (PmServerException) e.getCause();
+			}
+			throw (RuntimeException) e.getCause();
+		}
+		catch(TimeoutException e) {
+			String errorMessage = "The game loop did not apply the request.";
+			log.error(errorMessage);
+			throw new PmServerException(
+					HttpStatus.SERVICE_UNAVAILABLE, errorMessage
+			);
+		}
+		catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new PmServerException(
+					HttpStatus.SERVICE_UNAVAILABLE,
+					"Interrupted while waiting for the game loop."
+			);
+		}
+	}
+
+	/**
+	 * Runs a timer after the delay; when ticking, the timer is applied by
+	 * the first tick after it fires.
+	 */
+	public void schedule(Runnable timer, long delay, TimeUnit unit) {
+		gameScheduler.schedule(() -> execute(timer), delay, unit);
+	}
+
+	/**
+	 * Adds a task which runs every tick, after the queued inputs. Has no
+	 * effect unless the loop is ticking.
+	 */
+	public void addTickTask(Runnable task) {
+		tickTasks.add(task);
+	}
+
+	private void tick() {
+
+		long start = System.nanoTime();
+		tickThread = Thread.currentThread();
+
+		// Inputs queued while this tick runs wait for the next one
+		int pending = inputs.size();
+		int applied = 0;
+		Runnable input;
+		while(applied < pending && (input = inputs.poll()) != null) {
+			runSafely(input);
+			applied++;
+		}
+
+		for(Runnable task : tickTasks) {
+			runSafely(task);
+		}
+
+		tick++;
+		if(eventPublisher != null) {
+			GameTickEvent event = new GameTickEvent(
+					this, tick, applied, System.nanoTime() - start
+			);
+			runSafely(() -> eventPublisher.publishEvent(event));
+		}
+	}
+
+	private static void runSafely(Runnable runnable) {
+		// An exception would cancel the periodic tick
+		try {
+			runnable.run();
+		}
+		catch(RuntimeException e) {
+			log.error("Game loop task failed", e);
+		}
+	}
+
+}
@@ -0,0 +1,91 @@
+package com.pm.server;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+
+/**
+ * Shortens the time from launch to the first response, for cold starts
+ * (e.g. a Heroku dyno waking from sleep). Active with the <code>lean</code>
+ * Spring profile, along with <code>application-lean.properties</code>.
+ *
+ * <p>
+ *     Every bean is created lazily, when it is first used rather than while
+ *     the context starts, so Tomcat starts taking requests sooner and beans
+ *     a request never touches are never created. Errors in a bean's setup
+ *     surface on first use instead of at startup.
+ * </p>
+ * <p>
+ *     With <code>pm.cds.training</code> set, the server answers one request
+ *     to itself and exits, so that a run with
+ *     <code>-XX:ArchiveClassesAtExit</code> records the classes loaded on
+ *     the way to a first response. See the <code>lean</code> Maven profile.
+ * </p>
+ */
+@Configuration
+@Profile("lean")
+public class LeanStartupConfiguration {
+
+	private final static Logger log =
+			LogManager.getLogger(LeanStartupConfiguration.class.getName());
+
+	@Bean
+	public static BeanFactoryPostProcessor lazyInitialization() {
+		return beanFactory -> {
+			for(String name : beanFactory.getBeanDefinitionNames()) {
+				BeanDefinition definition =
+						beanFactory.getBeanDefinition(name);
+				if(definition.getRole() == BeanDefinition.ROLE_APPLICATION) {
+					definition.setLazyInit(true);
+				}
+			}
+		};
+	}
+
+	@Bean
+	@ConditionalOnProperty("pm.cds.training")
+	public ApplicationListener<ApplicationReadyEvent> cdsTrainingRun() {
+		return event -> {
+			ConfigurableApplicationContext context =
+					event.getApplicationContext();
+			int status = requestHome(
+					context.getEnvironment().getProperty("local.server.port")
+			);
+
+			log.info("Training request answered {}; exiting", status);
+			System.exit(SpringApplication.exit(
+					context, () -> status == 200 ? 0 : 1
+			));
+		};
+	}
+
+	private static int requestHome(String port) {
+		try {
+			HttpURLConnection connection = (HttpURLConnection)
+					new URL("http://localhost:" + port + "/").openConnection();
+			try(InputStream body = connection.getInputStream()) {
+				while(body.read() >= 0);
+			}
+			return connection.getResponseCode();
+		}
+		catch(IOException e) {
+			log.warn("Training request failed: {}", e.getMessage());
+			return 0;
+		}
+	}
+
+}
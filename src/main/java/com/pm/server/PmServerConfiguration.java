@@ -1,5 +1,7 @@
 package com.pm.server;
 
+import com.fasterxml.jackson.databind.Module;
+import com.pm.server.utils.ResponseSerializerModule;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
@@ -18,4 +20,14 @@ public class PmServerConfiguration {
             }
         };
     }
+
+    /**
+     * Picked up by Spring Boot and registered with the ObjectMapper used to
+     * write response bodies.
+     */
+    @Bean
+    public Module responseSerializerModule() {
+        return new ResponseSerializerModule();
+    }
+
 }
@@ -0,0 +1,237 @@
+package com.pm.server;
+
+import org.apache.catalina.connector.Connector;
+import org.apache.coyote.AbstractProtocol;
+import org.apache.coyote.ProtocolHandler;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.embedded.EmbeddedServletContainerCustomizer;
+import org.springframework.boot.context.embedded.tomcat.TomcatEmbeddedServletContainerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurerAdapter;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Threads used for request handling, game timers, spectators,
+ * replication and archiving.
+ *
+ * <p>
+ *     When <code>pm.threads.virtual</code> is set and the JVM supports
+ *     virtual threads (Java 21+), Tomcat and Spring MVC's async dispatch run
+ *     each request on its own virtual thread instead of a bounded pool. The
+ *     executor is looked up reflectively so that the server still compiles
+ *     and runs on Java 1.8, where the property is ignored. See the
+ *     <code>virtual-threads</code> Maven profile.
+ * </p>
+ */
+@Configuration
+public class ThreadingConfiguration {
+
+	@Value("${pm.threads.virtual:false}")
+	private boolean virtualThreads;
+
+	/**
+	 * Null unless requests run on virtual threads.
+	 */
+	private ExecutorService requestExecutor;
+
+	private final static Logger log =
+			LogManager.getLogger(ThreadingConfiguration.class.getName());
+
+	@PostConstruct
+	public void init() {
+		if(virtualThreads) {
+			requestExecutor = newVirtualThreadPerTaskExecutor();
+		}
+	}
+
+	@PreDestroy
+	public void destroy() {
+		if(requestExecutor != null) {
+			requestExecutor.shutdown();
+		}
+	}
+
+	/**
+	 * Shared scheduler for game timers (powerups, tag expiry).
+	 *
+	 * <p>
+	 *     Timer tasks only update in-memory state and never block, so a
+	 *     single platform thread serves every timer instead of a
+	 *     {@link java.util.Timer} thread per powerup.
+	 * </p>
+	 */
+	@Bean(destroyMethod = "shutdownNow")
+	public ScheduledExecutorService gameScheduler() {
+		// A public executor class, so that the destroy method can be invoked
+		// reflectively on Java 9+
+		return new ScheduledThreadPoolExecutor(1, runnable -> {
+			Thread thread = new Thread(runnable, "game-scheduler");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * Writes snapshots to spectators.
+	 *
+	 * <p>
+	 *     The spectators' hub runs <code>spectator.fanout.threads</code>
+	 *     writers at once. A writer stuck on a backed up connection is
+	 *     replaced while its write waits for the connection to time out, so
+	 *     the pool starts threads as needed and lets idle ones go.
+	 * </p>
+	 */
+	@Bean(destroyMethod = "shutdownNow")
+	public ThreadPoolExecutor spectatorExecutor() {
+		AtomicInteger count = new AtomicInteger();
+		return new ThreadPoolExecutor(
+				0, Integer.MAX_VALUE, 60, TimeUnit.SECONDS,
+				new SynchronousQueue<>(),
+				runnable -> {
+					Thread thread = new Thread(
+							runnable, "spectator-" + count.incrementAndGet()
+					);
+					thread.setDaemon(true);
+					return thread;
+				}
+		);
+	}
+
+	/**
+	 * Writes the replication log to followers; each follower is written by
+	 * one thread at a time.
+	 */
+	@Bean(destroyMethod = "shutdownNow")
+	public ThreadPoolExecutor replicationExecutor(
+			@Value("${replication.fanout.threads}") int threads) {
+		AtomicInteger count = new AtomicInteger();
+		return new ThreadPoolExecutor(
+				threads, threads, 0, TimeUnit.MILLISECONDS,
+				new LinkedBlockingQueue<>(),
+				runnable -> {
+					Thread thread = new Thread(
+							runnable, "replication-" + count.incrementAndGet()
+					);
+					thread.setDaemon(true);
+					return thread;
+				}
+		);
+	}
+
+	/**
+	 * Writes finished games to the archive, one at a time, so the request
+	 * or tick which finishes a game never waits for the disk. Shut down
+	 * rather than interrupted, so a game being written is finished.
+	 */
+	@Bean(destroyMethod = "shutdown")
+	public ThreadPoolExecutor archiveExecutor() {
+		return new ThreadPoolExecutor(
+				1, 1, 0, TimeUnit.MILLISECONDS,
+				new LinkedBlockingQueue<>(),
+				runnable -> {
+					Thread thread = new Thread(runnable, "archive");
+					thread.setDaemon(true);
+					return thread;
+				}
+		);
+	}
+
+	/**
+	 * Appends results to the leaderboard's journal, one write at a time and
+	 * in the order they were recorded, so the request or tick which
+	 * finishes a game never waits for the disk. Shut down rather than
+	 * interrupted, so results already recorded are still journaled.
+	 */
+	@Bean(destroyMethod = "shutdown")
+	public ThreadPoolExecutor leaderboardExecutor() {
+		return new ThreadPoolExecutor(
+				1, 1, 0, TimeUnit.MILLISECONDS,
+				new LinkedBlockingQueue<>(),
+				runnable -> {
+					Thread thread = new Thread(runnable, "leaderboard");
+					thread.setDaemon(true);
+					return thread;
+				}
+		);
+	}
+
+	@Bean
+	public EmbeddedServletContainerCustomizer tomcatThreadingCustomizer(
+			@Value("${pm.tomcat.max-connections:0}") int maxConnections) {
+
+		return container -> {
+			if(!(container instanceof TomcatEmbeddedServletContainerFactory)) {
+				return;
+			}
+
+			((TomcatEmbeddedServletContainerFactory) container)
+					.addConnectorCustomizers((Connector connector) -> {
+						ProtocolHandler handler = connector.getProtocolHandler();
+						if(!(handler instanceof AbstractProtocol)) {
+							return;
+						}
+
+						AbstractProtocol<?> protocol = (AbstractProtocol<?>) handler;
+						if(requestExecutor != null) {
+							log.info("Tomcat requests will run on virtual threads");
+							protocol.setExecutor(requestExecutor);
+						}
+						if(maxConnections > 0) {
+							protocol.setMaxConnections(maxConnections);
+						}
+					});
+		};
+	}
+
+	@Bean
+	public WebMvcConfigurer asyncThreadingConfigurer() {
+		return new WebMvcConfigurerAdapter() {
+			@Override
+			public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+				if(requestExecutor != null) {
+					configurer.setTaskExecutor(
+							new TaskExecutorAdapter(requestExecutor)
+					);
+				}
+			}
+		};
+	}
+
+	/**
+	 * @return A virtual-thread-per-task executor, or null if the JVM does
+	 *         not support virtual threads
+	 */
+	private static ExecutorService newVirtualThreadPerTaskExecutor() {
+		try {
+			return (ExecutorService) Executors.class
+					.getMethod("newVirtualThreadPerTaskExecutor")
+					.invoke(null);
+		}
+		catch(ReflectiveOperationException e) {
+			log.warn(
+					"pm.threads.virtual is set but this JVM ({}) does not " +
+					"support virtual threads; using the default thread pool.",
+					System.getProperty("java.version")
+			);
+			return null;
+		}
+	}
+
+}
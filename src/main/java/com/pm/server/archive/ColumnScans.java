@@ -0,0 +1,82 @@
+package com.pm.server.archive;
+
+import com.pm.server.utils.GeoUtils;
+
+import java.util.Arrays;
+
+/**
+ * Aggregates over the columns of archived games.
+ *
+ * <p>
+ *     Each aggregate is a single pass over primitive arrays with no
+ *     branches or allocation in its loop, which the JIT compiles to tight
+ *     (and, where it can, vectorized) code.
+ * </p>
+ */
+public final class ColumnScans {
+
+	private ColumnScans() {
+	}
+
+	/**
+	 * @return The sum of the first <code>count</code> values
+	 */
+	public static long sum(int[] values, int count) {
+		long sum = 0;
+		for(int i = 0; i < count; i++) {
+			sum += values[i];
+		}
+		return sum;
+	}
+
+	/**
+	 * Measures the length of a path of fixed-point coordinates, treating
+	 * the earth as flat around it as {@link GeoUtils#distanceMetres} does.
+	 *
+	 * @return The length of the path through the first <code>count</code>
+	 *         fixes, in metres
+	 */
+	public static double pathMetres(
+			int[] latitudes, int[] longitudes, int count) {
+
+		if(count < 2) {
+			return 0;
+		}
+
+		// A game spans too little latitude for the scale of longitude to
+		// change along it
+		double longitudeScale = Math.cos(Math.toRadians(
+				latitudes[0] / GameColumns.FIXED_POINT_SCALE
+		));
+
+		double length = 0;
+		for(int i = 1; i < count; i++) {
+			double latitudeDistance = latitudes[i] - latitudes[i - 1];
+			double longitudeDistance =
+					(longitudes[i] - longitudes[i - 1]) * longitudeScale;
+			length += Math.sqrt(
+					latitudeDistance * latitudeDistance +
+					longitudeDistance * longitudeDistance
+			);
+		}
+		return length / GameColumns.FIXED_POINT_SCALE *
+				GeoUtils.METRES_PER_DEGREE;
+	}
+
+	/**
+	 * @return For each key from 0 to <code>keys - 1</code>, the least value
+	 *         recorded with it among the first <code>count</code> rows, or
+	 *         {@link Integer#MAX_VALUE} if there is none
+	 */
+	public static int[] minByKey(
+			int[] keyColumn, int[] valueColumn, int count, int keys) {
+		int[] minimums = new int[keys];
+		Arrays.fill(minimums, Integer.MAX_VALUE);
+		for(int i = 0; i < count; i++) {
+			int key = keyColumn[i];
+			minimums[key] = Math.min(minimums[key], valueColumn[i]);
+		}
+		return minimums;
+	}
+
+}
@@ -0,0 +1,207 @@
+package com.pm.server.archive;
+
+import com.pm.server.datatype.Coordinate;
+import com.pm.server.datatype.GameState;
+import com.pm.server.datatype.Pacdot;
+import com.pm.server.datatype.Player;
+import com.pm.server.event.GameStateChangedEvent;
+import com.pm.server.event.PacdotsChangedEvent;
+import com.pm.server.event.PlayerLocationChangedEvent;
+import com.pm.server.event.PlayerStateChangedEvent;
+import com.pm.server.registry.PacdotRegistry;
+import com.pm.server.replication.ReplicationFollower;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * Records each game from the moment it starts, and archives it in
+ * <code>archive.directory</code> once it finishes, so it can be analysed
+ * after the next game has begun.
+ *
+ * <p>
+ *     A game is recorded as {@link GameColumns} from when it moves from
+ *     {@link GameState#INITIALIZING} to {@link GameState#IN_PROGRESS}
+ *     until it finishes. A game which is reinitialized before it finishes
+ *     is discarded. Each archived game is a directory named by its
+ *     identifier, written in full under a temporary name first so a
+ *     partly written game is never read. Games are written by the
+ *     <code>archiveExecutor</code>, so finishing a game never waits for
+ *     the disk, and a game appears in the archive shortly after it
+ *     finishes.
+ * </p>
+ * <p>
+ *     Followers record the replicated game too, so a standby which takes
+ *     over mid-game has all of it, but only a primary archives a game;
+ *     otherwise each game would be archived once per server.
+ * </p>
+ */
+@Component
+public class GameArchive {
+
+	private static final String TEMPORARY_SUFFIX = ".tmp";
+
+	private final PacdotRegistry pacdotRegistry;
+
+	private final ReplicationFollower replicationFollower;
+
+	private final Path directory;
+
+	private final Executor archiveExecutor;
+
+	/**
+	 * The game being recorded, if any; guarded by this archive.
+	 */
+	private GameColumns recording;
+
+	private final static Logger log =
+			LogManager.getLogger(GameArchive.class.getName());
+
+	@Autowired
+	public GameArchive(
+			PacdotRegistry pacdotRegistry,
+			ReplicationFollower replicationFollower,
+			@Value("${archive.directory}") String directory,
+			@Qualifier("archiveExecutor") Executor archiveExecutor) {
+		this.pacdotRegistry = pacdotRegistry;
+		this.replicationFollower = replicationFollower;
+		this.directory = Paths.get(directory);
+		this.archiveExecutor = archiveExecutor;
+	}
+
+	@EventListener
+	public synchronized void onGameStateChanged(GameStateChangedEvent event) {
+
+		long now = System.currentTimeMillis();
+		GameState state = event.getState();
+
+		if(state == GameState.IN_PROGRESS &&
+				event.getPreviousState() == GameState.INITIALIZING) {
+			recording = new GameColumns(now, pacdotRegistry.getMapName());
+		}
+		else if(state == GameState.INITIALIZING) {
+			recording = null;
+		}
+		else if(recording != null &&
+				(state == GameState.FINISHED_PACMAN_WIN ||
+						state == GameState.FINISHED_GHOSTS_WIN)) {
+			recording.finish(now, state);
+			if(!replicationFollower.isFollower()) {
+				// The finished game is no longer changed, so it is written
+				// without holding this archive
+				GameColumns finished = recording;
+				archiveExecutor.execute(() -> archive(finished));
+			}
+			recording = null;
+		}
+	}
+
+	@EventListener
+	public synchronized void onPlayerLocationChanged(
+			PlayerLocationChangedEvent event) {
+		if(recording == null) {
+			return;
+		}
+		List<Coordinate> path = event.getPath();
+		long[] times = event.getTimes();
+		for(int i = 0; i < path.size(); i++) {
+			Coordinate location = path.get(i);
+			recording.addFix(
+					event.getName(), times[i],
+					location.getLatitude(), location.getLongitude()
+			);
+		}
+	}
+
+	@EventListener
+	public synchronized void onPacdotsChanged(PacdotsChangedEvent event) {
+		if(recording == null ||
+				event.getChange() != PacdotsChangedEvent.Change.EATEN) {
+			return;
+		}
+		long now = System.currentTimeMillis();
+		List<Pacdot> pacdots = pacdotRegistry.getInformationOfAllPacdots();
+		for(int i : event.getEatenIndices()) {
+			recording.addEaten(now, i, pacdots.get(i).isPowerdot());
+		}
+	}
+
+	@EventListener
+	public synchronized void onPlayerStateChanged(
+			PlayerStateChangedEvent event) {
+		if(recording != null &&
+				event.getState() == Player.State.CAPTURED &&
+				event.getPreviousState() != Player.State.CAPTURED) {
+			recording.addCapture(System.currentTimeMillis(), event.getName());
+		}
+	}
+
+	/**
+	 * @return The identifiers of the archived games, oldest first
+	 */
+	public List<Long> getGameIds() throws IOException {
+
+		if(!Files.isDirectory(directory)) {
+			return Collections.emptyList();
+		}
+
+		List<Long> ids = new ArrayList<>();
+		try(DirectoryStream<Path> games = Files.newDirectoryStream(directory)) {
+			for(Path game : games) {
+				try {
+					ids.add(Long.parseLong(game.getFileName().toString()));
+				}
+				catch(NumberFormatException e) {
+					// Not a finished game
+				}
+			}
+		}
+		Collections.sort(ids);
+		return ids;
+	}
+
+	/**
+	 * @return The archived game with the given identifier, or null if there
+	 *         is none
+	 */
+	public GameColumns getGame(long id) throws IOException {
+		Path game = directory.resolve(Long.toString(id));
+		if(!Files.isDirectory(game)) {
+			return null;
+		}
+		return GameColumns.read(game);
+	}
+
+	private void archive(GameColumns game) {
+
+		Path temporary = directory.resolve(game.getId() + TEMPORARY_SUFFIX);
+		Path target = directory.resolve(Long.toString(game.getId()));
+		try {
+			game.write(temporary);
+			Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE);
+			log.info("Archived game {} ({}, {} ms) to {}",
+					game.getId(), game.getResult(), game.getDurationMillis(),
+					target);
+		}
+		catch(IOException e) {
+			log.error("Failed to archive game {}: {}",
+					game.getId(), e.getMessage());
+		}
+	}
+
+}
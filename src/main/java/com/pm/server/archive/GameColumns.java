@@ -0,0 +1,280 @@
+package com.pm.server.archive;
+
+import com.pm.server.datatype.GameState;
+import com.pm.server.datatype.Player;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Everything recorded of one game, laid out in columns: the location fixes
+ * of each player, the pacdots eaten and the players captured, each as
+ * primitive columns of equal length.
+ *
+ * <p>
+ *     Times are in milliseconds from the start of the game and coordinates
+ *     in fixed point (1e-7 degree, about 1 cm), as in
+ *     {@link com.pm.server.datatype.Trajectory}. A game is written as a
+ *     directory with one gzip-compressed file per column, so a query reads
+ *     only the columns it scans.
+ * </p>
+ */
+public class GameColumns {
+
+	public static final double FIXED_POINT_SCALE = 1e7;
+
+	private static final String GAME_FILE = "game.gz";
+
+	private static final String COLUMN_SUFFIX = ".col.gz";
+
+	private final long startMillis;
+
+	private final String mapName;
+
+	private long durationMillis = 0;
+
+	private GameState result;
+
+	private final IntColumn[] fixTimes;
+	private final IntColumn[] fixLatitudes;
+	private final IntColumn[] fixLongitudes;
+
+	private IntColumn eatTimes;
+	private IntColumn eatPacdots;
+
+	/**
+	 * 1 for each pacdot eaten which is a powerdot, otherwise 0.
+	 */
+	private IntColumn eatPowerdots;
+
+	private IntColumn captureTimes;
+
+	/**
+	 * Ordinal of the {@link Player.Name} of each player captured.
+	 */
+	private IntColumn capturePlayers;
+
+	public GameColumns(long startMillis, String mapName) {
+
+		this.startMillis = startMillis;
+		this.mapName = mapName;
+
+		int players = Player.Name.values().length;
+		fixTimes = new IntColumn[players];
+		fixLatitudes = new IntColumn[players];
+		fixLongitudes = new IntColumn[players];
+		for(int i = 0; i < players; i++) {
+			fixTimes[i] = new IntColumn();
+			fixLatitudes[i] = new IntColumn();
+			fixLongitudes[i] = new IntColumn();
+		}
+
+		eatTimes = new IntColumn();
+		eatPacdots = new IntColumn();
+		eatPowerdots = new IntColumn();
+		captureTimes = new IntColumn();
+		capturePlayers = new IntColumn();
+	}
+
+	public void addFix(
+			Player.Name name, long timeMillis,
+			double latitude, double longitude) {
+		fixTimes[name.ordinal()].add(sinceStart(timeMillis));
+		fixLatitudes[name.ordinal()].add(toFixedPoint(latitude));
+		fixLongitudes[name.ordinal()].add(toFixedPoint(longitude));
+	}
+
+	public void addEaten(long timeMillis, int pacdot, boolean powerdot) {
+		eatTimes.add(sinceStart(timeMillis));
+		eatPacdots.add(pacdot);
+		eatPowerdots.add(powerdot ? 1 : 0);
+	}
+
+	public void addCapture(long timeMillis, Player.Name name) {
+		captureTimes.add(sinceStart(timeMillis));
+		capturePlayers.add(name.ordinal());
+	}
+
+	public void finish(long timeMillis, GameState result) {
+		this.durationMillis = timeMillis - startMillis;
+		this.result = result;
+	}
+
+	/**
+	 * @return The game's identifier in the archive: the time it started
+	 */
+	public long getId() {
+		return startMillis;
+	}
+
+	public long getStartMillis() {
+		return startMillis;
+	}
+
+	public String getMapName() {
+		return mapName;
+	}
+
+	public long getDurationMillis() {
+		return durationMillis;
+	}
+
+	/**
+	 * @return How the game finished, or null if it has not
+	 */
+	public GameState getResult() {
+		return result;
+	}
+
+	public IntColumn getFixTimes(Player.Name name) {
+		return fixTimes[name.ordinal()];
+	}
+
+	public IntColumn getFixLatitudes(Player.Name name) {
+		return fixLatitudes[name.ordinal()];
+	}
+
+	public IntColumn getFixLongitudes(Player.Name name) {
+		return fixLongitudes[name.ordinal()];
+	}
+
+	public IntColumn getEatTimes() {
+		return eatTimes;
+	}
+
+	public IntColumn getEatPacdots() {
+		return eatPacdots;
+	}
+
+	public IntColumn getEatPowerdots() {
+		return eatPowerdots;
+	}
+
+	public IntColumn getCaptureTimes() {
+		return captureTimes;
+	}
+
+	public IntColumn getCapturePlayers() {
+		return capturePlayers;
+	}
+
+	/**
+	 * Writes the game to a new directory, which must not exist.
+	 */
+	public void write(Path directory) throws IOException {
+
+		Files.createDirectories(directory);
+
+		try(DataOutputStream out = openWrite(directory.resolve(GAME_FILE))) {
+			out.writeLong(startMillis);
+			out.writeLong(durationMillis);
+			out.writeUTF(result == null ? "" : result.name());
+			out.writeUTF(mapName == null ? "" : mapName);
+		}
+
+		for(Player.Name name : Player.Name.values()) {
+			writeColumn(directory, name + ".times", fixTimes[name.ordinal()]);
+			writeColumn(
+					directory, name + ".latitudes",
+					fixLatitudes[name.ordinal()]
+			);
+			writeColumn(
+					directory, name + ".longitudes",
+					fixLongitudes[name.ordinal()]
+			);
+		}
+		writeColumn(directory, "eats.times", eatTimes);
+		writeColumn(directory, "eats.pacdots", eatPacdots);
+		writeColumn(directory, "eats.powerdots", eatPowerdots);
+		writeColumn(directory, "captures.times", captureTimes);
+		writeColumn(directory, "captures.players", capturePlayers);
+	}
+
+	/**
+	 * Reads a game written by {@link #write(Path)}.
+	 */
+	public static GameColumns read(Path directory) throws IOException {
+
+		GameColumns game;
+		try(DataInputStream in = openRead(directory.resolve(GAME_FILE))) {
+			long startMillis = in.readLong();
+			long durationMillis = in.readLong();
+			String result = in.readUTF();
+			String mapName = in.readUTF();
+
+			game = new GameColumns(
+					startMillis, mapName.isEmpty() ? null : mapName
+			);
+			game.durationMillis = durationMillis;
+			game.result = result.isEmpty() ? null : GameState.valueOf(result);
+		}
+		catch(IllegalArgumentException e) {
+			throw new IOException("Unknown game result in " + directory, e);
+		}
+
+		for(Player.Name name : Player.Name.values()) {
+			game.fixTimes[name.ordinal()] =
+					readColumn(directory, name + ".times");
+			game.fixLatitudes[name.ordinal()] =
+					readColumn(directory, name + ".latitudes");
+			game.fixLongitudes[name.ordinal()] =
+					readColumn(directory, name + ".longitudes");
+		}
+		game.eatTimes = readColumn(directory, "eats.times");
+		game.eatPacdots = readColumn(directory, "eats.pacdots");
+		game.eatPowerdots = readColumn(directory, "eats.powerdots");
+		game.captureTimes = readColumn(directory, "captures.times");
+		game.capturePlayers = readColumn(directory, "captures.players");
+		return game;
+	}
+
+	private int sinceStart(long timeMillis) {
+		return (int) Math.max(0, Math.min(
+				Integer.MAX_VALUE, timeMillis - startMillis
+		));
+	}
+
+	private static int toFixedPoint(double degrees) {
+		long fixedPoint = Math.round(degrees * FIXED_POINT_SCALE);
+		return (int) Math.max(
+				Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, fixedPoint)
+		);
+	}
+
+	private static void writeColumn(
+			Path directory, String name, IntColumn column)
+			throws IOException {
+		try(DataOutputStream out =
+				openWrite(directory.resolve(name + COLUMN_SUFFIX))) {
+			column.write(out);
+		}
+	}
+
+	private static IntColumn readColumn(Path directory, String name)
+			throws IOException {
+		try(DataInputStream in =
+				openRead(directory.resolve(name + COLUMN_SUFFIX))) {
+			return IntColumn.read(in);
+		}
+	}
+
+	private static DataOutputStream openWrite(Path file) throws IOException {
+		return new DataOutputStream(new BufferedOutputStream(
+				new GZIPOutputStream(Files.newOutputStream(file), 8192)
+		));
+	}
+
+	private static DataInputStream openRead(Path file) throws IOException {
+		return new DataInputStream(new BufferedInputStream(
+				new GZIPInputStream(Files.newInputStream(file), 8192)
+		));
+	}
+
+}
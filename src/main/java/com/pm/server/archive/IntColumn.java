@@ -0,0 +1,75 @@
+package com.pm.server.archive;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * A growable column of ints, kept as a primitive array so it can be
+ * scanned without boxing.
+ *
+ * <p>
+ *     Columns are written delta-encoded, each value as its difference from
+ *     the one before, so the slowly changing values of a game (times,
+ *     fixed-point coordinates) compress well.
+ * </p>
+ */
+public class IntColumn {
+
+	private int[] values;
+
+	private int size = 0;
+
+	public IntColumn() {
+		values = new int[64];
+	}
+
+	private IntColumn(int[] values) {
+		this.values = values;
+		this.size = values.length;
+	}
+
+	public void add(int value) {
+		if(size == values.length) {
+			values = Arrays.copyOf(values, 2 * values.length);
+		}
+		values[size++] = value;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @return The backing array, of which the first {@link #size()} values
+	 *         are the column's; must not be modified
+	 */
+	public int[] values() {
+		return values;
+	}
+
+	public void write(DataOutputStream out) throws IOException {
+		out.writeInt(size);
+		int previous = 0;
+		for(int i = 0; i < size; i++) {
+			out.writeInt(values[i] - previous);
+			previous = values[i];
+		}
+	}
+
+	public static IntColumn read(DataInputStream in) throws IOException {
+		int size = in.readInt();
+		if(size < 0) {
+			throw new IOException("Negative column size " + size + ".");
+		}
+		int[] values = new int[size];
+		int value = 0;
+		for(int i = 0; i < size; i++) {
+			value += in.readInt();
+			values[i] = value;
+		}
+		return new IntColumn(values);
+	}
+
+}
@@ -0,0 +1,647 @@
+package com.pm.server.cluster;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pm.server.GameLoop;
+import com.pm.server.PmServerException;
+import com.pm.server.datatype.GameState;
+import com.pm.server.event.GameStateChangedEvent;
+import com.pm.server.manager.AdminGameStateManager;
+import com.pm.server.manager.LocationManager;
+import com.pm.server.replication.ReplicationApplier;
+import com.pm.server.replication.ReplicationEntry;
+import com.pm.server.replication.ReplicationLog;
+import com.pm.server.request.ClusterNodesRequest;
+import com.pm.server.utils.ForwardingUtils;
+import com.pm.server.utils.JsonUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurerAdapter;
+import org.springframework.web.servlet.handler.HandlerInterceptorAdapter;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+/**
+ * Spreads games across a cluster of servers, set by
+ * <code>cluster.nodes</code>.
+ *
+ * <p>
+ *     Requests name their game with the <code>X-Game-Id</code> header. Each
+ *     game is owned by one node, chosen by a {@link HashRing} of the nodes,
+ *     and any node forwards a request for a game it does not own to the
+ *     owner. Requests without the header are served by the node receiving
+ *     them, as outside a cluster.
+ * </p>
+ * <p>
+ *     A server holds one game, so a node hosts the first game it owns which
+ *     a request changes, and refuses other games it owns until that game
+ *     finishes, is reset or moves away. Reading a game it owns but does not
+ *     host changes nothing, and is answered from the game it holds. A node
+ *     starts a game other than the one it last hosted from a fresh game.
+ * </p>
+ * <p>
+ *     When the membership changes, a node whose game belongs to another
+ *     node under the new ring hands it off: new requests for the game are
+ *     turned away for a moment, the requests already being served for it
+ *     are waited for, and the node then takes a snapshot of the game from
+ *     its {@link ReplicationLog} and clears it in a single game loop input.
+ *     The new owner applies the snapshot and hosts the game from then on;
+ *     if it cannot, the node applies the snapshot again and keeps the game.
+ *     Games which keep their owner are not touched.
+ * </p>
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ClusterRouter extends WebMvcConfigurerAdapter {
+
+	public static final String GAME_ID_HEADER = "X-Game-Id";
+
+	private static final ObjectMapper objectMapper =
+			JsonUtils.getObjectMapper();
+
+	private static final String NDJSON = "application/x-ndjson";
+
+	/**
+	 * Marks a request counted in {@link #inFlight}.
+	 */
+	private static final String IN_FLIGHT_ATTRIBUTE =
+			ClusterRouter.class.getName() + ".inFlight";
+
+	private final ReplicationLog replicationLog;
+
+	private final ReplicationApplier replicationApplier;
+
+	private final AdminGameStateManager adminGameStateManager;
+
+	private final LocationManager locationManager;
+
+	private final GameLoop gameLoop;
+
+	private final String selfUrl;
+
+	private final int virtualNodes;
+
+	private final long drainMillis;
+
+	/**
+	 * Null outside a cluster.
+	 */
+	private volatile HashRing ring;
+
+	private final AtomicReference<String> hostedGameId =
+			new AtomicReference<>();
+
+	/**
+	 * The game this node last hosted, whose state it may still hold; only
+	 * changed while holding this router.
+	 */
+	private String lastGameId;
+
+	/**
+	 * Whether this router is replacing the game, which is then not
+	 * finishing or being reset; only used on the game loop.
+	 */
+	private boolean replacingGame = false;
+
+	private volatile String movingGameId;
+
+	/**
+	 * Requests being served for the hosted game; notified when it drops to
+	 * zero.
+	 */
+	private final AtomicInteger inFlight = new AtomicInteger();
+
+	private final AtomicLong forwarded = new AtomicLong();
+
+	private final static Logger log =
+			LogManager.getLogger(ClusterRouter.class.getName());
+
+	@Autowired
+	public ClusterRouter(
+			ReplicationLog replicationLog,
+			ReplicationApplier replicationApplier,
+			AdminGameStateManager adminGameStateManager,
+			LocationManager locationManager,
+			GameLoop gameLoop,
+			@Value("${cluster.nodes}") String nodes,
+			@Value("${cluster.self.url}") String selfUrl,
+			@Value("${cluster.virtual.nodes}") Integer virtualNodes,
+			@Value("${cluster.handoff.drain.millis}") Long drainMillis)
+			throws IllegalArgumentException {
+		this.replicationLog = replicationLog;
+		this.replicationApplier = replicationApplier;
+		this.adminGameStateManager = adminGameStateManager;
+		this.locationManager = locationManager;
+		this.gameLoop = gameLoop;
+		this.selfUrl = selfUrl == null ? "" : selfUrl.trim();
+		this.virtualNodes = virtualNodes;
+		this.drainMillis = drainMillis;
+
+		List<String> nodeList = parseNodes(nodes);
+		if(!nodeList.isEmpty()) {
+			if(!nodeList.contains(this.selfUrl)) {
+				throw new IllegalArgumentException(
+						"cluster.self.url must be one of cluster.nodes."
+				);
+			}
+			ring = new HashRing(nodeList, virtualNodes);
+			log.info("Node {} of cluster {}", this.selfUrl, nodeList);
+		}
+	}
+
+	@Override
+	public void addInterceptors(InterceptorRegistry registry) {
+		registry.addInterceptor(new RoutingInterceptor())
+				.excludePathPatterns("/cluster/**", "/replication/**");
+	}
+
+	public boolean isClustered() {
+		return ring != null;
+	}
+
+	public String getSelfUrl() {
+		return selfUrl;
+	}
+
+	/**
+	 * @return The nodes of the cluster, or an empty list outside a cluster
+	 */
+	public List<String> getNodes() {
+		HashRing current = ring;
+		return current == null ? new ArrayList<>() : current.getNodes();
+	}
+
+	/**
+	 * @return The game this node hosts, or null if it hosts none
+	 */
+	public String getHostedGameId() {
+		return hostedGameId.get();
+	}
+
+	/**
+	 * @return The number of requests forwarded to the owner of their game
+	 */
+	public long getForwarded() {
+		return forwarded.get();
+	}
+
+	/**
+	 * Changes the nodes of the cluster on this node, and optionally on
+	 * every other node of the old or new cluster.
+	 *
+	 * @param nodes Base URLs of every node of the new cluster
+	 * @param propagate Whether to pass the change on to the other nodes
+	 * @throws PmServerException If this node's game could not be handed
+	 *         off, in which case this node keeps the old membership; or if
+	 *         another node could not be told of the change
+	 */
+	public void changeMembership(List<String> nodes, boolean propagate)
+			throws PmServerException {
+
+		if(nodes.isEmpty()) {
+			throw new PmServerException(
+					HttpStatus.BAD_REQUEST,
+					"A cluster requires at least one node."
+			);
+		}
+
+		Set<String> others = new LinkedHashSet<>(getNodes());
+		others.addAll(nodes);
+		others.remove(selfUrl);
+
+		applyMembership(new HashRing(nodes, virtualNodes));
+
+		if(!propagate) {
+			return;
+		}
+
+		ClusterNodesRequest request = new ClusterNodesRequest();
+		request.setNodes(nodes);
+		byte[] body;
+		try {
+			body = objectMapper.writeValueAsBytes(request);
+		}
+		catch(IOException e) {
+			throw new IllegalStateException(e);
+		}
+
+		List<String> failed = new ArrayList<>();
+		for(String node : others) {
+			try {
+				int status = ForwardingUtils.send(
+						"PUT", node + "/cluster/nodes",
+						"application/json", body
+				);
+				if(status >= 300) {
+					failed.add(node + " (" + status + ")");
+				}
+			}
+			catch(IOException e) {
+				failed.add(node + " (" + e.getMessage() + ")");
+			}
+		}
+
+		if(!failed.isEmpty()) {
+			String errorMessage =
+					"The membership change failed on nodes " + failed + ".";
+			log.error(errorMessage);
+			throw new PmServerException(HttpStatus.BAD_GATEWAY, errorMessage);
+		}
+	}
+
+	/**
+	 * Stops hosting the game once it finishes or is reset, so the node can
+	 * host the next game it owns.
+	 */
+	@EventListener
+	public void onGameStateChanged(GameStateChangedEvent event) {
+		GameState state = event.getState();
+		if(replacingGame || !(state == GameState.INITIALIZING ||
+				state == GameState.FINISHED_PACMAN_WIN ||
+				state == GameState.FINISHED_GHOSTS_WIN)) {
+			return;
+		}
+
+		String hosted = hostedGameId.getAndSet(null);
+		if(hosted != null) {
+			log.info("Game {} is {}; hosting no game", hosted, state);
+		}
+	}
+
+	/**
+	 * Makes this node host a game handed off by another node.
+	 *
+	 * @param gameId Game handed off
+	 * @param snapshot Snapshot of the game from the other node's
+	 *                 {@link ReplicationLog}, one entry per line
+	 * @throws PmServerException If this node already hosts another game
+	 */
+	public synchronized void adopt(String gameId, InputStream snapshot)
+			throws PmServerException, IOException {
+
+		// Claimed first, so no request starts another game meanwhile
+		if(!hostedGameId.compareAndSet(null, gameId) &&
+				!gameId.equals(hostedGameId.get())) {
+			throw new PmServerException(
+					HttpStatus.CONFLICT,
+					"This node already hosts game " + hostedGameId.get() + "."
+			);
+		}
+		lastGameId = gameId;
+
+		List<ReplicationEntry> entries = new ArrayList<>();
+		BufferedReader lines = new BufferedReader(
+				new InputStreamReader(snapshot, StandardCharsets.UTF_8)
+		);
+		String line;
+		while((line = lines.readLine()) != null) {
+			if(!line.isEmpty()) {
+				entries.add(
+						objectMapper.readValue(line, ReplicationEntry.class)
+				);
+			}
+		}
+
+		restore(entries);
+
+		log.info("Adopted game {} from {} entries", gameId, entries.size());
+	}
+
+	private synchronized void applyMembership(HashRing newRing)
+			throws PmServerException {
+
+		String hosted = hostedGameId.get();
+		String newOwner = hosted == null ? null : newRing.ownerOf(hosted);
+		if(hosted != null && !newOwner.equals(selfUrl)) {
+			movingGameId = hosted;
+			try {
+				handOff(hosted, newOwner);
+			}
+			finally {
+				movingGameId = null;
+			}
+		}
+
+		ring = newRing;
+		log.info("Node {} of cluster {}", selfUrl, newRing.getNodes());
+	}
+
+	private void handOff(String gameId, String newOwner)
+			throws PmServerException {
+
+		log.info("Handing off game {} to {}", gameId, newOwner);
+
+		awaitDrained(gameId);
+
+		// Nothing may change the game between the snapshot and the clear,
+		// or the change would be acknowledged and then lost; fixes waiting
+		// for a tick or a flush were acknowledged too
+		List<byte[]> frames = gameLoop.call(() -> {
+			locationManager.flushPendingLocations();
+			List<byte[]> snapshot = replicationLog.snapshot();
+			clearGame();
+			return snapshot;
+		});
+
+		ByteArrayOutputStream snapshot = new ByteArrayOutputStream();
+		for(byte[] frame : frames) {
+			snapshot.write(frame, 0, frame.length);
+		}
+
+		String errorMessage = "Game " + gameId + " could not be handed off " +
+				"to " + newOwner + ".";
+		try {
+			int status = ForwardingUtils.send(
+					"POST",
+					newOwner + "/cluster/adopt?gameId=" +
+							URLEncoder.encode(gameId, "UTF-8"),
+					NDJSON, snapshot.toByteArray()
+			);
+			if(status >= 300) {
+				log.error("{} It responded {}.", errorMessage, status);
+				keep(frames);
+				throw new PmServerException(
+						HttpStatus.BAD_GATEWAY, errorMessage
+				);
+			}
+		}
+		catch(IOException e) {
+			log.error("{} {}", errorMessage, e.getMessage());
+			keep(frames);
+			throw new PmServerException(HttpStatus.BAD_GATEWAY, errorMessage);
+		}
+
+		hostedGameId.set(null);
+		lastGameId = null;
+	}
+
+	/**
+	 * Hosts the game if this node hosts none, starting it from a fresh game
+	 * unless it is the game this node last hosted.
+	 *
+	 * @return The game this node hosts
+	 */
+	private synchronized String host(String gameId) throws PmServerException {
+		if(hostedGameId.get() != null) {
+			return hostedGameId.get();
+		}
+
+		if(!gameId.equals(lastGameId)) {
+			gameLoop.call(() -> {
+				clearGame();
+				return null;
+			});
+		}
+		hostedGameId.set(gameId);
+		lastGameId = gameId;
+
+		log.info("Hosting game {}", gameId);
+		return gameId;
+	}
+
+	/**
+	 * Clears the game without it counting as reset; callers must be on the
+	 * game loop.
+	 */
+	private void clearGame() {
+		replacingGame = true;
+		try {
+			adminGameStateManager.clearGame();
+		}
+		finally {
+			replacingGame = false;
+		}
+	}
+
+	/**
+	 * Waits until no request is being served for the hosted game. Requests
+	 * arriving meanwhile are turned away, as the game is moving.
+	 *
+	 * @throws PmServerException If requests are still being served after
+	 *         <code>cluster.handoff.drain.millis</code>
+	 */
+	private void awaitDrained(String gameId) throws PmServerException {
+		long deadline = System.currentTimeMillis() + drainMillis;
+		synchronized(inFlight) {
+			while(inFlight.get() > 0) {
+				long remaining = deadline - System.currentTimeMillis();
+				if(remaining <= 0) {
+					String errorMessage = "Game " + gameId + " still has " +
+							inFlight.get() + " requests being served; it " +
+							"was not handed off.";
+					log.error(errorMessage);
+					throw new PmServerException(
+							HttpStatus.SERVICE_UNAVAILABLE, errorMessage
+					);
+				}
+				try {
+					inFlight.wait(remaining);
+				}
+				catch(InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new PmServerException(
+							HttpStatus.SERVICE_UNAVAILABLE,
+							"Interrupted while handing off game " + gameId +
+									"."
+					);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Applies a snapshot taken by a hand-off which failed, so this node
+	 * keeps the game as it was.
+	 */
+	private void keep(List<byte[]> frames) throws PmServerException {
+		List<ReplicationEntry> entries = new ArrayList<>();
+		try {
+			for(byte[] frame : frames) {
+				entries.add(
+						objectMapper.readValue(frame, ReplicationEntry.class)
+				);
+			}
+		}
+		catch(IOException e) {
+			throw new IllegalStateException(e);
+		}
+		restore(entries);
+	}
+
+	/**
+	 * Replaces the game with the one a snapshot describes.
+	 */
+	private void restore(List<ReplicationEntry> entries)
+			throws PmServerException {
+		gameLoop.call(() -> {
+			replacingGame = true;
+			try {
+				adminGameStateManager.clearGame();
+				for(ReplicationEntry entry : entries) {
+					replicationApplier.apply(entry);
+				}
+			}
+			finally {
+				replacingGame = false;
+			}
+			return null;
+		});
+	}
+
+	private static List<String> parseNodes(String nodes) {
+		if(nodes == null) {
+			return new ArrayList<>();
+		}
+		return Arrays.stream(nodes.split(","))
+				.map(String::trim)
+				.filter(node -> !node.isEmpty())
+				.collect(Collectors.toList());
+	}
+
+	private class RoutingInterceptor extends HandlerInterceptorAdapter {
+
+		@Override
+		public boolean preHandle(
+				HttpServletRequest request, HttpServletResponse response,
+				Object handler) throws PmServerException {
+
+			HashRing current = ring;
+			String gameId = request.getHeader(GAME_ID_HEADER);
+			if(current == null || gameId == null) {
+				return true;
+			}
+
+			if(gameId.equals(movingGameId)) {
+				response.setHeader("Retry-After", "1");
+				throw new PmServerException(
+						HttpStatus.SERVICE_UNAVAILABLE,
+						"Game " + gameId + " is moving to another node."
+				);
+			}
+
+			String owner = current.ownerOf(gameId);
+			if(owner.equals(selfUrl)) {
+				String hosted = hostedGameId.get();
+				String method = request.getMethod();
+				boolean reading =
+						"GET".equals(method) || "HEAD".equals(method);
+				if(hosted == null && !reading) {
+					hosted = host(gameId);
+				}
+				if(gameId.equals(hosted)) {
+					return enter(request, response, gameId);
+				}
+				if(hosted == null) {
+					return true;
+				}
+				throw new PmServerException(
+						HttpStatus.CONFLICT,
+						"This node already hosts game " + hosted +
+						"; each node hosts one game."
+				);
+			}
+
+			// Nodes disagree on the owner while membership is changing
+			if(ForwardingUtils.isForwarded(request)) {
+				response.setHeader("Retry-After", "1");
+				throw new PmServerException(
+						HttpStatus.SERVICE_UNAVAILABLE,
+						"The cluster is changing; try again shortly."
+				);
+			}
+
+			try {
+				ForwardingUtils.forward(request, response, owner);
+			}
+			catch(IOException e) {
+				String errorMessage = "The node hosting game " + gameId +
+						" could not be reached.";
+				log.error("{} {}: {}", errorMessage, owner, e.getMessage());
+				throw new PmServerException(
+						HttpStatus.BAD_GATEWAY, errorMessage
+				);
+			}
+
+			forwarded.incrementAndGet();
+			return false;
+		}
+
+		@Override
+		public void afterConcurrentHandlingStarted(
+				HttpServletRequest request, HttpServletResponse response,
+				Object handler) {
+			// A stream has stopped changing the game once its handler
+			// returns
+			leave(request);
+		}
+
+		@Override
+		public void afterCompletion(
+				HttpServletRequest request, HttpServletResponse response,
+				Object handler, Exception ex) {
+			leave(request);
+		}
+
+		/**
+		 * Counts a request for the hosted game until it completes, unless
+		 * the game started moving first.
+		 */
+		private boolean enter(
+				HttpServletRequest request, HttpServletResponse response,
+				String gameId) throws PmServerException {
+
+			inFlight.incrementAndGet();
+			request.setAttribute(IN_FLIGHT_ATTRIBUTE, Boolean.TRUE);
+
+			// A hand-off which set the game moving before the count went up
+			// may not have waited for this request
+			if(gameId.equals(movingGameId)) {
+				leave(request);
+				response.setHeader("Retry-After", "1");
+				throw new PmServerException(
+						HttpStatus.SERVICE_UNAVAILABLE,
+						"Game " + gameId + " is moving to another node."
+				);
+			}
+			return true;
+		}
+
+		private void leave(HttpServletRequest request) {
+			if(request.getAttribute(IN_FLIGHT_ATTRIBUTE) == null) {
+				return;
+			}
+			request.removeAttribute(IN_FLIGHT_ATTRIBUTE);
+			if(inFlight.decrementAndGet() == 0) {
+				synchronized(inFlight) {
+					inFlight.notifyAll();
+				}
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,87 @@
+package com.pm.server.cluster;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Assigns keys to nodes by consistent hashing.
+ *
+ * <p>
+ *     Each node is placed on a ring of 64-bit hashes at many points
+ *     (virtual nodes), and a key belongs to the node at the first point at
+ *     or after the key's hash. Adding a node only takes keys from the
+ *     nodes either side of its points, and removing one only gives its
+ *     keys away, so a change of membership moves about 1/n of the keys.
+ *     The virtual nodes spread each node's share evenly around the ring.
+ * </p>
+ * <p>
+ *     A ring is immutable; a change of membership makes a new ring.
+ * </p>
+ */
+public class HashRing {
+
+	private final List<String> nodes;
+
+	private final TreeMap<Long, String> points = new TreeMap<>();
+
+	/**
+	 * @param nodes Names of the nodes, e.g. their base URLs
+	 * @param virtualNodes Points on the ring for each node
+	 * @throws IllegalArgumentException if there are no nodes, or fewer than
+	 *         one point per node
+	 */
+	public HashRing(List<String> nodes, int virtualNodes)
+			throws IllegalArgumentException {
+
+		if(nodes.isEmpty() || virtualNodes < 1) {
+			throw new IllegalArgumentException(
+					"A hash ring requires at least one node and one point " +
+					"per node."
+			);
+		}
+
+		this.nodes = Collections.unmodifiableList(new ArrayList<>(nodes));
+		for(String node : nodes) {
+			for(int i = 0; i < virtualNodes; i++) {
+				points.put(hash(node + "#" + i), node);
+			}
+		}
+	}
+
+	public List<String> getNodes() {
+		return nodes;
+	}
+
+	/**
+	 * @return The node which owns the key
+	 */
+	public String ownerOf(String key) {
+		Map.Entry<Long, String> point = points.ceilingEntry(hash(key));
+		return point != null ? point.getValue() : points.firstEntry().getValue();
+	}
+
+	private static long hash(String value) {
+		byte[] digest;
+		try {
+			digest = MessageDigest.getInstance("MD5")
+					.digest(value.getBytes(StandardCharsets.UTF_8));
+		}
+		catch(NoSuchAlgorithmException e) {
+			// Every Java platform is required to support MD5
+			throw new IllegalStateException(e);
+		}
+
+		long hash = 0;
+		for(int i = 0; i < 8; i++) {
+			hash = (hash << 8) | (digest[i] & 0xff);
+		}
+		return hash;
+	}
+
+}
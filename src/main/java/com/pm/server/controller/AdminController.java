@@ -1,6 +1,11 @@
 package com.pm.server.controller;
 
+import com.pm.server.GameLoop;
+import com.pm.server.PmServerException;
+import com.pm.server.datatype.MapUploadReport;
+import com.pm.server.manager.MapManager;
 import com.pm.server.manager.PacdotManager;
+import com.pm.server.response.MapResponse;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -8,8 +13,12 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
+
 @RestController
 @RequestMapping("/admin")
 public class AdminController {
@@ -17,6 +26,12 @@ public class AdminController {
 	@Autowired
 	private PacdotManager pacdotManager;
 
+	@Autowired
+	private MapManager mapManager;
+
+	@Autowired
+	private GameLoop gameLoop;
+
 	private final static Logger log =
 			LogManager.getLogger(AdminController.class.getName());
 
@@ -26,13 +41,51 @@ public class AdminController {
 			produces={ "application/json" }
 	)
 	@SuppressWarnings("rawtypes")
-	public ResponseEntity resetPacdots() {
+	public ResponseEntity resetPacdots() throws PmServerException {
 		log.info("Mapped POST /admin/pacdots/reset");
 
-		pacdotManager.resetPacdots();
+		gameLoop.call(() -> {
+			pacdotManager.resetPacdots();
+			return null;
+		});
 		log.info("All pacdots reset.");
 
 		return ResponseEntity.status(HttpStatus.CREATED).body(null);
 	}
 
+	/**
+	 * Reads the request body as a stream rather than binding it, so that
+	 * large maps are never held in memory as a whole.
+	 */
+	@RequestMapping(
+			value="/maps",
+			method=RequestMethod.POST,
+			produces={ "application/json" }
+	)
+	public ResponseEntity<MapResponse> uploadMap(
+			@RequestParam String name,
+			@RequestParam(defaultValue = "false") boolean activate,
+			HttpServletRequest request)
+			throws PmServerException, IOException {
+
+		log.info("Mapped POST /admin/maps?name={}&activate={}", name, activate);
+
+		MapUploadReport report = mapManager.uploadMap(
+				name, request.getInputStream(), activate
+		);
+		log.info(
+				"Map {} registered with {} pacdots.",
+				name, report.getMap().getCount()
+		);
+
+		MapResponse mapResponse = new MapResponse();
+		mapResponse.setName(report.getMap().getName());
+		mapResponse.setPacdots(report.getMap().getCount());
+		mapResponse.setPowerdots(report.getMap().getPowerdotCount());
+		mapResponse.setDuplicates(report.getDuplicates());
+		mapResponse.setActive(report.isActivated());
+
+		return ResponseEntity.status(HttpStatus.CREATED).body(mapResponse);
+	}
+
 }
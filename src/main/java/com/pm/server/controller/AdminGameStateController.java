@@ -1,5 +1,6 @@
 package com.pm.server.controller;
 
+import com.pm.server.GameLoop;
 import com.pm.server.PmServerException;
 import com.pm.server.datatype.GameState;
 import com.pm.server.manager.AdminGameStateManager;
@@ -23,6 +24,9 @@ public class AdminGameStateController {
 	@Autowired
 	private AdminGameStateManager adminGameStateManager;
 
+	@Autowired
+	private GameLoop gameLoop;
+
 	private final static Logger log =
 			LogManager.getLogger(AdminGameStateController.class.getName());
 
@@ -41,7 +45,10 @@ public class AdminGameStateController {
 		GameState newState =
 				ValidationUtils.validateRequestBodyWithGameState(requestBody);
 
-		adminGameStateManager.changeGameState(newState);
+		gameLoop.call(() -> {
+			adminGameStateManager.changeGameState(newState);
+			return null;
+		});
 
 		return ResponseEntity.status(HttpStatus.OK).body(null);
 
@@ -0,0 +1,151 @@
+package com.pm.server.controller;
+
+import com.pm.server.PmServerException;
+import com.pm.server.archive.ColumnScans;
+import com.pm.server.archive.GameArchive;
+import com.pm.server.archive.GameColumns;
+import com.pm.server.archive.IntColumn;
+import com.pm.server.datatype.Player;
+import com.pm.server.response.ArchivedGameResponse;
+import com.pm.server.response.ArchivedPlayerResponse;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+@RestController
+@RequestMapping("/archive")
+public class ArchiveController {
+
+	private GameArchive gameArchive;
+
+	private final static Logger log =
+			LogManager.getLogger(ArchiveController.class.getName());
+
+	@Autowired
+	public ArchiveController(GameArchive gameArchive) {
+		this.gameArchive = gameArchive;
+	}
+
+	/**
+	 * Lists the identifiers of the finished games in the archive, oldest
+	 * first.
+	 */
+	@RequestMapping(
+			value="/games",
+			method=RequestMethod.GET,
+			produces={ "application/json" }
+	)
+	public ResponseEntity<List<Long>> getArchivedGames()
+			throws PmServerException {
+
+		log.info("Mapped GET /archive/games");
+
+		try {
+			return ResponseEntity
+					.status(HttpStatus.OK)
+					.body(gameArchive.getGameIds());
+		}
+		catch(IOException e) {
+			String errorMessage =
+					"Failed to list the archive: " + e.getMessage();
+			log.error(errorMessage);
+			throw new PmServerException(
+					HttpStatus.INTERNAL_SERVER_ERROR, errorMessage
+			);
+		}
+	}
+
+	/**
+	 * Aggregates an archived game: its result and length, the pacdots
+	 * eaten per minute, and the distance walked and time of capture of each
+	 * player. Each aggregate is a scan over the game's columns.
+	 */
+	@RequestMapping(
+			value="/games/{id}",
+			method=RequestMethod.GET,
+			produces={ "application/json" }
+	)
+	public ResponseEntity<ArchivedGameResponse> getArchivedGame(
+			@PathVariable long id)
+			throws PmServerException {
+
+		log.info("Mapped GET /archive/games/{}", id);
+
+		GameColumns game;
+		try {
+			game = gameArchive.getGame(id);
+		}
+		catch(IOException e) {
+			String errorMessage =
+					"Failed to read archived game " + id + ": " +
+					e.getMessage();
+			log.error(errorMessage);
+			throw new PmServerException(
+					HttpStatus.INTERNAL_SERVER_ERROR, errorMessage
+			);
+		}
+		if(game == null) {
+			String errorMessage = "No game " + id + " is archived.";
+			log.warn(errorMessage);
+			throw new PmServerException(HttpStatus.NOT_FOUND, errorMessage);
+		}
+
+		IntColumn eaten = game.getEatPowerdots();
+		IntColumn captures = game.getCapturePlayers();
+		int[] capturedAt = ColumnScans.minByKey(
+				captures.values(), game.getCaptureTimes().values(),
+				captures.size(), Player.Name.values().length
+		);
+
+		List<ArchivedPlayerResponse> players = new ArrayList<>();
+		for(Player.Name name : Player.Name.values()) {
+			IntColumn latitudes = game.getFixLatitudes(name);
+
+			ArchivedPlayerResponse player = new ArchivedPlayerResponse();
+			player.setName(name);
+			player.setFixes(latitudes.size());
+			player.setDistanceMetres(ColumnScans.pathMetres(
+					latitudes.values(),
+					game.getFixLongitudes(name).values(),
+					latitudes.size()
+			));
+			if(capturedAt[name.ordinal()] != Integer.MAX_VALUE) {
+				player.setCapturedAtMillis(
+						(long) capturedAt[name.ordinal()]
+				);
+			}
+			players.add(player);
+		}
+
+		ArchivedGameResponse response = new ArchivedGameResponse();
+		response.setId(game.getId());
+		response.setMapName(game.getMapName());
+		response.setResult(game.getResult());
+		response.setStartMillis(game.getStartMillis());
+		response.setDurationMillis(game.getDurationMillis());
+		response.setPacdotsEaten(eaten.size());
+		response.setPowerdotsEaten(
+				(int) ColumnScans.sum(eaten.values(), eaten.size())
+		);
+		response.setDotsPerMinute(game.getDurationMillis() == 0 ? 0.0 :
+				eaten.size() * 60000.0 / game.getDurationMillis()
+		);
+		response.setCaptures(captures.size());
+		response.setPlayers(players);
+
+		return ResponseEntity
+				.status(HttpStatus.OK)
+				.body(response);
+	}
+
+}
@@ -0,0 +1,107 @@
+package com.pm.server.controller;
+
+import com.pm.server.PmServerException;
+import com.pm.server.cluster.ClusterRouter;
+import com.pm.server.request.ClusterNodesRequest;
+import com.pm.server.response.ClusterResponse;
+import com.pm.server.utils.ForwardingUtils;
+import com.pm.server.utils.JsonUtils;
+import com.pm.server.utils.ValidationUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.util.List;
+
+@RestController
+@RequestMapping("/cluster")
+public class ClusterController {
+
+	private ClusterRouter clusterRouter;
+
+	private final static Logger log =
+			LogManager.getLogger(ClusterController.class.getName());
+
+	@Autowired
+	public ClusterController(ClusterRouter clusterRouter) {
+		this.clusterRouter = clusterRouter;
+	}
+
+	@RequestMapping(
+			value="",
+			method=RequestMethod.GET,
+			produces={ "application/json" }
+	)
+	public ResponseEntity<ClusterResponse> getCluster() {
+
+		log.info("Mapped GET /cluster");
+
+		ClusterResponse clusterResponse = new ClusterResponse();
+		clusterResponse.setSelf(clusterRouter.getSelfUrl());
+		clusterResponse.setNodes(clusterRouter.getNodes());
+		clusterResponse.setHostedGameId(clusterRouter.getHostedGameId());
+		clusterResponse.setForwarded(clusterRouter.getForwarded());
+		return ResponseEntity
+				.status(HttpStatus.OK)
+				.body(clusterResponse);
+	}
+
+	/**
+	 * Changes the nodes of the cluster. Sent to any one node, the change is
+	 * passed on to every node of the old and new clusters, and games whose
+	 * owner changes are handed off to their new owners.
+	 */
+	@RequestMapping(
+			value="/nodes",
+			method=RequestMethod.PUT,
+			produces={ "application/json" }
+	)
+	@SuppressWarnings("rawtypes")
+	public ResponseEntity changeNodes(
+			@RequestBody ClusterNodesRequest requestBody,
+			HttpServletRequest request) throws PmServerException {
+
+		log.info("Mapped PUT /cluster/nodes");
+		log.info("Request body: {}", JsonUtils.objectToJson(requestBody));
+
+		List<String> nodes =
+				ValidationUtils.validateRequestBodyWithNodes(requestBody);
+		clusterRouter.changeMembership(
+				nodes, !ForwardingUtils.isForwarded(request)
+		);
+
+		return ResponseEntity.status(HttpStatus.OK).body(null);
+	}
+
+	/**
+	 * Takes over a game from another node of the cluster. The request body
+	 * is the game's snapshot, as from GET /replication/snapshot.
+	 */
+	@RequestMapping(
+			value="/adopt",
+			method=RequestMethod.POST,
+			produces={ "application/json" }
+	)
+	@SuppressWarnings("rawtypes")
+	public ResponseEntity adoptGame(
+			@RequestParam String gameId,
+			HttpServletRequest request)
+			throws PmServerException, IOException {
+
+		log.info("Mapped POST /cluster/adopt?gameId={}", gameId);
+
+		clusterRouter.adopt(gameId, request.getInputStream());
+
+		return ResponseEntity.status(HttpStatus.OK).body(null);
+	}
+
+}
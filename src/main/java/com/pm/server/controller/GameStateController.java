@@ -1,16 +1,24 @@
 package com.pm.server.controller;
 
+import com.pm.server.PmServerException;
+import com.pm.server.datatype.GameState;
 import com.pm.server.manager.GameStateManager;
+import com.pm.server.manager.LongPollManager;
 import com.pm.server.response.GameStateResponse;
 import com.pm.server.response.ScoreResponse;
+import com.pm.server.utils.LongPollUtils;
+import com.pm.server.utils.ValidationUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
 
 @RestController
 @RequestMapping("/gamestate")
@@ -18,12 +26,21 @@ public class GameStateController {
 
 	private GameStateManager gameStateManager;
 
+	private LongPollManager longPollManager;
+
+	private Long longPollTimeoutMillis;
+
 	private final static Logger log =
 			LogManager.getLogger(GameStateController.class.getName());
 
 	@Autowired
-	public GameStateController(GameStateManager gameStateManager) {
+	public GameStateController(
+			GameStateManager gameStateManager,
+			LongPollManager longPollManager,
+			@Value("${longpoll.timeout.millis}") Long longPollTimeoutMillis) {
 		this.gameStateManager = gameStateManager;
+		this.longPollManager = longPollManager;
+		this.longPollTimeoutMillis = longPollTimeoutMillis;
 	}
 
 	@RequestMapping(
@@ -53,8 +70,42 @@ public class GameStateController {
 	public ResponseEntity<GameStateResponse> getGamestate() {
 		log.info("Mapped GET /gamestate");
 
+		return gameStateResponseOf(gameStateManager.getCurrentState());
+	}
+
+	/**
+	 * Long-poll variant of {@link #getGamestate()} which responds once the
+	 * game state is different from the given state, or with the current
+	 * state after the long-poll timeout. No request thread is held while
+	 * waiting.
+	 */
+	@RequestMapping(
+			value="",
+			method=RequestMethod.GET,
+			params="waitForChangeFrom",
+			produces={ "application/json" }
+	)
+	public DeferredResult<ResponseEntity<GameStateResponse>>
+			waitForGamestateChange(@RequestParam String waitForChangeFrom)
+			throws PmServerException {
+
+		log.info("Mapped GET /gamestate?waitForChangeFrom={}", waitForChangeFrom);
+
+		GameState from = ValidationUtils
+				.validateRequestParamWithGameState(waitForChangeFrom);
+
+		return LongPollUtils.toDeferredResult(
+				longPollManager.waitForGameStateChange(from),
+				longPollTimeoutMillis,
+				gameStateManager::getCurrentState,
+				this::gameStateResponseOf
+		);
+	}
+
+	private ResponseEntity<GameStateResponse> gameStateResponseOf(
+			GameState state) {
 		GameStateResponse stateResponse = new GameStateResponse();
-		stateResponse.setState(gameStateManager.getCurrentState());
+		stateResponse.setState(state);
 
 		return ResponseEntity.status(HttpStatus.OK).body(stateResponse);
 	}
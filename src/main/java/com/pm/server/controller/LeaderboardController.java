@@ -0,0 +1,102 @@
+package com.pm.server.controller;
+
+import com.pm.server.PmServerException;
+import com.pm.server.leaderboard.Leaderboard;
+import com.pm.server.leaderboard.LeaderboardEntry;
+import com.pm.server.response.LeaderboardEntryResponse;
+import com.pm.server.response.LeaderboardResponse;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@RestController
+@RequestMapping("/leaderboard")
+public class LeaderboardController {
+
+	private Leaderboard leaderboard;
+
+	@Value("${leaderboard.max.limit}")
+	private Integer maxLimit;
+
+	private final static Logger log =
+			LogManager.getLogger(LeaderboardController.class.getName());
+
+	@Autowired
+	public LeaderboardController(Leaderboard leaderboard) {
+		this.leaderboard = leaderboard;
+	}
+
+	/**
+	 * Pages through the best results of the games finished on this server
+	 * on one board, best first.
+	 */
+	@RequestMapping(
+			method=RequestMethod.GET,
+			produces={ "application/json" }
+	)
+	public ResponseEntity<LeaderboardResponse> getLeaderboard(
+			@RequestParam(defaultValue = "PACMAN_SCORE") String board,
+			@RequestParam(defaultValue = "0") int offset,
+			@RequestParam(defaultValue = "10") int limit)
+			throws PmServerException {
+
+		log.info(
+				"Mapped GET /leaderboard?board={}&offset={}&limit={}",
+				board, offset, limit
+		);
+
+		Leaderboard.Board requestedBoard;
+		try {
+			requestedBoard = Leaderboard.Board.valueOf(board);
+		}
+		catch(IllegalArgumentException e) {
+			String errorMessage = board + " is not a leaderboard.";
+			log.warn(errorMessage);
+			throw new PmServerException(HttpStatus.BAD_REQUEST, errorMessage);
+		}
+		if(offset < 0) {
+			String errorMessage = "offset must not be negative.";
+			log.warn(errorMessage);
+			throw new PmServerException(HttpStatus.BAD_REQUEST, errorMessage);
+		}
+		if(limit < 1 || limit > maxLimit) {
+			String errorMessage = "limit must be from 1 to " + maxLimit + ".";
+			log.warn(errorMessage);
+			throw new PmServerException(HttpStatus.BAD_REQUEST, errorMessage);
+		}
+
+		List<LeaderboardEntryResponse> entries = new ArrayList<>();
+		int rank = offset;
+		for(LeaderboardEntry entry :
+				leaderboard.getPage(requestedBoard, offset, limit)) {
+			LeaderboardEntryResponse entryResponse =
+					new LeaderboardEntryResponse();
+			entryResponse.setRank(++rank);
+			entryResponse.setValue(entry.getValue());
+			entryResponse.setMapName(entry.getMapName());
+			entryResponse.setFinishedMillis(entry.getFinishedMillis());
+			entries.add(entryResponse);
+		}
+
+		LeaderboardResponse response = new LeaderboardResponse();
+		response.setBoard(requestedBoard);
+		response.setOffset(offset);
+		response.setTotal(leaderboard.getSize(requestedBoard));
+		response.setEntries(entries);
+
+		return ResponseEntity
+				.status(HttpStatus.OK)
+				.body(response);
+	}
+
+}
@@ -0,0 +1,95 @@
+package com.pm.server.controller;
+
+import com.pm.server.PmServerException;
+import com.pm.server.datatype.HeatmapGrid;
+import com.pm.server.manager.MapManager;
+import com.pm.server.utils.ContentCoding;
+import com.pm.server.utils.HeatmapEncoding;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/maps")
+public class MapController {
+
+	private static final String FORMAT_BINARY = "binary";
+
+	private static final String FORMAT_PNG = "png";
+
+	private MapManager mapManager;
+
+	private final static Logger log =
+			LogManager.getLogger(MapController.class.getName());
+
+	@Autowired
+	public MapController(MapManager mapManager) {
+		this.mapManager = mapManager;
+	}
+
+	/**
+	 * Counts the locations reported by players in each cell of a grid over
+	 * a map, across every game played on it since the server started.
+	 *
+	 * <p>
+	 *     The default <code>binary</code> format is described by
+	 *     {@link HeatmapEncoding#toBinary}, and is compressed with gzip or
+	 *     deflate when the client accepts it. The <code>png</code> format
+	 *     draws the counts as an image, one pixel per cell.
+	 * </p>
+	 */
+	// No produces, so errors can still be answered in JSON
+	@RequestMapping(
+			value="/{name}/heatmap",
+			method=RequestMethod.GET
+	)
+	public ResponseEntity<byte[]> getHeatmap(
+			@PathVariable String name,
+			@RequestParam(defaultValue = FORMAT_BINARY) String format,
+			@RequestHeader(value="Accept-Encoding", required=false)
+					String acceptEncoding)
+			throws PmServerException {
+
+		log.info("Mapped GET /maps/{}/heatmap?format={}", name, format);
+
+		if(!FORMAT_BINARY.equals(format) && !FORMAT_PNG.equals(format)) {
+			String errorMessage = "The format must be " + FORMAT_BINARY +
+					" or " + FORMAT_PNG + ".";
+			log.warn(errorMessage);
+			throw new PmServerException(HttpStatus.BAD_REQUEST, errorMessage);
+		}
+
+		HeatmapGrid heatmap = mapManager.getHeatmap(name);
+		int[] counts = heatmap.getCounts();
+
+		if(FORMAT_PNG.equals(format)) {
+			return ResponseEntity
+					.status(HttpStatus.OK)
+					.contentType(MediaType.IMAGE_PNG)
+					.body(HeatmapEncoding.toPng(heatmap, counts));
+		}
+
+		ContentCoding coding = ContentCoding.negotiate(acceptEncoding);
+		ResponseEntity.BodyBuilder builder = ResponseEntity
+				.status(HttpStatus.OK)
+				.contentType(MediaType.APPLICATION_OCTET_STREAM)
+				.header(HttpHeaders.VARY, "Accept-Encoding");
+		if(coding.getToken() != null) {
+			builder.header(HttpHeaders.CONTENT_ENCODING, coding.getToken());
+		}
+		return builder.body(
+				coding.encode(HeatmapEncoding.toBinary(heatmap, counts))
+		);
+	}
+
+}
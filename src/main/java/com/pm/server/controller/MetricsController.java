@@ -1,7 +1,13 @@
 package com.pm.server.controller;
 
+import com.pm.server.manager.LocationManager;
+import com.pm.server.manager.SpectatorManager;
+import com.pm.server.response.MetricsResponse;
+import com.pm.server.throttle.LatencyShedder;
+import com.pm.server.throttle.RequestThrottle;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -12,6 +18,15 @@ import org.springframework.web.bind.annotation.RestController;
 @RequestMapping("/metrics")
 public class MetricsController {
 
+	@Autowired
+	private LocationManager locationManager;
+
+	@Autowired
+	private SpectatorManager spectatorManager;
+
+	@Autowired
+	private RequestThrottle requestThrottle;
+
 	private final static Logger log =
 			LogManager.getLogger(MetricsController.class.getName());
 
@@ -19,11 +34,41 @@ public class MetricsController {
 			method=RequestMethod.GET,
 			produces={ "application/json" }
 	)
-	@SuppressWarnings("rawtypes")
-	public ResponseEntity getMetrics() {
+	public ResponseEntity<MetricsResponse> getMetrics() {
 		log.info("Mapped GET /metrics");
 
-		return ResponseEntity.status(HttpStatus.OK).body(null);
+		long received = locationManager.getReceivedFixes();
+		long applied = locationManager.getAppliedUpdates();
+
+		MetricsResponse metricsResponse = new MetricsResponse();
+		metricsResponse.setLocationFixesReceived(received);
+		metricsResponse.setLocationFixesFiltered(
+				locationManager.getFilteredFixes()
+		);
+		metricsResponse.setLocationUpdatesApplied(applied);
+		metricsResponse.setLocationSuppressionRatio(
+				received == 0 ? 0.0 : 1 - (double) applied / received
+		);
+
+		metricsResponse.setSpectators(spectatorManager.getSpectatorCount());
+		metricsResponse.setSpectatorFramesSkipped(
+				spectatorManager.getFramesSkipped()
+		);
+		metricsResponse.setSpectatorsDropped(
+				spectatorManager.getSpectatorsDropped()
+		);
+
+		metricsResponse.setRequestsRateLimited(requestThrottle.getRateLimited());
+		metricsResponse.setRequestsShed(requestThrottle.getShed());
+		LatencyShedder shedder = requestThrottle.getShedder();
+		if(shedder != null) {
+			metricsResponse.setConcurrencyLimit(shedder.getLimit());
+			metricsResponse.setLatencyP99Millis(
+					shedder.getLastP99Nanos() / 1000000
+			);
+		}
+
+		return ResponseEntity.status(HttpStatus.OK).body(metricsResponse);
 	}
 
 }
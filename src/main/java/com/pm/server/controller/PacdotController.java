@@ -1,23 +1,51 @@
 package com.pm.server.controller;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pm.server.PmServerException;
+import com.pm.server.datatype.Coordinate;
 import com.pm.server.datatype.Pacdot;
+import com.pm.server.datatype.PacdotDensityTree;
+import com.pm.server.manager.LongPollManager;
 import com.pm.server.manager.PacdotManager;
 import com.pm.server.response.LocationResponse;
+import com.pm.server.response.PacdotColumnarResponse;
 import com.pm.server.response.PacdotCountResponse;
+import com.pm.server.response.PacdotDensityResponse;
+import com.pm.server.response.PacdotNearestResponse;
 import com.pm.server.response.PacdotResponse;
+import com.pm.server.response.PacdotTileResponse;
 import com.pm.server.response.PacdotUneatenResponse;
+import com.pm.server.utils.ContentCoding;
+import com.pm.server.utils.GeoUtils;
 import com.pm.server.utils.JsonUtils;
+import com.pm.server.utils.LongPollUtils;
+import com.pm.server.utils.VersionedResponseCache;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
 
 import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/pacdots")
@@ -26,6 +54,48 @@ public class PacdotController {
 	@Autowired
 	private PacdotManager pacdotManager;
 
+	@Autowired
+	private LongPollManager longPollManager;
+
+	@Value("${longpoll.timeout.millis}")
+	private Long longPollTimeoutMillis;
+
+	@Value("${pacdots.nearest.max.count}")
+	private Integer nearestMaxCount;
+
+	@Value("${pacdots.tiles.max.zoom}")
+	private Integer tilesMaxZoom;
+
+	@Value("${pacdots.tiles.cache.size}")
+	private Integer tilesCacheSize;
+
+	private static final String COLUMNAR_PROFILE = "columnar";
+
+	private static final MediaType COLUMNAR_MEDIA_TYPE = new MediaType(
+			"application", "json",
+			Collections.singletonMap("profile", COLUMNAR_PROFILE)
+	);
+
+	// Cache slots of each representation, one per content coding
+	private static final int ALL_SLOT = 0;
+	private static final int COLUMNAR_SLOT = ContentCoding.values().length;
+	private static final int UNEATEN_SLOT = 2 * ContentCoding.values().length;
+
+	private static final ObjectMapper objectMapper =
+			JsonUtils.getObjectMapper();
+
+	private final VersionedResponseCache encodedBodies =
+			new VersionedResponseCache(3 * ContentCoding.values().length);
+
+	/**
+	 * Encoded bodies of each tile within the pacdots' bounds, one slot per
+	 * content coding, by {@link #tileKey(int, int, int)}. Emptied once it
+	 * holds <code>pacdots.tiles.cache.size</code> tiles, which also drops
+	 * the tiles of maps no longer played.
+	 */
+	private final ConcurrentMap<Long, VersionedResponseCache> tileBodies =
+			new ConcurrentHashMap<>();
+
 	private final static Logger log =
 			LogManager.getLogger(PacdotController.class.getName());
 
@@ -39,50 +109,128 @@ public class PacdotController {
 
 		log.info("Mapped GET /pacdots/count");
 
-		PacdotCountResponse countResponse = new PacdotCountResponse();
-		countResponse.setTotal(pacdotManager.getTotalCount());
-		countResponse.setEaten(pacdotManager.getTotalCount() -
-				pacdotManager.getUneatenCount());
-		countResponse.setUneaten(pacdotManager.getUneatenCount());
-		countResponse.setUneatenPowerdots(
-				pacdotManager.getUneatenPowerdotCount()
+		return pacdotCountResponse();
+	}
+
+	/**
+	 * Long-poll variant of {@link #getPacdotCount()} which responds once the
+	 * number of uneaten pacdots is different from the given number, or with
+	 * the current counts after the long-poll timeout. No request thread is
+	 * held while waiting.
+	 */
+	@RequestMapping(
+			value="/count",
+			method=RequestMethod.GET,
+			params="waitForChangeFrom",
+			produces={ "application/json" }
+	)
+	public DeferredResult<ResponseEntity<PacdotCountResponse>>
+			waitForPacdotCountChange(@RequestParam Integer waitForChangeFrom) {
+
+		log.info(
+				"Mapped GET /pacdots/count?waitForChangeFrom={}",
+				waitForChangeFrom
+		);
+
+		return LongPollUtils.toDeferredResult(
+				longPollManager.waitForUneatenCountChange(waitForChangeFrom),
+				longPollTimeoutMillis,
+				pacdotManager::getUneatenCount,
+				uneatenCount -> pacdotCountResponse()
 		);
+	}
+
+	/**
+	 * Counts the pacdots, and the uneaten pacdots, in each cell of a grid
+	 * over the map, for minimaps and heatmaps. Level <code>k</code> divides
+	 * the map into <code>2^k</code> rows and columns. The counts are kept
+	 * as pacdots are eaten, so no pacdot is looked at.
+	 */
+	@RequestMapping(
+			value="/density",
+			method=RequestMethod.GET,
+			produces={ "application/json" }
+	)
+	public ResponseEntity<PacdotDensityResponse> getPacdotDensity(
+			@RequestParam(defaultValue = "0") int level)
+			throws PmServerException {
+
+		log.info("Mapped GET /pacdots/density?level={}", level);
+
+		PacdotDensityTree density = pacdotManager.getDensity();
+		if(level < 0 || level > density.getMaxLevel()) {
+			String errorMessage = "The level must be from 0 to " +
+					density.getMaxLevel() + ".";
+			log.warn(errorMessage);
+			throw new PmServerException(HttpStatus.BAD_REQUEST, errorMessage);
+		}
+
+		int side = 1 << level;
+		int[] total = new int[side * side];
+		int[] uneaten = new int[side * side];
+		long version = pacdotManager.getVersion();
+		density.copyLevel(level, total, uneaten);
+
+		PacdotDensityResponse response = new PacdotDensityResponse();
+		response.setLevel(level);
+		response.setRows(side);
+		response.setColumns(side);
+		response.setSouth(density.getSouth());
+		response.setWest(density.getWest());
+		response.setNorth(density.getNorth());
+		response.setEast(density.getEast());
+		response.setVersion(version);
+		response.setTotal(total);
+		response.setUneaten(uneaten);
 
 		return ResponseEntity
 				.status(HttpStatus.OK)
-				.body(countResponse);
+				.body(response);
 	}
 
+	/**
+	 * Lists the <code>k</code> uneaten pacdots nearest a location, nearest
+	 * first, e.g. for a player looking for the next pacdot to eat. Eaten
+	 * pacdots are skipped without being looked at.
+	 */
 	@RequestMapping(
-			value="/uneaten",
+			value="/nearest",
 			method=RequestMethod.GET,
 			produces={ "application/json" }
 	)
-	public ResponseEntity<List<PacdotUneatenResponse>>
-			getUneatenPacdots() {
+	public ResponseEntity<List<PacdotNearestResponse>> getNearestPacdots(
+			@RequestParam double lat,
+			@RequestParam double lon,
+			@RequestParam(defaultValue = "1") int k)
+			throws PmServerException {
 
-		log.info("Mapped GET /pacdots/uneaten");
+		log.info("Mapped GET /pacdots/nearest?lat={}&lon={}&k={}", lat, lon, k);
 
-		List<PacdotUneatenResponse> responseList = new ArrayList<>();
-		List<Pacdot> pacdotList = pacdotManager.getInformationOfAllPacdots();
-		for(Pacdot pacdot : pacdotList) {
+		if(k < 1 || k > nearestMaxCount) {
+			String errorMessage = "k must be from 1 to " +
+					nearestMaxCount + ".";
+			log.warn(errorMessage);
+			throw new PmServerException(HttpStatus.BAD_REQUEST, errorMessage);
+		}
 
-			if(!pacdot.isEaten()) {
-				PacdotUneatenResponse pacdotResponse = new PacdotUneatenResponse();
+		Coordinate location = new Coordinate(lat, lon);
+		List<PacdotNearestResponse> responseList = new ArrayList<>();
+		for(Pacdot pacdot :
+				pacdotManager.getNearestUneatenPacdots(location, k)) {
 
-				LocationResponse locationResponse = new LocationResponse();
-				locationResponse.setLatitude(pacdot.getLocation().getLatitude());
-				locationResponse.setLongitude(pacdot.getLocation().getLongitude());
-				pacdotResponse.setLocation(locationResponse);
-				pacdotResponse.setPowerdot(pacdot.isPowerdot());
+			LocationResponse locationResponse = new LocationResponse();
+			locationResponse.setLatitude(pacdot.getLocation().getLatitude());
+			locationResponse.setLongitude(pacdot.getLocation().getLongitude());
 
-				responseList.add(pacdotResponse);
-			}
-		}
+			PacdotNearestResponse pacdotResponse = new PacdotNearestResponse();
+			pacdotResponse.setLocation(locationResponse);
+			pacdotResponse.setPowerdot(pacdot.isPowerdot());
+			pacdotResponse.setDistance(Math.hypot(
+					pacdot.getLocation().getLatitude() - lat,
+					pacdot.getLocation().getLongitude() - lon
+			));
 
-		String objectString = JsonUtils.objectToJson(responseList);
-		if(objectString != null) {
-			log.trace("Returning uneaten pacdots: {}", objectString);
+			responseList.add(pacdotResponse);
 		}
 
 		return ResponseEntity
@@ -90,30 +238,363 @@ public class PacdotController {
 				.body(responseList);
 	}
 
+	/**
+	 * Lists the uneaten pacdots in a slippy map tile, so clients only fetch
+	 * the pacdots on screen.
+	 *
+	 * <p>
+	 *     Each tile has its own version, which only changes when a pacdot
+	 *     in the tile is eaten or the pacdots are reset or replaced, and
+	 *     which is sent as the tile's ETag. Sending it back in
+	 *     <code>If-None-Match</code> answers 304 Not Modified until the
+	 *     tile changes. Encoded bodies are cached per tile and content
+	 *     coding until the tile's version changes.
+	 * </p>
+	 */
+	@RequestMapping(
+			value="/tiles/{zoom}/{x}/{y}",
+			method=RequestMethod.GET,
+			produces={ "application/json" }
+	)
+	public ResponseEntity<byte[]> getPacdotTile(
+			@PathVariable int zoom,
+			@PathVariable int x,
+			@PathVariable int y,
+			@RequestHeader(value="If-None-Match", required=false)
+					String ifNoneMatch,
+			@RequestHeader(value="Accept-Encoding", required=false)
+					String acceptEncoding)
+			throws PmServerException {
+
+		log.info("Mapped GET /pacdots/tiles/{}/{}/{}", zoom, x, y);
+
+		if(zoom < 0 || zoom > tilesMaxZoom) {
+			String errorMessage = "The zoom level must be from 0 to " +
+					tilesMaxZoom + ".";
+			log.warn(errorMessage);
+			throw new PmServerException(HttpStatus.BAD_REQUEST, errorMessage);
+		}
+		if(x < 0 || x >= 1 << zoom || y < 0 || y >= 1 << zoom) {
+			String errorMessage = "The tile's x and y must be from 0 to " +
+					((1 << zoom) - 1) + " at zoom level " + zoom + ".";
+			log.warn(errorMessage);
+			throw new PmServerException(HttpStatus.BAD_REQUEST, errorMessage);
+		}
+
+		long version = pacdotManager.getTileVersion(zoom, x, y);
+		String eTag = "W/\"" + version + "\"";
+		if(matchesETag(ifNoneMatch, eTag)) {
+			log.debug("Tile {}/{}/{} not modified", zoom, x, y);
+			HttpHeaders headers = new HttpHeaders();
+			headers.setETag(eTag);
+			headers.set(HttpHeaders.VARY, "Accept-Encoding");
+			return new ResponseEntity<>(headers, HttpStatus.NOT_MODIFIED);
+		}
+
+		ContentCoding coding = ContentCoding.negotiate(acceptEncoding);
+		Supplier<byte[]> json =
+				() -> toJsonBytes(tileResponse(zoom, x, y, version));
+
+		byte[] body;
+		if(isTileInBounds(zoom, x, y)) {
+			long key = tileKey(zoom, x, y);
+			if(tileBodies.size() >= tilesCacheSize &&
+					!tileBodies.containsKey(key)) {
+				log.debug("Tile cache full; emptying it");
+				tileBodies.clear();
+			}
+			VersionedResponseCache cache = tileBodies.computeIfAbsent(
+					key,
+					tileKey -> new VersionedResponseCache(
+							ContentCoding.values().length
+					)
+			);
+			body = cache.get(
+					version, coding.ordinal(),
+					() -> coding.encode(cache.get(
+							version, ContentCoding.IDENTITY.ordinal(), json
+					))
+			);
+		}
+		else {
+			// Tiles without pacdots are not cached, so requests for them
+			// cannot fill the cache
+			body = coding.encode(json.get());
+		}
+
+		ResponseEntity.BodyBuilder builder = ResponseEntity
+				.status(HttpStatus.OK)
+				.contentType(MediaType.APPLICATION_JSON)
+				.eTag(eTag)
+				.cacheControl(CacheControl.noCache())
+				.header(HttpHeaders.VARY, "Accept-Encoding");
+		if(coding.getToken() != null) {
+			builder.header(HttpHeaders.CONTENT_ENCODING, coding.getToken());
+		}
+		return builder.body(body);
+	}
+
+	private PacdotTileResponse tileResponse(
+			int zoom, int x, int y, long version) {
+
+		List<PacdotUneatenResponse> pacdotResponses = new ArrayList<>();
+		for(Pacdot pacdot :
+				pacdotManager.getUneatenPacdotsInTile(zoom, x, y)) {
+
+			LocationResponse locationResponse = new LocationResponse();
+			locationResponse.setLatitude(pacdot.getLocation().getLatitude());
+			locationResponse.setLongitude(pacdot.getLocation().getLongitude());
+
+			PacdotUneatenResponse pacdotResponse = new PacdotUneatenResponse();
+			pacdotResponse.setLocation(locationResponse);
+			pacdotResponse.setPowerdot(pacdot.isPowerdot());
+
+			pacdotResponses.add(pacdotResponse);
+		}
+
+		PacdotTileResponse response = new PacdotTileResponse();
+		response.setZoom(zoom);
+		response.setX(x);
+		response.setY(y);
+		response.setVersion(version);
+		response.setPacdots(pacdotResponses);
+		return response;
+	}
+
+	private boolean isTileInBounds(int zoom, int x, int y) {
+		PacdotDensityTree density = pacdotManager.getDensity();
+		return GeoUtils.tileWest(x, zoom) <= density.getEast() &&
+				GeoUtils.tileWest(x + 1, zoom) >= density.getWest() &&
+				GeoUtils.tileNorth(y + 1, zoom) <= density.getNorth() &&
+				GeoUtils.tileNorth(y, zoom) >= density.getSouth();
+	}
+
+	/**
+	 * Packs a tile into 5 bits of zoom level and 29 bits each of x and y,
+	 * which holds every tile down to
+	 * {@link com.pm.server.datatype.PacdotTileVersions#MAX_ZOOM}.
+	 */
+	private static long tileKey(int zoom, int x, int y) {
+		return ((long) zoom << 58) | ((long) x << 29) | y;
+	}
+
+	/**
+	 * Compares ETags weakly, as for <code>If-None-Match</code>.
+	 */
+	private static boolean matchesETag(String ifNoneMatch, String eTag) {
+		if(ifNoneMatch == null) {
+			return false;
+		}
+		String opaqueTag = eTag.substring(eTag.indexOf('"'));
+		for(String tag : ifNoneMatch.split(",")) {
+			tag = tag.trim();
+			if(tag.equals("*") ||
+					tag.substring(tag.indexOf('"') + 1).equals(
+							opaqueTag.substring(1))) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Like {@link #getAllPacdots(String, String)}, but only lists the
+	 * pacdots which are not eaten, and has no columnar profile.
+	 */
+	@RequestMapping(
+			value="/uneaten",
+			method=RequestMethod.GET,
+			produces={ "application/json" }
+	)
+	public ResponseEntity<byte[]> getUneatenPacdots(
+			@RequestHeader(value="Accept-Encoding", required=false)
+					String acceptEncoding) {
+
+		log.info("Mapped GET /pacdots/uneaten");
+
+		return encodedResponse(
+				UNEATEN_SLOT,
+				ContentCoding.negotiate(acceptEncoding),
+				MediaType.APPLICATION_JSON,
+				() -> {
+					List<PacdotUneatenResponse> responseList = new ArrayList<>();
+					for(Pacdot pacdot : pacdotManager.getInformationOfAllPacdots()) {
+						if(!pacdot.isEaten()) {
+							PacdotUneatenResponse pacdotResponse =
+									new PacdotUneatenResponse();
+
+							LocationResponse locationResponse =
+									new LocationResponse();
+							locationResponse.setLatitude(
+									pacdot.getLocation().getLatitude()
+							);
+							locationResponse.setLongitude(
+									pacdot.getLocation().getLongitude()
+							);
+							pacdotResponse.setLocation(locationResponse);
+							pacdotResponse.setPowerdot(pacdot.isPowerdot());
+
+							responseList.add(pacdotResponse);
+						}
+					}
+					return responseList;
+				}
+		);
+	}
+
+	/**
+	 * Lists every pacdot.
+	 *
+	 * <p>
+	 *     The body is compressed with gzip or deflate when the client
+	 *     accepts it. Sending
+	 *     <code>Accept: application/json;profile=columnar</code> selects the
+	 *     compact {@link PacdotColumnarResponse} instead of a list of
+	 *     {@link PacdotResponse}s. Each encoded body is cached until a
+	 *     pacdot next changes, so repeated polls are not re-serialized or
+	 *     recompressed.
+	 * </p>
+	 */
 	@RequestMapping(
 			value="",
 			method=RequestMethod.GET,
 			produces={ "application/json" }
 	)
-	public ResponseEntity<List<PacdotResponse>>
-			getAllPacdots() {
+	public ResponseEntity<byte[]> getAllPacdots(
+			@RequestHeader(value="Accept", required=false) String accept,
+			@RequestHeader(value="Accept-Encoding", required=false)
+					String acceptEncoding) {
 
 		log.info("Mapped GET /pacdots");
 
-		List<PacdotResponse> responseList = new ArrayList<>();
+		ContentCoding coding = ContentCoding.negotiate(acceptEncoding);
+
+		if(acceptsProfile(accept, COLUMNAR_PROFILE)) {
+			return encodedResponse(
+					COLUMNAR_SLOT, coding, COLUMNAR_MEDIA_TYPE,
+					this::columnarResponse
+			);
+		}
+
+		return encodedResponse(
+				ALL_SLOT, coding, MediaType.APPLICATION_JSON,
+				() -> {
+					List<PacdotResponse> responseList = new ArrayList<>();
+					for(Pacdot pacdot : pacdotManager.getInformationOfAllPacdots()) {
+						responseList.add(new PacdotResponse(pacdot));
+					}
+					return responseList;
+				}
+		);
+	}
+
+	private PacdotColumnarResponse columnarResponse() {
+
 		List<Pacdot> pacdotList = pacdotManager.getInformationOfAllPacdots();
-		for(Pacdot pacdot : pacdotList) {
-			responseList.add(new PacdotResponse(pacdot));
+		int count = pacdotList.size();
+
+		double[] latitudes = new double[count];
+		double[] longitudes = new double[count];
+		byte[] eaten = new byte[(count + 7) / 8];
+		byte[] powerdots = new byte[(count + 7) / 8];
+		for(int i = 0; i < count; i++) {
+			Pacdot pacdot = pacdotList.get(i);
+			latitudes[i] = pacdot.getLocation().getLatitude();
+			longitudes[i] = pacdot.getLocation().getLongitude();
+			if(pacdot.isEaten()) {
+				eaten[i >> 3] |= 1 << (i & 7);
+			}
+			if(pacdot.isPowerdot()) {
+				powerdots[i >> 3] |= 1 << (i & 7);
+			}
+		}
+
+		PacdotColumnarResponse response = new PacdotColumnarResponse();
+		response.setVersion(pacdotManager.getVersion());
+		response.setCount(count);
+		response.setLatitudes(latitudes);
+		response.setLongitudes(longitudes);
+		response.setEaten(Base64.getEncoder().encodeToString(eaten));
+		response.setPowerdots(Base64.getEncoder().encodeToString(powerdots));
+		return response;
+	}
+
+	/**
+	 * Serves a body from the cache, encoding it first if the pacdots have
+	 * changed since it was cached.
+	 *
+	 * @param slot First cache slot of the representation; one slot is used
+	 *             per content coding
+	 */
+	private ResponseEntity<byte[]> encodedResponse(
+			int slot, ContentCoding coding, MediaType mediaType,
+			Supplier<Object> response) {
+
+		long version = pacdotManager.getVersion();
+		byte[] body = encodedBodies.get(
+				version, slot + coding.ordinal(),
+				() -> coding.encode(encodedBodies.get(
+						version, slot + ContentCoding.IDENTITY.ordinal(),
+						() -> toJsonBytes(response.get())
+				))
+		);
+		log.debug(
+				"Returning {} bytes of pacdots (version {}, {})",
+				body.length, version, coding
+		);
+
+		ResponseEntity.BodyBuilder builder = ResponseEntity
+				.status(HttpStatus.OK)
+				.contentType(mediaType)
+				.header(HttpHeaders.VARY, "Accept, Accept-Encoding");
+		if(coding.getToken() != null) {
+			builder.header(HttpHeaders.CONTENT_ENCODING, coding.getToken());
+		}
+		return builder.body(body);
+	}
+
+	private static byte[] toJsonBytes(Object response) {
+		try {
+			return objectMapper.writeValueAsBytes(response);
 		}
+		catch(JsonProcessingException e) {
+			// Response types always serialize
+			throw new IllegalStateException(e);
+		}
+	}
 
-		String objectString = JsonUtils.objectToJson(responseList);
-		if(objectString != null) {
-			log.trace("Returning pacdot details: {}", objectString);
+	private static boolean acceptsProfile(String accept, String profile) {
+		if(accept == null) {
+			return false;
+		}
+		try {
+			for(MediaType mediaType : MediaType.parseMediaTypes(accept)) {
+				String value = mediaType.getParameter("profile");
+				if(value != null &&
+						profile.equals(value.replace("\"", ""))) {
+					return true;
+				}
+			}
+		}
+		catch(InvalidMediaTypeException e) {
+			log.debug("Ignoring invalid Accept header: {}", accept);
 		}
+		return false;
+	}
+
+	private ResponseEntity<PacdotCountResponse> pacdotCountResponse() {
+		PacdotCountResponse countResponse = new PacdotCountResponse();
+		countResponse.setTotal(pacdotManager.getTotalCount());
+		countResponse.setEaten(pacdotManager.getTotalCount() -
+				pacdotManager.getUneatenCount());
+		countResponse.setUneaten(pacdotManager.getUneatenCount());
+		countResponse.setUneatenPowerdots(
+				pacdotManager.getUneatenPowerdotCount()
+		);
 
 		return ResponseEntity
 				.status(HttpStatus.OK)
-				.body(responseList);
+				.body(countResponse);
 	}
 
 }
@@ -1,20 +1,27 @@
 package com.pm.server.controller;
 
+import com.pm.server.GameLoop;
 import com.pm.server.PmServerException;
 import com.pm.server.datatype.Coordinate;
 import com.pm.server.datatype.Player;
+import com.pm.server.datatype.Trajectory;
+import com.pm.server.manager.LocationManager;
+import com.pm.server.manager.LongPollManager;
 import com.pm.server.registry.PlayerRegistry;
 import com.pm.server.request.LocationRequest;
 import com.pm.server.request.StateRequest;
 import com.pm.server.response.*;
 import com.pm.server.utils.JsonUtils;
+import com.pm.server.utils.LongPollUtils;
 import com.pm.server.utils.ValidationUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -26,6 +33,18 @@ public class PlayerController {
 	@Autowired
 	private PlayerRegistry playerRegistry;
 
+	@Autowired
+	private GameLoop gameLoop;
+
+	@Autowired
+	private LocationManager locationManager;
+
+	@Autowired
+	private LongPollManager longPollManager;
+
+	@Value("${longpoll.timeout.millis}")
+	private Long longPollTimeoutMillis;
+
 	private final static Logger log =
 			LogManager.getLogger(PlayerController.class.getName());
 
@@ -54,17 +73,20 @@ public class PlayerController {
 				location.getLongitude()
 		);
 
-		if(playerRegistry.getPlayerState(name) != Player.State.UNINITIALIZED) {
-			String errorMessage =
-					"Player "+
-					name +
-					" has already been selected.";
-			log.warn(errorMessage);
-			throw new PmServerException(HttpStatus.CONFLICT, errorMessage);
-		}
-
-		playerRegistry.setPlayerLocationByName(name, location);
-		playerRegistry.setPlayerStateByName(name, Player.State.READY);
+		gameLoop.call(() -> {
+			if(playerRegistry.getPlayerState(name) != Player.State.UNINITIALIZED) {
+				String errorMessage =
+						"Player "+
+						name +
+						" has already been selected.";
+				log.warn(errorMessage);
+				throw new PmServerException(HttpStatus.CONFLICT, errorMessage);
+			}
+
+			playerRegistry.setPlayerLocationByName(name, location);
+			playerRegistry.setPlayerStateByName(name, Player.State.READY);
+			return null;
+		});
 
 		return ResponseEntity.status(HttpStatus.OK).body(null);
 	}
@@ -82,34 +104,37 @@ public class PlayerController {
 
 		Player.Name name = ValidationUtils.validateRequestWithName(playerName);
 
-		if(playerRegistry.getPlayerState(name) == Player.State.UNINITIALIZED) {
-			String errorMessage =
-					"Player "+
-					name +
-					" has not yet been selected.";
-			log.warn(errorMessage);
-			throw new PmServerException(HttpStatus.BAD_REQUEST, errorMessage);
-		}
-
-		try {
-			playerRegistry.setPlayerStateByName(
-					name, Player.State.UNINITIALIZED
-			);
-		}
-		catch(Exception e) {
-			String errorMessage =
-					"Player " +
-					name +
-					" could not be deselected.";
-			log.warn(errorMessage);
-			throw new PmServerException(
-					HttpStatus.INTERNAL_SERVER_ERROR, errorMessage
-			);
-		}
-		log.info("Player {} was succesfully deselected", name);
-
-		log.debug("Setting Player {} to default location", name);
-		playerRegistry.resetLocationOf(name);
+		gameLoop.call(() -> {
+			if(playerRegistry.getPlayerState(name) == Player.State.UNINITIALIZED) {
+				String errorMessage =
+						"Player "+
+						name +
+						" has not yet been selected.";
+				log.warn(errorMessage);
+				throw new PmServerException(HttpStatus.BAD_REQUEST, errorMessage);
+			}
+
+			try {
+				playerRegistry.setPlayerStateByName(
+						name, Player.State.UNINITIALIZED
+				);
+			}
+			catch(Exception e) {
+				String errorMessage =
+						"Player " +
+						name +
+						" could not be deselected.";
+				log.warn(errorMessage);
+				throw new PmServerException(
+						HttpStatus.INTERNAL_SERVER_ERROR, errorMessage
+				);
+			}
+			log.info("Player {} was succesfully deselected", name);
+
+			log.debug("Setting Player {} to default location", name);
+			playerRegistry.resetLocationOf(name);
+			return null;
+		});
 
 		return ResponseEntity.status(HttpStatus.OK).body(null);
 	}
@@ -140,6 +165,46 @@ public class PlayerController {
 		return ResponseEntity.status(HttpStatus.OK).body(locationResponse);
 	}
 
+	/**
+	 * @param since Only fixes recorded after this time, in milliseconds
+	 *              since the epoch, are returned; pass the time of the last
+	 *              fix received to poll for new ones
+	 */
+	@RequestMapping(
+			value="/{playerName}/trail",
+			method=RequestMethod.GET,
+			produces={ "application/json" }
+	)
+	public ResponseEntity<TrailResponse> getPlayerTrail(
+			@PathVariable String playerName,
+			@RequestParam(defaultValue = "0") long since)
+			throws PmServerException {
+
+		log.info("Mapped GET /player/{}/trail?since={}", playerName, since);
+
+		Player.Name name = ValidationUtils.validateRequestWithName(playerName);
+		Trajectory trail = playerRegistry.getPlayerTrail(name);
+
+		TrailResponse trailResponse;
+		synchronized(trail) {
+			trailResponse = new TrailResponse(trail.countSince(since));
+			int[] i = { 0 };
+			trail.forEachSince(since, (time, latitude, longitude) -> {
+				trailResponse.getTimes()[i[0]] = time;
+				trailResponse.getLatitudes()[i[0]] = latitude;
+				trailResponse.getLongitudes()[i[0]] = longitude;
+				i[0]++;
+			});
+		}
+
+		log.debug(
+				"Returning {} fixes of Player {}",
+				trailResponse.getTimes().length, name
+		);
+
+		return ResponseEntity.status(HttpStatus.OK).body(trailResponse);
+	}
+
 	@RequestMapping(
 			value="/locations",
 			method=RequestMethod.GET,
@@ -195,6 +260,48 @@ public class PlayerController {
 		return ResponseEntity.status(HttpStatus.OK).body(playerStateResponse);
 	}
 
+	/**
+	 * Long-poll variant of {@link #getPlayerState(String)} which responds
+	 * once the state of the player is different from the given state, or
+	 * with the current state after the long-poll timeout. No request thread
+	 * is held while waiting.
+	 */
+	@RequestMapping(
+			value="/{playerName}/state",
+			method=RequestMethod.GET,
+			params="waitForChangeFrom",
+			produces={ "application/json" }
+	)
+	public DeferredResult<ResponseEntity<PlayerStateResponse>>
+			waitForPlayerStateChange(
+					@PathVariable String playerName,
+					@RequestParam String waitForChangeFrom)
+			throws PmServerException {
+
+		log.info(
+				"Mapped GET /player/{}/state?waitForChangeFrom={}",
+				playerName, waitForChangeFrom
+		);
+
+		Player.Name name = ValidationUtils.validateRequestWithName(playerName);
+		Player.State from = ValidationUtils
+				.validateRequestParamWithState(waitForChangeFrom);
+
+		return LongPollUtils.toDeferredResult(
+				longPollManager.waitForPlayerStateChange(name, from),
+				longPollTimeoutMillis,
+				() -> playerRegistry.getPlayerState(name),
+				state -> {
+					PlayerStateResponse playerStateResponse =
+							new PlayerStateResponse();
+					playerStateResponse.setState(state);
+					return ResponseEntity
+							.status(HttpStatus.OK)
+							.body(playerStateResponse);
+				}
+		);
+	}
+
 	@RequestMapping(
 			value="/states",
 			method=RequestMethod.GET,
@@ -241,7 +348,8 @@ public class PlayerController {
 			playerResponseList.add(new PlayerDetailsResponse(
 					name,
 					playerRegistry.getPlayerState(name),
-					playerRegistry.getPlayerLocation(name)
+					playerRegistry.getPlayerLocation(name),
+					playerRegistry.isPlayerOutOfBounds(name)
 			));
 		}
 
@@ -279,11 +387,7 @@ public class PlayerController {
 			throw new PmServerException(HttpStatus.CONFLICT, errorMessage);
 		}
 
-		log.info(
-				"Setting Player {} to ({}, {})",
-				name, location.getLatitude(), location.getLongitude()
-		);
-		playerRegistry.setPlayerLocationByName(name, location);
+		locationManager.setPlayerLocation(name, location);
 
 		return ResponseEntity.status(HttpStatus.OK).body(null);
 	}
@@ -306,41 +410,44 @@ public class PlayerController {
 		Player.State newState =
 				ValidationUtils.validateRequestBodyWithState(stateRequest);
 
-		Player.State currentState = playerRegistry.getPlayerState(name);
-
-		// Illegal state changes
-		if(currentState == Player.State.UNINITIALIZED &&
-				currentState != newState) {
-			String errorMessage =
-					"This operation cannot change the state of an unselected/" +
-					"uninitialized player; use POST /player/{playerName} " +
-					"instead.";
-			log.warn(errorMessage);
-			throw new PmServerException(HttpStatus.CONFLICT, errorMessage);
-		}
-		else if(newState == Player.State.UNINITIALIZED &&
-				newState != currentState) {
-			String errorMessage =
-					"This operation cannot change the state of a selected/" +
-					"initialized player to uninitialized; use " +
-					"DELETE /player/{playerName} instead.";
-			log.warn(errorMessage);
-			throw new PmServerException(HttpStatus.CONFLICT, errorMessage);
-		}
-
-		// Illegal player states
-		if(name != Player.Name.Pacman &&
-				newState == Player.State.POWERUP) {
-			String errorMessage = "The POWERUP state is not valid for a Ghost.";
-			log.warn(errorMessage);
-			throw new PmServerException(HttpStatus.CONFLICT, errorMessage);
-		}
+		gameLoop.call(() -> {
+			Player.State currentState = playerRegistry.getPlayerState(name);
+
+			// Illegal state changes
+			if(currentState == Player.State.UNINITIALIZED &&
+					currentState != newState) {
+				String errorMessage =
+						"This operation cannot change the state of an unselected/" +
+						"uninitialized player; use POST /player/{playerName} " +
+						"instead.";
+				log.warn(errorMessage);
+				throw new PmServerException(HttpStatus.CONFLICT, errorMessage);
+			}
+			else if(newState == Player.State.UNINITIALIZED &&
+					newState != currentState) {
+				String errorMessage =
+						"This operation cannot change the state of a selected/" +
+						"initialized player to uninitialized; use " +
+						"DELETE /player/{playerName} instead.";
+				log.warn(errorMessage);
+				throw new PmServerException(HttpStatus.CONFLICT, errorMessage);
+			}
+
+			// Illegal player states
+			if(name != Player.Name.Pacman &&
+					newState == Player.State.POWERUP) {
+				String errorMessage = "The POWERUP state is not valid for a Ghost.";
+				log.warn(errorMessage);
+				throw new PmServerException(HttpStatus.CONFLICT, errorMessage);
+			}
 
-		log.info(
-				"Changing Player {} from state {} to {}",
-				name, currentState, newState
-		);
-		playerRegistry.setPlayerStateByName(name, newState);
+			log.info(
+					"Changing Player {} from state {} to {}",
+					name, currentState, newState
+			);
+			playerRegistry.setPlayerStateByName(name, newState);
+			return null;
+		});
 
 		return ResponseEntity.status(HttpStatus.OK).body(null);
 	}
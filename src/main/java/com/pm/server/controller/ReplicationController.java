@@ -0,0 +1,141 @@
+package com.pm.server.controller;
+
+import com.pm.server.replication.ReplicationFollower;
+import com.pm.server.replication.ReplicationLog;
+import com.pm.server.response.ReplicationStatusResponse;
+import com.pm.server.utils.BroadcastHub;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.OutputStream;
+
+@RestController
+@RequestMapping("/replication")
+public class ReplicationController {
+
+	private static final MediaType NDJSON =
+			MediaType.valueOf("application/x-ndjson");
+
+	private ReplicationLog replicationLog;
+
+	private ReplicationFollower replicationFollower;
+
+	private final static Logger log =
+			LogManager.getLogger(ReplicationController.class.getName());
+
+	@Autowired
+	public ReplicationController(
+			ReplicationLog replicationLog,
+			ReplicationFollower replicationFollower) {
+		this.replicationLog = replicationLog;
+		this.replicationFollower = replicationFollower;
+	}
+
+	/**
+	 * Streams this server's replication log, one
+	 * {@link com.pm.server.replication.ReplicationEntry} per line of JSON.
+	 * The stream starts with a snapshot of the game and stays open. A
+	 * standby acknowledges what it receives with {@link #acknowledge(long)}.
+	 */
+	@RequestMapping(
+			value="/stream",
+			method=RequestMethod.GET,
+			produces={ "application/x-ndjson" }
+	)
+	public ResponseBodyEmitter stream(
+			@RequestParam(defaultValue = "false") boolean standby) {
+
+		log.info("Mapped GET /replication/stream?standby={}", standby);
+
+		ResponseBodyEmitter emitter = new ResponseBodyEmitter(0L);
+		BroadcastHub.FrameSink sink = new BroadcastHub.FrameSink() {
+			@Override
+			public void send(byte[] frame) throws IOException {
+				emitter.send(frame, NDJSON);
+			}
+
+			@Override
+			public void close() {
+				emitter.complete();
+			}
+		};
+
+		emitter.onCompletion(() -> replicationLog.unsubscribe(sink));
+		emitter.onTimeout(() -> replicationLog.unsubscribe(sink));
+		replicationLog.subscribe(sink, standby);
+
+		return emitter;
+	}
+
+	/**
+	 * Responds with a snapshot of the game, in the same form as the start
+	 * of {@link #stream()}.
+	 */
+	@RequestMapping(
+			value="/snapshot",
+			method=RequestMethod.GET,
+			produces={ "application/x-ndjson" }
+	)
+	public void getSnapshot(HttpServletResponse response) throws IOException {
+
+		log.info("Mapped GET /replication/snapshot");
+
+		response.setContentType(NDJSON.toString());
+		OutputStream body = response.getOutputStream();
+		for(byte[] frame : replicationLog.snapshot()) {
+			body.write(frame);
+		}
+	}
+
+	@RequestMapping(
+			value="/ack",
+			method=RequestMethod.POST
+	)
+	@SuppressWarnings("rawtypes")
+	public ResponseEntity acknowledge(@RequestParam long seq) {
+
+		log.debug("Mapped POST /replication/ack?seq={}", seq);
+
+		replicationLog.acknowledge(seq);
+		return ResponseEntity.status(HttpStatus.OK).body(null);
+	}
+
+	@RequestMapping(
+			value="/status",
+			method=RequestMethod.GET,
+			produces={ "application/json" }
+	)
+	public ResponseEntity<ReplicationStatusResponse> getStatus() {
+
+		log.info("Mapped GET /replication/status");
+
+		ReplicationStatusResponse status = new ReplicationStatusResponse();
+		status.setFollowers(replicationLog.getFollowerCount());
+		if(replicationFollower.isFollower()) {
+			status.setRole("follower");
+			status.setSeq(replicationFollower.getAppliedSeq());
+			status.setConnected(replicationFollower.isConnected());
+			status.setLagMillis(replicationFollower.getLagMillis());
+		}
+		else {
+			status.setRole("primary");
+			status.setSeq(replicationLog.getSeq());
+		}
+
+		return ResponseEntity
+				.status(HttpStatus.OK)
+				.body(status);
+	}
+
+}
@@ -0,0 +1,72 @@
+package com.pm.server.controller;
+
+import com.pm.server.manager.SpectatorManager;
+import com.pm.server.utils.BroadcastHub;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+
+@RestController
+@RequestMapping("/spectate")
+public class SpectatorController {
+
+	private SpectatorManager spectatorManager;
+
+	private Long spectatorTimeoutMillis;
+
+	private final static Logger log =
+			LogManager.getLogger(SpectatorController.class.getName());
+
+	@Autowired
+	public SpectatorController(
+			SpectatorManager spectatorManager,
+			@Value("${spectator.timeout.millis}") Long spectatorTimeoutMillis) {
+		this.spectatorManager = spectatorManager;
+		this.spectatorTimeoutMillis = spectatorTimeoutMillis;
+	}
+
+	/**
+	 * Streams snapshots of the game as server-sent events, each a
+	 * {@link com.pm.server.response.SpectatorFrameResponse}. The stream
+	 * starts with the latest snapshot and continues with each change.
+	 */
+	@RequestMapping(
+			value="",
+			method=RequestMethod.GET,
+			produces={ "text/event-stream" }
+	)
+	public SseEmitter spectate() {
+
+		log.info("Mapped GET /spectate");
+
+		SseEmitter emitter = new SseEmitter(spectatorTimeoutMillis);
+		BroadcastHub.FrameSink sink = new BroadcastHub.FrameSink() {
+			@Override
+			public void send(byte[] frame) throws IOException {
+				emitter.send(SseEmitter.event()
+						.data(frame, MediaType.APPLICATION_JSON)
+				);
+			}
+
+			@Override
+			public void close() {
+				emitter.complete();
+			}
+		};
+
+		emitter.onCompletion(() -> spectatorManager.unsubscribe(sink));
+		emitter.onTimeout(() -> spectatorManager.unsubscribe(sink));
+		spectatorManager.subscribe(sink);
+
+		return emitter;
+	}
+
+}
@@ -1,5 +1,6 @@
 package com.pm.server.controller;
 
+import com.pm.server.GameLoop;
 import com.pm.server.PmServerException;
 import com.pm.server.datatype.Player;
 import com.pm.server.manager.TagManager;
@@ -19,12 +20,15 @@ public class TagController {
 
 	private TagManager tagManager;
 
+	private GameLoop gameLoop;
+
 	private final static Logger log =
 			LogManager.getLogger(TagController.class.getName());
 
 	@Autowired
-	public TagController(TagManager tagManager) {
+	public TagController(TagManager tagManager, GameLoop gameLoop) {
 		this.tagManager = tagManager;
+		this.gameLoop = gameLoop;
 	}
 
 	@RequestMapping(
@@ -55,7 +59,12 @@ public class TagController {
 		Player.Name destinationPlayer = ValidationUtils
 				.validateTagSourceDestination(requestBody.getDestination());
 
-		tagManager.registerTag(reporterPlayer, sourcePlayer, destinationPlayer);
+		gameLoop.call(() -> {
+			tagManager.registerTag(
+					reporterPlayer, sourcePlayer, destinationPlayer
+			);
+			return null;
+		});
 
 		log.info("Tag submitted.");
 		return ResponseEntity.status(HttpStatus.CREATED).body(null);
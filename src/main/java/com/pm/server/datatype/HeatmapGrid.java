@@ -0,0 +1,201 @@
+package com.pm.server.datatype;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Counts of player locations in each cell of a fixed grid over a map,
+ * which any number of threads may add to at once.
+ *
+ * <p>
+ *     Like {@link java.util.concurrent.atomic.LongAdder}, the counts are
+ *     striped: each thread adds to one of several copies of the grid,
+ *     chosen by thread, so threads on different cores rarely contend for
+ *     the same cache lines. A copy is only allocated once a thread adds to
+ *     it. Reading the counts sums the copies, which may miss additions made
+ *     while it reads.
+ * </p>
+ * <p>
+ *     Cells are listed row by row from the south west, so the cell in row
+ *     <code>r</code> and column <code>c</code> is at index
+ *     <code>r * columns + c</code>, as in {@link PacdotDensityTree}.
+ * </p>
+ */
+public class HeatmapGrid {
+
+	private final double south;
+	private final double west;
+	private final double north;
+	private final double east;
+
+	private final int rows;
+	private final int columns;
+
+	private final AtomicReferenceArray<AtomicIntegerArray> stripes;
+
+	/**
+	 * @param stripes Number of copies of the grid, rounded up to a power of
+	 *                two
+	 * @throws IllegalArgumentException if there are no rows, columns or
+	 *                                  stripes
+	 */
+	public HeatmapGrid(
+			double south, double west, double north, double east,
+			int rows, int columns, int stripes)
+			throws IllegalArgumentException {
+
+		if(rows <= 0 || columns <= 0 || stripes <= 0) {
+			throw new IllegalArgumentException(
+					"A heatmap requires at least one row, column and stripe."
+			);
+		}
+
+		this.south = south;
+		this.west = west;
+		this.north = north;
+		this.east = east;
+		this.rows = rows;
+		this.columns = columns;
+
+		int stripeCount = Integer.highestOneBit(stripes);
+		if(stripeCount < stripes) {
+			stripeCount <<= 1;
+		}
+		this.stripes = new AtomicReferenceArray<>(stripeCount);
+	}
+
+	/**
+	 * Counts a location in the cell containing it; locations outside the
+	 * grid are not counted.
+	 */
+	public void add(double latitude, double longitude) {
+
+		int row = cellOf(latitude, south, north, rows);
+		int column = cellOf(longitude, west, east, columns);
+		if(row < 0 || column < 0) {
+			return;
+		}
+
+		stripe().incrementAndGet(row * columns + column);
+	}
+
+	/**
+	 * Adds a count to each cell, e.g. the counts of another grid with the
+	 * same bounds, rows and columns.
+	 *
+	 * @param counts One count per cell, in the order of {@link #getCounts()}
+	 * @throws IllegalArgumentException if there is not one count per cell
+	 */
+	public void addCounts(int[] counts) throws IllegalArgumentException {
+
+		if(counts.length != rows * columns) {
+			throw new IllegalArgumentException(
+					"Expected " + rows * columns + " counts but got " +
+					counts.length + "."
+			);
+		}
+
+		AtomicIntegerArray stripeCounts = stripe();
+		for(int cell = 0; cell < counts.length; cell++) {
+			if(counts[cell] != 0) {
+				stripeCounts.addAndGet(cell, counts[cell]);
+			}
+		}
+	}
+
+	/**
+	 * @return The count of each cell, summed over every stripe
+	 */
+	public int[] getCounts() {
+		int[] counts = new int[rows * columns];
+		for(int stripe = 0; stripe < stripes.length(); stripe++) {
+			AtomicIntegerArray stripeCounts = stripes.get(stripe);
+			if(stripeCounts == null) {
+				continue;
+			}
+			for(int cell = 0; cell < counts.length; cell++) {
+				counts[cell] += stripeCounts.get(cell);
+			}
+		}
+		return counts;
+	}
+
+	public double getSouth() {
+		return south;
+	}
+
+	public double getWest() {
+		return west;
+	}
+
+	public double getNorth() {
+		return north;
+	}
+
+	public double getEast() {
+		return east;
+	}
+
+	public int getRows() {
+		return rows;
+	}
+
+	public int getColumns() {
+		return columns;
+	}
+
+	/**
+	 * @return The number of stripes allocated so far
+	 */
+	public int getStripesInUse() {
+		int inUse = 0;
+		for(int stripe = 0; stripe < stripes.length(); stripe++) {
+			if(stripes.get(stripe) != null) {
+				inUse++;
+			}
+		}
+		return inUse;
+	}
+
+	/**
+	 * @return The copy of the grid the current thread adds to, allocated
+	 *         if it is the first to add to it
+	 */
+	private AtomicIntegerArray stripe() {
+		int stripe = (int) mix(Thread.currentThread().getId()) &
+				(stripes.length() - 1);
+		AtomicIntegerArray counts = stripes.get(stripe);
+		if(counts == null) {
+			stripes.compareAndSet(
+					stripe, null, new AtomicIntegerArray(rows * columns)
+			);
+			counts = stripes.get(stripe);
+		}
+		return counts;
+	}
+
+	/**
+	 * @return The cell containing the value, or -1 if it is outside the
+	 *         grid
+	 */
+	private static int cellOf(double value, double min, double max, int cells) {
+		if(!(value >= min && value <= max)) {
+			return -1;
+		}
+		if(max <= min) {
+			return 0;
+		}
+		int cell = (int) ((value - min) / (max - min) * cells);
+		// The maximum itself falls in the last cell
+		return Math.min(cell, cells - 1);
+	}
+
+	/**
+	 * Spreads sequential thread identifiers across the stripes.
+	 */
+	private static long mix(long value) {
+		value = (value ^ (value >>> 33)) * 0xff51afd7ed558ccdL;
+		return value ^ (value >>> 33);
+	}
+
+}
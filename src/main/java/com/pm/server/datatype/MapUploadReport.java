@@ -0,0 +1,32 @@
+package com.pm.server.datatype;
+
+public class MapUploadReport {
+
+    private final PacdotMap map;
+
+    private final int duplicates;
+
+    private final boolean activated;
+
+    public MapUploadReport(PacdotMap map, int duplicates, boolean activated) {
+        this.map = map;
+        this.duplicates = duplicates;
+        this.activated = activated;
+    }
+
+    public PacdotMap getMap() {
+        return map;
+    }
+
+    /**
+     * @return The number of locations dropped as duplicates
+     */
+    public int getDuplicates() {
+        return duplicates;
+    }
+
+    public boolean isActivated() {
+        return activated;
+    }
+
+}
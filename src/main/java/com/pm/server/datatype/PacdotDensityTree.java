@@ -0,0 +1,219 @@
+package com.pm.server.datatype;
+
+/**
+ * Counts of all and of uneaten pacdots over a fixed set of pacdot
+ * locations, kept for every cell of a quadtree over the locations' bounds,
+ * so the pacdots left in any region at any level of detail are known
+ * without looking at the pacdots.
+ *
+ * <p>
+ *     Level <code>k</code> divides the bounds into <code>2^k</code> rows by
+ *     <code>2^k</code> columns, each cell holding the four cells below it.
+ *     Counts are stored per level in primitive arrays, in Z order, so the
+ *     cell containing a pacdot at each level is its deepest cell's Z-order
+ *     code shifted right two bits per level up. Eating a pacdot updates
+ *     one counter per level.
+ * </p>
+ * <p>
+ *     Points are referred to by their index in the latitude/longitude arrays
+ *     given at construction, as in {@link PacdotGridIndex}.
+ * </p>
+ */
+public class PacdotDensityTree {
+
+	/**
+	 * Deepest level allowed. The counts take about 11 bytes per cell of the
+	 * deepest level, so level 10 takes about 11 MB and each level deeper
+	 * four times as much.
+	 */
+	public static final int MAX_LEVEL = 10;
+
+	private final int maxLevel;
+
+	private final double south;
+	private final double west;
+	private final double north;
+	private final double east;
+
+	/**
+	 * Z-order code of each point's cell at the deepest level.
+	 */
+	private final int[] leafOfPoint;
+
+	/**
+	 * Counts of all pacdots in each cell, indexed by level then Z order.
+	 */
+	private final int[][] totals;
+
+	/**
+	 * Counts of uneaten pacdots, laid out as {@link #totals}.
+	 */
+	private final int[][] uneaten;
+
+	/**
+	 * @param latitudes Latitudes of the points, indexed by point
+	 * @param longitudes Longitudes of the points, indexed by point
+	 * @param count Number of points, starting from index 0
+	 * @param maxLevel Deepest level of the tree, at most {@link #MAX_LEVEL}
+	 * @throws IllegalArgumentException if the deepest level is out of range
+	 */
+	public PacdotDensityTree(
+			double[] latitudes, double[] longitudes, int count, int maxLevel)
+			throws IllegalArgumentException {
+
+		if(maxLevel < 0 || maxLevel > MAX_LEVEL) {
+			throw new IllegalArgumentException(
+					"The deepest level of a density tree must be from 0 " +
+					"to " + MAX_LEVEL + "."
+			);
+		}
+		this.maxLevel = maxLevel;
+
+		double minLatitude = Double.POSITIVE_INFINITY;
+		double minLongitude = Double.POSITIVE_INFINITY;
+		double maxLatitude = Double.NEGATIVE_INFINITY;
+		double maxLongitude = Double.NEGATIVE_INFINITY;
+		for(int i = 0; i < count; i++) {
+			minLatitude = Math.min(minLatitude, latitudes[i]);
+			maxLatitude = Math.max(maxLatitude, latitudes[i]);
+			minLongitude = Math.min(minLongitude, longitudes[i]);
+			maxLongitude = Math.max(maxLongitude, longitudes[i]);
+		}
+		if(count == 0) {
+			minLatitude = maxLatitude = minLongitude = maxLongitude = 0;
+		}
+		south = minLatitude;
+		north = maxLatitude;
+		west = minLongitude;
+		east = maxLongitude;
+
+		totals = new int[maxLevel + 1][];
+		uneaten = new int[maxLevel + 1][];
+		for(int level = 0; level <= maxLevel; level++) {
+			totals[level] = new int[1 << (2 * level)];
+			uneaten[level] = new int[1 << (2 * level)];
+		}
+
+		int side = 1 << maxLevel;
+		leafOfPoint = new int[count];
+		for(int i = 0; i < count; i++) {
+			int row = cellOf(latitudes[i], south, north, side);
+			int column = cellOf(longitudes[i], west, east, side);
+			leafOfPoint[i] = interleave(row, column);
+			for(int level = 0; level <= maxLevel; level++) {
+				totals[level][leafOfPoint[i] >>> (2 * (maxLevel - level))]++;
+			}
+		}
+		reset();
+	}
+
+	/**
+	 * Counts the given point as eaten. The caller must only count each
+	 * point once until the tree is {@link #reset()}.
+	 */
+	public void eat(int point) {
+		int leaf = leafOfPoint[point];
+		for(int level = 0; level <= maxLevel; level++) {
+			uneaten[level][leaf >>> (2 * (maxLevel - level))]--;
+		}
+	}
+
+	/**
+	 * Counts every point as uneaten.
+	 */
+	public void reset() {
+		for(int level = 0; level <= maxLevel; level++) {
+			System.arraycopy(
+					totals[level], 0, uneaten[level], 0, totals[level].length
+			);
+		}
+	}
+
+	public int getMaxLevel() {
+		return maxLevel;
+	}
+
+	public double getSouth() {
+		return south;
+	}
+
+	public double getWest() {
+		return west;
+	}
+
+	public double getNorth() {
+		return north;
+	}
+
+	public double getEast() {
+		return east;
+	}
+
+	/**
+	 * @param row Row of the cell, from 0 in the south
+	 * @param column Column of the cell, from 0 in the west
+	 * @return The number of pacdots in the cell
+	 */
+	public int getTotal(int level, int row, int column) {
+		return totals[level][interleave(row, column)];
+	}
+
+	/**
+	 * @param row Row of the cell, from 0 in the south
+	 * @param column Column of the cell, from 0 in the west
+	 * @return The number of uneaten pacdots in the cell
+	 */
+	public int getUneaten(int level, int row, int column) {
+		return uneaten[level][interleave(row, column)];
+	}
+
+	/**
+	 * Copies the counts of every cell of a level, row by row from the south
+	 * west.
+	 *
+	 * @param total Receives the number of pacdots in each cell; at least
+	 *              <code>4^level</code> long
+	 * @param uneatenCounts Receives the number of uneaten pacdots in each
+	 *                      cell; at least <code>4^level</code> long
+	 */
+	public void copyLevel(int level, int[] total, int[] uneatenCounts) {
+		int side = 1 << level;
+		for(int row = 0; row < side; row++) {
+			for(int column = 0; column < side; column++) {
+				int cell = interleave(row, column);
+				total[row * side + column] = totals[level][cell];
+				uneatenCounts[row * side + column] = uneaten[level][cell];
+			}
+		}
+	}
+
+	private static int cellOf(double value, double min, double max, int side) {
+		if(max <= min) {
+			return 0;
+		}
+		int cell = (int) ((value - min) / (max - min) * side);
+		// The maximum itself falls in the last cell
+		return Math.min(cell, side - 1);
+	}
+
+	/**
+	 * @return The Z-order code of a cell: the bits of its row and column,
+	 *         interleaved with the row's bits above the column's
+	 */
+	private static int interleave(int row, int column) {
+		return (spread(row) << 1) | spread(column);
+	}
+
+	/**
+	 * @return The low 16 bits of the value, spread to the even bits
+	 */
+	private static int spread(int value) {
+		value &= 0x0000ffff;
+		value = (value | (value << 8)) & 0x00ff00ff;
+		value = (value | (value << 4)) & 0x0f0f0f0f;
+		value = (value | (value << 2)) & 0x33333333;
+		value = (value | (value << 1)) & 0x55555555;
+		return value;
+	}
+
+}
@@ -0,0 +1,225 @@
+package com.pm.server.datatype;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Uniform grid over a fixed set of pacdot locations, used to find the
+ * pacdots near a location without scanning every pacdot.
+ *
+ * <p>
+ *     Points are referred to by their index in the latitude/longitude arrays
+ *     given at construction. The grid is stored as sorted primitive arrays
+ *     (one entry per occupied cell), so it holds no per-point objects and
+ *     stays compact for maps with a very large number of pacdots.
+ * </p>
+ *
+ */
+public class PacdotGridIndex {
+
+	private final double[] latitudes;
+	private final double[] longitudes;
+
+	private final double cellSize;
+
+	/**
+	 * Sorted, distinct keys of the occupied cells.
+	 */
+	private final long[] cellKeys;
+
+	/**
+	 * Offsets into {@link #entries} for each cell in {@link #cellKeys}, with
+	 * one extra trailing element marking the end of the last cell.
+	 */
+	private final int[] cellStarts;
+
+	/**
+	 * Point indices, grouped by cell.
+	 */
+	private final int[] entries;
+
+	/**
+	 * @param latitudes Latitudes of the points, indexed by point
+	 * @param longitudes Longitudes of the points, indexed by point
+	 * @param count Number of points to index, starting from index 0
+	 * @param cellSize Width and height of a cell in GPS coordinate units
+	 * @throws IllegalArgumentException if the cell size is not positive
+	 */
+	public PacdotGridIndex(
+			double[] latitudes, double[] longitudes, int count,
+			double cellSize) throws IllegalArgumentException {
+
+		if(!(cellSize > 0)) {
+			throw new IllegalArgumentException(
+					"The cell size of a grid index must be positive."
+			);
+		}
+
+		this.latitudes = latitudes;
+		this.longitudes = longitudes;
+		this.cellSize = cellSize;
+
+		long[] pointKeys = new long[count];
+		for(int i = 0; i < count; i++) {
+			pointKeys[i] = cellKeyOf(latitudes[i], longitudes[i]);
+		}
+
+		long[] sortedKeys = Arrays.copyOf(pointKeys, count);
+		Arrays.sort(sortedKeys);
+
+		int cellCount = 0;
+		for(int i = 0; i < count; i++) {
+			if(i == 0 || sortedKeys[i] != sortedKeys[i - 1]) {
+				sortedKeys[cellCount++] = sortedKeys[i];
+			}
+		}
+		cellKeys = Arrays.copyOf(sortedKeys, cellCount);
+
+		cellStarts = new int[cellCount + 1];
+		int[] cellOfPoint = new int[count];
+		for(int i = 0; i < count; i++) {
+			cellOfPoint[i] = Arrays.binarySearch(cellKeys, pointKeys[i]);
+			cellStarts[cellOfPoint[i] + 1]++;
+		}
+		for(int cell = 0; cell < cellCount; cell++) {
+			cellStarts[cell + 1] += cellStarts[cell];
+		}
+
+		entries = new int[count];
+		int[] fill = Arrays.copyOf(cellStarts, cellCount);
+		for(int i = 0; i < count; i++) {
+			entries[fill[cellOfPoint[i]]++] = i;
+		}
+	}
+
+	/**
+	 * Passes the index of every point strictly within the given distance
+	 * of the given location to the consumer.
+	 *
+	 * @param latitude Latitude of the location
+	 * @param longitude Longitude of the location
+	 * @param distance Distance in GPS coordinate units
+	 * @param consumer Receives the index of each point within the distance
+	 */
+	public void forEachWithin(
+			double latitude, double longitude, double distance,
+			IntConsumer consumer) {
+
+		int reach = (int) Math.ceil(distance / cellSize);
+		int row = cellOf(latitude);
+		int column = cellOf(longitude);
+		double squaredDistance = distance * distance;
+
+		for(int r = row - reach; r <= row + reach; r++) {
+			for(int c = column - reach; c <= column + reach; c++) {
+
+				int cell = Arrays.binarySearch(cellKeys, cellKey(r, c));
+				if(cell < 0) {
+					continue;
+				}
+
+				for(int e = cellStarts[cell]; e < cellStarts[cell + 1]; e++) {
+					int i = entries[e];
+					double latitudeDistance = latitudes[i] - latitude;
+					double longitudeDistance = longitudes[i] - longitude;
+					if(latitudeDistance * latitudeDistance +
+							longitudeDistance * longitudeDistance
+							< squaredDistance) {
+						consumer.accept(i);
+					}
+				}
+
+			}
+		}
+	}
+
+	/**
+	 * Passes the index of every point strictly within the given distance
+	 * of the segment between two locations to the consumer.
+	 *
+	 * @param fromLatitude Latitude of the start of the segment
+	 * @param fromLongitude Longitude of the start of the segment
+	 * @param toLatitude Latitude of the end of the segment
+	 * @param toLongitude Longitude of the end of the segment
+	 * @param distance Distance in GPS coordinate units
+	 * @param consumer Receives the index of each point within the distance
+	 */
+	public void forEachNearSegment(
+			double fromLatitude, double fromLongitude,
+			double toLatitude, double toLongitude,
+			double distance, IntConsumer consumer) {
+
+		int firstRow = cellOf(Math.min(fromLatitude, toLatitude) - distance);
+		int lastRow = cellOf(Math.max(fromLatitude, toLatitude) + distance);
+		int firstColumn =
+				cellOf(Math.min(fromLongitude, toLongitude) - distance);
+		int lastColumn =
+				cellOf(Math.max(fromLongitude, toLongitude) + distance);
+
+		double segmentLatitude = toLatitude - fromLatitude;
+		double segmentLongitude = toLongitude - fromLongitude;
+		double squaredLength =
+				segmentLatitude * segmentLatitude +
+				segmentLongitude * segmentLongitude;
+		double squaredDistance = distance * distance;
+
+		for(int r = firstRow; r <= lastRow; r++) {
+			for(int c = firstColumn; c <= lastColumn; c++) {
+
+				int cell = Arrays.binarySearch(cellKeys, cellKey(r, c));
+				if(cell < 0) {
+					continue;
+				}
+
+				for(int e = cellStarts[cell]; e < cellStarts[cell + 1]; e++) {
+					int i = entries[e];
+
+					// Closest point of the segment to the point
+					double t = squaredLength == 0 ? 0 : (
+							(latitudes[i] - fromLatitude) * segmentLatitude +
+							(longitudes[i] - fromLongitude) * segmentLongitude
+					) / squaredLength;
+					t = Math.max(0, Math.min(1, t));
+
+					double latitudeDistance =
+							latitudes[i] - (fromLatitude + t * segmentLatitude);
+					double longitudeDistance =
+							longitudes[i] - (fromLongitude + t * segmentLongitude);
+					if(latitudeDistance * latitudeDistance +
+							longitudeDistance * longitudeDistance
+							< squaredDistance) {
+						consumer.accept(i);
+					}
+				}
+
+			}
+		}
+	}
+
+	/**
+	 * @return The number of points in the index
+	 */
+	public int size() {
+		return entries.length;
+	}
+
+	/**
+	 * @return The number of occupied cells in the index
+	 */
+	public int cellCount() {
+		return cellKeys.length;
+	}
+
+	private long cellKeyOf(double latitude, double longitude) {
+		return cellKey(cellOf(latitude), cellOf(longitude));
+	}
+
+	private int cellOf(double value) {
+		return (int) Math.floor(value / cellSize);
+	}
+
+	private static long cellKey(int row, int column) {
+		return ((long) row << 32) | (column & 0xffffffffL);
+	}
+
+}
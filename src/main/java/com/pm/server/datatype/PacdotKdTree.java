@@ -0,0 +1,390 @@
+package com.pm.server.datatype;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.function.IntConsumer;
+
+/**
+ * KD-tree over a fixed set of pacdot locations, used to find the uneaten
+ * pacdots nearest a location.
+ *
+ * <p>
+ *     The tree is implicit: the point indices are ordered so that the
+ *     middle of any range of them is a node splitting the rest of the range
+ *     in two, by latitude and longitude in turn. Each node counts the
+ *     uneaten points of its subtree, and an eaten bitmap marks the eaten
+ *     points, so eating a point takes one counter per level and never
+ *     rebuilds the tree, and a search never enters a subtree whose points
+ *     are all eaten.
+ * </p>
+ * <p>
+ *     Points are referred to by their index in the latitude/longitude arrays
+ *     given at construction, as in {@link PacdotGridIndex}.
+ * </p>
+ */
+public class PacdotKdTree {
+
+	private final double[] latitudes;
+	private final double[] longitudes;
+
+	/**
+	 * Point indices in tree order.
+	 */
+	private final int[] nodes;
+
+	/**
+	 * Position of each point in {@link #nodes}.
+	 */
+	private final int[] positions;
+
+	/**
+	 * Uneaten points in the subtree of the node at each position.
+	 */
+	private final int[] uneaten;
+
+	/**
+	 * Points in the subtree of the node at each position.
+	 */
+	private final int[] sizes;
+
+	private final BitSet eaten;
+
+	/**
+	 * @param latitudes Latitudes of the points, indexed by point
+	 * @param longitudes Longitudes of the points, indexed by point
+	 * @param count Number of points, starting from index 0
+	 */
+	public PacdotKdTree(double[] latitudes, double[] longitudes, int count) {
+
+		this.latitudes = latitudes;
+		this.longitudes = longitudes;
+
+		nodes = new int[count];
+		for(int i = 0; i < count; i++) {
+			nodes[i] = i;
+		}
+		build(0, count, true);
+
+		positions = new int[count];
+		sizes = new int[count];
+		for(int position = 0; position < count; position++) {
+			positions[nodes[position]] = position;
+		}
+		countSizes(0, count);
+
+		uneaten = new int[count];
+		eaten = new BitSet(count);
+		reset();
+	}
+
+	/**
+	 * Marks the given point as eaten; does nothing if it already is.
+	 */
+	public void eat(int point) {
+		if(eaten.get(point)) {
+			return;
+		}
+		eaten.set(point);
+
+		int target = positions[point];
+		int low = 0;
+		int high = nodes.length;
+		while(true) {
+			int middle = (low + high) >>> 1;
+			uneaten[middle]--;
+			if(middle == target) {
+				return;
+			}
+			if(target < middle) {
+				high = middle;
+			}
+			else {
+				low = middle + 1;
+			}
+		}
+	}
+
+	/**
+	 * Marks every point as uneaten.
+	 */
+	public void reset() {
+		eaten.clear();
+		System.arraycopy(sizes, 0, uneaten, 0, sizes.length);
+	}
+
+	public boolean isEaten(int point) {
+		return eaten.get(point);
+	}
+
+	/**
+	 * Finds the uneaten points nearest a location.
+	 *
+	 * @param latitude Latitude of the location
+	 * @param longitude Longitude of the location
+	 * @param found Receives the indices of the nearest uneaten points,
+	 *              nearest first; its length is the number of points sought
+	 * @return The number of points found, fewer than sought only if fewer
+	 *         are uneaten
+	 */
+	public int nearest(double latitude, double longitude, int[] found) {
+
+		Search search = new Search(latitude, longitude, found.length);
+		if(found.length > 0) {
+			search.visit(0, nodes.length, true);
+		}
+
+		// The best points are kept as a max-heap, so take the furthest
+		// from the end each time
+		int count = search.size;
+		for(int i = count - 1; i >= 0; i--) {
+			found[i] = search.points[0];
+			search.pop();
+		}
+		return count;
+	}
+
+	/**
+	 * Finds every uneaten point in a box, edges included.
+	 *
+	 * @param consumer Receives the index of each uneaten point in the box,
+	 *                 in no particular order
+	 */
+	public void forEachUneatenInBox(
+			double south, double west, double north, double east,
+			IntConsumer consumer) {
+		visitBox(0, nodes.length, true, south, west, north, east, consumer);
+	}
+
+	/**
+	 * @return The number of uneaten points
+	 */
+	public int uneatenCount() {
+		return nodes.length == 0 ? 0 : uneaten[nodes.length >>> 1];
+	}
+
+	/**
+	 * Orders the range so that its middle splits it by the given axis, then
+	 * orders each half by the other axis.
+	 */
+	private void build(int low, int high, boolean byLatitude) {
+		if(high - low <= 1) {
+			return;
+		}
+		int middle = (low + high) >>> 1;
+		select(low, high - 1, middle, byLatitude);
+		build(low, middle, !byLatitude);
+		build(middle + 1, high, !byLatitude);
+	}
+
+	/**
+	 * Quickselect: moves the k-th smallest point of the range (inclusive) by
+	 * the given axis to position k, with no larger point before it and no
+	 * smaller point after it.
+	 */
+	private void select(int left, int right, int k, boolean byLatitude) {
+		while(left < right) {
+			double pivot = coordinate(nodes[(left + right) >>> 1], byLatitude);
+			int i = left;
+			int j = right;
+			while(i <= j) {
+				while(coordinate(nodes[i], byLatitude) < pivot) {
+					i++;
+				}
+				while(coordinate(nodes[j], byLatitude) > pivot) {
+					j--;
+				}
+				if(i <= j) {
+					int swap = nodes[i];
+					nodes[i] = nodes[j];
+					nodes[j] = swap;
+					i++;
+					j--;
+				}
+			}
+			if(k <= j) {
+				right = j;
+			}
+			else if(k >= i) {
+				left = i;
+			}
+			else {
+				return;
+			}
+		}
+	}
+
+	private void visitBox(
+			int low, int high, boolean byLatitude,
+			double south, double west, double north, double east,
+			IntConsumer consumer) {
+
+		if(low >= high) {
+			return;
+		}
+		int middle = (low + high) >>> 1;
+		if(uneaten[middle] == 0) {
+			return;
+		}
+
+		int point = nodes[middle];
+		double latitude = latitudes[point];
+		double longitude = longitudes[point];
+		if(!eaten.get(point) &&
+				latitude >= south && latitude <= north &&
+				longitude >= west && longitude <= east) {
+			consumer.accept(point);
+		}
+
+		double split = byLatitude ? latitude : longitude;
+		if(split >= (byLatitude ? south : west)) {
+			visitBox(
+					low, middle, !byLatitude,
+					south, west, north, east, consumer
+			);
+		}
+		if(split <= (byLatitude ? north : east)) {
+			visitBox(
+					middle + 1, high, !byLatitude,
+					south, west, north, east, consumer
+			);
+		}
+	}
+
+	private int countSizes(int low, int high) {
+		if(low >= high) {
+			return 0;
+		}
+		int middle = (low + high) >>> 1;
+		sizes[middle] = 1 + countSizes(low, middle) +
+				countSizes(middle + 1, high);
+		return sizes[middle];
+	}
+
+	private double coordinate(int point, boolean byLatitude) {
+		return byLatitude ? latitudes[point] : longitudes[point];
+	}
+
+	/**
+	 * A search for the k nearest uneaten points, which keeps the best
+	 * points found so far as a max-heap by squared distance.
+	 */
+	private class Search {
+
+		private final double latitude;
+		private final double longitude;
+
+		private final int[] points;
+		private final double[] distances;
+		private int size = 0;
+
+		Search(double latitude, double longitude, int k) {
+			this.latitude = latitude;
+			this.longitude = longitude;
+			this.points = new int[k];
+			this.distances = new double[k];
+			Arrays.fill(distances, Double.POSITIVE_INFINITY);
+		}
+
+		void visit(int low, int high, boolean byLatitude) {
+			if(low >= high) {
+				return;
+			}
+			int middle = (low + high) >>> 1;
+			if(uneaten[middle] == 0) {
+				return;
+			}
+
+			int point = nodes[middle];
+			if(!eaten.get(point)) {
+				double latitudeDistance = latitudes[point] - latitude;
+				double longitudeDistance = longitudes[point] - longitude;
+				offer(point, latitudeDistance * latitudeDistance +
+						longitudeDistance * longitudeDistance);
+			}
+
+			double split = byLatitude ?
+					latitude - latitudes[point] :
+					longitude - longitudes[point];
+			boolean nearIsLow = split < 0;
+
+			if(nearIsLow) {
+				visit(low, middle, !byLatitude);
+			}
+			else {
+				visit(middle + 1, high, !byLatitude);
+			}
+			// The far side can only hold a nearer point if the splitting
+			// line is nearer than the furthest point kept
+			if(size < points.length || split * split < distances[0]) {
+				if(nearIsLow) {
+					visit(middle + 1, high, !byLatitude);
+				}
+				else {
+					visit(low, middle, !byLatitude);
+				}
+			}
+		}
+
+		void offer(int point, double distance) {
+			if(size < points.length) {
+				points[size] = point;
+				distances[size] = distance;
+				siftUp(size++);
+			}
+			else if(distance < distances[0]) {
+				points[0] = point;
+				distances[0] = distance;
+				siftDown(0);
+			}
+		}
+
+		void pop() {
+			size--;
+			points[0] = points[size];
+			distances[0] = distances[size];
+			distances[size] = Double.POSITIVE_INFINITY;
+			siftDown(0);
+		}
+
+		private void siftUp(int i) {
+			while(i > 0) {
+				int parent = (i - 1) >>> 1;
+				if(distances[parent] >= distances[i]) {
+					return;
+				}
+				swap(i, parent);
+				i = parent;
+			}
+		}
+
+		private void siftDown(int i) {
+			while(true) {
+				int largest = i;
+				int left = 2 * i + 1;
+				int right = left + 1;
+				if(left < size && distances[left] > distances[largest]) {
+					largest = left;
+				}
+				if(right < size && distances[right] > distances[largest]) {
+					largest = right;
+				}
+				if(largest == i) {
+					return;
+				}
+				swap(i, largest);
+				i = largest;
+			}
+		}
+
+		private void swap(int i, int j) {
+			int point = points[i];
+			points[i] = points[j];
+			points[j] = point;
+			double distance = distances[i];
+			distances[i] = distances[j];
+			distances[j] = distance;
+		}
+
+	}
+
+}
@@ -0,0 +1,121 @@
+package com.pm.server.datatype;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * An immutable set of pacdot locations which can be loaded into a game.
+ *
+ * <p>
+ *     Locations are stored in primitive arrays rather than as
+ *     {@link Pacdot} objects, so a map with a very large number of pacdots
+ *     can be kept in the catalog cheaply until it is loaded.
+ * </p>
+ *
+ */
+public class PacdotMap {
+
+	private final String name;
+
+	private final double[] latitudes;
+
+	private final double[] longitudes;
+
+	private final BitSet powerdots;
+
+	private final PacdotGridIndex index;
+
+	/**
+	 * @param name Name of the map
+	 * @param latitudes Latitude of each pacdot; the length of this array is
+	 *                  the number of pacdots in the map
+	 * @param longitudes Longitude of each pacdot
+	 * @param powerdots Set bits mark the pacdots which are powerdots
+	 * @param cellSize Cell size of the spatial index, in GPS coordinate units
+	 */
+	public PacdotMap(
+			String name, double[] latitudes, double[] longitudes,
+			BitSet powerdots, double cellSize) {
+
+		if(latitudes.length != longitudes.length) {
+			throw new IllegalArgumentException(
+					"A map must have as many latitudes as longitudes."
+			);
+		}
+
+		this.name = name;
+		this.latitudes = latitudes;
+		this.longitudes = longitudes;
+		this.powerdots = powerdots;
+		this.index = new PacdotGridIndex(
+				latitudes, longitudes, latitudes.length, cellSize
+		);
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public int getCount() {
+		return latitudes.length;
+	}
+
+	public int getPowerdotCount() {
+		return powerdots.cardinality();
+	}
+
+	/**
+	 * @return The latitude of every pacdot, in index order; not to be
+	 *         modified
+	 */
+	public double[] getLatitudes() {
+		return latitudes;
+	}
+
+	/**
+	 * @return The longitude of every pacdot, in index order; not to be
+	 *         modified
+	 */
+	public double[] getLongitudes() {
+		return longitudes;
+	}
+
+	public double getLatitude(int i) {
+		return latitudes[i];
+	}
+
+	public double getLongitude(int i) {
+		return longitudes[i];
+	}
+
+	public boolean isPowerdot(int i) {
+		return powerdots.get(i);
+	}
+
+	/**
+	 * @return The spatial index over the pacdots of this map, whose point
+	 *         indices match the order of {@link #toPacdots()}
+	 */
+	public PacdotGridIndex getIndex() {
+		return index;
+	}
+
+	/**
+	 * Creates an uneaten pacdot for every location in the map.
+	 *
+	 * @return The pacdots of the map, in index order
+	 */
+	public List<Pacdot> toPacdots() {
+		List<Pacdot> pacdotList = new ArrayList<>(latitudes.length);
+		for(int i = 0; i < latitudes.length; i++) {
+			pacdotList.add(new Pacdot(
+					new Coordinate(latitudes[i], longitudes[i]),
+					false,
+					powerdots.get(i)
+			));
+		}
+		return pacdotList;
+	}
+
+}
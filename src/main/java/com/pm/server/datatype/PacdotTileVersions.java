@@ -0,0 +1,107 @@
+package com.pm.server.datatype;
+
+import com.pm.server.utils.GeoUtils;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Version of the pacdots in each slippy map tile, from zoom level 0 to a
+ * deepest level, so a tile's cached contents are only replaced when a
+ * pacdot in that tile is eaten.
+ *
+ * <p>
+ *     Versions are taken from the pacdot registry's version. Only tiles in
+ *     which a pacdot has been eaten since the pacdots were last reset or
+ *     replaced are stored, so every other tile has the version of that
+ *     reset. Versions are written from the game loop and may be read from
+ *     any thread.
+ * </p>
+ */
+public class PacdotTileVersions {
+
+	/**
+	 * Deepest zoom level which may be tracked, so that a tile's zoom level,
+	 * x and y fit in a long side by side (5, 29 and 29 bits).
+	 */
+	public static final int MAX_ZOOM = 29;
+
+	private final int maxZoom;
+
+	/**
+	 * Versions of the tiles with eaten pacdots, indexed by zoom level then
+	 * by {@link #key(int, int)}.
+	 */
+	private final ConcurrentMap<Long, Long>[] eatenTiles;
+
+	private volatile long resetVersion;
+
+	/**
+	 * @param maxZoom Deepest zoom level tracked, at most {@link #MAX_ZOOM}
+	 * @param version Version of the pacdots as they are
+	 * @throws IllegalArgumentException if the deepest zoom level is out of
+	 *                                  range
+	 */
+	@SuppressWarnings("unchecked")
+	public PacdotTileVersions(int maxZoom, long version)
+			throws IllegalArgumentException {
+
+		if(maxZoom < 0 || maxZoom > MAX_ZOOM) {
+			throw new IllegalArgumentException(
+					"The deepest zoom level of pacdot tiles must be from 0 " +
+					"to " + MAX_ZOOM + "."
+			);
+		}
+		this.maxZoom = maxZoom;
+
+		eatenTiles = (ConcurrentMap<Long, Long>[])
+				new ConcurrentMap<?, ?>[maxZoom + 1];
+		for(int zoom = 0; zoom <= maxZoom; zoom++) {
+			eatenTiles[zoom] = new ConcurrentHashMap<>();
+		}
+		resetVersion = version;
+	}
+
+	/**
+	 * Sets the version of every tile containing the given location.
+	 */
+	public void eaten(double latitude, double longitude, long version) {
+		for(int zoom = 0; zoom <= maxZoom; zoom++) {
+			eatenTiles[zoom].put(
+					key(GeoUtils.tileX(longitude, zoom),
+							GeoUtils.tileY(latitude, zoom)),
+					version
+			);
+		}
+	}
+
+	/**
+	 * Sets the version of every tile.
+	 */
+	public void reset(long version) {
+		// Readers take the later of the two versions, so tiles which are
+		// yet to be cleared still read as reset
+		resetVersion = version;
+		for(ConcurrentMap<Long, Long> tiles : eatenTiles) {
+			tiles.clear();
+		}
+	}
+
+	public int getMaxZoom() {
+		return maxZoom;
+	}
+
+	/**
+	 * @return The version of the pacdots in the given tile
+	 */
+	public long getVersion(int zoom, int x, int y) {
+		long version = resetVersion;
+		Long eatenVersion = eatenTiles[zoom].get(key(x, y));
+		return eatenVersion == null ? version : Math.max(version, eatenVersion);
+	}
+
+	private static long key(int x, int y) {
+		return ((long) x << 32) | y;
+	}
+
+}
@@ -0,0 +1,433 @@
+package com.pm.server.datatype;
+
+import java.util.Arrays;
+
+/**
+ * The region of a map in which players are allowed, as one or more polygon
+ * rings combined by the even-odd rule (so a ring inside another is a hole).
+ *
+ * <p>
+ *     The bounding box of the rings is divided into a grid, and each cell is
+ *     classified once as inside, outside or crossed by an edge. A location in
+ *     an inside or outside cell is answered by the grid alone. A location in
+ *     a boundary cell is compared with a reference point in the cell, whose
+ *     side of the boundary is known: the location is on the same side if the
+ *     segment between them crosses the cell's edges an even number of
+ *     times. Only the edges crossing that cell are examined, so a check
+ *     never scans every edge of the polygon.
+ * </p>
+ */
+public class PlayArea {
+
+	private static final byte OUTSIDE = 0;
+	private static final byte INSIDE = 1;
+	private static final byte BOUNDARY = 2;
+
+	/**
+	 * Edges of every ring, as consecutive start and end points.
+	 */
+	private final double[] edgeFromLatitudes;
+	private final double[] edgeFromLongitudes;
+	private final double[] edgeToLatitudes;
+	private final double[] edgeToLongitudes;
+
+	private final double minLatitude;
+	private final double minLongitude;
+	private final double maxLatitude;
+	private final double maxLongitude;
+
+	private final int gridSize;
+	private final double cellHeight;
+	private final double cellWidth;
+
+	/**
+	 * Classification of each cell, indexed by
+	 * <code>row * gridSize + column</code>.
+	 */
+	private final byte[] cells;
+
+	/**
+	 * Candidate positions of a reference point within a cell, as fractions
+	 * of the cell's height and width. The centre comes first; the others
+	 * are used if an edge passes exactly through it.
+	 */
+	private static final double[] REFERENCE_FRACTIONS =
+			{ 0.5, 0.382, 0.618, 0.236, 0.764 };
+
+	/**
+	 * Reference point of each boundary cell, and whether it is inside.
+	 */
+	private final double[] referenceLatitudes;
+	private final double[] referenceLongitudes;
+	private final boolean[] referenceInside;
+
+	/**
+	 * Offsets into {@link #cellEdges} for each cell, with one extra trailing
+	 * element marking the end of the last cell.
+	 */
+	private final int[] cellEdgeStarts;
+
+	/**
+	 * Edge indices, grouped by the boundary cells they cross.
+	 */
+	private final int[] cellEdges;
+
+	/**
+	 * @param ringLatitudes Latitudes of the vertices of each ring
+	 * @param ringLongitudes Longitudes of the vertices of each ring
+	 * @param gridSize Number of rows and of columns of the grid
+	 * @throws IllegalArgumentException if a ring has fewer than three
+	 *         vertices or mismatched coordinates, or the grid size is not
+	 *         positive
+	 */
+	public PlayArea(
+			double[][] ringLatitudes, double[][] ringLongitudes,
+			int gridSize) throws IllegalArgumentException {
+
+		if(ringLatitudes.length == 0 ||
+				ringLatitudes.length != ringLongitudes.length) {
+			throw new IllegalArgumentException(
+					"A play area requires at least one ring."
+			);
+		}
+		if(gridSize < 1) {
+			throw new IllegalArgumentException(
+					"The grid size of a play area must be positive."
+			);
+		}
+
+		int edgeCount = 0;
+		for(int ring = 0; ring < ringLatitudes.length; ring++) {
+			if(ringLatitudes[ring].length < 3 ||
+					ringLatitudes[ring].length != ringLongitudes[ring].length) {
+				throw new IllegalArgumentException(
+						"Each ring of a play area requires at least three " +
+						"vertices."
+				);
+			}
+			edgeCount += ringLatitudes[ring].length;
+		}
+
+		edgeFromLatitudes = new double[edgeCount];
+		edgeFromLongitudes = new double[edgeCount];
+		edgeToLatitudes = new double[edgeCount];
+		edgeToLongitudes = new double[edgeCount];
+
+		double minLatitude = Double.POSITIVE_INFINITY;
+		double minLongitude = Double.POSITIVE_INFINITY;
+		double maxLatitude = Double.NEGATIVE_INFINITY;
+		double maxLongitude = Double.NEGATIVE_INFINITY;
+
+		int edge = 0;
+		for(int ring = 0; ring < ringLatitudes.length; ring++) {
+			double[] latitudes = ringLatitudes[ring];
+			double[] longitudes = ringLongitudes[ring];
+			for(int i = 0; i < latitudes.length; i++) {
+				// Rings are closed implicitly
+				int next = (i + 1) % latitudes.length;
+				edgeFromLatitudes[edge] = latitudes[i];
+				edgeFromLongitudes[edge] = longitudes[i];
+				edgeToLatitudes[edge] = latitudes[next];
+				edgeToLongitudes[edge] = longitudes[next];
+				edge++;
+
+				minLatitude = Math.min(minLatitude, latitudes[i]);
+				minLongitude = Math.min(minLongitude, longitudes[i]);
+				maxLatitude = Math.max(maxLatitude, latitudes[i]);
+				maxLongitude = Math.max(maxLongitude, longitudes[i]);
+			}
+		}
+
+		this.minLatitude = minLatitude;
+		this.minLongitude = minLongitude;
+		this.maxLatitude = maxLatitude;
+		this.maxLongitude = maxLongitude;
+		this.gridSize = gridSize;
+		this.cellHeight = (maxLatitude - minLatitude) / gridSize;
+		this.cellWidth = (maxLongitude - minLongitude) / gridSize;
+
+		int cellCount = gridSize * gridSize;
+		cells = new byte[cellCount];
+		referenceLatitudes = new double[cellCount];
+		referenceLongitudes = new double[cellCount];
+		referenceInside = new boolean[cellCount];
+
+		// Count, then fill, the edges crossing each cell
+		cellEdgeStarts = new int[cellCount + 1];
+		for(int e = 0; e < edgeCount; e++) {
+			forEachCellOfEdge(e, (cell, unused) -> cellEdgeStarts[cell + 1]++);
+		}
+		for(int cell = 0; cell < cellCount; cell++) {
+			cellEdgeStarts[cell + 1] += cellEdgeStarts[cell];
+		}
+		cellEdges = new int[cellEdgeStarts[cellCount]];
+		int[] fill = Arrays.copyOf(cellEdgeStarts, cellCount);
+		for(int e = 0; e < edgeCount; e++) {
+			forEachCellOfEdge(e, (cell, edgeIndex) ->
+					cellEdges[fill[cell]++] = edgeIndex
+			);
+		}
+
+		for(int row = 0; row < gridSize; row++) {
+			for(int column = 0; column < gridSize; column++) {
+				int cell = row * gridSize + column;
+
+				if(cellEdgeStarts[cell + 1] > cellEdgeStarts[cell]) {
+					cells[cell] = BOUNDARY;
+					chooseReference(cell, row, column);
+					referenceInside[cell] = containsByRayCast(
+							referenceLatitudes[cell], referenceLongitudes[cell]
+					);
+				}
+				else {
+					// The boundary misses the cell, so the whole cell is on
+					// the side of its centre
+					cells[cell] = containsByRayCast(
+							minLatitude + (row + 0.5) * cellHeight,
+							minLongitude + (column + 0.5) * cellWidth
+					) ? INSIDE : OUTSIDE;
+				}
+			}
+		}
+	}
+
+	/**
+	 * @param latitude Latitude of the location
+	 * @param longitude Longitude of the location
+	 * @return Whether the location is within the play area
+	 */
+	public boolean contains(double latitude, double longitude) {
+
+		if(!(latitude >= minLatitude && latitude <= maxLatitude &&
+				longitude >= minLongitude && longitude <= maxLongitude)) {
+			return false;
+		}
+
+		int row = clampToGrid(cellOf(latitude - minLatitude, cellHeight));
+		int column = clampToGrid(cellOf(longitude - minLongitude, cellWidth));
+		int cell = row * gridSize + column;
+
+		if(cells[cell] != BOUNDARY) {
+			return cells[cell] == INSIDE;
+		}
+
+		boolean inside = referenceInside[cell];
+		for(int e = cellEdgeStarts[cell]; e < cellEdgeStarts[cell + 1]; e++) {
+			if(crosses(cellEdges[e],
+					referenceLatitudes[cell], referenceLongitudes[cell],
+					latitude, longitude)) {
+				inside = !inside;
+			}
+		}
+		return inside;
+	}
+
+	/**
+	 * @return The number of grid cells crossed by an edge, for which a
+	 *         check examines edges
+	 */
+	public int boundaryCellCount() {
+		int count = 0;
+		for(byte cell : cells) {
+			if(cell == BOUNDARY) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Picks a reference point for a boundary cell which lies on none of the
+	 * edges crossing it, since its side of such an edge would be ambiguous.
+	 */
+	private void chooseReference(int cell, int row, int column) {
+		for(double latitudeFraction : REFERENCE_FRACTIONS) {
+			for(double longitudeFraction : REFERENCE_FRACTIONS) {
+				double latitude =
+						minLatitude + (row + latitudeFraction) * cellHeight;
+				double longitude =
+						minLongitude + (column + longitudeFraction) * cellWidth;
+				referenceLatitudes[cell] = latitude;
+				referenceLongitudes[cell] = longitude;
+				if(!onAnyEdgeOfCell(cell, latitude, longitude)) {
+					return;
+				}
+			}
+		}
+	}
+
+	private boolean onAnyEdgeOfCell(
+			int cell, double latitude, double longitude) {
+		for(int e = cellEdgeStarts[cell]; e < cellEdgeStarts[cell + 1]; e++) {
+			int edge = cellEdges[e];
+			if(side(
+					edgeFromLatitudes[edge], edgeFromLongitudes[edge],
+					edgeToLatitudes[edge], edgeToLongitudes[edge],
+					latitude, longitude) == 0 &&
+					latitude >= Math.min(
+							edgeFromLatitudes[edge], edgeToLatitudes[edge]) &&
+					latitude <= Math.max(
+							edgeFromLatitudes[edge], edgeToLatitudes[edge]) &&
+					longitude >= Math.min(
+							edgeFromLongitudes[edge], edgeToLongitudes[edge]) &&
+					longitude <= Math.max(
+							edgeFromLongitudes[edge], edgeToLongitudes[edge])) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Even-odd test against every edge, used only while building the grid.
+	 */
+	private boolean containsByRayCast(double latitude, double longitude) {
+		boolean inside = false;
+		for(int e = 0; e < edgeFromLatitudes.length; e++) {
+			double fromLatitude = edgeFromLatitudes[e];
+			double toLatitude = edgeToLatitudes[e];
+			if((fromLatitude > latitude) != (toLatitude > latitude)) {
+				double crossingLongitude = edgeFromLongitudes[e] +
+						(latitude - fromLatitude) /
+						(toLatitude - fromLatitude) *
+						(edgeToLongitudes[e] - edgeFromLongitudes[e]);
+				if(longitude < crossingLongitude) {
+					inside = !inside;
+				}
+			}
+		}
+		return inside;
+	}
+
+	/**
+	 * Whether the segment between two locations properly crosses an edge.
+	 * Each edge is treated as half-open at its end vertex, so a segment
+	 * passing through a vertex shared by two edges counts one crossing.
+	 */
+	private boolean crosses(
+			int e,
+			double fromLatitude, double fromLongitude,
+			double toLatitude, double toLongitude) {
+
+		double edgeFromLatitude = edgeFromLatitudes[e];
+		double edgeFromLongitude = edgeFromLongitudes[e];
+		double edgeToLatitude = edgeToLatitudes[e];
+		double edgeToLongitude = edgeToLongitudes[e];
+
+		double side1 = side(
+				fromLatitude, fromLongitude, toLatitude, toLongitude,
+				edgeFromLatitude, edgeFromLongitude
+		);
+		double side2 = side(
+				fromLatitude, fromLongitude, toLatitude, toLongitude,
+				edgeToLatitude, edgeToLongitude
+		);
+		if((side1 > 0) == (side2 > 0)) {
+			return false;
+		}
+
+		double side3 = side(
+				edgeFromLatitude, edgeFromLongitude,
+				edgeToLatitude, edgeToLongitude,
+				fromLatitude, fromLongitude
+		);
+		double side4 = side(
+				edgeFromLatitude, edgeFromLongitude,
+				edgeToLatitude, edgeToLongitude,
+				toLatitude, toLongitude
+		);
+		return (side3 > 0) != (side4 > 0);
+	}
+
+	private static double side(
+			double fromLatitude, double fromLongitude,
+			double toLatitude, double toLongitude,
+			double latitude, double longitude) {
+		return (toLatitude - fromLatitude) * (longitude - fromLongitude) -
+				(toLongitude - fromLongitude) * (latitude - fromLatitude);
+	}
+
+	/**
+	 * Passes each cell which an edge crosses or touches to the consumer.
+	 * The edge is walked one row at a time: the part of it within the row's
+	 * latitudes spans a range of longitudes, and so of columns. Each range
+	 * is widened by a millionth of a cell, so rounding never drops a cell
+	 * the edge only just enters.
+	 */
+	private void forEachCellOfEdge(int e, CellEdgeConsumer consumer) {
+
+		double fromLatitude = edgeFromLatitudes[e];
+		double fromLongitude = edgeFromLongitudes[e];
+		double toLatitude = edgeToLatitudes[e];
+		double toLongitude = edgeToLongitudes[e];
+
+		double latitudeSlack = cellHeight * 1e-6;
+		double longitudeSlack = cellWidth * 1e-6;
+
+		int firstRow = clampToGrid(cellOf(
+				Math.min(fromLatitude, toLatitude) - latitudeSlack -
+						minLatitude,
+				cellHeight
+		));
+		int lastRow = clampToGrid(cellOf(
+				Math.max(fromLatitude, toLatitude) + latitudeSlack -
+						minLatitude,
+				cellHeight
+		));
+
+		for(int row = firstRow; row <= lastRow; row++) {
+
+			double westLongitude;
+			double eastLongitude;
+			if(fromLatitude == toLatitude) {
+				westLongitude = Math.min(fromLongitude, toLongitude);
+				eastLongitude = Math.max(fromLongitude, toLongitude);
+			}
+			else {
+				// Fractions along the edge at which it meets the row's
+				// southern and northern sides
+				double south = (minLatitude + row * cellHeight -
+						latitudeSlack - fromLatitude) /
+						(toLatitude - fromLatitude);
+				double north = (minLatitude + (row + 1) * cellHeight +
+						latitudeSlack - fromLatitude) /
+						(toLatitude - fromLatitude);
+				double enter = Math.max(0, Math.min(south, north));
+				double exit = Math.min(1, Math.max(south, north));
+				if(enter > exit) {
+					continue;
+				}
+				double enterLongitude =
+						fromLongitude + enter * (toLongitude - fromLongitude);
+				double exitLongitude =
+						fromLongitude + exit * (toLongitude - fromLongitude);
+				westLongitude = Math.min(enterLongitude, exitLongitude);
+				eastLongitude = Math.max(enterLongitude, exitLongitude);
+			}
+
+			int firstColumn = clampToGrid(cellOf(
+					westLongitude - longitudeSlack - minLongitude, cellWidth
+			));
+			int lastColumn = clampToGrid(cellOf(
+					eastLongitude + longitudeSlack - minLongitude, cellWidth
+			));
+			for(int column = firstColumn; column <= lastColumn; column++) {
+				consumer.accept(row * gridSize + column, e);
+			}
+		}
+	}
+
+	private static int cellOf(double offset, double cellSize) {
+		return cellSize > 0 ? (int) Math.floor(offset / cellSize) : 0;
+	}
+
+	private int clampToGrid(int index) {
+		return Math.max(0, Math.min(gridSize - 1, index));
+	}
+
+	@FunctionalInterface
+	private interface CellEdgeConsumer {
+		void accept(int cell, int edge);
+	}
+
+}
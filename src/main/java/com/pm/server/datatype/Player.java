@@ -10,6 +10,7 @@ public class Player {
 	protected final Name name;
 	protected Coordinate location = new Coordinate();
 	protected Player.State state = Player.State.UNINITIALIZED;
+	protected boolean outOfBounds = false;
 
 	private final static Logger log =
 			LogManager.getLogger(Player.class.getName());
@@ -23,6 +24,7 @@ public class Player {
 
 	public void resetLocation() {
 		location.reset();
+		outOfBounds = false;
 	}
 
 	public Name getName() {
@@ -65,6 +67,18 @@ public class Player {
 		return state;
 	}
 
+	/**
+	 * Whether the player's last location was outside the play area of the
+	 * current map.
+	 */
+	public boolean isOutOfBounds() {
+		return outOfBounds;
+	}
+
+	public void setOutOfBounds(boolean outOfBounds) {
+		this.outOfBounds = outOfBounds;
+	}
+
 	public enum Name {
 		Pacman,
 		Blinky,
@@ -0,0 +1,159 @@
+package com.pm.server.datatype;
+
+/**
+ * The most recent location fixes of a player, oldest first.
+ *
+ * <p>
+ *     Fixes are kept in a fixed-capacity ring of primitive arrays, with
+ *     coordinates in fixed point (1e-7 degree, about 1 cm), so recording a
+ *     fix allocates nothing and a long game keeps at most
+ *     <code>capacity</code> fixes per player. Once full, each new fix
+ *     overwrites the oldest one. Coordinates beyond the range of GPS
+ *     coordinates are clamped to about &plusmn;214 degrees.
+ * </p>
+ * <p>
+ *     Methods synchronize on the trajectory, so a reader can hold its lock
+ *     to see the same fixes across several calls.
+ * </p>
+ * <p>
+ *     Timestamps never decrease; a fix recorded with an earlier time than
+ *     the newest one is given the newest time.
+ * </p>
+ *
+ */
+public class Trajectory {
+
+	/**
+	 * Receives the fixes of a trajectory, oldest first.
+	 */
+	@FunctionalInterface
+	public interface FixConsumer {
+		void accept(long timeMillis, double latitude, double longitude);
+	}
+
+	private static final double FIXED_POINT_SCALE = 1e7;
+
+	private final long[] times;
+	private final int[] latitudes;
+	private final int[] longitudes;
+
+	/**
+	 * Slot of the oldest fix.
+	 */
+	private int head = 0;
+
+	private int size = 0;
+
+	/**
+	 * @param capacity Maximum number of fixes kept
+	 * @throws IllegalArgumentException if the capacity is not positive
+	 */
+	public Trajectory(int capacity) throws IllegalArgumentException {
+		if(capacity <= 0) {
+			throw new IllegalArgumentException(
+					"The capacity of a trajectory must be positive."
+			);
+		}
+		times = new long[capacity];
+		latitudes = new int[capacity];
+		longitudes = new int[capacity];
+	}
+
+	public synchronized void add(
+			long timeMillis, double latitude, double longitude) {
+
+		if(size > 0) {
+			timeMillis = Math.max(timeMillis, times[slot(size - 1)]);
+		}
+
+		int slot;
+		if(size < times.length) {
+			slot = slot(size);
+			size++;
+		}
+		else {
+			slot = head;
+			head = slot(1);
+		}
+
+		times[slot] = timeMillis;
+		latitudes[slot] = toFixedPoint(latitude);
+		longitudes[slot] = toFixedPoint(longitude);
+	}
+
+	public synchronized void clear() {
+		head = 0;
+		size = 0;
+	}
+
+	public synchronized int size() {
+		return size;
+	}
+
+	public int capacity() {
+		return times.length;
+	}
+
+	/**
+	 * @param sinceMillis Exclusive lower bound on the time of the fixes
+	 * @return The number of fixes recorded after the given time
+	 */
+	public synchronized int countSince(long sinceMillis) {
+		return size - firstAfter(sinceMillis);
+	}
+
+	/**
+	 * Passes every fix recorded after the given time to the consumer,
+	 * oldest first. The consumer must not modify this trajectory.
+	 *
+	 * @param sinceMillis Exclusive lower bound on the time of the fixes
+	 * @param consumer Receives each fix
+	 */
+	public synchronized void forEachSince(
+			long sinceMillis, FixConsumer consumer) {
+		for(int i = firstAfter(sinceMillis); i < size; i++) {
+			int slot = slot(i);
+			consumer.accept(
+					times[slot],
+					fromFixedPoint(latitudes[slot]),
+					fromFixedPoint(longitudes[slot])
+			);
+		}
+	}
+
+	/**
+	 * @return The position, counted from the oldest fix, of the first fix
+	 *         after the given time, or the size if there is none
+	 */
+	private int firstAfter(long sinceMillis) {
+		int low = 0;
+		int high = size;
+		while(low < high) {
+			int middle = (low + high) >>> 1;
+			if(times[slot(middle)] <= sinceMillis) {
+				low = middle + 1;
+			}
+			else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+	private int slot(int position) {
+		int slot = head + position;
+		return slot < times.length ? slot : slot - times.length;
+	}
+
+	private static int toFixedPoint(double degrees) {
+		long fixedPoint = Math.round(degrees * FIXED_POINT_SCALE);
+		return (int) Math.max(
+				Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, fixedPoint)
+		);
+	}
+
+	private static double fromFixedPoint(int fixedPoint) {
+		return fixedPoint / FIXED_POINT_SCALE;
+	}
+
+}
@@ -0,0 +1,33 @@
+package com.pm.server.event;
+
+import com.pm.server.datatype.GameState;
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Published whenever the state of the game changes.
+ *
+ */
+public class GameStateChangedEvent extends ApplicationEvent {
+
+	private static final long serialVersionUID = 4467932418530473312L;
+
+	private final GameState previousState;
+
+	private final GameState state;
+
+	public GameStateChangedEvent(
+			Object source, GameState previousState, GameState state) {
+		super(source);
+		this.previousState = previousState;
+		this.state = state;
+	}
+
+	public GameState getPreviousState() {
+		return previousState;
+	}
+
+	public GameState getState() {
+		return state;
+	}
+
+}
@@ -0,0 +1,43 @@
+package com.pm.server.event;
+
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Published at the end of each tick of the game loop, once every input of
+ * the tick has been applied.
+ *
+ */
+public class GameTickEvent extends ApplicationEvent {
+
+	private static final long serialVersionUID = -2210742368118419541L;
+
+	private final long tick;
+
+	private final int inputs;
+
+	private final long durationNanos;
+
+	public GameTickEvent(
+			Object source, long tick, int inputs, long durationNanos) {
+		super(source);
+		this.tick = tick;
+		this.inputs = inputs;
+		this.durationNanos = durationNanos;
+	}
+
+	public long getTick() {
+		return tick;
+	}
+
+	/**
+	 * @return The number of queued inputs and timers applied in the tick
+	 */
+	public int getInputs() {
+		return inputs;
+	}
+
+	public long getDurationNanos() {
+		return durationNanos;
+	}
+
+}
@@ -0,0 +1,29 @@
+package com.pm.server.event;
+
+import com.pm.server.leaderboard.LeaderboardEntry;
+import org.springframework.context.ApplicationEvent;
+
+import java.util.List;
+
+/**
+ * Published whenever the results of a finished game are recorded on the
+ * leaderboard.
+ *
+ */
+public class LeaderboardChangedEvent extends ApplicationEvent {
+
+	private static final long serialVersionUID = 2795384457402513826L;
+
+	private final List<LeaderboardEntry> results;
+
+	public LeaderboardChangedEvent(
+			Object source, List<LeaderboardEntry> results) {
+		super(source);
+		this.results = results;
+	}
+
+	public List<LeaderboardEntry> getResults() {
+		return results;
+	}
+
+}
@@ -0,0 +1,50 @@
+package com.pm.server.event;
+
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Published whenever pacdots are eaten, reset or replaced.
+ *
+ */
+public class PacdotsChangedEvent extends ApplicationEvent {
+
+	private static final long serialVersionUID = 6151349706329913466L;
+
+	public enum Change {
+		EATEN,
+		RESET,
+		REPLACED
+	}
+
+	private final Integer uneatenCount;
+
+	private final Change change;
+
+	private final int[] eatenIndices;
+
+	/**
+	 * @param eatenIndices Indices of the pacdots eaten by this change, if
+	 *                     the change is {@link Change#EATEN}
+	 */
+	public PacdotsChangedEvent(
+			Object source, Integer uneatenCount, Change change,
+			int[] eatenIndices) {
+		super(source);
+		this.uneatenCount = uneatenCount;
+		this.change = change;
+		this.eatenIndices = eatenIndices;
+	}
+
+	public Integer getUneatenCount() {
+		return uneatenCount;
+	}
+
+	public Change getChange() {
+		return change;
+	}
+
+	public int[] getEatenIndices() {
+		return eatenIndices;
+	}
+
+}
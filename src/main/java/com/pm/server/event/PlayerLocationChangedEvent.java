@@ -0,0 +1,50 @@
+package com.pm.server.event;
+
+import com.pm.server.datatype.Coordinate;
+import com.pm.server.datatype.Player;
+import org.springframework.context.ApplicationEvent;
+
+import java.util.List;
+
+/**
+ * Published whenever a player is moved, or its location is reset.
+ *
+ */
+public class PlayerLocationChangedEvent extends ApplicationEvent {
+
+	private static final long serialVersionUID = 4518733294265047409L;
+
+	private final Player.Name name;
+
+	private final List<Coordinate> path;
+
+	private final long[] times;
+
+	/**
+	 * @param path Locations the player moved through, ending at its new
+	 *             location; empty if its location was reset
+	 * @param times Time each location of the path was received, in
+	 *              milliseconds
+	 */
+	public PlayerLocationChangedEvent(
+			Object source, Player.Name name, List<Coordinate> path,
+			long[] times) {
+		super(source);
+		this.name = name;
+		this.path = path;
+		this.times = times;
+	}
+
+	public Player.Name getName() {
+		return name;
+	}
+
+	public List<Coordinate> getPath() {
+		return path;
+	}
+
+	public long[] getTimes() {
+		return times;
+	}
+
+}
@@ -0,0 +1,43 @@
+package com.pm.server.event;
+
+import com.pm.server.datatype.Player;
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Published whenever the state of a player changes.
+ *
+ */
+public class PlayerStateChangedEvent extends ApplicationEvent {
+
+	private static final long serialVersionUID = -2815000455170337271L;
+
+	private final Player.Name name;
+
+	private final Player.State previousState;
+
+	private final Player.State state;
+
+	public PlayerStateChangedEvent(
+			Object source,
+			Player.Name name,
+			Player.State previousState,
+			Player.State state) {
+		super(source);
+		this.name = name;
+		this.previousState = previousState;
+		this.state = state;
+	}
+
+	public Player.Name getName() {
+		return name;
+	}
+
+	public Player.State getPreviousState() {
+		return previousState;
+	}
+
+	public Player.State getState() {
+		return state;
+	}
+
+}
@@ -0,0 +1,90 @@
+package com.pm.server.filter;
+
+import com.pm.server.datatype.Coordinate;
+import com.pm.server.datatype.Player;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Smooths fixes with a Kalman filter which models the player as standing
+ * still with an uncertainty that grows at walking pace.
+ *
+ * <p>
+ *     Each fix is weighted against the current estimate by their
+ *     variances, so a stationary phone's wobble averages out while a walking
+ *     player is followed within a few fixes. Latitude and longitude share
+ *     one variance, since GPS error is roughly circular.
+ * </p>
+ */
+@Component
+@Order(2)
+public class KalmanLocationFilter implements LocationFilter {
+
+	/**
+	 * Rate at which the estimate's uncertainty grows between fixes.
+	 */
+	private static final double WALKING_SPEED_METRES_PER_SECOND = 3;
+
+	private final double measurementVariance;
+
+	private final double[] latitudes = new double[Player.Name.values().length];
+	private final double[] longitudes = new double[Player.Name.values().length];
+	private final long[] times = new long[Player.Name.values().length];
+
+	/**
+	 * Variance of each estimate in square metres; negative until the first
+	 * fix.
+	 */
+	private final double[] variances = new double[Player.Name.values().length];
+
+	/**
+	 * @param accuracy Typical error of a fix in metres, or 0 to pass every
+	 *                 fix unchanged
+	 */
+	@Autowired
+	public KalmanLocationFilter(
+			@Value("${location.filter.kalman.accuracy}") Double accuracy) {
+		this.measurementVariance = accuracy * accuracy;
+		for(int i = 0; i < variances.length; i++) {
+			variances[i] = -1;
+		}
+	}
+
+	@Override
+	public synchronized Coordinate filter(
+			Player.Name name, long timeMillis, Coordinate location) {
+
+		if(measurementVariance <= 0) {
+			return location;
+		}
+
+		int i = name.ordinal();
+		if(variances[i] < 0) {
+			latitudes[i] = location.getLatitude();
+			longitudes[i] = location.getLongitude();
+			variances[i] = measurementVariance;
+		}
+		else {
+			double seconds = Math.max(0, (timeMillis - times[i]) / 1000.0);
+			double variance = variances[i] +
+					seconds * WALKING_SPEED_METRES_PER_SECOND *
+					WALKING_SPEED_METRES_PER_SECOND;
+
+			double gain = variance / (variance + measurementVariance);
+			latitudes[i] += gain * (location.getLatitude() - latitudes[i]);
+			longitudes[i] += gain * (location.getLongitude() - longitudes[i]);
+			variances[i] = (1 - gain) * variance;
+		}
+		times[i] = timeMillis;
+
+		return new Coordinate(latitudes[i], longitudes[i]);
+	}
+
+	@Override
+	public synchronized void reset(Player.Name name) {
+		variances[name.ordinal()] = -1;
+	}
+
+}
@@ -0,0 +1,33 @@
+package com.pm.server.filter;
+
+import com.pm.server.datatype.Coordinate;
+import com.pm.server.datatype.Player;
+
+/**
+ * A stage which location fixes pass through before they reach the
+ * registries.
+ *
+ * <p>
+ *     Every bean implementing this interface joins the chain applied by
+ *     {@link com.pm.server.manager.LocationManager}, in the order given by
+ *     its {@link org.springframework.core.annotation.Order}. A filter may
+ *     pass a fix on unchanged, replace it (e.g. with a smoothed location),
+ *     or drop it; a dropped fix does not reach the later filters.
+ * </p>
+ */
+public interface LocationFilter {
+
+	/**
+	 * @param name Player which sent the fix
+	 * @param timeMillis Time the fix was received
+	 * @param location Location of the fix
+	 * @return The location to pass on, or null to drop the fix
+	 */
+	Coordinate filter(Player.Name name, long timeMillis, Coordinate location);
+
+	/**
+	 * Forgets the fixes seen from a player, e.g. once it is deselected.
+	 */
+	void reset(Player.Name name);
+
+}
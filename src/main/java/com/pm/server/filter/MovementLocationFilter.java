@@ -0,0 +1,63 @@
+package com.pm.server.filter;
+
+import com.pm.server.datatype.Coordinate;
+import com.pm.server.datatype.Player;
+import com.pm.server.utils.GeoUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Drops fixes which are within a small distance of the last fix passed on,
+ * so a player standing still does not trigger a registry write and a
+ * pacdot scan for every fix its phone sends.
+ */
+@Component
+@Order(3)
+public class MovementLocationFilter implements LocationFilter {
+
+	private final double minDistance;
+
+	private final double[] latitudes = new double[Player.Name.values().length];
+	private final double[] longitudes = new double[Player.Name.values().length];
+	private final boolean[] seen = new boolean[Player.Name.values().length];
+
+	/**
+	 * @param minDistance Smallest movement in metres which is passed on, or
+	 *                    0 to pass every fix
+	 */
+	@Autowired
+	public MovementLocationFilter(
+			@Value("${location.filter.min.distance}") Double minDistance) {
+		this.minDistance = minDistance;
+	}
+
+	@Override
+	public synchronized Coordinate filter(
+			Player.Name name, long timeMillis, Coordinate location) {
+
+		if(minDistance <= 0) {
+			return location;
+		}
+
+		int i = name.ordinal();
+		if(seen[i] && GeoUtils.distanceMetres(
+				latitudes[i], longitudes[i],
+				location.getLatitude(), location.getLongitude()
+		) < minDistance) {
+			return null;
+		}
+
+		latitudes[i] = location.getLatitude();
+		longitudes[i] = location.getLongitude();
+		seen[i] = true;
+		return location;
+	}
+
+	@Override
+	public synchronized void reset(Player.Name name) {
+		seen[name.ordinal()] = false;
+	}
+
+}
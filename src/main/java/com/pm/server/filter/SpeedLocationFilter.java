@@ -0,0 +1,84 @@
+package com.pm.server.filter;
+
+import com.pm.server.datatype.Coordinate;
+import com.pm.server.datatype.Player;
+import com.pm.server.utils.GeoUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Drops fixes which would mean the player moved faster than a person can
+ * run since its last plausible fix, as happens when a phone briefly
+ * locates itself by a distant cell tower.
+ *
+ * <p>
+ *     Fixes less than a second apart are judged as if a second apart, so a
+ *     burst of fixes sent on reconnecting is not rejected for its short
+ *     intervals.
+ * </p>
+ */
+@Component
+@Order(1)
+public class SpeedLocationFilter implements LocationFilter {
+
+	private final double maxSpeed;
+
+	private final double[] latitudes = new double[Player.Name.values().length];
+	private final double[] longitudes = new double[Player.Name.values().length];
+	private final long[] times = new long[Player.Name.values().length];
+	private final boolean[] seen = new boolean[Player.Name.values().length];
+
+	private final static Logger log =
+			LogManager.getLogger(SpeedLocationFilter.class.getName());
+
+	/**
+	 * @param maxSpeed Fastest plausible speed in metres per second, or 0 to
+	 *                 pass every fix
+	 */
+	@Autowired
+	public SpeedLocationFilter(
+			@Value("${location.filter.max.speed}") Double maxSpeed) {
+		this.maxSpeed = maxSpeed;
+	}
+
+	@Override
+	public synchronized Coordinate filter(
+			Player.Name name, long timeMillis, Coordinate location) {
+
+		if(maxSpeed <= 0) {
+			return location;
+		}
+
+		int i = name.ordinal();
+		if(seen[i]) {
+			double metres = GeoUtils.distanceMetres(
+					latitudes[i], longitudes[i],
+					location.getLatitude(), location.getLongitude()
+			);
+			double seconds = Math.max(1, (timeMillis - times[i]) / 1000.0);
+			if(metres / seconds > maxSpeed) {
+				log.debug(
+						"Dropping fix for Player {} implying {} m/s",
+						name, metres / seconds
+				);
+				return null;
+			}
+		}
+
+		latitudes[i] = location.getLatitude();
+		longitudes[i] = location.getLongitude();
+		times[i] = timeMillis;
+		seen[i] = true;
+		return location;
+	}
+
+	@Override
+	public synchronized void reset(Player.Name name) {
+		seen[name.ordinal()] = false;
+	}
+
+}
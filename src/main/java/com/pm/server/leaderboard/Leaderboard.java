@@ -0,0 +1,399 @@
+package com.pm.server.leaderboard;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pm.server.datatype.GameState;
+import com.pm.server.event.GameStateChangedEvent;
+import com.pm.server.event.LeaderboardChangedEvent;
+import com.pm.server.manager.GameStateManager;
+import com.pm.server.registry.PacdotRegistry;
+import com.pm.server.replication.ReplicationFollower;
+import com.pm.server.utils.JsonUtils;
+import com.pm.server.utils.TopK;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.ApplicationEventPublisherAware;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The best results of every game finished on this server, on several
+ * boards, kept across restarts.
+ *
+ * <p>
+ *     Each board keeps its best <code>leaderboard.capacity</code> entries
+ *     in a {@link TopK}, so recording a result takes
+ *     <code>O(log k)</code> and reading a page never blocks the game.
+ *     Every result is appended to a journal of JSON lines
+ *     (<code>leaderboard.journal.file</code>) by the
+ *     <code>leaderboardExecutor</code>, so finishing a game never waits
+ *     for the disk, and the journal is replayed on startup.
+ * </p>
+ * <p>
+ *     Only a primary records the results of the games it sees finish.
+ *     Followers are sent the primary's results instead, so their boards
+ *     match the primary's rather than timing each game again: a follower
+ *     takes the primary's boards, and journal, when it connects, and ranks
+ *     every result recorded after. A standby which takes over therefore
+ *     has every result, and records the games which finish after.
+ * </p>
+ */
+@Component
+public class Leaderboard implements ApplicationEventPublisherAware {
+
+	public enum Board {
+
+		/**
+		 * Score of every finished game, highest first.
+		 */
+		PACMAN_SCORE(true),
+
+		/**
+		 * Milliseconds the ghosts took to capture Pacman, fastest first.
+		 */
+		GHOSTS_CAPTURE_MILLIS(false),
+
+		/**
+		 * Milliseconds Pacman took to eat every pacdot, fastest first.
+		 */
+		PACMAN_CLEAR_MILLIS(false);
+
+		private final boolean highestFirst;
+
+		Board(boolean highestFirst) {
+			this.highestFirst = highestFirst;
+		}
+
+	}
+
+	private static final ObjectMapper objectMapper =
+			JsonUtils.getObjectMapper();
+
+	private final GameStateManager gameStateManager;
+
+	private final PacdotRegistry pacdotRegistry;
+
+	private final ReplicationFollower replicationFollower;
+
+	private final Path journal;
+
+	private final Executor leaderboardExecutor;
+
+	private final Map<Board, TopK<Ranked>> boards = new EnumMap<>(Board.class);
+
+	private final AtomicLong sequence = new AtomicLong();
+
+	private ApplicationEventPublisher eventPublisher;
+
+	/**
+	 * Results of the primary's boards when this follower last took them,
+	 * which may be sent again as they are recorded.
+	 */
+	private Set<LeaderboardEntry> replicatedBoards = Collections.emptySet();
+
+	/**
+	 * Start of the game in progress, or 0 if its start was not seen.
+	 */
+	private long startMillis = 0;
+
+	private final static Logger log =
+			LogManager.getLogger(Leaderboard.class.getName());
+
+	@Autowired
+	public Leaderboard(
+			GameStateManager gameStateManager,
+			PacdotRegistry pacdotRegistry,
+			ReplicationFollower replicationFollower,
+			@Value("${leaderboard.capacity}") Integer capacity,
+			@Value("${leaderboard.journal.file}") String journal,
+			@Qualifier("leaderboardExecutor") Executor leaderboardExecutor) {
+		this.gameStateManager = gameStateManager;
+		this.pacdotRegistry = pacdotRegistry;
+		this.replicationFollower = replicationFollower;
+		this.journal = Paths.get(journal);
+		this.leaderboardExecutor = leaderboardExecutor;
+
+		for(Board board : Board.values()) {
+			Comparator<Ranked> byValue =
+					Comparator.comparingLong(r -> r.entry.getValue());
+			if(board.highestFirst) {
+				byValue = byValue.reversed();
+			}
+			// Earlier results rank above equal later ones
+			boards.put(board, new TopK<>(
+					byValue
+							.thenComparingLong(r -> r.entry.getFinishedMillis())
+							.thenComparingLong(r -> r.sequence),
+					capacity
+			));
+		}
+	}
+
+	@Override
+	public void setApplicationEventPublisher(
+			ApplicationEventPublisher eventPublisher) {
+		this.eventPublisher = eventPublisher;
+	}
+
+	@PostConstruct
+	public void replayJournal() {
+
+		if(!Files.exists(journal)) {
+			return;
+		}
+
+		int replayed = 0;
+		try(BufferedReader reader =
+				Files.newBufferedReader(journal, StandardCharsets.UTF_8)) {
+			String line;
+			while((line = reader.readLine()) != null) {
+				if(line.isEmpty()) {
+					continue;
+				}
+				try {
+					rank(objectMapper.readValue(line, LeaderboardEntry.class));
+					replayed++;
+				}
+				catch(IOException e) {
+					// A line cut short by a crash while it was appended
+					log.warn("Skipping unreadable leaderboard entry: {}", line);
+				}
+			}
+		}
+		catch(IOException e) {
+			log.error("Failed to replay the leaderboard journal {}: {}",
+					journal, e.getMessage());
+		}
+		log.info("Replayed {} leaderboard entries from {}", replayed, journal);
+	}
+
+	@EventListener
+	public synchronized void onGameStateChanged(GameStateChangedEvent event) {
+
+		long now = System.currentTimeMillis();
+		GameState state = event.getState();
+
+		if(state == GameState.IN_PROGRESS &&
+				event.getPreviousState() == GameState.INITIALIZING) {
+			startMillis = now;
+		}
+		else if(state == GameState.INITIALIZING) {
+			startMillis = 0;
+		}
+		else if(state == GameState.FINISHED_PACMAN_WIN ||
+				state == GameState.FINISHED_GHOSTS_WIN) {
+
+			// Followers are sent the primary's results; the start is still
+			// followed, so a standby which takes over mid-game times the game
+			if(replicationFollower.isFollower()) {
+				startMillis = 0;
+				return;
+			}
+
+			List<LeaderboardEntry> results = new ArrayList<>();
+			results.add(newEntry(
+					Board.PACMAN_SCORE, gameStateManager.getScore(), now
+			));
+			if(startMillis > 0) {
+				results.add(newEntry(
+						state == GameState.FINISHED_PACMAN_WIN ?
+								Board.PACMAN_CLEAR_MILLIS :
+								Board.GHOSTS_CAPTURE_MILLIS,
+						now - startMillis, now
+				));
+			}
+			startMillis = 0;
+
+			record(results);
+		}
+	}
+
+	/**
+	 * Records results of another server's leaderboard, e.g. one replicated
+	 * from a primary.
+	 *
+	 * @param boards Whether the results are the whole of the other
+	 *               server's boards, which replace this leaderboard's and
+	 *               its journal, rather than newly recorded results
+	 */
+	public synchronized void replicateResults(
+			List<LeaderboardEntry> results, boolean boards) {
+
+		if(boards) {
+			for(TopK<Ranked> board : this.boards.values()) {
+				board.clear();
+			}
+			for(LeaderboardEntry entry : results) {
+				rank(entry);
+			}
+			replicatedBoards = new HashSet<>(results);
+			leaderboardExecutor.execute(() -> rewrite(results));
+			return;
+		}
+
+		// Results recorded while the boards were taken are sent with them
+		// and again on their own
+		List<LeaderboardEntry> recorded = new ArrayList<>();
+		for(LeaderboardEntry entry : results) {
+			if(!replicatedBoards.contains(entry)) {
+				recorded.add(entry);
+			}
+		}
+		if(!recorded.isEmpty()) {
+			record(recorded);
+		}
+	}
+
+	/**
+	 * @return Every entry kept on every board
+	 */
+	public List<LeaderboardEntry> getEntries() {
+		List<LeaderboardEntry> entries = new ArrayList<>();
+		for(Board board : Board.values()) {
+			entries.addAll(getPage(board, 0, Integer.MAX_VALUE));
+		}
+		return entries;
+	}
+
+	/**
+	 * @param offset Number of best entries to skip
+	 * @param limit Most entries returned
+	 * @return Entries of the board from the given rank, best first
+	 */
+	public List<LeaderboardEntry> getPage(Board board, int offset, int limit) {
+		List<LeaderboardEntry> page = new ArrayList<>();
+		for(Ranked ranked : boards.get(board).page(offset, limit)) {
+			page.add(ranked.entry);
+		}
+		return page;
+	}
+
+	/**
+	 * @return The number of entries kept on the board
+	 */
+	public int getSize(Board board) {
+		return boards.get(board).size();
+	}
+
+	private LeaderboardEntry newEntry(Board board, long value, long now) {
+		LeaderboardEntry entry = new LeaderboardEntry();
+		entry.setBoard(board);
+		entry.setValue(value);
+		entry.setFinishedMillis(now);
+		entry.setMapName(pacdotRegistry.getMapName());
+		return entry;
+	}
+
+	/**
+	 * Ranks the results and publishes them, then journals them without
+	 * holding this leaderboard.
+	 */
+	private void record(List<LeaderboardEntry> results) {
+		for(LeaderboardEntry entry : results) {
+			rank(entry);
+		}
+		if(eventPublisher != null) {
+			eventPublisher.publishEvent(
+					new LeaderboardChangedEvent(this, results)
+			);
+		}
+		leaderboardExecutor.execute(() -> append(results));
+	}
+
+	private void rank(LeaderboardEntry entry) {
+		boards.get(entry.getBoard()).offer(
+				new Ranked(entry, sequence.incrementAndGet())
+		);
+	}
+
+	private void append(List<LeaderboardEntry> entries) {
+		try {
+			if(journal.getParent() != null) {
+				Files.createDirectories(journal.getParent());
+			}
+			Files.write(
+					journal, lines(entries),
+					StandardOpenOption.CREATE, StandardOpenOption.APPEND
+			);
+		}
+		catch(IOException e) {
+			log.error("Failed to journal leaderboard entries: {}",
+					e.getMessage());
+		}
+	}
+
+	/**
+	 * Replaces the journal with the given entries, written in full under a
+	 * temporary name first so a crash never leaves it partly written.
+	 */
+	private void rewrite(List<LeaderboardEntry> entries) {
+		try {
+			if(journal.getParent() != null) {
+				Files.createDirectories(journal.getParent());
+			}
+			Path temporary = journal.resolveSibling(
+					journal.getFileName() + ".tmp"
+			);
+			Files.write(temporary, lines(entries));
+			Files.move(
+					temporary, journal,
+					StandardCopyOption.REPLACE_EXISTING,
+					StandardCopyOption.ATOMIC_MOVE
+			);
+		}
+		catch(IOException e) {
+			log.error("Failed to rewrite the leaderboard journal: {}",
+					e.getMessage());
+		}
+	}
+
+	private static byte[] lines(List<LeaderboardEntry> entries)
+			throws IOException {
+		StringBuilder lines = new StringBuilder();
+		for(LeaderboardEntry entry : entries) {
+			lines.append(objectMapper.writeValueAsString(entry)).append('\n');
+		}
+		return lines.toString().getBytes(StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * An entry with the order in which it was ranked, which tells apart
+	 * entries with the same result.
+	 */
+	private static class Ranked {
+
+		final LeaderboardEntry entry;
+
+		final long sequence;
+
+		Ranked(LeaderboardEntry entry, long sequence) {
+			this.entry = entry;
+			this.sequence = sequence;
+		}
+
+	}
+
+}
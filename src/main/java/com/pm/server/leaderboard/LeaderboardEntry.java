@@ -0,0 +1,74 @@
+package com.pm.server.leaderboard;
+
+import java.util.Objects;
+
+/**
+ * One result of one finished game on one board of the leaderboard, also
+ * the line of JSON recording it in the leaderboard's journal.
+ */
+public class LeaderboardEntry {
+
+	private Leaderboard.Board board;
+
+	private Long value;
+
+	private Long finishedMillis;
+
+	private String mapName;
+
+	public Leaderboard.Board getBoard() {
+		return board;
+	}
+
+	public void setBoard(Leaderboard.Board board) {
+		this.board = board;
+	}
+
+	/**
+	 * @return The result ranked by the board, in the board's units
+	 */
+	public Long getValue() {
+		return value;
+	}
+
+	public void setValue(Long value) {
+		this.value = value;
+	}
+
+	public Long getFinishedMillis() {
+		return finishedMillis;
+	}
+
+	public void setFinishedMillis(Long finishedMillis) {
+		this.finishedMillis = finishedMillis;
+	}
+
+	public String getMapName() {
+		return mapName;
+	}
+
+	public void setMapName(String mapName) {
+		this.mapName = mapName;
+	}
+
+	@Override
+	public boolean equals(Object other) {
+		if(this == other) {
+			return true;
+		}
+		if(!(other instanceof LeaderboardEntry)) {
+			return false;
+		}
+		LeaderboardEntry entry = (LeaderboardEntry) other;
+		return board == entry.board &&
+				Objects.equals(value, entry.value) &&
+				Objects.equals(finishedMillis, entry.finishedMillis) &&
+				Objects.equals(mapName, entry.mapName);
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(board, value, finishedMillis, mapName);
+	}
+
+}
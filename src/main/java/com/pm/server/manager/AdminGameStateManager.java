@@ -74,4 +74,17 @@ public class AdminGameStateManager {
 
     }
 
+    /**
+     * Returns the game to a fresh <code>INITIALIZING</code> state from any
+     * state, e.g. once the game has moved to another server.
+     */
+    public void clearGame() {
+        if(gameStateRegistry.getCurrentState() != GameState.INITIALIZING) {
+            gameStateRegistry.resetGame();
+        }
+        playerRegistry.reset();
+        pacdotRegistry.resetPacdots();
+        tagRegistry.clearTags();
+    }
+
 }
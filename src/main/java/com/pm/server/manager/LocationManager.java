@@ -0,0 +1,66 @@
+package com.pm.server.manager;
+
+import com.pm.server.PmServerException;
+import com.pm.server.datatype.Coordinate;
+import com.pm.server.datatype.Player;
+
+/**
+ * Ingests location fixes sent by players.
+ *
+ * <p>
+ *     Fixes for a player which arrive within the coalescing window
+ *     (<code>location.coalesce.millis</code>) are applied together: the
+ *     player is moved once, to the newest fix, and Pacman eats the pacdots
+ *     along every fix of the path. With a window of 0, each fix is applied
+ *     as it arrives.
+ * </p>
+ * <p>
+ *     Before that, each fix passes through the chain of
+ *     {@link com.pm.server.filter.LocationFilter}s, which may smooth it or
+ *     drop it as redundant or implausible.
+ * </p>
+ * <p>
+ *     When the {@link com.pm.server.GameLoop} ticks, the window is the tick
+ *     instead: each tick applies the fixes received since the previous one.
+ * </p>
+ * <p>
+ *     While a standby is connected, a fix is applied before its request is
+ *     answered, so the standby can receive it first: the pending fixes of
+ *     the player are applied at once, or at the next tick when ticking.
+ * </p>
+ */
+public interface LocationManager {
+
+    /**
+     * @param name Player which sent the fix
+     * @param location Location of the fix
+     * @throws PmServerException If the game loop did not apply the fix
+     *         while a standby waits for it
+     */
+    void setPlayerLocation(Player.Name name, Coordinate location)
+            throws PmServerException;
+
+    /**
+     * Applies the fixes of every player still waiting for a tick or a
+     * coalescing window, such as before the game is copied elsewhere.
+     */
+    void flushPendingLocations();
+
+    /**
+     * @return The number of fixes received since the server started
+     */
+    long getReceivedFixes();
+
+    /**
+     * @return The number of fixes dropped by a location filter
+     */
+    long getFilteredFixes();
+
+    /**
+     * @return The number of location updates applied to the registries;
+     *         fewer than the fixes passing the filters when fixes are
+     *         coalesced
+     */
+    long getAppliedUpdates();
+
+}
@@ -0,0 +1,252 @@
+package com.pm.server.manager;
+
+import com.pm.server.GameLoop;
+import com.pm.server.PmServerException;
+import com.pm.server.datatype.Coordinate;
+import com.pm.server.datatype.Player;
+import com.pm.server.event.PlayerStateChangedEvent;
+import com.pm.server.filter.LocationFilter;
+import com.pm.server.registry.PlayerRegistry;
+import com.pm.server.replication.ReplicationLog;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Service
+public class LocationManagerImpl implements LocationManager {
+
+    private PlayerRegistry playerRegistry;
+
+    private TagManager tagManager;
+
+    private GameLoop gameLoop;
+
+    private ReplicationLog replicationLog;
+
+    private List<LocationFilter> locationFilters;
+
+    private long coalesceMillis;
+
+    private final AtomicLong receivedFixes = new AtomicLong();
+
+    private final AtomicLong filteredFixes = new AtomicLong();
+
+    private final AtomicLong appliedUpdates = new AtomicLong();
+
+    private final Map<Player.Name, PendingPath> pendingPaths =
+            new EnumMap<>(Player.Name.class);
+
+    private final static Logger log =
+            LogManager.getLogger(LocationManagerImpl.class.getName());
+
+    @Autowired
+    public LocationManagerImpl(
+            PlayerRegistry playerRegistry,
+            TagManager tagManager,
+            GameLoop gameLoop,
+            ReplicationLog replicationLog,
+            List<LocationFilter> locationFilters,
+            @Value("${location.coalesce.millis}") Long coalesceMillis) {
+        this.playerRegistry = playerRegistry;
+        this.tagManager = tagManager;
+        this.gameLoop = gameLoop;
+        this.replicationLog = replicationLog;
+        this.locationFilters = locationFilters;
+        this.coalesceMillis = coalesceMillis;
+
+        // Filled once, so the map is only read afterwards
+        for(Player.Name name : Player.Name.values()) {
+            pendingPaths.put(name, new PendingPath());
+        }
+
+        // When the game loop ticks, every tick flushes the fixes received
+        // since the previous one
+        if(gameLoop.isTicking()) {
+            gameLoop.addTickTask(this::flushPendingLocations);
+        }
+    }
+
+    @Override
+    public void setPlayerLocation(Player.Name name, Coordinate location)
+            throws PmServerException {
+
+        receivedFixes.incrementAndGet();
+
+        long now = System.currentTimeMillis();
+        for(LocationFilter locationFilter : locationFilters) {
+            location = locationFilter.filter(name, now, location);
+            if(location == null) {
+                filteredFixes.incrementAndGet();
+                return;
+            }
+        }
+
+        // A standby must receive the fix before the request is answered,
+        // so the fix cannot wait for a later flush
+        boolean standby = replicationLog.hasStandby();
+
+        if(gameLoop.isTicking()) {
+            pendingPaths.get(name).add(location, now);
+            if(standby) {
+                gameLoop.call(() -> {
+                    flush(name);
+                    return null;
+                });
+            }
+            return;
+        }
+
+        if(coalesceMillis <= 0) {
+            apply(
+                    name, Collections.singletonList(location),
+                    new long[] { now }
+            );
+            return;
+        }
+
+        if(standby) {
+            pendingPaths.get(name).add(location, now);
+            flush(name);
+            return;
+        }
+
+        if(pendingPaths.get(name).add(location, now)) {
+            gameLoop.schedule(
+                    () -> flush(name), coalesceMillis, TimeUnit.MILLISECONDS
+            );
+        }
+    }
+
+    @Override
+    public void flushPendingLocations() {
+        for(Player.Name name : Player.Name.values()) {
+            flush(name);
+        }
+    }
+
+    @Override
+    public long getReceivedFixes() {
+        return receivedFixes.get();
+    }
+
+    @Override
+    public long getFilteredFixes() {
+        return filteredFixes.get();
+    }
+
+    @Override
+    public long getAppliedUpdates() {
+        return appliedUpdates.get();
+    }
+
+    @EventListener
+    public void onPlayerStateChanged(PlayerStateChangedEvent event) {
+        // A player selected again starts a new track
+        if(event.getState() == Player.State.UNINITIALIZED) {
+            for(LocationFilter locationFilter : locationFilters) {
+                locationFilter.reset(event.getName());
+            }
+        }
+    }
+
+    private void flush(Player.Name name) {
+        PendingPath pendingPath = pendingPaths.get(name);
+
+        // A request may flush its own fixes while a scheduled flush runs,
+        // and each must apply what it drained before the other drains
+        synchronized(pendingPath.flushLock) {
+            PendingPath pending = pendingPath.drain();
+            List<Coordinate> path = pending.fixes;
+            if(path.isEmpty()) {
+                return;
+            }
+
+            // The player may have been deselected while its fixes were
+            // pending
+            if(playerRegistry.getPlayerState(name) ==
+                    Player.State.UNINITIALIZED) {
+                log.debug(
+                        "Dropping {} fixes for deselected Player {}",
+                        path.size(), name
+                );
+                return;
+            }
+
+            try {
+                apply(name, path, Arrays.copyOf(pending.times, path.size()));
+            }
+            catch(RuntimeException e) {
+                // Nothing else would log it on the scheduler thread
+                log.error("Failed to apply fixes for Player " + name, e);
+            }
+        }
+    }
+
+    private void apply(Player.Name name, List<Coordinate> path, long[] times) {
+        Coordinate location = path.get(path.size() - 1);
+        log.info(
+                "Setting Player {} to ({}, {}) from {} fixes",
+                name, location.getLatitude(), location.getLongitude(),
+                path.size()
+        );
+        playerRegistry.setPlayerPathByName(name, path, times);
+        appliedUpdates.incrementAndGet();
+        tagManager.tagNearbyPlayers(name);
+    }
+
+    /**
+     * Fixes received for a player since its last flush, in arrival order,
+     * with the time each was received.
+     */
+    private static class PendingPath {
+
+        private List<Coordinate> fixes = new ArrayList<>();
+
+        private long[] times = new long[4];
+
+        /**
+         * Held while the fixes drained are applied.
+         */
+        private final Object flushLock = new Object();
+
+        /**
+         * @return True if this is the first fix since the last flush, in
+         *         which case the caller schedules the next flush
+         */
+        synchronized boolean add(Coordinate location, long timeMillis) {
+            if(fixes.size() == times.length) {
+                times = Arrays.copyOf(times, times.length * 2);
+            }
+            times[fixes.size()] = timeMillis;
+            fixes.add(location);
+            return fixes.size() == 1;
+        }
+
+        /**
+         * @return The fixes received since the last flush; its times may be
+         *         longer than its fixes
+         */
+        synchronized PendingPath drain() {
+            PendingPath drained = new PendingPath();
+            drained.fixes = fixes;
+            drained.times = times;
+            fixes = new ArrayList<>();
+            times = new long[4];
+            return drained;
+        }
+
+    }
+
+}
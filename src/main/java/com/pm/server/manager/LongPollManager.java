@@ -0,0 +1,41 @@
+package com.pm.server.manager;
+
+import com.pm.server.datatype.GameState;
+import com.pm.server.datatype.Player;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Parks long-poll requests until the value they watch changes.
+ *
+ * <p>
+ *     Each method returns a future which completes with the new value once
+ *     it differs from the value the client last saw, or immediately if it
+ *     already differs. No thread is held while a future is waiting;
+ *     cancelling a future stops it waiting.
+ * </p>
+ */
+public interface LongPollManager {
+
+    /**
+     * @param from Game state the client last saw
+     * @return A future for the next different game state
+     */
+    CompletableFuture<GameState> waitForGameStateChange(GameState from);
+
+    /**
+     * @param name Player to watch
+     * @param from State of the player the client last saw
+     * @return A future for the next different state of the player
+     */
+    CompletableFuture<Player.State> waitForPlayerStateChange(
+            Player.Name name, Player.State from
+    );
+
+    /**
+     * @param from Number of uneaten pacdots the client last saw
+     * @return A future for the next different number of uneaten pacdots
+     */
+    CompletableFuture<Integer> waitForUneatenCountChange(Integer from);
+
+}
@@ -0,0 +1,89 @@
+package com.pm.server.manager;
+
+import com.pm.server.datatype.GameState;
+import com.pm.server.datatype.Player;
+import com.pm.server.event.GameStateChangedEvent;
+import com.pm.server.event.PacdotsChangedEvent;
+import com.pm.server.event.PlayerStateChangedEvent;
+import com.pm.server.registry.GameStateRegistry;
+import com.pm.server.registry.PacdotRegistry;
+import com.pm.server.registry.PlayerRegistry;
+import com.pm.server.utils.ChangeWaiters;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+@Service
+public class LongPollManagerImpl implements LongPollManager {
+
+    private GameStateRegistry gameStateRegistry;
+
+    private PlayerRegistry playerRegistry;
+
+    private PacdotRegistry pacdotRegistry;
+
+    private final ChangeWaiters<GameState> gameStateWaiters =
+            new ChangeWaiters<>();
+
+    private final Map<Player.Name, ChangeWaiters<Player.State>>
+            playerStateWaiters = new EnumMap<>(Player.Name.class);
+
+    private final ChangeWaiters<Integer> uneatenCountWaiters =
+            new ChangeWaiters<>();
+
+    @Autowired
+    public LongPollManagerImpl(
+            GameStateRegistry gameStateRegistry,
+            PlayerRegistry playerRegistry,
+            PacdotRegistry pacdotRegistry) {
+        this.gameStateRegistry = gameStateRegistry;
+        this.playerRegistry = playerRegistry;
+        this.pacdotRegistry = pacdotRegistry;
+
+        for(Player.Name name : Player.Name.values()) {
+            playerStateWaiters.put(name, new ChangeWaiters<>());
+        }
+    }
+
+    @Override
+    public CompletableFuture<GameState> waitForGameStateChange(GameState from) {
+        return gameStateWaiters.waitForChange(
+                from, gameStateRegistry::getCurrentState
+        );
+    }
+
+    @Override
+    public CompletableFuture<Player.State> waitForPlayerStateChange(
+            Player.Name name, Player.State from) {
+        return playerStateWaiters.get(name).waitForChange(
+                from, () -> playerRegistry.getPlayerState(name)
+        );
+    }
+
+    @Override
+    public CompletableFuture<Integer> waitForUneatenCountChange(Integer from) {
+        return uneatenCountWaiters.waitForChange(
+                from, pacdotRegistry::getUneatenCount
+        );
+    }
+
+    @EventListener
+    public void onGameStateChanged(GameStateChangedEvent event) {
+        gameStateWaiters.publish(event.getState());
+    }
+
+    @EventListener
+    public void onPlayerStateChanged(PlayerStateChangedEvent event) {
+        playerStateWaiters.get(event.getName()).publish(event.getState());
+    }
+
+    @EventListener
+    public void onPacdotsChanged(PacdotsChangedEvent event) {
+        uneatenCountWaiters.publish(event.getUneatenCount());
+    }
+
+}
@@ -0,0 +1,48 @@
+package com.pm.server.manager;
+
+import com.pm.server.PmServerException;
+import com.pm.server.datatype.HeatmapGrid;
+import com.pm.server.datatype.MapUploadReport;
+
+import java.io.InputStream;
+
+public interface MapManager {
+
+    /**
+     * Reads a map from a JSON list of pacdots and adds it to the catalog.
+     *
+     * <p>
+     *     The list may be a JSON array of pacdots or a GeoJSON
+     *     FeatureCollection of points; duplicate locations are dropped.
+     * </p>
+     * <p>
+     *     If the map is activated, the pacdots of the current game are
+     *     replaced with the pacdots of the map. This is only allowed while
+     *     the game is <code>INITIALIZING</code>.
+     * </p>
+     *
+     * @param name Name of the map
+     * @param inputStream Stream containing the JSON list of pacdots
+     * @param activate Whether the map should be loaded into the game
+     * @return A report on the map which was read
+     * @throws PmServerException If the name is invalid, the list is invalid
+     *               or too large, or the map is activated while the game is
+     *               not <code>INITIALIZING</code>
+     */
+    MapUploadReport uploadMap(
+            String name,
+            InputStream inputStream,
+            boolean activate
+    ) throws PmServerException;
+
+    /**
+     * Retrieves the counts of player locations on a map, over every game
+     * played on it since the server started.
+     *
+     * @param name Name of the map
+     * @return The heatmap of the map
+     * @throws PmServerException If no location has been counted on the map
+     */
+    HeatmapGrid getHeatmap(String name) throws PmServerException;
+
+}
@@ -0,0 +1,129 @@
+package com.pm.server.manager;
+
+import com.pm.server.GameLoop;
+import com.pm.server.PmServerException;
+import com.pm.server.datatype.GameState;
+import com.pm.server.datatype.HeatmapGrid;
+import com.pm.server.datatype.MapUploadReport;
+import com.pm.server.datatype.PacdotMap;
+import com.pm.server.registry.GameStateRegistry;
+import com.pm.server.registry.HeatmapRegistry;
+import com.pm.server.registry.MapRegistry;
+import com.pm.server.registry.PacdotRegistry;
+import com.pm.server.utils.PacdotMapReader;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.regex.Pattern;
+
+@Service
+public class MapManagerImpl implements MapManager {
+
+    private static final Pattern MAP_NAME = Pattern.compile("[A-Za-z0-9_-]+");
+
+    private MapRegistry mapRegistry;
+
+    private PacdotRegistry pacdotRegistry;
+
+    private GameStateRegistry gameStateRegistry;
+
+    private HeatmapRegistry heatmapRegistry;
+
+    private GameLoop gameLoop;
+
+    private Integer maxPacdots;
+
+    private Double pacdotCapturingDistance;
+
+    @Autowired
+    public MapManagerImpl(
+            MapRegistry mapRegistry,
+            PacdotRegistry pacdotRegistry,
+            GameStateRegistry gameStateRegistry,
+            HeatmapRegistry heatmapRegistry,
+            GameLoop gameLoop,
+            @Value("${maps.upload.max.pacdots}") Integer maxPacdots,
+            @Value("${pacdot.capturing.distance}") Double pacdotCapturingDistance) {
+        this.mapRegistry = mapRegistry;
+        this.pacdotRegistry = pacdotRegistry;
+        this.gameStateRegistry = gameStateRegistry;
+        this.heatmapRegistry = heatmapRegistry;
+        this.gameLoop = gameLoop;
+        this.maxPacdots = maxPacdots;
+        this.pacdotCapturingDistance = pacdotCapturingDistance;
+    }
+
+    @Override
+    public MapUploadReport uploadMap(
+            String name,
+            InputStream inputStream,
+            boolean activate
+    ) throws PmServerException {
+
+        if(name == null || !MAP_NAME.matcher(name).matches()) {
+            throw new PmServerException(
+                    HttpStatus.BAD_REQUEST,
+                    "A map requires a name made of letters, digits, " +
+                    "underscores and hyphens."
+            );
+        }
+
+        if(activate) {
+            requireInitializing();
+        }
+
+        PacdotMapReader reader = new PacdotMapReader(maxPacdots);
+        PacdotMap map;
+        try {
+            map = reader.read(name, inputStream, pacdotCapturingDistance);
+        }
+        catch(IOException e) {
+            throw new PmServerException(
+                    HttpStatus.BAD_REQUEST,
+                    "The map could not be read: " + e.getMessage()
+            );
+        }
+
+        mapRegistry.registerMap(map);
+
+        if(activate) {
+            // The game may have started while the map was being read, and
+            // the pacdots may only be replaced by the game loop
+            gameLoop.call(() -> {
+                requireInitializing();
+                pacdotRegistry.loadMap(map);
+                return null;
+            });
+        }
+
+        return new MapUploadReport(map, reader.getDuplicates(), activate);
+    }
+
+    @Override
+    public HeatmapGrid getHeatmap(String name) throws PmServerException {
+        HeatmapGrid heatmap = heatmapRegistry.getHeatmap(name);
+        if(heatmap == null) {
+            throw new PmServerException(
+                    HttpStatus.NOT_FOUND,
+                    "No player location has been counted on map " + name +
+                    "."
+            );
+        }
+        return heatmap;
+    }
+
+    private void requireInitializing() throws PmServerException {
+        if(gameStateRegistry.getCurrentState() != GameState.INITIALIZING) {
+            throw new PmServerException(
+                    HttpStatus.CONFLICT,
+                    "A map can only be activated while the game is " +
+                    "INITIALIZING."
+            );
+        }
+    }
+
+}
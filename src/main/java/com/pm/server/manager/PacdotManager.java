@@ -1,6 +1,8 @@
 package com.pm.server.manager;
 
+import com.pm.server.datatype.Coordinate;
 import com.pm.server.datatype.Pacdot;
+import com.pm.server.datatype.PacdotDensityTree;
 
 import java.util.List;
 
@@ -40,4 +42,40 @@ public interface PacdotManager {
      */
     Integer getUneatenPowerdotCount();
 
+    /**
+     * Retrieves a number which increases whenever any Pacdot changes.
+     *
+     * @return the current version of the Pacdots
+     */
+    long getVersion();
+
+    /**
+     * Retrieves the counts of all and of uneaten Pacdots in every region
+     * of the map.
+     *
+     * @return the density counts of the current Pacdots
+     */
+    PacdotDensityTree getDensity();
+
+    /**
+     * Finds the uneaten Pacdots nearest a location.
+     *
+     * @param location Location to search from
+     * @param count Number of Pacdots to find
+     * @return Up to the given number of uneaten Pacdots, nearest first
+     */
+    List<Pacdot> getNearestUneatenPacdots(Coordinate location, int count);
+
+    /**
+     * @return The version of the Pacdots in a slippy map tile, which only
+     *         changes when a Pacdot in the tile is eaten or the Pacdots are
+     *         reset or replaced
+     */
+    long getTileVersion(int zoom, int x, int y);
+
+    /**
+     * @return The uneaten Pacdots in a slippy map tile
+     */
+    List<Pacdot> getUneatenPacdotsInTile(int zoom, int x, int y);
+
 }
@@ -1,6 +1,8 @@
 package com.pm.server.manager;
 
+import com.pm.server.datatype.Coordinate;
 import com.pm.server.datatype.Pacdot;
+import com.pm.server.datatype.PacdotDensityTree;
 import com.pm.server.registry.PacdotRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -42,4 +44,30 @@ public class PacdotManagerImpl implements PacdotManager {
         return pacdotRegistry.getUneatenPowerdotCount();
     }
 
+    @Override
+    public long getVersion() {
+        return pacdotRegistry.getVersion();
+    }
+
+    @Override
+    public PacdotDensityTree getDensity() {
+        return pacdotRegistry.getDensity();
+    }
+
+    @Override
+    public List<Pacdot> getNearestUneatenPacdots(
+            Coordinate location, int count) {
+        return pacdotRegistry.getNearestUneatenPacdots(location, count);
+    }
+
+    @Override
+    public long getTileVersion(int zoom, int x, int y) {
+        return pacdotRegistry.getTileVersion(zoom, x, y);
+    }
+
+    @Override
+    public List<Pacdot> getUneatenPacdotsInTile(int zoom, int x, int y) {
+        return pacdotRegistry.getUneatenPacdotsInTile(zoom, x, y);
+    }
+
 }
@@ -0,0 +1,36 @@
+package com.pm.server.manager;
+
+import com.pm.server.utils.BroadcastHub;
+
+/**
+ * Broadcasts snapshots of the game to read-only spectators.
+ *
+ * <p>
+ *     A snapshot is taken periodically while anyone is watching, encoded
+ *     once and shared by every spectator. Snapshots identical to the
+ *     previous one are not sent.
+ * </p>
+ */
+public interface SpectatorManager {
+
+    /**
+     * @param sink Receives each encoded snapshot, starting with the latest
+     */
+    void subscribe(BroadcastHub.FrameSink sink);
+
+    void unsubscribe(BroadcastHub.FrameSink sink);
+
+    int getSpectatorCount();
+
+    /**
+     * @return The number of snapshots skipped for spectators which had not
+     *         finished receiving the previous one
+     */
+    long getFramesSkipped();
+
+    /**
+     * @return The number of spectators dropped for being too slow
+     */
+    long getSpectatorsDropped();
+
+}
@@ -0,0 +1,167 @@
+package com.pm.server.manager;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pm.server.GameLoop;
+import com.pm.server.datatype.Player;
+import com.pm.server.registry.GameStateRegistry;
+import com.pm.server.registry.PacdotRegistry;
+import com.pm.server.registry.PlayerRegistry;
+import com.pm.server.response.PlayerDetailsResponse;
+import com.pm.server.response.SpectatorFrameResponse;
+import com.pm.server.utils.BroadcastHub;
+import com.pm.server.utils.JsonUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+@Service
+public class SpectatorManagerImpl implements SpectatorManager {
+
+    private static final ObjectMapper objectMapper =
+            JsonUtils.getObjectMapper();
+
+    private GameStateRegistry gameStateRegistry;
+
+    private PlayerRegistry playerRegistry;
+
+    private PacdotRegistry pacdotRegistry;
+
+    private GameStateManager gameStateManager;
+
+    private GameLoop gameLoop;
+
+    private ScheduledExecutorService gameScheduler;
+
+    private Long broadcastMillis;
+
+    private final BroadcastHub hub;
+
+    private ScheduledFuture<?> broadcasts;
+
+    /**
+     * Last frame published; only touched on the game loop.
+     */
+    private byte[] lastFrame;
+
+    private final static Logger log =
+            LogManager.getLogger(SpectatorManagerImpl.class.getName());
+
+    @Autowired
+    public SpectatorManagerImpl(
+            GameStateRegistry gameStateRegistry,
+            PlayerRegistry playerRegistry,
+            PacdotRegistry pacdotRegistry,
+            GameStateManager gameStateManager,
+            GameLoop gameLoop,
+            ScheduledExecutorService gameScheduler,
+            @Qualifier("spectatorExecutor") Executor spectatorExecutor,
+            @Value("${spectator.broadcast.millis}") Long broadcastMillis,
+            @Value("${spectator.fanout.threads}") Integer fanoutThreads,
+            @Value("${spectator.slow.millis}") Long slowMillis) {
+        this.gameStateRegistry = gameStateRegistry;
+        this.playerRegistry = playerRegistry;
+        this.pacdotRegistry = pacdotRegistry;
+        this.gameStateManager = gameStateManager;
+        this.gameLoop = gameLoop;
+        this.gameScheduler = gameScheduler;
+        this.broadcastMillis = broadcastMillis;
+        this.hub = new BroadcastHub(
+                spectatorExecutor, fanoutThreads, slowMillis
+        );
+    }
+
+    @PostConstruct
+    public void start() {
+        broadcasts = gameScheduler.scheduleAtFixedRate(
+                () -> gameLoop.execute(this::broadcast),
+                broadcastMillis, broadcastMillis, TimeUnit.MILLISECONDS
+        );
+    }
+
+    @PreDestroy
+    public void stop() {
+        broadcasts.cancel(false);
+    }
+
+    @Override
+    public void subscribe(BroadcastHub.FrameSink sink) {
+        hub.subscribe(sink);
+        log.debug("Spectator subscribed; {} watching", hub.size());
+    }
+
+    @Override
+    public void unsubscribe(BroadcastHub.FrameSink sink) {
+        hub.unsubscribe(sink);
+    }
+
+    @Override
+    public int getSpectatorCount() {
+        return hub.size();
+    }
+
+    @Override
+    public long getFramesSkipped() {
+        return hub.getFramesSkipped();
+    }
+
+    @Override
+    public long getSpectatorsDropped() {
+        return hub.getSubscribersDropped();
+    }
+
+    private void broadcast() {
+
+        if(hub.size() == 0) {
+            return;
+        }
+
+        byte[] frame;
+        try {
+            frame = objectMapper.writeValueAsBytes(snapshot());
+        }
+        catch(JsonProcessingException e) {
+            log.error("Failed to encode spectator frame: {}", e.getMessage());
+            return;
+        }
+
+        if(!Arrays.equals(frame, lastFrame)) {
+            lastFrame = frame;
+            hub.publish(frame);
+        }
+    }
+
+    private SpectatorFrameResponse snapshot() {
+
+        List<PlayerDetailsResponse> players = new ArrayList<>();
+        for(Player.Name name : Player.Name.values()) {
+            players.add(new PlayerDetailsResponse(
+                    name,
+                    playerRegistry.getPlayerState(name),
+                    playerRegistry.getPlayerLocation(name),
+                    playerRegistry.isPlayerOutOfBounds(name)
+            ));
+        }
+
+        SpectatorFrameResponse frame = new SpectatorFrameResponse();
+        frame.setGameState(gameStateRegistry.getCurrentState());
+        frame.setScore(gameStateManager.getScore());
+        frame.setUneatenPacdots(pacdotRegistry.getUneatenCount());
+        frame.setPlayers(players);
+        return frame;
+    }
+
+}
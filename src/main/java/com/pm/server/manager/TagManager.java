@@ -36,4 +36,15 @@ public interface TagManager {
             Player.Name destination
     ) throws PmServerException;
 
+    /**
+     * Captures any opponent within the auto-tag distance
+     * (<code>tag.auto.distance</code>) of a player which has just moved,
+     * without either player reporting the tag. Pacman captures the ghost
+     * while in the POWERUP state; otherwise the ghost captures Pacman. Does
+     * nothing if auto-tagging is disabled.
+     *
+     * @param mover Player whose location has just changed
+     */
+    void tagNearbyPlayers(Player.Name mover);
+
 }
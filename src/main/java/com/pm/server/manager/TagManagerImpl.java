@@ -1,12 +1,16 @@
 package com.pm.server.manager;
 
 import com.pm.server.PmServerException;
+import com.pm.server.datatype.Coordinate;
 import com.pm.server.datatype.GameState;
 import com.pm.server.datatype.Player;
 import com.pm.server.registry.GameStateRegistry;
 import com.pm.server.registry.PlayerRegistry;
 import com.pm.server.registry.TagRegistry;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 
@@ -21,14 +25,21 @@ public class TagManagerImpl implements TagManager {
 
     private TagRegistry tagRegistry;
 
+    private double autoTagDistance;
+
+    private final static Logger log =
+            LogManager.getLogger(TagManagerImpl.class.getName());
+
     @Autowired
     public TagManagerImpl(
             GameStateRegistry gameStateRegistry,
             PlayerRegistry playerRegistry,
-            TagRegistry tagRegistry) {
+            TagRegistry tagRegistry,
+            @Value("${tag.auto.distance}") Double autoTagDistance) {
         this.gameStateRegistry = gameStateRegistry;
         this.playerRegistry = playerRegistry;
         this.tagRegistry = tagRegistry;
+        this.autoTagDistance = autoTagDistance;
     }
 
     public void registerTag(
@@ -130,6 +141,63 @@ public class TagManagerImpl implements TagManager {
 
     }
 
+    @Override
+    public void tagNearbyPlayers(Player.Name mover) {
+
+        if(autoTagDistance <= 0) {
+            return;
+        }
+
+        // Only Pacman and ghosts can tag each other, so a ghost has a single
+        // opponent and Pacman one per ghost
+        if(mover == Pacman) {
+            for(Player.Name ghost : Player.Name.values()) {
+                if(ghost != Pacman) {
+                    tagIfNear(ghost);
+                }
+            }
+        }
+        else {
+            tagIfNear(mover);
+        }
+
+    }
+
+    private void tagIfNear(Player.Name ghost) {
+
+        if(gameStateRegistry.getCurrentState() != GameState.IN_PROGRESS) {
+            return;
+        }
+
+        Player.State pacmanState = playerRegistry.getPlayerState(Pacman);
+        Player.State ghostState = playerRegistry.getPlayerState(ghost);
+        if(!isInPlay(pacmanState) || !isInPlay(ghostState)) {
+            return;
+        }
+
+        Coordinate pacmanLocation = playerRegistry.getPlayerLocation(Pacman);
+        Coordinate ghostLocation = playerRegistry.getPlayerLocation(ghost);
+        double latitudeDistance =
+                pacmanLocation.getLatitude() - ghostLocation.getLatitude();
+        double longitudeDistance =
+                pacmanLocation.getLongitude() - ghostLocation.getLongitude();
+        if(latitudeDistance * latitudeDistance +
+                longitudeDistance * longitudeDistance >=
+                autoTagDistance * autoTagDistance) {
+            return;
+        }
+
+        Player.Name taggee =
+                pacmanState == Player.State.POWERUP ? ghost : Pacman;
+        log.info("Player {} was tagged automatically", taggee);
+        completeTag(taggee);
+
+    }
+
+    private static boolean isInPlay(Player.State state) {
+        return state == Player.State.ACTIVE || state == Player.State.POWERUP;
+    }
+
     private void completeTag(Player.Name taggee) {
         playerRegistry.setPlayerStateByName(taggee, Player.State.CAPTURED);
 
@@ -86,4 +86,10 @@ public interface GameStateRegistry {
 	 */
 	void setWinnerGhosts() throws IllegalStateException;
 
+	/**
+	 * Sets the game state to the given state from any state, without any
+	 * side effects; used to follow the game state of another server.
+	 */
+	void replicateState(GameState state);
+
 }
@@ -1,13 +1,25 @@
 package com.pm.server.registry;
 
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.ApplicationEventPublisherAware;
 import org.springframework.stereotype.Repository;
 
 import com.pm.server.datatype.GameState;
+import com.pm.server.event.GameStateChangedEvent;
 
 @Repository
-public class GameStateRegistryImpl implements GameStateRegistry {
+public class GameStateRegistryImpl
+		implements GameStateRegistry, ApplicationEventPublisherAware {
 
-	private static GameState state = GameState.INITIALIZING;
+	private GameState state = GameState.INITIALIZING;
+
+	private ApplicationEventPublisher eventPublisher;
+
+	@Override
+	public void setApplicationEventPublisher(
+			ApplicationEventPublisher eventPublisher) {
+		this.eventPublisher = eventPublisher;
+	}
 
 	@Override
 	public GameState getCurrentState() {
@@ -22,7 +34,7 @@ public class GameStateRegistryImpl implements GameStateRegistry {
 					"is already in the INITIALIZING state."
 			);
 		}
-		state = GameState.INITIALIZING;
+		changeState(GameState.INITIALIZING);
 
 	}
 
@@ -34,7 +46,7 @@ public class GameStateRegistryImpl implements GameStateRegistry {
 					"it is not in the INITIALIZING or PAUSED states."
 			);
 		}
-		state = GameState.IN_PROGRESS;
+		changeState(GameState.IN_PROGRESS);
 
 	}
 
@@ -46,7 +58,7 @@ public class GameStateRegistryImpl implements GameStateRegistry {
 					"is not IN_PROGRESS."
 			);
 		}
-		state = GameState.PAUSED;
+		changeState(GameState.PAUSED);
 	}
 
 	@Override
@@ -57,7 +69,7 @@ public class GameStateRegistryImpl implements GameStateRegistry {
 					"when the game is not IN_PROGRESS."
 			);
 		}
-		state = GameState.FINISHED_PACMAN_WIN;
+		changeState(GameState.FINISHED_PACMAN_WIN);
 	}
 
 	@Override
@@ -68,7 +80,25 @@ public class GameStateRegistryImpl implements GameStateRegistry {
 					"when the game is not IN_PROGRESS."
 			);
 		}
-		state = GameState.FINISHED_GHOSTS_WIN;
+		changeState(GameState.FINISHED_GHOSTS_WIN);
+	}
+
+	@Override
+	public void replicateState(GameState newState) {
+		if(newState != state) {
+			changeState(newState);
+		}
+	}
+
+	private void changeState(GameState newState) {
+		GameState previousState = state;
+		state = newState;
+
+		if(eventPublisher != null) {
+			eventPublisher.publishEvent(
+					new GameStateChangedEvent(this, previousState, newState)
+			);
+		}
 	}
 
 }
@@ -0,0 +1,44 @@
+package com.pm.server.registry;
+
+import com.pm.server.datatype.Coordinate;
+import com.pm.server.datatype.HeatmapGrid;
+
+import java.util.List;
+import java.util.Map;
+
+public interface HeatmapRegistry {
+
+	/**
+	 * Counts locations of a player in the heatmap of the current map, which
+	 * covers the bounds of the map's Pacdots at the time it was first
+	 * counted in.
+	 *
+	 * @param path Locations the player moved through
+	 */
+	void addLocations(List<Coordinate> path);
+
+	/**
+	 * Retrieves the heatmap of the map with the given name.
+	 *
+	 * @param mapName Name of the map
+	 * @return the heatmap of every location counted while the map was
+	 *         current, or null if none has been counted
+	 */
+	HeatmapGrid getHeatmap(String mapName);
+
+	/**
+	 * @return the heatmap of each map on which a location has been counted,
+	 *         by map name
+	 */
+	Map<String, HeatmapGrid> getHeatmaps();
+
+	/**
+	 * Replaces the heatmap of a map with the counts of another server's
+	 * heatmap of it, e.g. one replicated from a primary.
+	 *
+	 * @param mapName Name of the map
+	 * @param heatmap Heatmap whose bounds, cells and counts are copied
+	 */
+	void replicateHeatmap(String mapName, HeatmapGrid heatmap);
+
+}
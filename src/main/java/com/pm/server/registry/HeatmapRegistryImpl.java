@@ -0,0 +1,98 @@
+package com.pm.server.registry;
+
+import com.pm.server.datatype.Coordinate;
+import com.pm.server.datatype.HeatmapGrid;
+import com.pm.server.datatype.PacdotDensityTree;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Repository
+public class HeatmapRegistryImpl implements HeatmapRegistry {
+
+	/**
+	 * Share of the pacdots' bounds added on each side of a heatmap, so
+	 * players walking around the outermost pacdots are still counted.
+	 */
+	private static final double MARGIN = 0.1;
+
+	private final PacdotRegistry pacdotRegistry;
+
+	private final Integer cells;
+
+	private final int stripes = Runtime.getRuntime().availableProcessors();
+
+	private final ConcurrentHashMap<String, HeatmapGrid> heatmaps =
+			new ConcurrentHashMap<>();
+
+	private final static Logger log =
+			LogManager.getLogger(HeatmapRegistryImpl.class.getName());
+
+	@Autowired
+	public HeatmapRegistryImpl(
+			PacdotRegistry pacdotRegistry,
+			@Value("${heatmap.cells}") Integer cells) {
+		this.pacdotRegistry = pacdotRegistry;
+		this.cells = cells;
+	}
+
+	@Override
+	public void addLocations(List<Coordinate> path) {
+		String mapName = pacdotRegistry.getMapName();
+		if(mapName == null) {
+			return;
+		}
+
+		HeatmapGrid heatmap =
+				heatmaps.computeIfAbsent(mapName, this::newHeatmap);
+		for(Coordinate location : path) {
+			heatmap.add(location.getLatitude(), location.getLongitude());
+		}
+	}
+
+	@Override
+	public HeatmapGrid getHeatmap(String mapName) {
+		return mapName == null ? null : heatmaps.get(mapName);
+	}
+
+	@Override
+	public Map<String, HeatmapGrid> getHeatmaps() {
+		return Collections.unmodifiableMap(heatmaps);
+	}
+
+	@Override
+	public void replicateHeatmap(String mapName, HeatmapGrid heatmap) {
+		HeatmapGrid copy = new HeatmapGrid(
+				heatmap.getSouth(), heatmap.getWest(),
+				heatmap.getNorth(), heatmap.getEast(),
+				heatmap.getRows(), heatmap.getColumns(), stripes
+		);
+		copy.addCounts(heatmap.getCounts());
+		heatmaps.put(mapName, copy);
+	}
+
+	private HeatmapGrid newHeatmap(String mapName) {
+		PacdotDensityTree bounds = pacdotRegistry.getDensity();
+		double latitudeMargin =
+				(bounds.getNorth() - bounds.getSouth()) * MARGIN;
+		double longitudeMargin =
+				(bounds.getEast() - bounds.getWest()) * MARGIN;
+
+		log.info("Starting a {}x{} heatmap of map {}", cells, cells, mapName);
+		return new HeatmapGrid(
+				bounds.getSouth() - latitudeMargin,
+				bounds.getWest() - longitudeMargin,
+				bounds.getNorth() + latitudeMargin,
+				bounds.getEast() + longitudeMargin,
+				cells, cells, stripes
+		);
+	}
+
+}
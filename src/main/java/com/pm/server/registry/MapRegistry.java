@@ -0,0 +1,32 @@
+package com.pm.server.registry;
+
+import com.pm.server.datatype.PacdotMap;
+
+import java.util.List;
+
+public interface MapRegistry {
+
+	/**
+	 * Adds a map to the catalog, replacing any map with the same name.
+	 *
+	 * @param map Map to be added
+	 * @throws NullPointerException if the map or its name is null
+	 */
+	void registerMap(PacdotMap map) throws NullPointerException;
+
+	/**
+	 * Retrieves the map with the given name.
+	 *
+	 * @param name Name of the map
+	 * @return the requested map, or null if no map has the given name
+	 */
+	PacdotMap getMap(String name);
+
+	/**
+	 * Retrieves the names of all maps in the catalog.
+	 *
+	 * @return the names of all maps, in alphabetical order
+	 */
+	List<String> getMapNames();
+
+}
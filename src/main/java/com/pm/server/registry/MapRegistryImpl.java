@@ -0,0 +1,53 @@
+package com.pm.server.registry;
+
+import com.pm.server.datatype.PacdotMap;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Repository
+public class MapRegistryImpl implements MapRegistry {
+
+	private final ConcurrentHashMap<String, PacdotMap> maps =
+			new ConcurrentHashMap<>();
+
+	private final static Logger log =
+			LogManager.getLogger(MapRegistryImpl.class.getName());
+
+	@Override
+	public void registerMap(PacdotMap map) throws NullPointerException {
+
+		if(map == null) {
+			throw new NullPointerException("registerMap() was given a null map.");
+		}
+		else if(map.getName() == null) {
+			throw new NullPointerException(
+					"registerMap() was given a map with a null name."
+			);
+		}
+
+		log.info(
+				"Registering map {} with {} pacdots",
+				map.getName(), map.getCount()
+		);
+		maps.put(map.getName(), map);
+	}
+
+	@Override
+	public PacdotMap getMap(String name) {
+		return name == null ? null : maps.get(name);
+	}
+
+	@Override
+	public List<String> getMapNames() {
+		List<String> names = new ArrayList<>(maps.keySet());
+		Collections.sort(names);
+		return names;
+	}
+
+}
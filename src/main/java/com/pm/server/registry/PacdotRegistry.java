@@ -3,6 +3,8 @@ package com.pm.server.registry;
 import com.pm.server.datatype.Coordinate;
 import com.pm.server.datatype.EatenDotsReport;
 import com.pm.server.datatype.Pacdot;
+import com.pm.server.datatype.PacdotDensityTree;
+import com.pm.server.datatype.PacdotMap;
 
 import java.util.List;
 
@@ -54,6 +56,24 @@ public interface PacdotRegistry {
 	 */
 	EatenDotsReport eatPacdotsNearLocation(Coordinate location);
 
+	// Eats the pacdots near every location of the path, publishing a single
+	// change for the whole path. If sweeping is enabled, also eats the
+	// pacdots near each short enough segment of the path, starting from the
+	// given start location if it is not null.
+	EatenDotsReport eatPacdotsAlongPath(Coordinate start, List<Coordinate> path);
+
+	/**
+	 * Sets the Pacdots at the given indices of
+	 * {@link #getInformationOfAllPacdots()} to eaten, without any of the
+	 * consequences of Pacman eating them; used to follow the Pacdots of
+	 * another server.
+	 *
+	 * Idempotent (e.g. eating an eaten dot is valid)
+	 *
+	 * @param indices Indices of the Pacdots to set to eaten
+	 */
+	void replicateEaten(int[] indices);
+
 	/**
 	 * Resets all Pacdots to uneaten.
 	 * 
@@ -62,4 +82,64 @@ public interface PacdotRegistry {
 	 */
 	void resetPacdots();
 
+	/**
+	 * Replaces all Pacdots with uneaten Pacdots at the locations of the
+	 * given map.
+	 * 
+	 * @param map Map to be loaded
+	 */
+	void loadMap(PacdotMap map);
+
+	/**
+	 * Retrieves the name of the map the Pacdots were loaded from.
+	 * 
+	 * @return the name of the current map
+	 */
+	String getMapName();
+
+	/**
+	 * Retrieves a number which increases whenever any Pacdot is eaten,
+	 * reset or replaced, so that anything derived from the Pacdots can be
+	 * reused until it changes.
+	 *
+	 * @return the current version of the Pacdots
+	 */
+	long getVersion();
+
+	/**
+	 * Retrieves the counts of all and of uneaten Pacdots in every region of
+	 * the map, which are kept up to date as Pacdots are eaten and reset.
+	 *
+	 * @return the density counts of the current Pacdots
+	 */
+	PacdotDensityTree getDensity();
+
+	/**
+	 * Finds the uneaten Pacdots nearest a location, without looking at the
+	 * eaten Pacdots.
+	 *
+	 * @param location Location to search from
+	 * @param count Number of Pacdots to find
+	 * @return Up to the given number of uneaten Pacdots, nearest first;
+	 *         fewer only if fewer are uneaten
+	 */
+	List<Pacdot> getNearestUneatenPacdots(Coordinate location, int count);
+
+	/**
+	 * @param zoom Zoom level of the slippy map tile, from 0 to
+	 *             <code>pacdots.tiles.max.zoom</code>, which is at most
+	 *             {@link com.pm.server.datatype.PacdotTileVersions#MAX_ZOOM}
+	 * @return The version of the Pacdots in the tile, which only changes
+	 *         when a Pacdot in the tile is eaten or the Pacdots are reset or
+	 *         replaced
+	 */
+	long getTileVersion(int zoom, int x, int y);
+
+	/**
+	 * @param zoom Zoom level of the slippy map tile
+	 * @return The uneaten Pacdots in the tile, in the order of
+	 *         {@link #getInformationOfAllPacdots()}
+	 */
+	List<Pacdot> getUneatenPacdotsInTile(int zoom, int x, int y);
+
 }
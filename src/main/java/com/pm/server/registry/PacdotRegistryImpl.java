@@ -5,20 +5,34 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.pm.server.datatype.Coordinate;
 import com.pm.server.datatype.EatenDotsReport;
 import com.pm.server.datatype.Pacdot;
+import com.pm.server.datatype.PacdotDensityTree;
+import com.pm.server.datatype.PacdotGridIndex;
+import com.pm.server.datatype.PacdotKdTree;
+import com.pm.server.datatype.PacdotTileVersions;
+import com.pm.server.datatype.PacdotMap;
+import com.pm.server.event.PacdotsChangedEvent;
 import com.pm.server.repository.PacdotRepository;
+import com.pm.server.utils.GeoUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.ApplicationEventPublisherAware;
 import org.springframework.stereotype.Repository;
 
 import javax.annotation.PostConstruct;
 import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
 
 @Repository
-public class PacdotRegistryImpl implements PacdotRegistry {
+public class PacdotRegistryImpl
+		implements PacdotRegistry, ApplicationEventPublisherAware {
 
 	private PacdotRepository pacdotRepository;
 
@@ -32,6 +46,29 @@ public class PacdotRegistryImpl implements PacdotRegistry {
 
 	private Double pacdotCapturingDistance;
 
+	private Double pacdotSweepMaxDistance;
+
+	private Integer densityMaxLevel;
+
+	private final PacdotTileVersions tileVersions;
+
+	private String mapName;
+
+	private ApplicationEventPublisher eventPublisher;
+
+	private final AtomicLong version = new AtomicLong();
+
+	/**
+	 * Spatial indices and density counts over the pacdot list they were
+	 * built from; rebuilt whenever the repository's list is replaced or
+	 * changes size.
+	 */
+	private PacdotGridIndex index;
+	private volatile PacdotDensityTree density;
+	private volatile PacdotKdTree kdTree;
+	private List<Pacdot> indexedList;
+	private int indexedSize;
+
 	private static final Logger log =
 			LogManager.getLogger(PacdotRegistryImpl.class.getName());
 
@@ -40,11 +77,17 @@ public class PacdotRegistryImpl implements PacdotRegistry {
 			PacdotRepository pacdotRepository,
 			@Value("${pacdots.locations.filename}") String pacdotsFilename,
 			@Value("${powerdots.locations.filename}") String powerdotsFilename,
-			@Value("${pacdot.capturing.distance}") Double pacdotCapturingDistance) {
+			@Value("${pacdot.capturing.distance}") Double pacdotCapturingDistance,
+			@Value("${pacdot.sweep.max.distance}") Double pacdotSweepMaxDistance,
+			@Value("${pacdots.density.max.level}") Integer densityMaxLevel,
+			@Value("${pacdots.tiles.max.zoom}") Integer tilesMaxZoom) {
 		this.pacdotRepository = pacdotRepository;
 		this.pacdotsFilename = pacdotsFilename;
 		this.powerdotsFilename = powerdotsFilename;
 		this.pacdotCapturingDistance = pacdotCapturingDistance;
+		this.pacdotSweepMaxDistance = pacdotSweepMaxDistance;
+		this.densityMaxLevel = densityMaxLevel;
+		this.tileVersions = new PacdotTileVersions(tilesMaxZoom, version.get());
 	}
 
 	/**
@@ -74,7 +117,15 @@ public class PacdotRegistryImpl implements PacdotRegistry {
 			count_total_powerdots++;
 		}
 
+		mapName = mapNameOf(pacdotsFilename);
 		resetPacdotCounts();
+		currentIndex(pacdotRepository.getAllPacdots());
+	}
+
+	@Override
+	public void setApplicationEventPublisher(
+			ApplicationEventPublisher eventPublisher) {
+		this.eventPublisher = eventPublisher;
 	}
 
 	@Override
@@ -104,41 +155,266 @@ public class PacdotRegistryImpl implements PacdotRegistry {
 
 	@Override
 	public EatenDotsReport eatPacdotsNearLocation(Coordinate location) {
+		return eatPacdotsAlongPath(null, Collections.singletonList(location));
+	}
+
+	@Override
+	public EatenDotsReport eatPacdotsAlongPath(
+			Coordinate start, List<Coordinate> path) {
 
 		EatenDotsReport eatenDotsReport = new EatenDotsReport();
 
-		/*
-		 * Incredibly inefficient but I have no time to implement a quicker
-		 * algorithm. If you feel like helping me improve this, please
-		 * check out issue 52 on GitHub.
-		 */
-		List<Pacdot> pacdotList = getInformationOfAllPacdots();
-		for(Pacdot pacdot : pacdotList) {
-
-			if(withinDistance(
-					location, pacdot.getLocation(), pacdotCapturingDistance
-				) && !pacdot.isEaten() ) {
-
-				pacdot.setEaten();
-				count_total_uneaten--;
-				if(pacdot.isPowerdot()) {
-					eatenDotsReport.addEatenPowerdot();
-					count_total_powerdots_uneaten--;
-				}
-				else {
-					eatenDotsReport.addEatenPacdot();
-				}
+		List<Pacdot> pacdotList = pacdotRepository.getAllPacdots();
+		PacdotGridIndex pacdotIndex = currentIndex(pacdotList);
+		IntStream.Builder eatenIndices = IntStream.builder();
+		IntConsumer eat = i -> {
+			Pacdot pacdot = pacdotList.get(i);
+			if(pacdot.isEaten()) {
+				return;
+			}
 
+			pacdot.setEaten();
+			indexEaten(i);
+			eatenIndices.add(i);
+			count_total_uneaten--;
+			if(pacdot.isPowerdot()) {
+				eatenDotsReport.addEatenPowerdot();
+				count_total_powerdots_uneaten--;
+			}
+			else {
+				eatenDotsReport.addEatenPacdot();
 			}
+		};
+
+		Coordinate previous = start;
+		for(Coordinate location : path) {
+			if(previous != null && isSweepable(previous, location)) {
+				pacdotIndex.forEachNearSegment(
+						previous.getLatitude(),
+						previous.getLongitude(),
+						location.getLatitude(),
+						location.getLongitude(),
+						pacdotCapturingDistance,
+						eat
+				);
+			}
+			else {
+				pacdotIndex.forEachWithin(
+						location.getLatitude(),
+						location.getLongitude(),
+						pacdotCapturingDistance,
+						eat
+				);
+			}
+			previous = location;
+		}
+
+		if(eatenDotsReport.getEatenPacdots() > 0 ||
+				eatenDotsReport.getEatenPowerdots() > 0) {
+			publishChange(
+					PacdotsChangedEvent.Change.EATEN,
+					eatenIndices.build().toArray()
+			);
 		}
 
 		return eatenDotsReport;
 	}
 
+	@Override
+	public void replicateEaten(int[] indices) {
+
+		List<Pacdot> pacdotList = pacdotRepository.getAllPacdots();
+		currentIndex(pacdotList);
+		IntStream.Builder eatenIndices = IntStream.builder();
+		for(int i : indices) {
+			Pacdot pacdot = pacdotList.get(i);
+			if(pacdot.isEaten()) {
+				continue;
+			}
+
+			pacdot.setEaten();
+			indexEaten(i);
+			eatenIndices.add(i);
+			count_total_uneaten--;
+			if(pacdot.isPowerdot()) {
+				count_total_powerdots_uneaten--;
+			}
+		}
+
+		int[] eaten = eatenIndices.build().toArray();
+		if(eaten.length > 0) {
+			publishChange(PacdotsChangedEvent.Change.EATEN, eaten);
+		}
+	}
+
 	@Override
 	public void resetPacdots() {
 		pacdotRepository.resetPacdots();
+		if(density != null) {
+			density.reset();
+			kdTree.reset();
+		}
+		resetPacdotCounts();
+		publishChange(PacdotsChangedEvent.Change.RESET, null);
+	}
+
+	@Override
+	public void loadMap(PacdotMap map) {
+
+		log.info("Loading map {} with {} pacdots", map.getName(), map.getCount());
+		pacdotRepository.replacePacdots(map.toPacdots());
+
+		count_total = map.getCount();
+		count_total_powerdots = map.getPowerdotCount();
+		mapName = map.getName();
 		resetPacdotCounts();
+
+		// The map's index is built in the same order as its pacdots
+		index = map.getIndex();
+		indexedList = pacdotRepository.getAllPacdots();
+		indexedSize = indexedList.size();
+		density = new PacdotDensityTree(
+				map.getLatitudes(), map.getLongitudes(), map.getCount(),
+				densityMaxLevel
+		);
+		kdTree = new PacdotKdTree(
+				map.getLatitudes(), map.getLongitudes(), map.getCount()
+		);
+
+		publishChange(PacdotsChangedEvent.Change.REPLACED, null);
+	}
+
+	@Override
+	public String getMapName() {
+		return mapName;
+	}
+
+	@Override
+	public long getVersion() {
+		return version.get();
+	}
+
+	@Override
+	public PacdotDensityTree getDensity() {
+		return density;
+	}
+
+	@Override
+	public long getTileVersion(int zoom, int x, int y) {
+		return tileVersions.getVersion(zoom, x, y);
+	}
+
+	@Override
+	public List<Pacdot> getUneatenPacdotsInTile(int zoom, int x, int y) {
+
+		IntStream.Builder inTile = IntStream.builder();
+		kdTree.forEachUneatenInBox(
+				GeoUtils.tileNorth(y + 1, zoom), GeoUtils.tileWest(x, zoom),
+				GeoUtils.tileNorth(y, zoom), GeoUtils.tileWest(x + 1, zoom),
+				inTile::add
+		);
+
+		// Pacdots on an edge between tiles are in the box of both, but
+		// belong to the tile they were counted in when eaten
+		List<Pacdot> pacdotList = pacdotRepository.getAllPacdots();
+		List<Pacdot> pacdots = new ArrayList<>();
+		inTile.build().sorted().forEach(i -> {
+			Coordinate location = pacdotList.get(i).getLocation();
+			if(GeoUtils.tileX(location.getLongitude(), zoom) == x &&
+					GeoUtils.tileY(location.getLatitude(), zoom) == y) {
+				pacdots.add(pacdotList.get(i));
+			}
+		});
+		return pacdots;
+	}
+
+	@Override
+	public List<Pacdot> getNearestUneatenPacdots(
+			Coordinate location, int count) {
+
+		int[] found = new int[count];
+		int foundCount = kdTree.nearest(
+				location.getLatitude(), location.getLongitude(), found
+		);
+
+		List<Pacdot> pacdotList = pacdotRepository.getAllPacdots();
+		List<Pacdot> nearest = new ArrayList<>(foundCount);
+		for(int i = 0; i < foundCount; i++) {
+			nearest.add(pacdotList.get(found[i]));
+		}
+		return nearest;
+	}
+
+	/**
+	 * Segments longer than the sweep distance are treated as jumps (such as
+	 * a lost GPS signal) rather than as the path actually walked.
+	 */
+	private boolean isSweepable(Coordinate from, Coordinate to) {
+		double latitudeDistance = to.getLatitude() - from.getLatitude();
+		double longitudeDistance = to.getLongitude() - from.getLongitude();
+		return latitudeDistance * latitudeDistance +
+				longitudeDistance * longitudeDistance <=
+				pacdotSweepMaxDistance * pacdotSweepMaxDistance;
+	}
+
+	private PacdotGridIndex currentIndex(List<Pacdot> pacdotList) {
+
+		if(index == null ||
+				indexedList != pacdotList ||
+				indexedSize != pacdotList.size()) {
+
+			int size = pacdotList.size();
+			double[] latitudes = new double[size];
+			double[] longitudes = new double[size];
+			for(int i = 0; i < size; i++) {
+				Coordinate location = pacdotList.get(i).getLocation();
+				latitudes[i] = location.getLatitude();
+				longitudes[i] = location.getLongitude();
+			}
+
+			log.debug("Building spatial index over {} pacdots", size);
+			index = new PacdotGridIndex(
+					latitudes, longitudes, size, pacdotCapturingDistance
+			);
+			density = new PacdotDensityTree(
+					latitudes, longitudes, size, densityMaxLevel
+			);
+			kdTree = new PacdotKdTree(latitudes, longitudes, size);
+			for(int i = 0; i < size; i++) {
+				if(pacdotList.get(i).isEaten()) {
+					indexEaten(i);
+				}
+			}
+			indexedList = pacdotList;
+			indexedSize = size;
+		}
+
+		return index;
+	}
+
+	/**
+	 * Counts the pacdot at the given index as eaten in the indices which
+	 * track eaten pacdots.
+	 */
+	private void indexEaten(int i) {
+		density.eat(i);
+		kdTree.eat(i);
+	}
+
+	/**
+	 * Derives a map name from a pacdot location file name, e.g.
+	 * <code>pacdots_downtown_vancouver.json</code> is the map
+	 * <code>downtown_vancouver</code>.
+	 */
+	private static String mapNameOf(String filename) {
+		String name = filename;
+		if(name.startsWith("pacdots_")) {
+			name = name.substring("pacdots_".length());
+		}
+		if(name.endsWith(".json")) {
+			name = name.substring(0, name.length() - ".json".length());
+		}
+		return name;
 	}
 
 	private List<Coordinate> readPacdotListFromFile(String filename)
@@ -167,25 +443,32 @@ public class PacdotRegistryImpl implements PacdotRegistry {
 
 	}
 
+	private void publishChange(
+			PacdotsChangedEvent.Change change, int[] eatenIndices) {
+		long newVersion = version.incrementAndGet();
+		if(change == PacdotsChangedEvent.Change.EATEN) {
+			List<Pacdot> pacdotList = pacdotRepository.getAllPacdots();
+			for(int i : eatenIndices) {
+				Coordinate location = pacdotList.get(i).getLocation();
+				tileVersions.eaten(
+						location.getLatitude(), location.getLongitude(),
+						newVersion
+				);
+			}
+		}
+		else {
+			tileVersions.reset(newVersion);
+		}
+		if(eventPublisher != null) {
+			eventPublisher.publishEvent(new PacdotsChangedEvent(
+					this, count_total_uneaten, change, eatenIndices
+			));
+		}
+	}
+
 	private void resetPacdotCounts() {
 		count_total_uneaten = count_total;
 		count_total_powerdots_uneaten = count_total_powerdots;
 	}
 
-	private static Boolean withinDistance(
-			Coordinate location1, Coordinate location2,
-			Double distance) {
-		Double latitudeDistance =
-				Math.abs(location1.getLatitude() - location2.getLatitude());
-		Double longitudeDistance =
-				Math.abs(location1.getLongitude() - location2.getLongitude());
-
-		return (square(latitudeDistance) + square(longitudeDistance))
-				< square(distance);
-	}
-
-	private static Double square(Double val) {
-		return Math.pow(val, 2);
-	}
-
 }
@@ -0,0 +1,26 @@
+package com.pm.server.registry;
+
+import com.pm.server.datatype.Coordinate;
+import com.pm.server.datatype.PlayArea;
+
+public interface PlayAreaRegistry {
+
+	/**
+	 * Retrieves the play area of a map, read from
+	 * <code>playarea_&lt;map&gt;.json</code> the first time it is needed.
+	 *
+	 * @param mapName Name of the map
+	 * @return the play area of the map, or null if the map has none
+	 */
+	PlayArea getPlayArea(String mapName);
+
+	/**
+	 * Checks a location against the play area of the current map.
+	 *
+	 * @param location Location to be checked
+	 * @return whether the location is within the play area; always true if
+	 *         the current map has no play area
+	 */
+	boolean isInPlayArea(Coordinate location);
+
+}
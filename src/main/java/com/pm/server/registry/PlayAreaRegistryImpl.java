@@ -0,0 +1,121 @@
+package com.pm.server.registry;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pm.server.datatype.Coordinate;
+import com.pm.server.datatype.PlayArea;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Play areas are read from a resource named after the map, alongside its
+ * <code>pacdots_&lt;map&gt;.json</code>. The file is a JSON array of rings,
+ * each an array of locations in the same format as the pacdot files. Maps
+ * without such a resource, including uploaded maps, have no play area.
+ */
+@Repository
+public class PlayAreaRegistryImpl implements PlayAreaRegistry {
+
+	private PacdotRegistry pacdotRegistry;
+
+	private Integer gridSize;
+
+	private final ConcurrentHashMap<String, Optional<PlayArea>> playAreas =
+			new ConcurrentHashMap<>();
+
+	private final static Logger log =
+			LogManager.getLogger(PlayAreaRegistryImpl.class.getName());
+
+	@Autowired
+	public PlayAreaRegistryImpl(
+			PacdotRegistry pacdotRegistry,
+			@Value("${playarea.grid.size}") Integer gridSize) {
+		this.pacdotRegistry = pacdotRegistry;
+		this.gridSize = gridSize;
+	}
+
+	@Override
+	public PlayArea getPlayArea(String mapName) {
+		if(mapName == null) {
+			return null;
+		}
+		return playAreas
+				.computeIfAbsent(mapName, this::readPlayArea)
+				.orElse(null);
+	}
+
+	@Override
+	public boolean isInPlayArea(Coordinate location) {
+		PlayArea playArea = getPlayArea(pacdotRegistry.getMapName());
+		return playArea == null || playArea.contains(
+				location.getLatitude(), location.getLongitude()
+		);
+	}
+
+	private Optional<PlayArea> readPlayArea(String mapName) {
+
+		String filename = "playarea_" + mapName + ".json";
+		InputStream inputStream = this
+				.getClass()
+				.getClassLoader()
+				.getResourceAsStream(filename);
+		if(inputStream == null) {
+			log.info("Map {} has no play area", mapName);
+			return Optional.empty();
+		}
+
+		List<List<Coordinate>> rings;
+		try(InputStream in = inputStream) {
+			rings = new ObjectMapper().readValue(
+					in, new TypeReference<List<List<Coordinate>>>(){}
+			);
+		}
+		catch(IOException e) {
+			log.error(
+					"Failed to read play area from file {}: {}",
+					filename, e.getMessage()
+			);
+			return Optional.empty();
+		}
+
+		double[][] latitudes = new double[rings.size()][];
+		double[][] longitudes = new double[rings.size()][];
+		for(int ring = 0; ring < rings.size(); ring++) {
+			List<Coordinate> vertices = rings.get(ring);
+			latitudes[ring] = new double[vertices.size()];
+			longitudes[ring] = new double[vertices.size()];
+			for(int i = 0; i < vertices.size(); i++) {
+				latitudes[ring][i] = vertices.get(i).getLatitude();
+				longitudes[ring][i] = vertices.get(i).getLongitude();
+			}
+		}
+
+		try {
+			PlayArea playArea = new PlayArea(latitudes, longitudes, gridSize);
+			log.info(
+					"Read play area of map {} with {} rings ({} of {} grid " +
+					"cells on the boundary)",
+					mapName, rings.size(),
+					playArea.boundaryCellCount(), gridSize * gridSize
+			);
+			return Optional.of(playArea);
+		}
+		catch(IllegalArgumentException e) {
+			log.error(
+					"Invalid play area in file {}: {}",
+					filename, e.getMessage()
+			);
+			return Optional.empty();
+		}
+	}
+
+}
@@ -4,6 +4,7 @@ import java.util.List;
 
 import com.pm.server.datatype.Coordinate;
 import com.pm.server.datatype.Player;
+import com.pm.server.datatype.Trajectory;
 
 public interface PlayerRegistry {
 
@@ -13,12 +14,35 @@ public interface PlayerRegistry {
 	// Returns null if the player with the corresponding name is not found
 	Player.State getPlayerState(Player.Name name);
 
+	// Returns null if the player with the corresponding name is not found;
+	// false whenever the current map has no play area
+	Boolean isPlayerOutOfBounds(Player.Name name);
+
+	// Recent location fixes of the player; empty until it is given a location
+	Trajectory getPlayerTrail(Player.Name name);
+
 	void resetLocationOf(Player.Name name);
 
 	void setPlayerLocationByName(Player.Name name, Coordinate location);
 
+	// Moves the player to the last location of the path; Pacman eats the
+	// pacdots near every location of the path. The times are when each
+	// location was received, in milliseconds.
+	void setPlayerPathByName(
+			Player.Name name, List<Coordinate> path, long[] times);
+
 	void setPlayerStateByName(Player.Name name, Player.State state);
 
+	// Gives the player the state and location of the same player on another
+	// server, without any game logic (e.g. eating pacdots). The path, if not
+	// null, is added to the player's trail and counted in the heatmap; an
+	// empty path clears the trail.
+	// The times are when the other server received each location of the
+	// path, or null if it did not say.
+	void replicatePlayer(
+			Player.Name name, Player.State state, Coordinate location,
+			boolean outOfBounds, List<Coordinate> path, long[] times);
+
 	void startFromReady();
 
 	Integer getCapturedGhosts();
@@ -1,24 +1,36 @@
 package com.pm.server.registry;
 
+import com.pm.server.GameLoop;
 import com.pm.server.datatype.Coordinate;
 import com.pm.server.datatype.EatenDotsReport;
 import com.pm.server.datatype.GameState;
 import com.pm.server.datatype.Player;
+import com.pm.server.datatype.Trajectory;
+import com.pm.server.event.PlayerLocationChangedEvent;
+import com.pm.server.event.PlayerStateChangedEvent;
 import com.pm.server.repository.PlayerRepository;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.ApplicationEventPublisherAware;
 import org.springframework.stereotype.Repository;
 
 import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.Timer;
-import java.util.TimerTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Repository
-public class PlayerRegistryImpl implements PlayerRegistry {
+public class PlayerRegistryImpl
+		implements PlayerRegistry, ApplicationEventPublisherAware {
 
 	private PlayerRepository playerRepository;
 
@@ -26,11 +38,25 @@ public class PlayerRegistryImpl implements PlayerRegistry {
 
 	private GameStateRegistry gameStateRegistry;
 
+	private PlayAreaRegistry playAreaRegistry;
+
+	private HeatmapRegistry heatmapRegistry;
+
 	private Integer powerupMillis;
 
-	private static Integer capturedGhosts = 0;
+	private GameLoop gameLoop;
+
+	private ApplicationEventPublisher eventPublisher;
+
+	private Integer capturedGhosts = 0;
+
+	/**
+	 * Recent fixes of each player, cleared whenever its location is reset.
+	 */
+	private final Map<Player.Name, Trajectory> trails =
+			new EnumMap<>(Player.Name.class);
 
-	private static Integer activePowerups = 0;
+	private final AtomicInteger activePowerups = new AtomicInteger();
 
 	private final static Logger log =
 			LogManager.getLogger(PlayerRegistryImpl.class.getName());
@@ -40,11 +66,22 @@ public class PlayerRegistryImpl implements PlayerRegistry {
 			PlayerRepository playerRepository,
 			PacdotRegistry pacdotRegistry,
 			GameStateRegistry gameStateRegistry,
-			@Value("${powerup.millis}") Integer powerupMillis) {
+			PlayAreaRegistry playAreaRegistry,
+			HeatmapRegistry heatmapRegistry,
+			@Value("${powerup.millis}") Integer powerupMillis,
+			@Value("${player.trail.capacity}") Integer trailCapacity,
+			GameLoop gameLoop) {
 		this.playerRepository = playerRepository;
 		this.pacdotRegistry = pacdotRegistry;
 		this.gameStateRegistry = gameStateRegistry;
+		this.playAreaRegistry = playAreaRegistry;
+		this.heatmapRegistry = heatmapRegistry;
 		this.powerupMillis = powerupMillis;
+		this.gameLoop = gameLoop;
+
+		for(Player.Name name : Player.Name.values()) {
+			trails.put(name, new Trajectory(trailCapacity));
+		}
 	}
 
 	@PostConstruct
@@ -52,6 +89,12 @@ public class PlayerRegistryImpl implements PlayerRegistry {
 		resetHard();
 	}
 
+	@Override
+	public void setApplicationEventPublisher(
+			ApplicationEventPublisher eventPublisher) {
+		this.eventPublisher = eventPublisher;
+	}
+
 	@Override
 	public Coordinate getPlayerLocation(Player.Name name) {
 		return Optional.ofNullable(playerRepository.getPlayerByName(name))
@@ -66,20 +109,58 @@ public class PlayerRegistryImpl implements PlayerRegistry {
 				.orElse(null);
 	}
 
+	@Override
+	public Boolean isPlayerOutOfBounds(Player.Name name) {
+		return Optional.ofNullable(playerRepository.getPlayerByName(name))
+				.map(Player::isOutOfBounds)
+				.orElse(null);
+	}
+
+	@Override
+	public Trajectory getPlayerTrail(Player.Name name) {
+		return trails.get(name);
+	}
+
 	@Override
 	public void resetLocationOf(Player.Name name) {
 		playerRepository.getPlayerByName(name).resetLocation();
+		trails.get(name).clear();
+		publishLocationReset(name);
 	}
 
 	@Override
 	public void setPlayerLocationByName(Player.Name name, Coordinate location) {
+		setPlayerPathByName(
+				name, Collections.singletonList(location),
+				new long[] { System.currentTimeMillis() }
+		);
+	}
+
+	@Override
+	public void setPlayerPathByName(
+			Player.Name name, List<Coordinate> path, long[] times) {
+
+		// A path continues from the previous fix, if there is one
+		Trajectory trail = trails.get(name);
+		Coordinate start = trail.size() > 0 ? getPlayerLocation(name) : null;
+
+		for(int i = 0; i < path.size(); i++) {
+			Coordinate location = path.get(i);
+			trail.add(
+					times[i], location.getLatitude(), location.getLongitude()
+			);
+		}
+		heatmapRegistry.addLocations(path);
+		Coordinate location = path.get(path.size() - 1);
 		playerRepository.setPlayerLocationByName(name, location);
+		updateOutOfBounds(name, location);
+		publishLocationChange(name, path, times);
 
 		if(name == Player.Name.Pacman &&
 		   gameStateRegistry.getCurrentState() == GameState.IN_PROGRESS) {
 
 			EatenDotsReport eatenDotsReport =
-					pacdotRegistry.eatPacdotsNearLocation(location);
+					pacdotRegistry.eatPacdotsAlongPath(start, path);
 			if(eatenDotsReport.getEatenPowerdots() > 0) {
 				activatePowerup();
 			}
@@ -112,14 +193,67 @@ public class PlayerRegistryImpl implements PlayerRegistry {
 			}
 		}
 
+		publishStateChange(name, previousState, state);
+
+	}
+
+	@Override
+	public void replicatePlayer(
+			Player.Name name, Player.State state, Coordinate location,
+			boolean outOfBounds, List<Coordinate> path, long[] times) {
+
+		if(path != null) {
+			// Entries from a server which did not send the times are taken
+			// as received now
+			if(times == null || times.length != path.size()) {
+				times = new long[path.size()];
+				Arrays.fill(times, System.currentTimeMillis());
+			}
+
+			Trajectory trail = trails.get(name);
+			if(path.isEmpty()) {
+				trail.clear();
+			}
+			else {
+				heatmapRegistry.addLocations(path);
+			}
+			for(int i = 0; i < path.size(); i++) {
+				Coordinate fix = path.get(i);
+				trail.add(times[i], fix.getLatitude(), fix.getLongitude());
+			}
+		}
+
+		Player player = playerRepository.getPlayerByName(name);
+		player.setLocation(location);
+		player.setOutOfBounds(outOfBounds);
+		if(path != null) {
+			publishLocationChange(name, path, times);
+		}
+
+		if(player.getState() != state) {
+			setPlayerStateByName(name, state);
+		}
+
 	}
 
 	@Override
 	public void startFromReady()
 			throws NullPointerException {
+
+		List<Player.Name> readyPlayers = new ArrayList<>();
+		for(Player player : playerRepository.getAllPlayers()) {
+			if(player.getState() == Player.State.READY) {
+				readyPlayers.add(player.getName());
+			}
+		}
+
 		playerRepository.changePlayerStates(
 				Player.State.READY, Player.State.ACTIVE
 		);
+
+		for(Player.Name name : readyPlayers) {
+			publishStateChange(name, Player.State.READY, Player.State.ACTIVE);
+		}
 	}
 
 	@Override
@@ -151,8 +285,14 @@ public class PlayerRegistryImpl implements PlayerRegistry {
 
 		List<Player> playerList = playerRepository.getAllPlayers();
 		for(Player player : playerList) {
+			Player.State previousState = player.getState();
 			player.setState(Player.State.UNINITIALIZED);
 			player.resetLocation();
+			trails.get(player.getName()).clear();
+			publishLocationReset(player.getName());
+			publishStateChange(
+					player.getName(), previousState, Player.State.UNINITIALIZED
+			);
 		}
 
 		capturedGhosts = 0;
@@ -162,8 +302,15 @@ public class PlayerRegistryImpl implements PlayerRegistry {
 	@Override
 	public void resetHard() throws NullPointerException, IllegalArgumentException {
 
+		List<Player> previousPlayers = new ArrayList<>(
+				playerRepository.getAllPlayers()
+		);
+
 		playerRepository.clearPlayers();
 		capturedGhosts = 0;
+		for(Trajectory trail : trails.values()) {
+			trail.clear();
+		}
 
 		log.debug("Attempting to recreate players");
 		Player player;
@@ -173,32 +320,80 @@ public class PlayerRegistryImpl implements PlayerRegistry {
 		}
 		log.debug("Recreation of players completed");
 
+		for(Player previousPlayer : previousPlayers) {
+			publishLocationReset(previousPlayer.getName());
+			publishStateChange(
+					previousPlayer.getName(),
+					previousPlayer.getState(),
+					Player.State.UNINITIALIZED
+			);
+		}
+
+	}
+
+	private void updateOutOfBounds(Player.Name name, Coordinate location) {
+		Player player = playerRepository.getPlayerByName(name);
+		boolean outOfBounds = !playAreaRegistry.isInPlayArea(location);
+		if(outOfBounds != player.isOutOfBounds()) {
+			log.info(
+					"Player {} is now {} the play area",
+					name, outOfBounds ? "outside" : "inside"
+			);
+			player.setOutOfBounds(outOfBounds);
+		}
 	}
 
 	private void activatePowerup() {
 
 		setPlayerStateByName(Player.Name.Pacman, Player.State.POWERUP);
-		activePowerups++;
+		activePowerups.incrementAndGet();
 
-		new Timer().schedule(new TimerTask() {
-			@Override
-			public void run()
-			{
+		gameLoop.schedule(
+				this::expirePowerup, powerupMillis, TimeUnit.MILLISECONDS
+		);
 
-				if(activePowerups > 0) {
-					activePowerups--;
-				}
-				
-				if(	activePowerups == 0 &&
-						(gameStateRegistry.getCurrentState() == GameState.IN_PROGRESS ||
-						gameStateRegistry.getCurrentState() == GameState.PAUSED)
-						) {
-					setPlayerStateByName(Player.Name.Pacman, Player.State.ACTIVE);
-				}
+	}
 
-			}
-		}, powerupMillis);
+	/**
+	 * Ends one powerup, returning Pacman to ACTIVE once none remain.
+	 *
+	 * Runs on the shared game scheduler; it only updates in-memory state and
+	 * never blocks.
+	 */
+	private void expirePowerup() {
+
+		int remainingPowerups =
+				activePowerups.updateAndGet(count -> count > 0 ? count - 1 : 0);
+
+		if(	remainingPowerups == 0 &&
+				(gameStateRegistry.getCurrentState() == GameState.IN_PROGRESS ||
+				gameStateRegistry.getCurrentState() == GameState.PAUSED)
+				) {
+			setPlayerStateByName(Player.Name.Pacman, Player.State.ACTIVE);
+		}
 
 	}
 
+	private void publishLocationChange(
+			Player.Name name, List<Coordinate> path, long[] times) {
+		if(eventPublisher != null) {
+			eventPublisher.publishEvent(
+					new PlayerLocationChangedEvent(this, name, path, times)
+			);
+		}
+	}
+
+	private void publishLocationReset(Player.Name name) {
+		publishLocationChange(name, Collections.emptyList(), new long[0]);
+	}
+
+	private void publishStateChange(
+			Player.Name name, Player.State previousState, Player.State state) {
+		if(eventPublisher != null && previousState != state) {
+			eventPublisher.publishEvent(new PlayerStateChangedEvent(
+					this, name, previousState, state
+			));
+		}
+	}
+
 }
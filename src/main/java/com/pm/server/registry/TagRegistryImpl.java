@@ -1,17 +1,19 @@
 package com.pm.server.registry;
 
+import com.pm.server.GameLoop;
 import com.pm.server.PmServerException;
 import com.pm.server.datatype.Player;
 import com.pm.server.datatype.PlayerTagRecord;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Repository;
 
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Timer;
-import java.util.TimerTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
 
 @Repository
 public class TagRegistryImpl implements TagRegistry {
@@ -20,15 +22,23 @@ public class TagRegistryImpl implements TagRegistry {
 
     private List<PlayerTagRecord> tagsByTaggee;
 
-    private Timer timer;
+    private GameLoop gameLoop;
+
+    /**
+     * Guards both tag lists, which are also modified by expiry tasks on the
+     * game scheduler. A ReentrantLock rather than synchronized, so a request
+     * running on a virtual thread does not pin its carrier while waiting.
+     */
+    private final ReentrantLock lock = new ReentrantLock();
 
     private final static Logger log =
             LogManager.getLogger(TagRegistryImpl.class.getName());
 
-    TagRegistryImpl() {
+    @Autowired
+    TagRegistryImpl(GameLoop gameLoop) {
         tagsByTagger = new LinkedList<>();
         tagsByTaggee = new LinkedList<>();
-        timer = new Timer();
+        this.gameLoop = gameLoop;
     }
 
     @Override
@@ -41,17 +51,23 @@ public class TagRegistryImpl implements TagRegistry {
         );
 
         PlayerTagRecord tag = new PlayerTagRecord(tagger, taggee);
-        if(!tagsByTagger.contains(tag)) {
-            tagsByTagger.add(tag);
-
-            if(tagsByTaggee.contains(tag)) {
-                removeTagNow(tagsByTagger, tag);
-                return true;
-            }
-            else {
-                removeTagAfterTimeout(tagsByTagger, tag);
+        lock.lock();
+        try {
+            if(!tagsByTagger.contains(tag)) {
+                tagsByTagger.add(tag);
+
+                if(tagsByTaggee.contains(tag)) {
+                    removeTagNow(tagsByTagger, tag);
+                    return true;
+                }
+                else {
+                    removeTagAfterTimeout(tagsByTagger, tag);
+                }
             }
         }
+        finally {
+            lock.unlock();
+        }
 
         return false;
     }
@@ -66,17 +82,23 @@ public class TagRegistryImpl implements TagRegistry {
         );
 
         PlayerTagRecord tag = new PlayerTagRecord(tagger, taggee);
-        if(!tagsByTaggee.contains(tag)) {
-            tagsByTaggee.add(tag);
-
-            if(tagsByTagger.contains(tag)) {
-                removeTagNow(tagsByTaggee, tag);
-                return true;
-            }
-            else {
-                removeTagAfterTimeout(tagsByTaggee, tag);
+        lock.lock();
+        try {
+            if(!tagsByTaggee.contains(tag)) {
+                tagsByTaggee.add(tag);
+
+                if(tagsByTagger.contains(tag)) {
+                    removeTagNow(tagsByTaggee, tag);
+                    return true;
+                }
+                else {
+                    removeTagAfterTimeout(tagsByTaggee, tag);
+                }
             }
         }
+        finally {
+            lock.unlock();
+        }
 
         return false;
     }
@@ -106,17 +128,26 @@ public class TagRegistryImpl implements TagRegistry {
     }
 
     private void removeTagAfterTimeout(List list, PlayerTagRecord tag) {
-        timer.schedule(new TimerTask() {
-            @Override
-            public void run() {
+        gameLoop.schedule(() -> {
+            lock.lock();
+            try {
                 removeTagNow(list, tag);
             }
-        }, 20 * 1000);  // 20 seconds (expressed in milliseconds)
+            finally {
+                lock.unlock();
+            }
+        }, 20, TimeUnit.SECONDS);
     }
 
     @Override
     public void clearTags() {
-        tagsByTagger.clear();
-        tagsByTaggee.clear();
+        lock.lock();
+        try {
+            tagsByTagger.clear();
+            tagsByTaggee.clear();
+        }
+        finally {
+            lock.unlock();
+        }
     }
 }
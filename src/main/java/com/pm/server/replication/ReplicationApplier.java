@@ -0,0 +1,133 @@
+package com.pm.server.replication;
+
+import com.pm.server.datatype.HeatmapGrid;
+import com.pm.server.datatype.PacdotMap;
+import com.pm.server.leaderboard.Leaderboard;
+import com.pm.server.registry.GameStateRegistry;
+import com.pm.server.registry.HeatmapRegistry;
+import com.pm.server.registry.PacdotRegistry;
+import com.pm.server.registry.PlayerRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import java.util.BitSet;
+
+/**
+ * Applies entries of another server's replication log to this server's
+ * registries, without any game logic of its own. Callers must apply
+ * entries on the game loop, in log order.
+ */
+@Component
+public class ReplicationApplier {
+
+	private final GameStateRegistry gameStateRegistry;
+
+	private final PlayerRegistry playerRegistry;
+
+	private final PacdotRegistry pacdotRegistry;
+
+	private final HeatmapRegistry heatmapRegistry;
+
+	private final Leaderboard leaderboard;
+
+	private final double pacdotCapturingDistance;
+
+	@Autowired
+	public ReplicationApplier(
+			GameStateRegistry gameStateRegistry,
+			PlayerRegistry playerRegistry,
+			PacdotRegistry pacdotRegistry,
+			HeatmapRegistry heatmapRegistry,
+			// Lazy, since the leaderboard depends on the follower which
+			// applies entries with this
+			@Lazy Leaderboard leaderboard,
+			@Value("${pacdot.capturing.distance}")
+					Double pacdotCapturingDistance) {
+		this.gameStateRegistry = gameStateRegistry;
+		this.playerRegistry = playerRegistry;
+		this.pacdotRegistry = pacdotRegistry;
+		this.heatmapRegistry = heatmapRegistry;
+		this.leaderboard = leaderboard;
+		this.pacdotCapturingDistance = pacdotCapturingDistance;
+	}
+
+	/**
+	 * @return Whether this server's pacdots agree with the other server's
+	 *         after the entry; false means the log was not applied from a
+	 *         snapshot onwards, and should be applied again from a new one
+	 */
+	public boolean apply(ReplicationEntry entry) {
+
+		switch(entry.getType()) {
+			case PLAYER:
+				playerRegistry.replicatePlayer(
+						entry.getName(), entry.getState(), entry.getLocation(),
+						Boolean.TRUE.equals(entry.getOutOfBounds()),
+						entry.getPath(), entry.getPathTimes()
+				);
+				break;
+
+			case GAME:
+				gameStateRegistry.replicateState(entry.getGameState());
+				break;
+
+			case PACDOTS:
+				applyPacdots(entry);
+				return entry.getUneaten().equals(
+						pacdotRegistry.getUneatenCount()
+				);
+
+			case HEATMAP:
+				applyHeatmap(entry);
+				break;
+
+			case LEADERBOARD:
+				leaderboard.replicateResults(
+						entry.getResults(),
+						Boolean.TRUE.equals(entry.getSnapshot())
+				);
+				break;
+		}
+
+		return true;
+	}
+
+	private void applyHeatmap(ReplicationEntry entry) {
+		double[] bounds = entry.getBounds();
+		HeatmapGrid heatmap = new HeatmapGrid(
+				bounds[0], bounds[1], bounds[2], bounds[3],
+				entry.getRows(), entry.getColumns(), 1
+		);
+		heatmap.addCounts(entry.getCounts());
+		heatmapRegistry.replicateHeatmap(entry.getMapName(), heatmap);
+	}
+
+	private void applyPacdots(ReplicationEntry entry) {
+
+		switch(entry.getChange()) {
+			case EATEN:
+				pacdotRegistry.replicateEaten(entry.getEaten());
+				break;
+
+			case RESET:
+				pacdotRegistry.resetPacdots();
+				break;
+
+			case REPLACED:
+				BitSet powerdots = new BitSet(entry.getLatitudes().length);
+				for(int i : entry.getPowerdots()) {
+					powerdots.set(i);
+				}
+				pacdotRegistry.loadMap(new PacdotMap(
+						entry.getMapName(),
+						entry.getLatitudes(), entry.getLongitudes(),
+						powerdots, pacdotCapturingDistance
+				));
+				pacdotRegistry.replicateEaten(entry.getEaten());
+				break;
+		}
+	}
+
+}
@@ -0,0 +1,311 @@
+package com.pm.server.replication;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.pm.server.datatype.Coordinate;
+import com.pm.server.datatype.GameState;
+import com.pm.server.datatype.Player;
+import com.pm.server.event.PacdotsChangedEvent;
+import com.pm.server.leaderboard.LeaderboardEntry;
+
+import java.util.List;
+
+/**
+ * One change in the replication log, sent to followers as a line of JSON.
+ *
+ * <p>
+ *     Player and game state entries carry the whole state of the player or
+ *     game after the change, so applying a later entry always repairs an
+ *     earlier one. Pacdot entries carry only the change, and the number of
+ *     uneaten pacdots after it, which a follower checks to detect that it
+ *     has fallen out of step.
+ * </p>
+ * <p>
+ *     Heatmap entries are only sent in snapshots, since the counts of a
+ *     heatmap follow from the paths of the player entries after it.
+ *     Leaderboard entries carry the results of one finished game, or in a
+ *     snapshot every result kept on the primary's boards.
+ * </p>
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ReplicationEntry {
+
+	public enum Type {
+		PLAYER,
+		GAME,
+		PACDOTS,
+		HEATMAP,
+		LEADERBOARD,
+		/**
+		 * Sent while no change is logged, so a follower can tell a quiet
+		 * primary from a failed one; changes nothing.
+		 */
+		HEARTBEAT
+	}
+
+	private long seq;
+
+	private long time;
+
+	private Boolean snapshot;
+
+	private Type type;
+
+	private Player.Name name;
+
+	private Player.State state;
+
+	private Coordinate location;
+
+	private Boolean outOfBounds;
+
+	/**
+	 * Locations moved through since the previous entry for the player, or
+	 * empty if its location was reset; null if its location did not change.
+	 */
+	private List<Coordinate> path;
+
+	/**
+	 * Time each location of the path was received by the primary.
+	 */
+	private long[] pathTimes;
+
+	private GameState gameState;
+
+	private PacdotsChangedEvent.Change change;
+
+	private Integer uneaten;
+
+	private int[] eaten;
+
+	private String mapName;
+
+	private double[] latitudes;
+
+	private double[] longitudes;
+
+	private int[] powerdots;
+
+	/**
+	 * South, west, north and east bounds of a heatmap.
+	 */
+	private double[] bounds;
+
+	private Integer rows;
+
+	private Integer columns;
+
+	private int[] counts;
+
+	private List<LeaderboardEntry> results;
+
+	/**
+	 * @return Position of the entry in the log; entries sent to a follower
+	 *         when it connects repeat the position of the latest entry
+	 */
+	public long getSeq() {
+		return seq;
+	}
+
+	public void setSeq(long seq) {
+		this.seq = seq;
+	}
+
+	/**
+	 * @return Time at which the primary logged the entry, in milliseconds
+	 *         since the epoch
+	 */
+	public long getTime() {
+		return time;
+	}
+
+	public void setTime(long time) {
+		this.time = time;
+	}
+
+	/**
+	 * @return True for the entries of a snapshot, which hold the state as
+	 *         of their seq; null for entries of single changes
+	 */
+	public Boolean getSnapshot() {
+		return snapshot;
+	}
+
+	public void setSnapshot(Boolean snapshot) {
+		this.snapshot = snapshot;
+	}
+
+	public Type getType() {
+		return type;
+	}
+
+	public void setType(Type type) {
+		this.type = type;
+	}
+
+	public Player.Name getName() {
+		return name;
+	}
+
+	public void setName(Player.Name name) {
+		this.name = name;
+	}
+
+	public Player.State getState() {
+		return state;
+	}
+
+	public void setState(Player.State state) {
+		this.state = state;
+	}
+
+	public Coordinate getLocation() {
+		return location;
+	}
+
+	public void setLocation(Coordinate location) {
+		this.location = location;
+	}
+
+	public Boolean getOutOfBounds() {
+		return outOfBounds;
+	}
+
+	public void setOutOfBounds(Boolean outOfBounds) {
+		this.outOfBounds = outOfBounds;
+	}
+
+	public List<Coordinate> getPath() {
+		return path;
+	}
+
+	public void setPath(List<Coordinate> path) {
+		this.path = path;
+	}
+
+	public long[] getPathTimes() {
+		return pathTimes;
+	}
+
+	public void setPathTimes(long[] pathTimes) {
+		this.pathTimes = pathTimes;
+	}
+
+	public GameState getGameState() {
+		return gameState;
+	}
+
+	public void setGameState(GameState gameState) {
+		this.gameState = gameState;
+	}
+
+	public PacdotsChangedEvent.Change getChange() {
+		return change;
+	}
+
+	public void setChange(PacdotsChangedEvent.Change change) {
+		this.change = change;
+	}
+
+	public Integer getUneaten() {
+		return uneaten;
+	}
+
+	public void setUneaten(Integer uneaten) {
+		this.uneaten = uneaten;
+	}
+
+	/**
+	 * @return Indices of the pacdots eaten by the change; for a replaced
+	 *         map, of every eaten pacdot
+	 */
+	public int[] getEaten() {
+		return eaten;
+	}
+
+	public void setEaten(int[] eaten) {
+		this.eaten = eaten;
+	}
+
+	public String getMapName() {
+		return mapName;
+	}
+
+	public void setMapName(String mapName) {
+		this.mapName = mapName;
+	}
+
+	public double[] getLatitudes() {
+		return latitudes;
+	}
+
+	public void setLatitudes(double[] latitudes) {
+		this.latitudes = latitudes;
+	}
+
+	public double[] getLongitudes() {
+		return longitudes;
+	}
+
+	public void setLongitudes(double[] longitudes) {
+		this.longitudes = longitudes;
+	}
+
+	/**
+	 * @return Indices of the pacdots which are powerdots, for a replaced map
+	 */
+	public int[] getPowerdots() {
+		return powerdots;
+	}
+
+	public void setPowerdots(int[] powerdots) {
+		this.powerdots = powerdots;
+	}
+
+	/**
+	 * @return South, west, north and east bounds of the heatmap
+	 */
+	public double[] getBounds() {
+		return bounds;
+	}
+
+	public void setBounds(double[] bounds) {
+		this.bounds = bounds;
+	}
+
+	public Integer getRows() {
+		return rows;
+	}
+
+	public void setRows(Integer rows) {
+		this.rows = rows;
+	}
+
+	public Integer getColumns() {
+		return columns;
+	}
+
+	public void setColumns(Integer columns) {
+		this.columns = columns;
+	}
+
+	/**
+	 * @return Count of each cell of the heatmap, row by row from the south
+	 *         west
+	 */
+	public int[] getCounts() {
+		return counts;
+	}
+
+	public void setCounts(int[] counts) {
+		this.counts = counts;
+	}
+
+	public List<LeaderboardEntry> getResults() {
+		return results;
+	}
+
+	public void setResults(List<LeaderboardEntry> results) {
+		this.results = results;
+	}
+
+}
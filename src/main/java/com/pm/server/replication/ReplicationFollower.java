@@ -0,0 +1,322 @@
+package com.pm.server.replication;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pm.server.GameLoop;
+import com.pm.server.utils.JsonUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Makes this server a read replica of the primary at
+ * <code>replication.primary.url</code>, if set.
+ *
+ * <p>
+ *     A single thread reads the primary's replication log and applies each
+ *     entry with the {@link ReplicationApplier}, in order, through the
+ *     {@link GameLoop}. Entries describe the state after each change, so the
+ *     log can be applied again from any snapshot. A follower which finds
+ *     its pacdots out of step with the primary once an entry is applied,
+ *     or loses its connection, reconnects and starts again from a new
+ *     snapshot. Entries no newer than the last snapshot applied are
+ *     dropped, as the snapshot already holds them. A stream on which not
+ *     even a heartbeat arrives for a few heartbeat periods counts as
+ *     lost.
+ * </p>
+ * <p>
+ *     With <code>replication.standby</code> set, the follower is also a hot
+ *     standby. It acknowledges each batch of entries it receives, which
+ *     the primary waits for before answering a change. If it hears nothing
+ *     from the primary, not even a heartbeat, for
+ *     <code>replication.failover.millis</code>, it promotes itself: it
+ *     stops following and serves writes itself as the primary. A standby
+ *     only promotes itself once it has followed the primary, so one
+ *     started before its primary does not take over.
+ * </p>
+ */
+@Component
+public class ReplicationFollower {
+
+	private static final ObjectMapper objectMapper =
+			JsonUtils.getObjectMapper();
+
+	/**
+	 * Heartbeat periods a read replica waits on a silent stream before it
+	 * takes the connection for dead and reconnects.
+	 */
+	private static final int MISSED_HEARTBEATS = 4;
+
+	private final ReplicationApplier applier;
+
+	private final GameLoop gameLoop;
+
+	private final String primaryUrl;
+
+	private final long reconnectMillis;
+
+	private final boolean standby;
+
+	private final long failoverMillis;
+
+	private final long heartbeatMillis;
+
+	private volatile boolean running = false;
+
+	private volatile boolean connected = false;
+
+	private volatile boolean promoted = false;
+
+	/**
+	 * Time the primary was last heard from; 0 until it first is.
+	 */
+	private volatile long heardMillis = 0;
+
+	private long acknowledgedSeq = 0;
+
+	private volatile long appliedSeq = 0;
+
+	/**
+	 * Seq of the last snapshot applied; only touched on the game loop.
+	 */
+	private long snapshotSeq = -1;
+
+	private volatile long lagMillis = 0;
+
+	private volatile HttpURLConnection connection;
+
+	private Thread reader;
+
+	private final static Logger log =
+			LogManager.getLogger(ReplicationFollower.class.getName());
+
+	@Autowired
+	public ReplicationFollower(
+			ReplicationApplier applier,
+			GameLoop gameLoop,
+			@Value("${replication.primary.url}") String primaryUrl,
+			@Value("${replication.reconnect.millis}") Long reconnectMillis,
+			@Value("${replication.standby}") Boolean standby,
+			@Value("${replication.failover.millis}") Long failoverMillis,
+			@Value("${replication.heartbeat.millis}") Long heartbeatMillis) {
+		this.applier = applier;
+		this.gameLoop = gameLoop;
+		this.primaryUrl = primaryUrl == null ? "" : primaryUrl.trim();
+		this.reconnectMillis = reconnectMillis;
+		this.standby = standby;
+		this.failoverMillis = failoverMillis;
+		this.heartbeatMillis = heartbeatMillis;
+	}
+
+	@PostConstruct
+	public void start() {
+		if(!isFollower()) {
+			return;
+		}
+
+		log.info("Following primary at {}{}",
+				primaryUrl, standby ? " as a standby" : "");
+		running = true;
+		reader = new Thread(this::follow, "replication-follower");
+		reader.setDaemon(true);
+		reader.start();
+	}
+
+	@PreDestroy
+	public void stop() {
+		running = false;
+		HttpURLConnection current = connection;
+		if(current != null) {
+			current.disconnect();
+		}
+		if(reader != null) {
+			reader.interrupt();
+		}
+	}
+
+	/**
+	 * @return Whether this server follows a primary; false once a standby
+	 *         has promoted itself
+	 */
+	public boolean isFollower() {
+		return !primaryUrl.isEmpty() && !promoted;
+	}
+
+	/**
+	 * @return Whether this server was a standby which has taken over from
+	 *         its primary
+	 */
+	public boolean isPromoted() {
+		return promoted;
+	}
+
+	public String getPrimaryUrl() {
+		return primaryUrl;
+	}
+
+	public boolean isConnected() {
+		return connected;
+	}
+
+	/**
+	 * @return Number of the last entry applied
+	 */
+	public long getAppliedSeq() {
+		return appliedSeq;
+	}
+
+	/**
+	 * @return Time between the primary logging the last entry applied and
+	 *         this server applying it
+	 */
+	public long getLagMillis() {
+		return lagMillis;
+	}
+
+	private void follow() {
+		while(running) {
+			try {
+				readStream();
+			}
+			catch(IOException | RuntimeException e) {
+				if(running) {
+					log.warn("Replication stream from {} failed: {}",
+							primaryUrl, e.getMessage());
+				}
+			}
+			finally {
+				connected = false;
+			}
+
+			long sleepMillis = reconnectMillis;
+			if(standby && heardMillis > 0) {
+				long silentMillis = System.currentTimeMillis() - heardMillis;
+				if(silentMillis >= failoverMillis) {
+					promote(silentMillis);
+					return;
+				}
+				sleepMillis = Math.min(
+						sleepMillis, failoverMillis - silentMillis
+				);
+			}
+
+			try {
+				Thread.sleep(sleepMillis);
+			}
+			catch(InterruptedException e) {
+				return;
+			}
+		}
+	}
+
+	private void readStream() throws IOException {
+
+		HttpURLConnection current = (HttpURLConnection) new URL(
+				primaryUrl + "/replication/stream?standby=" + standby
+		).openConnection();
+		current.setConnectTimeout((int) failoverMillis);
+		// Heartbeats keep the stream busy while the primary lives, so a
+		// silent stream is a dead primary or a half-open connection
+		current.setReadTimeout(standby ?
+				(int) failoverMillis :
+				(int) (heartbeatMillis * MISSED_HEARTBEATS));
+		connection = current;
+
+		// Entries of an earlier stream may still be waiting for a tick, and
+		// must not find this one out of step
+		AtomicBoolean outOfStep = new AtomicBoolean();
+
+		try(BufferedReader lines = new BufferedReader(new InputStreamReader(
+				current.getInputStream(), StandardCharsets.UTF_8
+		))) {
+			connected = true;
+			log.info("Connected to primary at {}", primaryUrl);
+
+			String line;
+			while(running && (line = lines.readLine()) != null) {
+				heardMillis = System.currentTimeMillis();
+				if(line.isEmpty()) {
+					continue;
+				}
+				ReplicationEntry entry =
+						objectMapper.readValue(line, ReplicationEntry.class);
+				if(entry.getType() == ReplicationEntry.Type.HEARTBEAT) {
+					lagMillis = Math.max(0, heardMillis - entry.getTime());
+				}
+				else {
+					gameLoop.execute(() -> apply(entry, outOfStep));
+				}
+
+				// Only set once an entry of this stream has been applied
+				if(outOfStep.get()) {
+					log.warn("Pacdots out of step with primary; resyncing");
+					return;
+				}
+
+				// Entries are acknowledged once per batch received
+				if(standby && !lines.ready()) {
+					acknowledge(entry.getSeq());
+				}
+			}
+		}
+		finally {
+			current.disconnect();
+		}
+	}
+
+	private void acknowledge(long seq) throws IOException {
+		if(seq <= acknowledgedSeq) {
+			return;
+		}
+
+		HttpURLConnection ack = (HttpURLConnection) new URL(
+				primaryUrl + "/replication/ack?seq=" + seq
+		).openConnection();
+		ack.setRequestMethod("POST");
+		ack.setConnectTimeout((int) failoverMillis);
+		ack.setReadTimeout((int) failoverMillis);
+		// The body is read and closed rather than disconnected, so the
+		// connection is kept alive for the next acknowledgement
+		try(InputStream body = ack.getInputStream()) {
+			while(body.read() >= 0);
+		}
+		acknowledgedSeq = seq;
+	}
+
+	private void promote(long silentMillis) {
+		running = false;
+		promoted = true;
+		log.warn("Primary at {} silent for {} ms; promoting to primary",
+				primaryUrl, silentMillis);
+	}
+
+	private void apply(ReplicationEntry entry, AtomicBoolean outOfStep) {
+		if(Boolean.TRUE.equals(entry.getSnapshot())) {
+			snapshotSeq = entry.getSeq();
+		}
+		else if(entry.getSeq() <= snapshotSeq) {
+			log.debug("Dropping entry {} already in snapshot {}",
+					entry.getSeq(), snapshotSeq);
+			return;
+		}
+
+		if(!applier.apply(entry)) {
+			outOfStep.set(true);
+		}
+		appliedSeq = entry.getSeq();
+		lagMillis = Math.max(0, System.currentTimeMillis() - entry.getTime());
+	}
+
+}
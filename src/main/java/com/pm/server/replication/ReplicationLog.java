@@ -0,0 +1,541 @@
+package com.pm.server.replication;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pm.server.datatype.Coordinate;
+import com.pm.server.datatype.HeatmapGrid;
+import com.pm.server.datatype.Pacdot;
+import com.pm.server.datatype.Player;
+import com.pm.server.event.GameStateChangedEvent;
+import com.pm.server.event.LeaderboardChangedEvent;
+import com.pm.server.event.PacdotsChangedEvent;
+import com.pm.server.event.PlayerLocationChangedEvent;
+import com.pm.server.event.PlayerStateChangedEvent;
+import com.pm.server.leaderboard.Leaderboard;
+import com.pm.server.leaderboard.LeaderboardEntry;
+import com.pm.server.registry.GameStateRegistry;
+import com.pm.server.registry.HeatmapRegistry;
+import com.pm.server.registry.PacdotRegistry;
+import com.pm.server.registry.PlayerRegistry;
+import com.pm.server.utils.BroadcastHub;
+import com.pm.server.utils.JsonUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+/**
+ * The ordered log of changes to this server's game, sent to the followers
+ * replicating it (GET /replication/stream).
+ *
+ * <p>
+ *     Every change event becomes one entry, numbered in the order the
+ *     events were published and encoded once as a line of JSON shared by
+ *     every follower. A new follower is first sent a snapshot of the whole
+ *     game, taken while no entry can be appended, and then every entry
+ *     after it.
+ * </p>
+ * <p>
+ *     Unlike {@link BroadcastHub}, no entry is ever skipped: each follower
+ *     has a bounded queue, and a follower whose queue overflows is dropped
+ *     rather than sent an incomplete log. It catches up from a new snapshot
+ *     when it reconnects.
+ * </p>
+ * <p>
+ *     Followers are sent a heartbeat whenever no entry has been sent for a
+ *     while. Standby followers acknowledge the entries they have received,
+ *     and {@link #awaitStandby(long)} lets a request wait until its changes
+ *     are held by a standby before it is answered.
+ * </p>
+ */
+@Component
+public class ReplicationLog {
+
+	private static final ObjectMapper objectMapper =
+			JsonUtils.getObjectMapper();
+
+	private final GameStateRegistry gameStateRegistry;
+
+	private final PlayerRegistry playerRegistry;
+
+	private final PacdotRegistry pacdotRegistry;
+
+	private final HeatmapRegistry heatmapRegistry;
+
+	private final Leaderboard leaderboard;
+
+	private final Executor replicationExecutor;
+
+	private final int queueCapacity;
+
+	private final ScheduledExecutorService gameScheduler;
+
+	private final long heartbeatMillis;
+
+	private final long syncTimeoutMillis;
+
+	private ScheduledFuture<?> heartbeats;
+
+	private final ConcurrentHashMap<BroadcastHub.FrameSink, Follower>
+			followers = new ConcurrentHashMap<>();
+
+	/**
+	 * Number of the latest entry; only changed while holding this log.
+	 */
+	private volatile long seq = 0;
+
+	/**
+	 * Time of the latest entry sent to followers.
+	 */
+	private volatile long sentMillis = 0;
+
+	private final Object acknowledgements = new Object();
+
+	/**
+	 * Latest entry acknowledged by a standby; guarded by acknowledgements.
+	 */
+	private long acknowledgedSeq = 0;
+
+	private final AtomicLong standbyTimeouts = new AtomicLong();
+
+	private final AtomicLong followersDropped = new AtomicLong();
+
+	private final static Logger log =
+			LogManager.getLogger(ReplicationLog.class.getName());
+
+	@Autowired
+	public ReplicationLog(
+			GameStateRegistry gameStateRegistry,
+			PlayerRegistry playerRegistry,
+			PacdotRegistry pacdotRegistry,
+			HeatmapRegistry heatmapRegistry,
+			Leaderboard leaderboard,
+			@Qualifier("replicationExecutor") Executor replicationExecutor,
+			ScheduledExecutorService gameScheduler,
+			@Value("${replication.follower.queue.capacity}")
+					Integer queueCapacity,
+			@Value("${replication.heartbeat.millis}") Long heartbeatMillis,
+			@Value("${replication.sync.timeout.millis}")
+					Long syncTimeoutMillis) {
+		this.gameStateRegistry = gameStateRegistry;
+		this.playerRegistry = playerRegistry;
+		this.pacdotRegistry = pacdotRegistry;
+		this.heatmapRegistry = heatmapRegistry;
+		this.leaderboard = leaderboard;
+		this.replicationExecutor = replicationExecutor;
+		this.gameScheduler = gameScheduler;
+		this.queueCapacity = queueCapacity;
+		this.heartbeatMillis = heartbeatMillis;
+		this.syncTimeoutMillis = syncTimeoutMillis;
+	}
+
+	@PostConstruct
+	public void start() {
+		heartbeats = gameScheduler.scheduleAtFixedRate(
+				this::heartbeat,
+				heartbeatMillis, heartbeatMillis, TimeUnit.MILLISECONDS
+		);
+	}
+
+	@PreDestroy
+	public void stop() {
+		heartbeats.cancel(false);
+	}
+
+	/**
+	 * Adds a follower, which is sent a snapshot of the game followed by
+	 * every later entry.
+	 *
+	 * @param standby Whether the follower acknowledges entries, and stands
+	 *                ready to take over from this server
+	 */
+	public synchronized void subscribe(
+			BroadcastHub.FrameSink sink, boolean standby) {
+		Follower follower = new Follower(sink, standby);
+		followers.put(sink, follower);
+		for(byte[] frame : snapshot()) {
+			follower.offer(frame);
+		}
+
+		log.info("{} subscribed at entry {}; {} following",
+				standby ? "Standby" : "Follower", seq, followers.size());
+	}
+
+	/**
+	 * @return Encoded entries which give a server that applies them the
+	 *         current state of the whole game; each entry carries the
+	 *         number of the latest entry logged
+	 */
+	public synchronized List<byte[]> snapshot() {
+		long time = System.currentTimeMillis();
+		List<ReplicationEntry> entries = new ArrayList<>();
+		entries.add(gameEntry(time));
+		entries.add(pacdotMapEntry(time));
+		for(Player.Name name : Player.Name.values()) {
+			entries.add(playerEntry(
+					time, name, Collections.emptyList(), new long[0]
+			));
+		}
+		for(Map.Entry<String, HeatmapGrid> heatmap :
+				heatmapRegistry.getHeatmaps().entrySet()) {
+			entries.add(heatmapEntry(
+					time, heatmap.getKey(), heatmap.getValue()
+			));
+		}
+		entries.add(leaderboardEntry(time, leaderboard.getEntries()));
+
+		List<byte[]> frames = new ArrayList<>();
+		for(ReplicationEntry entry : entries) {
+			entry.setSnapshot(true);
+			frames.add(encode(entry));
+		}
+		return frames;
+	}
+
+	/**
+	 * Removes a follower without closing it, e.g. once it has gone away.
+	 */
+	public void unsubscribe(BroadcastHub.FrameSink sink) {
+		followers.remove(sink);
+	}
+
+	public long getSeq() {
+		return seq;
+	}
+
+	public int getFollowerCount() {
+		return followers.size();
+	}
+
+	public long getFollowersDropped() {
+		return followersDropped.get();
+	}
+
+	/**
+	 * Records that a standby has received every entry up to the given one.
+	 */
+	public void acknowledge(long acknowledged) {
+		synchronized(acknowledgements) {
+			if(acknowledged > acknowledgedSeq) {
+				acknowledgedSeq = acknowledged;
+				acknowledgements.notifyAll();
+			}
+		}
+	}
+
+	/**
+	 * Waits until a standby has received every entry up to the given one,
+	 * so that a change is not lost if this server fails once the change is
+	 * acknowledged. Returns at once if no standby is connected, and gives up
+	 * after <code>replication.sync.timeout.millis</code> so a failing
+	 * standby cannot stop the game.
+	 *
+	 * @return Whether the entry is held by a standby, or none is connected
+	 */
+	public boolean awaitStandby(long entry) {
+
+		if(!hasStandby()) {
+			return true;
+		}
+
+		long deadline = System.currentTimeMillis() + syncTimeoutMillis;
+		synchronized(acknowledgements) {
+			while(acknowledgedSeq < entry) {
+				long remaining = deadline - System.currentTimeMillis();
+				if(remaining <= 0) {
+					standbyTimeouts.incrementAndGet();
+					log.warn("No standby acknowledged entry {} within {} ms",
+							entry, syncTimeoutMillis);
+					return false;
+				}
+				try {
+					acknowledgements.wait(remaining);
+				}
+				catch(InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @return Whether a standby is connected, in which case changes wait for
+	 *         it before they are answered
+	 */
+	public boolean hasStandby() {
+		return followers.values().stream().anyMatch(f -> f.standby);
+	}
+
+	/**
+	 * @return The number of changes answered without a standby having
+	 *         acknowledged them in time
+	 */
+	public long getStandbyTimeouts() {
+		return standbyTimeouts.get();
+	}
+
+	@EventListener
+	public void onPlayerStateChanged(PlayerStateChangedEvent event) {
+		append(time -> playerEntry(time, event.getName(), null, null));
+	}
+
+	@EventListener
+	public void onPlayerLocationChanged(PlayerLocationChangedEvent event) {
+		append(time -> playerEntry(
+				time, event.getName(), event.getPath(), event.getTimes()
+		));
+	}
+
+	@EventListener
+	public void onGameStateChanged(GameStateChangedEvent event) {
+		append(this::gameEntry);
+	}
+
+	@EventListener
+	public void onPacdotsChanged(PacdotsChangedEvent event) {
+		if(event.getChange() == PacdotsChangedEvent.Change.REPLACED) {
+			append(this::pacdotMapEntry);
+			return;
+		}
+
+		append(time -> {
+			ReplicationEntry entry =
+					newEntry(time, ReplicationEntry.Type.PACDOTS);
+			entry.setChange(event.getChange());
+			entry.setEaten(event.getEatenIndices());
+			entry.setUneaten(event.getUneatenCount());
+			return entry;
+		});
+	}
+
+	@EventListener
+	public void onLeaderboardChanged(LeaderboardChangedEvent event) {
+		append(time -> leaderboardEntry(time, event.getResults()));
+	}
+
+	@FunctionalInterface
+	private interface EntryFactory {
+		ReplicationEntry create(long time);
+	}
+
+	private synchronized void append(EntryFactory factory) {
+		seq++;
+
+		// Entries are only kept as long as a follower waits for them
+		if(followers.isEmpty()) {
+			return;
+		}
+
+		byte[] frame = encode(factory.create(System.currentTimeMillis()));
+		if(frame == null) {
+			return;
+		}
+		send(frame);
+	}
+
+	private synchronized void heartbeat() {
+		long now = System.currentTimeMillis();
+		if(followers.isEmpty() || now - sentMillis < heartbeatMillis) {
+			return;
+		}
+		send(encode(newEntry(now, ReplicationEntry.Type.HEARTBEAT)));
+	}
+
+	private void send(byte[] frame) {
+		sentMillis = System.currentTimeMillis();
+		for(Follower follower : followers.values()) {
+			follower.offer(frame);
+		}
+	}
+
+	private ReplicationEntry newEntry(long time, ReplicationEntry.Type type) {
+		ReplicationEntry entry = new ReplicationEntry();
+		entry.setSeq(seq);
+		entry.setTime(time);
+		entry.setType(type);
+		return entry;
+	}
+
+	private ReplicationEntry gameEntry(long time) {
+		ReplicationEntry entry = newEntry(time, ReplicationEntry.Type.GAME);
+		entry.setGameState(gameStateRegistry.getCurrentState());
+		return entry;
+	}
+
+	private ReplicationEntry playerEntry(
+			long time, Player.Name name, List<Coordinate> path,
+			long[] pathTimes) {
+		ReplicationEntry entry = newEntry(time, ReplicationEntry.Type.PLAYER);
+		entry.setName(name);
+		entry.setState(playerRegistry.getPlayerState(name));
+		entry.setLocation(playerRegistry.getPlayerLocation(name));
+		entry.setOutOfBounds(playerRegistry.isPlayerOutOfBounds(name));
+		entry.setPath(path);
+		entry.setPathTimes(pathTimes);
+		return entry;
+	}
+
+	private ReplicationEntry pacdotMapEntry(long time) {
+		List<Pacdot> pacdots = pacdotRegistry.getInformationOfAllPacdots();
+		int count = pacdots.size();
+		double[] latitudes = new double[count];
+		double[] longitudes = new double[count];
+		IntStream.Builder eaten = IntStream.builder();
+		IntStream.Builder powerdots = IntStream.builder();
+		for(int i = 0; i < count; i++) {
+			Pacdot pacdot = pacdots.get(i);
+			latitudes[i] = pacdot.getLocation().getLatitude();
+			longitudes[i] = pacdot.getLocation().getLongitude();
+			if(pacdot.isEaten()) {
+				eaten.add(i);
+			}
+			if(pacdot.isPowerdot()) {
+				powerdots.add(i);
+			}
+		}
+
+		ReplicationEntry entry = newEntry(time, ReplicationEntry.Type.PACDOTS);
+		entry.setChange(PacdotsChangedEvent.Change.REPLACED);
+		entry.setMapName(pacdotRegistry.getMapName());
+		entry.setLatitudes(latitudes);
+		entry.setLongitudes(longitudes);
+		entry.setPowerdots(powerdots.build().toArray());
+		entry.setEaten(eaten.build().toArray());
+		entry.setUneaten(pacdotRegistry.getUneatenCount());
+		return entry;
+	}
+
+	private ReplicationEntry heatmapEntry(
+			long time, String mapName, HeatmapGrid heatmap) {
+		ReplicationEntry entry = newEntry(time, ReplicationEntry.Type.HEATMAP);
+		entry.setMapName(mapName);
+		entry.setBounds(new double[] {
+				heatmap.getSouth(), heatmap.getWest(),
+				heatmap.getNorth(), heatmap.getEast()
+		});
+		entry.setRows(heatmap.getRows());
+		entry.setColumns(heatmap.getColumns());
+		entry.setCounts(heatmap.getCounts());
+		return entry;
+	}
+
+	private ReplicationEntry leaderboardEntry(
+			long time, List<LeaderboardEntry> results) {
+		ReplicationEntry entry =
+				newEntry(time, ReplicationEntry.Type.LEADERBOARD);
+		entry.setResults(results);
+		return entry;
+	}
+
+	private static byte[] encode(ReplicationEntry entry) {
+		ByteArrayOutputStream line = new ByteArrayOutputStream(256);
+		try {
+			objectMapper.writeValue(line, entry);
+		}
+		catch(IOException e) {
+			log.error("Failed to encode replication entry: {}", e.getMessage());
+			return null;
+		}
+		line.write('\n');
+		return line.toByteArray();
+	}
+
+	private void drop(Follower follower, String reason) {
+		if(followers.remove(follower.sink, follower)) {
+			followersDropped.incrementAndGet();
+			log.warn("Dropping follower: {}", reason);
+			follower.sink.close();
+		}
+	}
+
+	private class Follower implements Runnable {
+
+		private final BroadcastHub.FrameSink sink;
+
+		private final boolean standby;
+
+		private final Queue<byte[]> pending =
+				new LinkedBlockingQueue<>(queueCapacity);
+
+		private final AtomicBoolean sending = new AtomicBoolean();
+
+		Follower(BroadcastHub.FrameSink sink, boolean standby) {
+			this.sink = sink;
+			this.standby = standby;
+		}
+
+		void offer(byte[] frame) {
+			if(!pending.offer(frame)) {
+				drop(this, "fell " + queueCapacity + " entries behind");
+				return;
+			}
+
+			if(sending.compareAndSet(false, true)) {
+				try {
+					replicationExecutor.execute(this);
+				}
+				catch(RejectedExecutionException e) {
+					drop(this, "send rejected");
+				}
+			}
+		}
+
+		@Override
+		public void run() {
+			ByteArrayOutputStream batch = new ByteArrayOutputStream();
+			while(followers.get(sink) == this) {
+				// Entries waiting together are written together
+				byte[] frame;
+				while((frame = pending.poll()) != null) {
+					batch.write(frame, 0, frame.length);
+				}
+
+				if(batch.size() == 0) {
+					sending.set(false);
+					// An entry offered just before the flag was cleared
+					// would otherwise wait for the next entry
+					if(pending.isEmpty() ||
+							!sending.compareAndSet(false, true)) {
+						return;
+					}
+					continue;
+				}
+
+				try {
+					sink.send(batch.toByteArray());
+				}
+				catch(IOException | RuntimeException e) {
+					drop(this, String.valueOf(e.getMessage()));
+					return;
+				}
+				batch.reset();
+			}
+		}
+
+	}
+
+}
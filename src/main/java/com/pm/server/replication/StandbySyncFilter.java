@@ -0,0 +1,66 @@
+package com.pm.server.replication;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Holds back the response to each request which may change the game until
+ * a standby has received the changes (see
+ * {@link ReplicationLog#awaitStandby(long)}), so that a change a client saw
+ * acknowledged survives this server failing.
+ *
+ * <p>
+ *     The response is buffered while the request is handled, since writing
+ *     it would otherwise send it to the client. Reads are not held back.
+ * </p>
+ * <p>
+ *     A change must be made before the request is handled for this to hold;
+ *     location fixes, which may otherwise wait for a tick or a coalescing
+ *     window, are applied at once while a standby is connected (see
+ *     {@link com.pm.server.manager.LocationManager}).
+ * </p>
+ */
+@Component
+public class StandbySyncFilter extends OncePerRequestFilter {
+
+	private final ReplicationLog replicationLog;
+
+	@Autowired
+	public StandbySyncFilter(ReplicationLog replicationLog) {
+		this.replicationLog = replicationLog;
+	}
+
+	@Override
+	protected boolean shouldNotFilter(HttpServletRequest request) {
+		String method = request.getMethod();
+		return "GET".equals(method) || "HEAD".equals(method) ||
+				"OPTIONS".equals(method) ||
+				request.getRequestURI().startsWith("/replication/");
+	}
+
+	@Override
+	protected void doFilterInternal(
+			HttpServletRequest request, HttpServletResponse response,
+			FilterChain filterChain) throws ServletException, IOException {
+
+		ContentCachingResponseWrapper buffered =
+				new ContentCachingResponseWrapper(response);
+		try {
+			filterChain.doFilter(request, buffered);
+		}
+		finally {
+			// Every change made by the request has been logged by now
+			replicationLog.awaitStandby(replicationLog.getSeq());
+			buffered.copyBodyToResponse();
+		}
+	}
+
+}
@@ -0,0 +1,97 @@
+package com.pm.server.replication;
+
+import com.pm.server.PmServerException;
+import com.pm.server.utils.ForwardingUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurerAdapter;
+import org.springframework.web.servlet.handler.HandlerInterceptorAdapter;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sends the requests which change the game from a follower to its primary,
+ * and relays the primary's response, so clients may use any server.
+ *
+ * <p>
+ *     Only a follower forwards, and only requests other than GET, HEAD and
+ *     OPTIONS; reads are served from the follower's own replica. A change
+ *     made through a follower is visible on it once the primary's log
+ *     entry for the change has been applied. A standby which has promoted
+ *     itself stops forwarding.
+ * </p>
+ */
+@Component
+public class WriteForwarder extends WebMvcConfigurerAdapter {
+
+	private final ReplicationFollower follower;
+
+	private final AtomicLong forwarded = new AtomicLong();
+
+	private final static Logger log =
+			LogManager.getLogger(WriteForwarder.class.getName());
+
+	@Autowired
+	public WriteForwarder(ReplicationFollower follower) {
+		this.follower = follower;
+	}
+
+	@Override
+	public void addInterceptors(InterceptorRegistry registry) {
+		if(!follower.getPrimaryUrl().isEmpty()) {
+			// Cluster membership belongs to each node, follower or not
+			registry.addInterceptor(new ForwardingInterceptor())
+					.excludePathPatterns("/cluster/**");
+		}
+	}
+
+	/**
+	 * @return The number of requests forwarded to the primary
+	 */
+	public long getForwarded() {
+		return forwarded.get();
+	}
+
+	private class ForwardingInterceptor extends HandlerInterceptorAdapter {
+
+		@Override
+		public boolean preHandle(
+				HttpServletRequest request, HttpServletResponse response,
+				Object handler) throws PmServerException {
+
+			String method = request.getMethod();
+			if(!follower.isFollower() ||
+					"GET".equals(method) || "HEAD".equals(method) ||
+					"OPTIONS".equals(method)) {
+				return true;
+			}
+
+			try {
+				ForwardingUtils.forward(
+						request, response, follower.getPrimaryUrl()
+				);
+			}
+			catch(IOException e) {
+				String errorMessage =
+						"The primary server could not be reached.";
+				log.error("{} {} {}: {}", errorMessage,
+						method, request.getRequestURI(), e.getMessage());
+				throw new PmServerException(
+						HttpStatus.BAD_GATEWAY, errorMessage
+				);
+			}
+
+			forwarded.incrementAndGet();
+			return false;
+		}
+
+	}
+
+}
@@ -68,6 +68,18 @@ public interface PacdotRepository {
 	 */
 	void resetPacdots();
 
+	/**
+	 * Replaces all pacdots in the repository with the given pacdots.
+	 * 
+	 * Unlike {@link #addPacdot(Pacdot)}, the locations are not checked
+	 * against each other; the caller is responsible for giving distinct
+	 * locations.
+	 * 
+	 * @param pacdots Pacdots to be stored, in order
+	 * @throws NullPointerException if the list is null
+	 */
+	void replacePacdots(List<Pacdot> pacdots) throws NullPointerException;
+
 	/**
 	 * Removes all pacdots from the repository.
 	 */
@@ -144,6 +144,20 @@ public class PacdotRepositoryImpl implements PacdotRepository {
 		}
 	}
 
+	@Override
+	public void replacePacdots(List<Pacdot> pacdots)
+			throws NullPointerException {
+
+		if(pacdots == null) {
+			throw new NullPointerException(
+					"replacePacdots() was given a null list."
+			);
+		}
+
+		log.debug("Replacing repository with {} pacdots", pacdots.size());
+		pacdotList = new ArrayList<>(pacdots);
+	}
+
 	@Override
 	public void clear() {
 		pacdotList = new ArrayList<>();
@@ -0,0 +1,17 @@
+package com.pm.server.request;
+
+import java.util.List;
+
+public class ClusterNodesRequest {
+
+	private List<String> nodes;
+
+	public List<String> getNodes() {
+		return nodes;
+	}
+
+	public void setNodes(List<String> nodes) {
+		this.nodes = nodes;
+	}
+
+}
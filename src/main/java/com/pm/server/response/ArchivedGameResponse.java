@@ -0,0 +1,119 @@
+package com.pm.server.response;
+
+import com.pm.server.datatype.GameState;
+
+import java.util.List;
+
+/**
+ * Aggregates over an archived game, computed from its columns.
+ *
+ */
+public class ArchivedGameResponse {
+
+	private Long id;
+
+	private String mapName;
+
+	private GameState result;
+
+	private Long startMillis;
+
+	private Long durationMillis;
+
+	private Integer pacdotsEaten;
+
+	private Integer powerdotsEaten;
+
+	private Double dotsPerMinute;
+
+	private Integer captures;
+
+	private List<ArchivedPlayerResponse> players;
+
+	public Long getId() {
+		return id;
+	}
+
+	public void setId(Long id) {
+		this.id = id;
+	}
+
+	public String getMapName() {
+		return mapName;
+	}
+
+	public void setMapName(String mapName) {
+		this.mapName = mapName;
+	}
+
+	public GameState getResult() {
+		return result;
+	}
+
+	public void setResult(GameState result) {
+		this.result = result;
+	}
+
+	public Long getStartMillis() {
+		return startMillis;
+	}
+
+	public void setStartMillis(Long startMillis) {
+		this.startMillis = startMillis;
+	}
+
+	public Long getDurationMillis() {
+		return durationMillis;
+	}
+
+	public void setDurationMillis(Long durationMillis) {
+		this.durationMillis = durationMillis;
+	}
+
+	/**
+	 * @return Number of pacdots eaten, powerdots included
+	 */
+	public Integer getPacdotsEaten() {
+		return pacdotsEaten;
+	}
+
+	public void setPacdotsEaten(Integer pacdotsEaten) {
+		this.pacdotsEaten = pacdotsEaten;
+	}
+
+	public Integer getPowerdotsEaten() {
+		return powerdotsEaten;
+	}
+
+	public void setPowerdotsEaten(Integer powerdotsEaten) {
+		this.powerdotsEaten = powerdotsEaten;
+	}
+
+	/**
+	 * @return Pacdots eaten per minute of the game, powerdots included
+	 */
+	public Double getDotsPerMinute() {
+		return dotsPerMinute;
+	}
+
+	public void setDotsPerMinute(Double dotsPerMinute) {
+		this.dotsPerMinute = dotsPerMinute;
+	}
+
+	public Integer getCaptures() {
+		return captures;
+	}
+
+	public void setCaptures(Integer captures) {
+		this.captures = captures;
+	}
+
+	public List<ArchivedPlayerResponse> getPlayers() {
+		return players;
+	}
+
+	public void setPlayers(List<ArchivedPlayerResponse> players) {
+		this.players = players;
+	}
+
+}
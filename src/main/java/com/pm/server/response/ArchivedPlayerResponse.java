@@ -0,0 +1,58 @@
+package com.pm.server.response;
+
+import com.pm.server.datatype.Player;
+
+/**
+ * Aggregates over the recorded movements of one player in an archived game.
+ *
+ */
+public class ArchivedPlayerResponse {
+
+	private Player.Name name;
+
+	private Integer fixes;
+
+	private Double distanceMetres;
+
+	private Long capturedAtMillis;
+
+	public Player.Name getName() {
+		return name;
+	}
+
+	public void setName(Player.Name name) {
+		this.name = name;
+	}
+
+	public Integer getFixes() {
+		return fixes;
+	}
+
+	public void setFixes(Integer fixes) {
+		this.fixes = fixes;
+	}
+
+	/**
+	 * @return Length of the path through the player's fixes
+	 */
+	public Double getDistanceMetres() {
+		return distanceMetres;
+	}
+
+	public void setDistanceMetres(Double distanceMetres) {
+		this.distanceMetres = distanceMetres;
+	}
+
+	/**
+	 * @return Time from the start of the game at which the player was first
+	 *         captured, or null if it never was
+	 */
+	public Long getCapturedAtMillis() {
+		return capturedAtMillis;
+	}
+
+	public void setCapturedAtMillis(Long capturedAtMillis) {
+		this.capturedAtMillis = capturedAtMillis;
+	}
+
+}
@@ -0,0 +1,57 @@
+package com.pm.server.response;
+
+import java.util.List;
+
+public class ClusterResponse {
+
+	private String self;
+
+	private List<String> nodes;
+
+	private String hostedGameId;
+
+	private Long forwarded;
+
+	public String getSelf() {
+		return self;
+	}
+
+	public void setSelf(String self) {
+		this.self = self;
+	}
+
+	/**
+	 * @return Base URLs of the nodes of the cluster; empty outside a cluster
+	 */
+	public List<String> getNodes() {
+		return nodes;
+	}
+
+	public void setNodes(List<String> nodes) {
+		this.nodes = nodes;
+	}
+
+	/**
+	 * @return The game this node hosts, or null if it hosts none
+	 */
+	public String getHostedGameId() {
+		return hostedGameId;
+	}
+
+	public void setHostedGameId(String hostedGameId) {
+		this.hostedGameId = hostedGameId;
+	}
+
+	/**
+	 * @return The number of requests this node forwarded to the owner of
+	 *         their game
+	 */
+	public Long getForwarded() {
+		return forwarded;
+	}
+
+	public void setForwarded(Long forwarded) {
+		this.forwarded = forwarded;
+	}
+
+}
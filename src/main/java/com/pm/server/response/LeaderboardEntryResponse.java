@@ -0,0 +1,52 @@
+package com.pm.server.response;
+
+public class LeaderboardEntryResponse {
+
+	private Integer rank;
+
+	private Long value;
+
+	private String mapName;
+
+	private Long finishedMillis;
+
+	/**
+	 * @return Rank on the board, from 1 for the best result
+	 */
+	public Integer getRank() {
+		return rank;
+	}
+
+	public void setRank(Integer rank) {
+		this.rank = rank;
+	}
+
+	/**
+	 * @return The result: points for PACMAN_SCORE, otherwise the length of
+	 *         the game in milliseconds
+	 */
+	public Long getValue() {
+		return value;
+	}
+
+	public void setValue(Long value) {
+		this.value = value;
+	}
+
+	public String getMapName() {
+		return mapName;
+	}
+
+	public void setMapName(String mapName) {
+		this.mapName = mapName;
+	}
+
+	public Long getFinishedMillis() {
+		return finishedMillis;
+	}
+
+	public void setFinishedMillis(Long finishedMillis) {
+		this.finishedMillis = finishedMillis;
+	}
+
+}
@@ -0,0 +1,55 @@
+package com.pm.server.response;
+
+import com.pm.server.leaderboard.Leaderboard;
+
+import java.util.List;
+
+/**
+ * One page of a board of the leaderboard, best first.
+ */
+public class LeaderboardResponse {
+
+	private Leaderboard.Board board;
+
+	private Integer offset;
+
+	private Integer total;
+
+	private List<LeaderboardEntryResponse> entries;
+
+	public Leaderboard.Board getBoard() {
+		return board;
+	}
+
+	public void setBoard(Leaderboard.Board board) {
+		this.board = board;
+	}
+
+	public Integer getOffset() {
+		return offset;
+	}
+
+	public void setOffset(Integer offset) {
+		this.offset = offset;
+	}
+
+	/**
+	 * @return The number of entries kept on the board
+	 */
+	public Integer getTotal() {
+		return total;
+	}
+
+	public void setTotal(Integer total) {
+		this.total = total;
+	}
+
+	public List<LeaderboardEntryResponse> getEntries() {
+		return entries;
+	}
+
+	public void setEntries(List<LeaderboardEntryResponse> entries) {
+		this.entries = entries;
+	}
+
+}
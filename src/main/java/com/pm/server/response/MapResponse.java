@@ -0,0 +1,59 @@
+package com.pm.server.response;
+
+/**
+ * Summary of a map in the catalog.
+ *
+ */
+public class MapResponse {
+
+	private String name;
+
+	private Integer pacdots;
+
+	private Integer powerdots;
+
+	private Integer duplicates;
+
+	private Boolean active;
+
+	public String getName() {
+		return name;
+	}
+
+	public void setName(String name) {
+		this.name = name;
+	}
+
+	public Integer getPacdots() {
+		return pacdots;
+	}
+
+	public void setPacdots(Integer pacdots) {
+		this.pacdots = pacdots;
+	}
+
+	public Integer getPowerdots() {
+		return powerdots;
+	}
+
+	public void setPowerdots(Integer powerdots) {
+		this.powerdots = powerdots;
+	}
+
+	public Integer getDuplicates() {
+		return duplicates;
+	}
+
+	public void setDuplicates(Integer duplicates) {
+		this.duplicates = duplicates;
+	}
+
+	public Boolean getActive() {
+		return active;
+	}
+
+	public void setActive(Boolean active) {
+		this.active = active;
+	}
+
+}
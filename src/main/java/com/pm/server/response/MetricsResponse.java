@@ -0,0 +1,119 @@
+package com.pm.server.response;
+
+public class MetricsResponse {
+
+	private Long locationFixesReceived;
+
+	private Long locationFixesFiltered;
+
+	private Long locationUpdatesApplied;
+
+	private Double locationSuppressionRatio;
+
+	private Integer spectators;
+
+	private Long spectatorFramesSkipped;
+
+	private Long spectatorsDropped;
+
+	private Long requestsRateLimited;
+
+	private Long requestsShed;
+
+	private Integer concurrencyLimit;
+
+	private Long latencyP99Millis;
+
+	public Long getLocationFixesReceived() {
+		return locationFixesReceived;
+	}
+
+	public void setLocationFixesReceived(Long locationFixesReceived) {
+		this.locationFixesReceived = locationFixesReceived;
+	}
+
+	public Long getLocationFixesFiltered() {
+		return locationFixesFiltered;
+	}
+
+	public void setLocationFixesFiltered(Long locationFixesFiltered) {
+		this.locationFixesFiltered = locationFixesFiltered;
+	}
+
+	public Long getLocationUpdatesApplied() {
+		return locationUpdatesApplied;
+	}
+
+	public void setLocationUpdatesApplied(Long locationUpdatesApplied) {
+		this.locationUpdatesApplied = locationUpdatesApplied;
+	}
+
+	/**
+	 * @return The fraction of received fixes which did not lead to their
+	 *         own registry write, whether filtered or coalesced
+	 */
+	public Double getLocationSuppressionRatio() {
+		return locationSuppressionRatio;
+	}
+
+	public void setLocationSuppressionRatio(Double locationSuppressionRatio) {
+		this.locationSuppressionRatio = locationSuppressionRatio;
+	}
+
+	public Integer getSpectators() {
+		return spectators;
+	}
+
+	public void setSpectators(Integer spectators) {
+		this.spectators = spectators;
+	}
+
+	public Long getSpectatorFramesSkipped() {
+		return spectatorFramesSkipped;
+	}
+
+	public void setSpectatorFramesSkipped(Long spectatorFramesSkipped) {
+		this.spectatorFramesSkipped = spectatorFramesSkipped;
+	}
+
+	public Long getSpectatorsDropped() {
+		return spectatorsDropped;
+	}
+
+	public void setSpectatorsDropped(Long spectatorsDropped) {
+		this.spectatorsDropped = spectatorsDropped;
+	}
+
+	public Long getRequestsRateLimited() {
+		return requestsRateLimited;
+	}
+
+	public void setRequestsRateLimited(Long requestsRateLimited) {
+		this.requestsRateLimited = requestsRateLimited;
+	}
+
+	public Long getRequestsShed() {
+		return requestsShed;
+	}
+
+	public void setRequestsShed(Long requestsShed) {
+		this.requestsShed = requestsShed;
+	}
+
+	public Integer getConcurrencyLimit() {
+		return concurrencyLimit;
+	}
+
+	public void setConcurrencyLimit(Integer concurrencyLimit) {
+		this.concurrencyLimit = concurrencyLimit;
+	}
+
+	public Long getLatencyP99Millis() {
+		return latencyP99Millis;
+	}
+
+	public void setLatencyP99Millis(Long latencyP99Millis) {
+		this.latencyP99Millis = latencyP99Millis;
+	}
+
+}
@@ -0,0 +1,75 @@
+package com.pm.server.response;
+
+/**
+ * Contains every pacdot as parallel arrays, indexed by pacdot.
+ *
+ * <p>
+ *     The eaten and powerdot flags are bitmaps encoded in base64: the flag
+ *     of pacdot <code>i</code> is bit <code>i % 8</code> (least significant
+ *     first) of byte <code>i / 8</code>.
+ * </p>
+ *
+ */
+public class PacdotColumnarResponse {
+
+	private Long version;
+
+	private Integer count;
+
+	private double[] latitudes;
+
+	private double[] longitudes;
+
+	private String eaten;
+
+	private String powerdots;
+
+	public Long getVersion() {
+		return version;
+	}
+
+	public void setVersion(Long version) {
+		this.version = version;
+	}
+
+	public Integer getCount() {
+		return count;
+	}
+
+	public void setCount(Integer count) {
+		this.count = count;
+	}
+
+	public double[] getLatitudes() {
+		return latitudes;
+	}
+
+	public void setLatitudes(double[] latitudes) {
+		this.latitudes = latitudes;
+	}
+
+	public double[] getLongitudes() {
+		return longitudes;
+	}
+
+	public void setLongitudes(double[] longitudes) {
+		this.longitudes = longitudes;
+	}
+
+	public String getEaten() {
+		return eaten;
+	}
+
+	public void setEaten(String eaten) {
+		this.eaten = eaten;
+	}
+
+	public String getPowerdots() {
+		return powerdots;
+	}
+
+	public void setPowerdots(String powerdots) {
+		this.powerdots = powerdots;
+	}
+
+}
@@ -0,0 +1,115 @@
+package com.pm.server.response;
+
+/**
+ * Counts of pacdots in each cell of a grid over the bounds of the map's
+ * pacdots. Cells are listed row by row from the south west, so the cell in
+ * row <code>r</code> and column <code>c</code> is at index
+ * <code>r * columns + c</code>.
+ */
+public class PacdotDensityResponse {
+
+	private Integer level;
+
+	private Integer rows;
+
+	private Integer columns;
+
+	private Double south;
+
+	private Double west;
+
+	private Double north;
+
+	private Double east;
+
+	private Long version;
+
+	private int[] total;
+
+	private int[] uneaten;
+
+	public Integer getLevel() {
+		return level;
+	}
+
+	public void setLevel(Integer level) {
+		this.level = level;
+	}
+
+	public Integer getRows() {
+		return rows;
+	}
+
+	public void setRows(Integer rows) {
+		this.rows = rows;
+	}
+
+	public Integer getColumns() {
+		return columns;
+	}
+
+	public void setColumns(Integer columns) {
+		this.columns = columns;
+	}
+
+	public Double getSouth() {
+		return south;
+	}
+
+	public void setSouth(Double south) {
+		this.south = south;
+	}
+
+	public Double getWest() {
+		return west;
+	}
+
+	public void setWest(Double west) {
+		this.west = west;
+	}
+
+	public Double getNorth() {
+		return north;
+	}
+
+	public void setNorth(Double north) {
+		this.north = north;
+	}
+
+	public Double getEast() {
+		return east;
+	}
+
+	public void setEast(Double east) {
+		this.east = east;
+	}
+
+	/**
+	 * @return Version of the pacdots counted, as in
+	 *         {@link PacdotColumnarResponse#getVersion()}
+	 */
+	public Long getVersion() {
+		return version;
+	}
+
+	public void setVersion(Long version) {
+		this.version = version;
+	}
+
+	public int[] getTotal() {
+		return total;
+	}
+
+	public void setTotal(int[] total) {
+		this.total = total;
+	}
+
+	public int[] getUneaten() {
+		return uneaten;
+	}
+
+	public void setUneaten(int[] uneaten) {
+		this.uneaten = uneaten;
+	}
+
+}
@@ -0,0 +1,44 @@
+package com.pm.server.response;
+
+/**
+ * Contains the location of an uneaten pacdot, whether it is a powerdot, and
+ * its distance from the location searched from.
+ *
+ */
+public class PacdotNearestResponse {
+
+	private LocationResponse location;
+
+	private Boolean powerdot;
+
+	private Double distance;
+
+	public LocationResponse getLocation() {
+		return location;
+	}
+
+	public void setLocation(LocationResponse location) {
+		this.location = location;
+	}
+
+	public Boolean getPowerdot() {
+		return powerdot;
+	}
+
+	public void setPowerdot(Boolean powerdot) {
+		this.powerdot = powerdot;
+	}
+
+	/**
+	 * @return Distance from the location searched from, in GPS coordinate
+	 *         units as <code>pacdot.capturing.distance</code>
+	 */
+	public Double getDistance() {
+		return distance;
+	}
+
+	public void setDistance(Double distance) {
+		this.distance = distance;
+	}
+
+}
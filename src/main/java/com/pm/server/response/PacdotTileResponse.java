@@ -0,0 +1,67 @@
+package com.pm.server.response;
+
+import java.util.List;
+
+/**
+ * The uneaten pacdots in a slippy map tile, with the version of the
+ * tile's pacdots.
+ *
+ */
+public class PacdotTileResponse {
+
+	private Integer zoom;
+
+	private Integer x;
+
+	private Integer y;
+
+	private Long version;
+
+	private List<PacdotUneatenResponse> pacdots;
+
+	public Integer getZoom() {
+		return zoom;
+	}
+
+	public void setZoom(Integer zoom) {
+		this.zoom = zoom;
+	}
+
+	public Integer getX() {
+		return x;
+	}
+
+	public void setX(Integer x) {
+		this.x = x;
+	}
+
+	public Integer getY() {
+		return y;
+	}
+
+	public void setY(Integer y) {
+		this.y = y;
+	}
+
+	/**
+	 * @return Version of the tile's pacdots, which only changes when a
+	 *         pacdot in the tile is eaten or the pacdots are reset or
+	 *         replaced; also the tile's ETag
+	 */
+	public Long getVersion() {
+		return version;
+	}
+
+	public void setVersion(Long version) {
+		this.version = version;
+	}
+
+	public List<PacdotUneatenResponse> getPacdots() {
+		return pacdots;
+	}
+
+	public void setPacdots(List<PacdotUneatenResponse> pacdots) {
+		this.pacdots = pacdots;
+	}
+
+}
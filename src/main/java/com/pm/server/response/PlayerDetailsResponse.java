@@ -15,11 +15,15 @@ public class PlayerDetailsResponse {
 
 	private Coordinate location;
 
+	private Boolean outOfBounds;
+
 	public PlayerDetailsResponse(
-			Player.Name name, Player.State state, Coordinate location) {
+			Player.Name name, Player.State state, Coordinate location,
+			Boolean outOfBounds) {
 		this.name = name;
 		this.state = state;
 		this.location = location;
+		this.outOfBounds = outOfBounds;
 	}
 
 	public Player.Name getName() {
@@ -46,4 +50,12 @@ public class PlayerDetailsResponse {
 		this.location = location;
 	}
 
+	public Boolean getOutOfBounds() {
+		return outOfBounds;
+	}
+
+	public void setOutOfBounds(Boolean outOfBounds) {
+		this.outOfBounds = outOfBounds;
+	}
+
 }
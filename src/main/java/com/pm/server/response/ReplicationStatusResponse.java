@@ -0,0 +1,69 @@
+package com.pm.server.response;
+
+public class ReplicationStatusResponse {
+
+	private String role;
+
+	private Long seq;
+
+	private Boolean connected;
+
+	private Long lagMillis;
+
+	private Integer followers;
+
+	public String getRole() {
+		return role;
+	}
+
+	public void setRole(String role) {
+		this.role = role;
+	}
+
+	/**
+	 * @return Number of the latest entry logged by a primary, or applied by
+	 *         a follower
+	 */
+	public Long getSeq() {
+		return seq;
+	}
+
+	public void setSeq(Long seq) {
+		this.seq = seq;
+	}
+
+	/**
+	 * @return Whether a follower is connected to its primary
+	 */
+	public Boolean getConnected() {
+		return connected;
+	}
+
+	public void setConnected(Boolean connected) {
+		this.connected = connected;
+	}
+
+	/**
+	 * @return Time between the primary logging the last entry a follower
+	 *         applied and the follower applying it
+	 */
+	public Long getLagMillis() {
+		return lagMillis;
+	}
+
+	public void setLagMillis(Long lagMillis) {
+		this.lagMillis = lagMillis;
+	}
+
+	/**
+	 * @return Number of followers connected to this server
+	 */
+	public Integer getFollowers() {
+		return followers;
+	}
+
+	public void setFollowers(Integer followers) {
+		this.followers = followers;
+	}
+
+}
@@ -0,0 +1,53 @@
+package com.pm.server.response;
+
+import com.pm.server.datatype.GameState;
+
+import java.util.List;
+
+/**
+ * A snapshot of the game sent to spectators.
+ *
+ */
+public class SpectatorFrameResponse {
+
+	private GameState gameState;
+
+	private Integer score;
+
+	private Integer uneatenPacdots;
+
+	private List<PlayerDetailsResponse> players;
+
+	public GameState getGameState() {
+		return gameState;
+	}
+
+	public void setGameState(GameState gameState) {
+		this.gameState = gameState;
+	}
+
+	public Integer getScore() {
+		return score;
+	}
+
+	public void setScore(Integer score) {
+		this.score = score;
+	}
+
+	public Integer getUneatenPacdots() {
+		return uneatenPacdots;
+	}
+
+	public void setUneatenPacdots(Integer uneatenPacdots) {
+		this.uneatenPacdots = uneatenPacdots;
+	}
+
+	public List<PlayerDetailsResponse> getPlayers() {
+		return players;
+	}
+
+	public void setPlayers(List<PlayerDetailsResponse> players) {
+		this.players = players;
+	}
+
+}
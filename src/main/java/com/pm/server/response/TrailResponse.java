@@ -0,0 +1,37 @@
+package com.pm.server.response;
+
+/**
+ * Recent location fixes of a player, oldest first, as parallel arrays
+ * rather than an object per fix.
+ *
+ */
+public class TrailResponse {
+
+	private long[] times;
+
+	private double[] latitudes;
+
+	private double[] longitudes;
+
+	public TrailResponse(int size) {
+		times = new long[size];
+		latitudes = new double[size];
+		longitudes = new double[size];
+	}
+
+	/**
+	 * @return Time of each fix, in milliseconds since the epoch
+	 */
+	public long[] getTimes() {
+		return times;
+	}
+
+	public double[] getLatitudes() {
+		return latitudes;
+	}
+
+	public double[] getLongitudes() {
+		return longitudes;
+	}
+
+}
@@ -0,0 +1,152 @@
+package com.pm.server.throttle;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Limits the number of requests handled at once, adapting the limit to
+ * the recent 99th percentile of request latency.
+ *
+ * <p>
+ *     Latencies are counted in a histogram of power-of-two microsecond
+ *     buckets. At the end of each window the 99th percentile is read from
+ *     it: above the target, the limit is cut by a quarter; otherwise it
+ *     grows by a tenth, up to the maximum. Requests over the limit are
+ *     turned away at once rather than queueing behind slow ones.
+ * </p>
+ */
+public class LatencyShedder {
+
+	private static final int BUCKETS = 40;
+
+	private final long targetNanos;
+
+	private final long windowNanos;
+
+	private final int minLimit;
+
+	private final int maxLimit;
+
+	private final AtomicLongArray histogram = new AtomicLongArray(BUCKETS);
+
+	private final AtomicLong windowEnd;
+
+	private final AtomicInteger inFlight = new AtomicInteger();
+
+	private volatile int limit;
+
+	private volatile long lastP99Nanos;
+
+	private final static Logger log =
+			LogManager.getLogger(LatencyShedder.class.getName());
+
+	/**
+	 * @param targetMillis 99th percentile latency to keep below
+	 * @param windowMillis Period over which each percentile is measured
+	 * @param minLimit Lowest limit, so the server always does some work
+	 * @param maxLimit Highest limit, and the limit to start from
+	 */
+	public LatencyShedder(
+			long targetMillis, long windowMillis, int minLimit, int maxLimit) {
+		this.targetNanos = targetMillis * 1000000;
+		this.windowNanos = windowMillis * 1000000;
+		this.minLimit = minLimit;
+		this.maxLimit = maxLimit;
+		this.limit = maxLimit;
+		this.windowEnd = new AtomicLong(System.nanoTime() + windowNanos);
+	}
+
+	/**
+	 * @return Whether the request may proceed; if so, {@link #release(long)}
+	 *         must be called once it is handled
+	 */
+	public boolean tryAcquire() {
+		while(true) {
+			int current = inFlight.get();
+			if(current >= limit) {
+				return false;
+			}
+			if(inFlight.compareAndSet(current, current + 1)) {
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * @param latencyNanos Time taken to handle the request
+	 */
+	public void release(long latencyNanos) {
+		inFlight.decrementAndGet();
+		histogram.incrementAndGet(bucketOf(latencyNanos));
+
+		long now = System.nanoTime();
+		long end = windowEnd.get();
+		if(now - end >= 0 && windowEnd.compareAndSet(end, now + windowNanos)) {
+			adapt();
+		}
+	}
+
+	public int getLimit() {
+		return limit;
+	}
+
+	public int getInFlight() {
+		return inFlight.get();
+	}
+
+	/**
+	 * @return The 99th percentile latency of the last complete window,
+	 *         rounded up to a power of two microseconds
+	 */
+	public long getLastP99Nanos() {
+		return lastP99Nanos;
+	}
+
+	private void adapt() {
+
+		long total = 0;
+		long[] counts = new long[BUCKETS];
+		for(int i = 0; i < BUCKETS; i++) {
+			counts[i] = histogram.getAndSet(i, 0);
+			total += counts[i];
+		}
+
+		long p99 = 0;
+		long rank = total - total / 100;
+		long seen = 0;
+		for(int i = 0; i < BUCKETS && total > 0; i++) {
+			seen += counts[i];
+			if(seen >= rank) {
+				p99 = (1L << i) * 1000;
+				break;
+			}
+		}
+		lastP99Nanos = p99;
+
+		int previous = limit;
+		if(p99 > targetNanos) {
+			limit = Math.max(minLimit, previous - previous / 4);
+		}
+		else {
+			limit = Math.min(maxLimit, previous + Math.max(1, previous / 10));
+		}
+
+		if(limit != previous) {
+			log.info(
+					"p99 latency {} ms; concurrency limit {} -> {}",
+					p99 / 1000000, previous, limit
+			);
+		}
+	}
+
+	private static int bucketOf(long latencyNanos) {
+		long micros = Math.max(1, latencyNanos / 1000);
+		int bucket = 64 - Long.numberOfLeadingZeros(micros - 1);
+		return Math.min(BUCKETS - 1, bucket);
+	}
+
+}
@@ -0,0 +1,92 @@
+package com.pm.server.throttle;
+
+import com.pm.server.PmServerException;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.ModelAndView;
+
+import javax.servlet.DispatcherType;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Turns requests away with <code>503 Service Unavailable</code> while the
+ * {@link LatencyShedder} is at its concurrency limit.
+ *
+ * <p>
+ *     A long-poll or stream counts only while its request thread is busy,
+ *     not while it waits for a change, so waiting clients never fill the
+ *     limit.
+ * </p>
+ */
+public class LoadSheddingInterceptor implements AsyncHandlerInterceptor {
+
+	private static final String START_ATTRIBUTE =
+			LoadSheddingInterceptor.class.getName() + ".START";
+
+	private final LatencyShedder shedder;
+
+	private final AtomicLong shed;
+
+	/**
+	 * @param shedder Decides whether each request may proceed
+	 * @param shed Incremented for each request turned away
+	 */
+	public LoadSheddingInterceptor(LatencyShedder shedder, AtomicLong shed) {
+		this.shedder = shedder;
+		this.shed = shed;
+	}
+
+	@Override
+	public boolean preHandle(
+			HttpServletRequest request, HttpServletResponse response,
+			Object handler) throws PmServerException {
+
+		// The result of a long-poll was already admitted
+		if(request.getDispatcherType() == DispatcherType.ASYNC) {
+			return true;
+		}
+
+		if(!shedder.tryAcquire()) {
+			shed.incrementAndGet();
+			response.setHeader("Retry-After", "1");
+			throw new PmServerException(
+					HttpStatus.SERVICE_UNAVAILABLE,
+					"The server is overloaded; try again shortly."
+			);
+		}
+
+		request.setAttribute(START_ATTRIBUTE, System.nanoTime());
+		return true;
+	}
+
+	@Override
+	public void postHandle(
+			HttpServletRequest request, HttpServletResponse response,
+			Object handler, ModelAndView modelAndView) {
+	}
+
+	@Override
+	public void afterConcurrentHandlingStarted(
+			HttpServletRequest request, HttpServletResponse response,
+			Object handler) {
+		release(request);
+	}
+
+	@Override
+	public void afterCompletion(
+			HttpServletRequest request, HttpServletResponse response,
+			Object handler, Exception ex) {
+		release(request);
+	}
+
+	private void release(HttpServletRequest request) {
+		Object start = request.getAttribute(START_ATTRIBUTE);
+		if(start != null) {
+			request.removeAttribute(START_ATTRIBUTE);
+			shedder.release(System.nanoTime() - (Long) start);
+		}
+	}
+
+}
@@ -0,0 +1,99 @@
+package com.pm.server.throttle;
+
+import com.pm.server.PmServerException;
+import com.pm.server.datatype.Player;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.handler.HandlerInterceptorAdapter;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Rejects requests from a player beyond the rate allowed for an endpoint,
+ * with <code>429 Too Many Requests</code>, before the controller validates,
+ * logs or handles them.
+ *
+ * <p>
+ *     Each player has its own bucket, so a client spamming requests only
+ *     throttles itself. Requests naming no known player are passed on for
+ *     the controller to reject.
+ * </p>
+ */
+public class RateLimitInterceptor extends HandlerInterceptorAdapter {
+
+	private final String method;
+
+	private final String playerVariable;
+
+	private final TokenBuckets buckets;
+
+	private final AtomicLong rejected;
+
+	private final static Logger log =
+			LogManager.getLogger(RateLimitInterceptor.class.getName());
+
+	/**
+	 * @param method HTTP method of the limited requests
+	 * @param playerVariable Path variable naming the player
+	 * @param buckets One bucket per {@link Player.Name}, by ordinal
+	 * @param rejected Incremented for each rejected request
+	 */
+	public RateLimitInterceptor(
+			String method, String playerVariable,
+			TokenBuckets buckets, AtomicLong rejected) {
+		this.method = method;
+		this.playerVariable = playerVariable;
+		this.buckets = buckets;
+		this.rejected = rejected;
+	}
+
+	@Override
+	public boolean preHandle(
+			HttpServletRequest request, HttpServletResponse response,
+			Object handler) throws PmServerException {
+
+		if(!method.equals(request.getMethod())) {
+			return true;
+		}
+
+		@SuppressWarnings("unchecked")
+		Map<String, String> variables = (Map<String, String>) request
+				.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+		Player.Name name = playerNameOf(
+				variables == null ? null : variables.get(playerVariable)
+		);
+		if(name == null || buckets.tryAcquire(name.ordinal())) {
+			return true;
+		}
+
+		rejected.incrementAndGet();
+		long retryMillis = buckets.millisUntilAvailable(name.ordinal());
+		response.setHeader(
+				"Retry-After", Long.toString((retryMillis + 999) / 1000)
+		);
+
+		String errorMessage =
+				"Too many requests from Player " + name + " to " +
+				request.getMethod() + " " + request.getRequestURI() + ".";
+		log.debug(errorMessage);
+		throw new PmServerException(HttpStatus.TOO_MANY_REQUESTS, errorMessage);
+	}
+
+	private static Player.Name playerNameOf(String value) {
+		if(value == null) {
+			return null;
+		}
+		for(Player.Name name : Player.Name.values()) {
+			if(name.name().equals(value)) {
+				return name;
+			}
+		}
+		return null;
+	}
+
+}
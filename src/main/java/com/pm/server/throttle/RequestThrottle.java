@@ -0,0 +1,109 @@
+package com.pm.server.throttle;
+
+import com.pm.server.datatype.Player;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurerAdapter;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Protects the server from clients sending more requests than it can
+ * handle.
+ *
+ * <p>
+ *     Every request passes the global {@link LatencyShedder} first. Location
+ *     updates and tag reports are then limited per player. A rate or
+ *     latency target of 0 turns the corresponding check off.
+ * </p>
+ */
+@Component
+public class RequestThrottle extends WebMvcConfigurerAdapter {
+
+	private final double locationRate;
+	private final int locationBurst;
+
+	private final double tagRate;
+	private final int tagBurst;
+
+	private final LatencyShedder shedder;
+
+	private final AtomicLong rateLimited = new AtomicLong();
+
+	private final AtomicLong shed = new AtomicLong();
+
+	@Autowired
+	public RequestThrottle(
+			@Value("${throttle.location.rate}") Double locationRate,
+			@Value("${throttle.location.burst}") Integer locationBurst,
+			@Value("${throttle.tag.rate}") Double tagRate,
+			@Value("${throttle.tag.burst}") Integer tagBurst,
+			@Value("${shed.latency.millis}") Long shedLatencyMillis,
+			@Value("${shed.window.millis}") Long shedWindowMillis,
+			@Value("${shed.concurrency.min}") Integer shedMinConcurrency,
+			@Value("${shed.concurrency.max}") Integer shedMaxConcurrency) {
+		this.locationRate = locationRate;
+		this.locationBurst = locationBurst;
+		this.tagRate = tagRate;
+		this.tagBurst = tagBurst;
+		this.shedder = shedLatencyMillis > 0 ?
+				new LatencyShedder(
+						shedLatencyMillis, shedWindowMillis,
+						shedMinConcurrency, shedMaxConcurrency
+				) :
+				null;
+	}
+
+	@Override
+	public void addInterceptors(InterceptorRegistry registry) {
+
+		if(shedder != null) {
+			registry.addInterceptor(new LoadSheddingInterceptor(shedder, shed));
+		}
+
+		if(locationRate > 0) {
+			registry.addInterceptor(new RateLimitInterceptor(
+					"PUT", "playerName",
+					new TokenBuckets(
+							Player.Name.values().length,
+							locationRate, locationBurst
+					),
+					rateLimited
+			)).addPathPatterns("/player/*/location");
+		}
+
+		if(tagRate > 0) {
+			registry.addInterceptor(new RateLimitInterceptor(
+					"POST", "reporter",
+					new TokenBuckets(
+							Player.Name.values().length, tagRate, tagBurst
+					),
+					rateLimited
+			)).addPathPatterns("/tag/*");
+		}
+	}
+
+	/**
+	 * @return The number of requests rejected by a per-player limit
+	 */
+	public long getRateLimited() {
+		return rateLimited.get();
+	}
+
+	/**
+	 * @return The number of requests turned away by the load shedder
+	 */
+	public long getShed() {
+		return shed.get();
+	}
+
+	/**
+	 * @return The load shedder, or null if load shedding is off
+	 */
+	public LatencyShedder getShedder() {
+		return shedder;
+	}
+
+}
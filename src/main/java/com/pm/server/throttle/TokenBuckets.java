@@ -0,0 +1,77 @@
+package com.pm.server.throttle;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A fixed number of token buckets which refill at the same rate.
+ *
+ * <p>
+ *     Each bucket is a single long, the time at which it will next be full
+ *     (the generic cell rate algorithm). Taking a token moves that time one
+ *     interval later, and fails if it would be more than a full burst ahead
+ *     of now. A check is a compare-and-set on a primitive array and
+ *     allocates nothing.
+ * </p>
+ */
+public class TokenBuckets {
+
+	private final AtomicLongArray fullAt;
+
+	private final long intervalNanos;
+
+	private final long burstNanos;
+
+	/**
+	 * @param count Number of buckets
+	 * @param ratePerSecond Tokens added to each bucket per second
+	 * @param burst Tokens a full bucket holds
+	 * @throws IllegalArgumentException if the rate or burst is not positive
+	 */
+	public TokenBuckets(int count, double ratePerSecond, int burst)
+			throws IllegalArgumentException {
+
+		if(!(ratePerSecond > 0) || burst < 1) {
+			throw new IllegalArgumentException(
+					"Token buckets require a positive rate and burst."
+			);
+		}
+
+		this.fullAt = new AtomicLongArray(count);
+		this.intervalNanos = (long) (1000000000 / ratePerSecond);
+		this.burstNanos = intervalNanos * burst;
+
+		long now = System.nanoTime();
+		for(int i = 0; i < count; i++) {
+			fullAt.set(i, now);
+		}
+	}
+
+	/**
+	 * @param bucket Index of the bucket
+	 * @return Whether a token was taken
+	 */
+	public boolean tryAcquire(int bucket) {
+		long now = System.nanoTime();
+		while(true) {
+			long full = fullAt.get(bucket);
+			long next = (full - now > 0 ? full : now) + intervalNanos;
+			if(next - now > burstNanos) {
+				return false;
+			}
+			if(fullAt.compareAndSet(bucket, full, next)) {
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * @return Milliseconds until the bucket holds a token again, or 0 if it
+	 *         holds one now
+	 */
+	public long millisUntilAvailable(int bucket) {
+		long wait = fullAt.get(bucket) + intervalNanos - burstNanos -
+				System.nanoTime();
+		return wait > 0 ? (wait + 999999) / 1000000 : 0;
+	}
+
+}
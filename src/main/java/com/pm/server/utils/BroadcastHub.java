@@ -0,0 +1,319 @@
+package com.pm.server.utils;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Fans out encoded frames to many subscribers.
+ *
+ * <p>
+ *     A frame is published once as a byte array which every subscriber is
+ *     given as is, so the cost of encoding does not grow with the number of
+ *     subscribers. Frames must not be modified once published.
+ * </p>
+ * <p>
+ *     Each subscriber holds at most one frame waiting to be sent. A frame
+ *     published while the previous one is still being written to a
+ *     subscriber replaces the waiting frame, so a slow subscriber skips
+ *     ahead to the newest frame instead of queueing every frame.
+ * </p>
+ * <p>
+ *     At most a fixed number of writers send frames at once, taking turns
+ *     between the subscribers with a frame waiting. A write still running
+ *     after the slow threshold has its subscriber dropped and gives up its
+ *     writer's place, so that subscribers which stop reading hold up the
+ *     others for at most the threshold. The abandoned write keeps its
+ *     thread until the sink gives up on it (e.g. the connection's write
+ *     timeout), so the executor must be able to start threads beyond the
+ *     writers.
+ * </p>
+ */
+public class BroadcastHub {
+
+	/**
+	 * Receives frames for one subscriber.
+	 */
+	public interface FrameSink {
+
+		/**
+		 * Writes a frame; may block while the subscriber is slow.
+		 *
+		 * @throws IOException If the subscriber can no longer be written to
+		 */
+		void send(byte[] frame) throws IOException;
+
+		/**
+		 * Ends the subscription, e.g. once the subscriber is dropped.
+		 */
+		void close();
+
+	}
+
+	private final Executor sendExecutor;
+
+	private final int maxWriters;
+
+	private final long slowNanos;
+
+	private final ConcurrentHashMap<FrameSink, Subscriber> subscribers =
+			new ConcurrentHashMap<>();
+
+	/**
+	 * Subscribers with a frame waiting for a writer.
+	 */
+	private final ConcurrentLinkedQueue<Subscriber> ready =
+			new ConcurrentLinkedQueue<>();
+
+	/**
+	 * Subscribers being written to; at most one per writer.
+	 */
+	private final Set<Subscriber> writing = ConcurrentHashMap.newKeySet();
+
+	/**
+	 * Writers running, not counting those which gave up their place.
+	 */
+	private final AtomicInteger writers = new AtomicInteger();
+
+	private volatile byte[] latestFrame;
+
+	private final AtomicLong framesPublished = new AtomicLong();
+
+	private final AtomicLong framesSkipped = new AtomicLong();
+
+	private final AtomicLong subscribersDropped = new AtomicLong();
+
+	private final static Logger log =
+			LogManager.getLogger(BroadcastHub.class.getName());
+
+	/**
+	 * @param sendExecutor Runs the writers
+	 * @param maxWriters Writers sending frames at once
+	 * @param slowMillis Time a single write may take before its subscriber
+	 *                   is dropped
+	 */
+	public BroadcastHub(Executor sendExecutor, int maxWriters, long slowMillis) {
+		this.sendExecutor = sendExecutor;
+		this.maxWriters = maxWriters;
+		this.slowNanos = slowMillis * 1000000;
+	}
+
+	/**
+	 * Adds a subscriber, which is sent the latest frame straight away if
+	 * one has been published.
+	 */
+	public void subscribe(FrameSink sink) {
+		Subscriber subscriber = new Subscriber(sink);
+		subscribers.put(sink, subscriber);
+
+		byte[] frame = latestFrame;
+		if(frame != null) {
+			subscriber.offer(frame);
+		}
+	}
+
+	/**
+	 * Removes a subscriber without closing it, e.g. once the subscriber
+	 * has gone away.
+	 */
+	public void unsubscribe(FrameSink sink) {
+		subscribers.remove(sink);
+	}
+
+	/**
+	 * Sends a frame to every subscriber.
+	 *
+	 * @param frame Encoded frame, shared by every subscriber
+	 */
+	public void publish(byte[] frame) {
+		latestFrame = frame;
+		framesPublished.incrementAndGet();
+		dropSlowWrites();
+		for(Subscriber subscriber : subscribers.values()) {
+			subscriber.offer(frame);
+		}
+	}
+
+	public int size() {
+		return subscribers.size();
+	}
+
+	public long getFramesPublished() {
+		return framesPublished.get();
+	}
+
+	/**
+	 * @return The number of frames which were replaced by a newer frame
+	 *         before they could be sent to a subscriber
+	 */
+	public long getFramesSkipped() {
+		return framesSkipped.get();
+	}
+
+	public long getSubscribersDropped() {
+		return subscribersDropped.get();
+	}
+
+	private void drop(Subscriber subscriber, String reason) {
+		if(subscribers.remove(subscriber.sink, subscriber)) {
+			subscribersDropped.incrementAndGet();
+			log.debug("Dropping subscriber: {}", reason);
+			subscriber.sink.close();
+		}
+	}
+
+	/**
+	 * Starts a writer unless as many as allowed are running.
+	 */
+	private void startWriter() {
+		int running;
+		do {
+			running = writers.get();
+			if(running >= maxWriters) {
+				// Writers stuck on a subscriber may be holding every place
+				dropSlowWrites();
+				return;
+			}
+		} while(!writers.compareAndSet(running, running + 1));
+
+		try {
+			sendExecutor.execute(new Writer());
+		}
+		catch(RejectedExecutionException e) {
+			// The subscribers stay ready for the next writer
+			writers.decrementAndGet();
+			log.debug("Writer rejected: {}", e.getMessage());
+		}
+	}
+
+	/**
+	 * Drops the subscribers whose write has taken longer than the slow
+	 * threshold, and starts writers in place of those stuck on them.
+	 */
+	private void dropSlowWrites() {
+		long now = System.nanoTime();
+		for(Subscriber subscriber : writing) {
+			if(now - subscriber.sendStartNanos > slowNanos &&
+					writing.remove(subscriber)) {
+				drop(subscriber, "too slow");
+				writers.decrementAndGet();
+				if(!ready.isEmpty()) {
+					startWriter();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Writes frames to ready subscribers, one frame each in turn, until
+	 * none is left or its write is given up on.
+	 */
+	private class Writer implements Runnable {
+
+		@Override
+		public void run() {
+			Subscriber subscriber;
+			while((subscriber = ready.poll()) != null) {
+				if(!subscriber.sendNext()) {
+					// Its place was given to another writer
+					return;
+				}
+			}
+
+			writers.decrementAndGet();
+			// A subscriber made ready after the queue was found empty would
+			// otherwise wait for the next offer
+			if(!ready.isEmpty()) {
+				startWriter();
+			}
+		}
+
+	}
+
+	private class Subscriber {
+
+		private final FrameSink sink;
+
+		private final AtomicReference<byte[]> pending = new AtomicReference<>();
+
+		/**
+		 * Whether the subscriber is ready or being written to.
+		 */
+		private final AtomicBoolean queued = new AtomicBoolean();
+
+		/**
+		 * Start of the write in progress; only meaningful while writing.
+		 */
+		private volatile long sendStartNanos;
+
+		Subscriber(FrameSink sink) {
+			this.sink = sink;
+		}
+
+		void offer(byte[] frame) {
+			if(pending.getAndSet(frame) != null) {
+				framesSkipped.incrementAndGet();
+			}
+
+			if(queued.compareAndSet(false, true)) {
+				ready.add(this);
+				startWriter();
+			}
+		}
+
+		/**
+		 * Sends the pending frame, and makes the subscriber ready again if
+		 * another frame arrived meanwhile.
+		 *
+		 * @return False if the write took so long that the writer gave up
+		 *         its place
+		 */
+		boolean sendNext() {
+			byte[] frame = pending.getAndSet(null);
+			if(subscribers.get(sink) != this || frame == null) {
+				queued.set(false);
+				requeue();
+				return true;
+			}
+
+			sendStartNanos = System.nanoTime();
+			writing.add(this);
+			try {
+				sink.send(frame);
+			}
+			catch(IOException | RuntimeException e) {
+				drop(this, e.getMessage());
+			}
+			if(!writing.remove(this)) {
+				return false;
+			}
+
+			queued.set(false);
+			requeue();
+			return true;
+		}
+
+		/**
+		 * Queues the subscriber again for a frame offered just before it
+		 * stopped being queued.
+		 */
+		private void requeue() {
+			if(pending.get() != null && subscribers.get(sink) == this &&
+					queued.compareAndSet(false, true)) {
+				ready.add(this);
+			}
+		}
+
+	}
+
+}
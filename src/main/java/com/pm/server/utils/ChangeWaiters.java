@@ -0,0 +1,90 @@
+package com.pm.server.utils;
+
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Supplier;
+
+/**
+ * Holds futures waiting for a value to change from the value each waiter
+ * last saw.
+ *
+ * <p>
+ *     No thread is held by a waiting future; waiters are completed by
+ *     whichever thread calls {@link #publish(Object)}.
+ * </p>
+ *
+ * @param <T> Type of the watched value
+ */
+public class ChangeWaiters<T> {
+
+	private final ConcurrentLinkedQueue<Waiter<T>> waiters =
+			new ConcurrentLinkedQueue<>();
+
+	/**
+	 * Returns a future which completes with the watched value once it is
+	 * different from the given value.
+	 *
+	 * <p>
+	 *     The future completes immediately if the current value is already
+	 *     different. Cancelling the future removes the waiter.
+	 * </p>
+	 *
+	 * @param from Value the caller last saw
+	 * @param current Supplies the current value
+	 * @return A future for the next different value
+	 */
+	public CompletableFuture<T> waitForChange(T from, Supplier<T> current) {
+
+		CompletableFuture<T> future = new CompletableFuture<>();
+		Waiter<T> waiter = new Waiter<>(from, future);
+		waiters.add(waiter);
+		future.whenComplete((value, throwable) -> waiters.remove(waiter));
+
+		// Checked after queueing so a change between the caller reading the
+		// value and queueing the waiter cannot be missed
+		T value = current.get();
+		if(!Objects.equals(value, from)) {
+			future.complete(value);
+		}
+
+		return future;
+	}
+
+	/**
+	 * Completes every waiter whose value differs from the given value.
+	 *
+	 * @param value The current value
+	 */
+	public void publish(T value) {
+		Iterator<Waiter<T>> iterator = waiters.iterator();
+		while(iterator.hasNext()) {
+			Waiter<T> waiter = iterator.next();
+			if(!Objects.equals(value, waiter.from)) {
+				waiter.future.complete(value);
+			}
+		}
+	}
+
+	/**
+	 * @return The number of futures currently waiting
+	 */
+	public int size() {
+		return waiters.size();
+	}
+
+	private static class Waiter<T> {
+
+		private final T from;
+
+		private final CompletableFuture<T> future;
+
+		Waiter(T from, CompletableFuture<T> future) {
+			this.from = from;
+			this.future = future;
+		}
+
+	}
+
+}
@@ -0,0 +1,118 @@
+package com.pm.server.utils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Content codings a response body can be sent with.
+ *
+ * <p>
+ *     Brotli is not offered, since the JDK has no encoder for it.
+ * </p>
+ */
+public enum ContentCoding {
+
+	IDENTITY(null),
+	GZIP("gzip"),
+	DEFLATE("deflate");
+
+	private final String token;
+
+	ContentCoding(String token) {
+		this.token = token;
+	}
+
+	/**
+	 * @return The value of the <code>Content-Encoding</code> header, or
+	 *         null for the identity coding
+	 */
+	public String getToken() {
+		return token;
+	}
+
+	/**
+	 * Chooses the coding preferred by an <code>Accept-Encoding</code>
+	 * header, favouring gzip over deflate when they are equally preferred.
+	 *
+	 * @param acceptEncoding Value of the header, or null if it was not sent
+	 * @return The chosen coding; identity if no other is acceptable
+	 */
+	public static ContentCoding negotiate(String acceptEncoding) {
+
+		if(acceptEncoding == null) {
+			return IDENTITY;
+		}
+
+		double gzip = 0;
+		double deflate = 0;
+		double any = -1;
+		for(String part : acceptEncoding.split(",")) {
+			String[] fields = part.split(";");
+			String coding = fields[0].trim().toLowerCase();
+			double quality = 1;
+			for(int i = 1; i < fields.length; i++) {
+				String field = fields[i].trim();
+				if(field.startsWith("q=")) {
+					try {
+						quality = Double.parseDouble(field.substring(2));
+					}
+					catch(NumberFormatException e) {
+						quality = 0;
+					}
+				}
+			}
+
+			if("gzip".equals(coding) || "x-gzip".equals(coding)) {
+				gzip = quality;
+			}
+			else if("deflate".equals(coding)) {
+				deflate = quality;
+			}
+			else if("*".equals(coding)) {
+				any = quality;
+			}
+		}
+
+		// A wildcard covers the codings not listed explicitly
+		if(any >= 0 && !acceptEncoding.toLowerCase().contains("gzip")) {
+			gzip = any;
+		}
+
+		if(gzip > 0 && gzip >= deflate) {
+			return GZIP;
+		}
+		else if(deflate > 0) {
+			return DEFLATE;
+		}
+		return IDENTITY;
+	}
+
+	/**
+	 * @param body Body to encode
+	 * @return The body in this coding
+	 */
+	public byte[] encode(byte[] body) {
+
+		if(this == IDENTITY) {
+			return body;
+		}
+
+		ByteArrayOutputStream bytes =
+				new ByteArrayOutputStream(body.length / 4 + 64);
+		try(OutputStream out = this == GZIP ?
+				new GZIPOutputStream(bytes) :
+				new DeflaterOutputStream(bytes)) {
+			out.write(body);
+		}
+		catch(IOException e) {
+			// Not thrown when writing to memory
+			throw new UncheckedIOException(e);
+		}
+		return bytes.toByteArray();
+	}
+
+}
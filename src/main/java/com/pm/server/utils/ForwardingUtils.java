@@ -0,0 +1,126 @@
+package com.pm.server.utils;
+
+import org.springframework.util.StreamUtils;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+
+public final class ForwardingUtils {
+
+	/**
+	 * Set on requests forwarded from one server to another, so the server
+	 * receiving one never forwards it again.
+	 */
+	public static final String FORWARDED_HEADER = "X-Pm-Forwarded";
+
+	private static final String[] FORWARDED_REQUEST_HEADERS =
+			{ "Content-Type", "Accept", "X-Game-Id" };
+
+	private static final String[] FORWARDED_RESPONSE_HEADERS =
+			{ "Content-Type", "Retry-After" };
+
+	private ForwardingUtils() {
+	}
+
+	/**
+	 * @return Whether the request was forwarded by another server
+	 */
+	public static boolean isForwarded(HttpServletRequest request) {
+		return request.getHeader(FORWARDED_HEADER) != null;
+	}
+
+	/**
+	 * Sends a request to the same path on another server, and relays that
+	 * server's response, status and all.
+	 *
+	 * @param baseUrl Base URL of the other server
+	 * @throws IOException If the other server could not be reached; nothing
+	 *         has been written to the response in that case
+	 */
+	public static void forward(
+			HttpServletRequest request, HttpServletResponse response,
+			String baseUrl) throws IOException {
+
+		String target = baseUrl + request.getRequestURI();
+		if(request.getQueryString() != null) {
+			target += "?" + request.getQueryString();
+		}
+
+		HttpURLConnection connection =
+				(HttpURLConnection) new URL(target).openConnection();
+		connection.setRequestMethod(request.getMethod());
+		connection.setRequestProperty(FORWARDED_HEADER, "true");
+		for(String header : FORWARDED_REQUEST_HEADERS) {
+			if(request.getHeader(header) != null) {
+				connection.setRequestProperty(
+						header, request.getHeader(header)
+				);
+			}
+		}
+
+		try {
+			byte[] body = StreamUtils.copyToByteArray(request.getInputStream());
+			if(body.length > 0) {
+				connection.setDoOutput(true);
+				try(OutputStream out = connection.getOutputStream()) {
+					out.write(body);
+				}
+			}
+
+			int status = connection.getResponseCode();
+			response.setStatus(status);
+			for(String header : FORWARDED_RESPONSE_HEADERS) {
+				if(connection.getHeaderField(header) != null) {
+					response.setHeader(
+							header, connection.getHeaderField(header)
+					);
+				}
+			}
+
+			InputStream responseBody = status < 400 ?
+					connection.getInputStream() :
+					connection.getErrorStream();
+			if(responseBody != null) {
+				try(InputStream in = responseBody) {
+					StreamUtils.copy(in, response.getOutputStream());
+				}
+			}
+		}
+		finally {
+			connection.disconnect();
+		}
+	}
+
+	/**
+	 * Sends a request with a body to another server, marked as forwarded.
+	 *
+	 * @return The status of the response
+	 * @throws IOException If the other server could not be reached
+	 */
+	public static int send(
+			String method, String url, String contentType, byte[] body)
+			throws IOException {
+
+		HttpURLConnection connection =
+				(HttpURLConnection) new URL(url).openConnection();
+		connection.setRequestMethod(method);
+		connection.setRequestProperty(FORWARDED_HEADER, "true");
+		connection.setRequestProperty("Content-Type", contentType);
+		connection.setDoOutput(true);
+		try {
+			try(OutputStream out = connection.getOutputStream()) {
+				out.write(body);
+			}
+			return connection.getResponseCode();
+		}
+		finally {
+			connection.disconnect();
+		}
+	}
+
+}
@@ -0,0 +1,81 @@
+package com.pm.server.utils;
+
+public final class GeoUtils {
+
+	/**
+	 * Length of one degree of latitude, and of longitude at the equator.
+	 */
+	public static final double METRES_PER_DEGREE = 111320;
+
+	/**
+	 * Furthest latitude from the equator covered by slippy map tiles.
+	 */
+	public static final double MAX_TILE_LATITUDE = 85.0511287798;
+
+	private GeoUtils() {
+	}
+
+	/**
+	 * Approximates the distance between two nearby GPS coordinates by
+	 * treating the earth as flat around them, which is accurate to well
+	 * under a metre over the size of a game.
+	 *
+	 * @return The distance in metres
+	 */
+	public static double distanceMetres(
+			double fromLatitude, double fromLongitude,
+			double toLatitude, double toLongitude) {
+
+		double latitudeMetres = (toLatitude - fromLatitude) * METRES_PER_DEGREE;
+		double longitudeMetres =
+				(toLongitude - fromLongitude) * METRES_PER_DEGREE *
+				Math.cos(Math.toRadians((fromLatitude + toLatitude) / 2));
+		return Math.sqrt(
+				latitudeMetres * latitudeMetres +
+				longitudeMetres * longitudeMetres
+		);
+	}
+
+	/**
+	 * @return The column of the slippy map tile at the given zoom level
+	 *         which contains the longitude, clamped to the tiles
+	 */
+	public static int tileX(double longitude, int zoom) {
+		int tiles = 1 << zoom;
+		int x = (int) Math.floor((longitude + 180) / 360 * tiles);
+		return Math.max(0, Math.min(tiles - 1, x));
+	}
+
+	/**
+	 * @return The row of the slippy map tile at the given zoom level which
+	 *         contains the latitude, from 0 in the north, clamped to the
+	 *         tiles
+	 */
+	public static int tileY(double latitude, int zoom) {
+		int tiles = 1 << zoom;
+		double radians = Math.toRadians(Math.max(
+				-MAX_TILE_LATITUDE, Math.min(MAX_TILE_LATITUDE, latitude)
+		));
+		int y = (int) Math.floor(
+				(1 - Math.log(Math.tan(radians) + 1 / Math.cos(radians)) /
+						Math.PI) / 2 * tiles
+		);
+		return Math.max(0, Math.min(tiles - 1, y));
+	}
+
+	/**
+	 * @return The longitude of the west edge of the given tile column
+	 */
+	public static double tileWest(int x, int zoom) {
+		return (double) x / (1 << zoom) * 360 - 180;
+	}
+
+	/**
+	 * @return The latitude of the north edge of the given tile row
+	 */
+	public static double tileNorth(int y, int zoom) {
+		double n = Math.PI * (1 - 2.0 * y / (1 << zoom));
+		return Math.toDegrees(Math.atan(Math.sinh(n)));
+	}
+
+}
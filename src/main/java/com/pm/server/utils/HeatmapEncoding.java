@@ -0,0 +1,93 @@
+package com.pm.server.utils;
+
+import com.pm.server.datatype.HeatmapGrid;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Encodes the counts of a {@link HeatmapGrid} for clients.
+ */
+public final class HeatmapEncoding {
+
+	private HeatmapEncoding() {
+	}
+
+	/**
+	 * Encodes counts as big-endian binary: the number of rows and of
+	 * columns as ints, the south, west, north and east bounds as doubles,
+	 * then each count as an int, row by row from the south west.
+	 */
+	public static byte[] toBinary(HeatmapGrid heatmap, int[] counts) {
+		ByteArrayOutputStream bytes =
+				new ByteArrayOutputStream(40 + 4 * counts.length);
+		try(DataOutputStream out = new DataOutputStream(bytes)) {
+			out.writeInt(heatmap.getRows());
+			out.writeInt(heatmap.getColumns());
+			out.writeDouble(heatmap.getSouth());
+			out.writeDouble(heatmap.getWest());
+			out.writeDouble(heatmap.getNorth());
+			out.writeDouble(heatmap.getEast());
+			for(int count : counts) {
+				out.writeInt(count);
+			}
+		}
+		catch(IOException e) {
+			// Writing to memory does not fail
+			throw new IllegalStateException(e);
+		}
+		return bytes.toByteArray();
+	}
+
+	/**
+	 * Draws counts as a PNG image with one pixel per cell, north up. Cells
+	 * run from black through red and yellow to white as their counts rise,
+	 * on a logarithmic scale so quiet streets still show.
+	 */
+	public static byte[] toPng(HeatmapGrid heatmap, int[] counts) {
+
+		int rows = heatmap.getRows();
+		int columns = heatmap.getColumns();
+
+		int max = 0;
+		for(int count : counts) {
+			max = Math.max(max, count);
+		}
+		double scale = max == 0 ? 0 : 1 / Math.log1p(max);
+
+		BufferedImage image =
+				new BufferedImage(columns, rows, BufferedImage.TYPE_INT_RGB);
+		for(int row = 0; row < rows; row++) {
+			for(int column = 0; column < columns; column++) {
+				double heat = Math.log1p(counts[row * columns + column]) * scale;
+				image.setRGB(column, rows - 1 - row, heatColour(heat));
+			}
+		}
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try {
+			ImageIO.write(image, "png", bytes);
+		}
+		catch(IOException e) {
+			// Writing to memory does not fail
+			throw new IllegalStateException(e);
+		}
+		return bytes.toByteArray();
+	}
+
+	/**
+	 * @param heat From 0 to 1
+	 * @return An RGB colour from black, through red and yellow, to white
+	 */
+	private static int heatColour(double heat) {
+		int level = (int) Math.round(heat * 3 * 255);
+		int red = Math.min(255, level);
+		int green = Math.max(0, Math.min(255, level - 255));
+		int blue = Math.max(0, Math.min(255, level - 2 * 255));
+		return (red << 16) | (green << 8) | blue;
+	}
+
+}
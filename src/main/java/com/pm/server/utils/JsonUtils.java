@@ -10,7 +10,8 @@ public final class JsonUtils {
 	private final static Logger log =
 			LogManager.getLogger(JsonUtils.class.getName());
 
-	private final static ObjectMapper objectMapper = new ObjectMapper();
+	private final static ObjectMapper objectMapper =
+			new ObjectMapper().registerModule(new ResponseSerializerModule());
 
 	private JsonUtils() {
 	}
@@ -25,4 +26,12 @@ public final class JsonUtils {
 		}
 	}
 
+	/**
+	 * @return A shared mapper with the response serializers registered, for
+	 *         encoding responses outside of Spring's message converters
+	 */
+	public static ObjectMapper getObjectMapper() {
+		return objectMapper;
+	}
+
 }
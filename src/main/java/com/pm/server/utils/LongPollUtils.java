@@ -0,0 +1,54 @@
+package com.pm.server.utils;
+
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+public final class LongPollUtils {
+
+	private LongPollUtils() {
+	}
+
+	/**
+	 * Adapts a future from a long-poll wait into a result for an
+	 * asynchronous Spring MVC request.
+	 *
+	 * <p>
+	 *     The request is answered with the future's value when it completes,
+	 *     or with the current value when the timeout elapses. The future is
+	 *     cancelled once the request ends, so a waiter never outlives its
+	 *     request.
+	 * </p>
+	 *
+	 * @param future Future for the changed value
+	 * @param timeoutMillis Time to wait before answering with the current
+	 *                      value
+	 * @param current Supplies the current value on timeout
+	 * @param toResponse Converts a value into the response
+	 * @param <T> Type of the watched value
+	 * @param <R> Type of the response
+	 * @return The deferred response
+	 */
+	public static <T, R> DeferredResult<R> toDeferredResult(
+			CompletableFuture<T> future,
+			long timeoutMillis,
+			Supplier<T> current,
+			Function<T, R> toResponse) {
+
+		DeferredResult<R> deferredResult = new DeferredResult<>(timeoutMillis);
+
+		deferredResult.onTimeout(() ->
+				deferredResult.setResult(toResponse.apply(current.get()))
+		);
+		deferredResult.onCompletion(() -> future.cancel(false));
+
+		future.thenAccept(value ->
+				deferredResult.setResult(toResponse.apply(value))
+		);
+
+		return deferredResult;
+	}
+
+}
@@ -0,0 +1,430 @@
+package com.pm.server.utils;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonLocation;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.pm.server.PmServerException;
+import com.pm.server.datatype.PacdotMap;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.http.HttpStatus;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Reads a list of pacdot locations from a JSON stream into a
+ * {@link PacdotMap}.
+ *
+ * <p>
+ *     Two formats are accepted:
+ *     <ul>
+ *       <li>An array of objects with <code>latitude</code>,
+ *         <code>longitude</code> and an optional boolean
+ *         <code>powerdot</code>, as in the <code>pacdots_*.json</code>
+ *         resources.</li>
+ *       <li>A GeoJSON <code>FeatureCollection</code> of <code>Point</code>
+ *         features, with an optional boolean <code>powerdot</code>
+ *         property.</li>
+ *     </ul>
+ * </p>
+ * <p>
+ *     The stream is read token by token, so no tree or object is created for
+ *     each pacdot. Locations which fall on the same quantized coordinate as
+ *     an earlier location are dropped as duplicates.
+ * </p>
+ * <p>
+ *     A reader is used for a single stream.
+ * </p>
+ *
+ */
+public class PacdotMapReader {
+
+	/**
+	 * Locations closer than this (in GPS coordinate units) along both axes
+	 * are treated as the same pacdot.
+	 */
+	public static final double DEDUPE_QUANTUM = 0.000001;
+
+	private static final JsonFactory jsonFactory = new JsonFactory();
+
+	private final static Logger log =
+			LogManager.getLogger(PacdotMapReader.class.getName());
+
+	private final int maxPacdots;
+
+	private double[] latitudes = new double[1024];
+	private double[] longitudes = new double[1024];
+	private BitSet powerdots = new BitSet();
+	private int count = 0;
+
+	private int duplicates = 0;
+
+	private QuantizedLocationSet seenLocations = new QuantizedLocationSet();
+
+	/**
+	 * @param maxPacdots Maximum number of distinct pacdots the map may have
+	 */
+	public PacdotMapReader(int maxPacdots) {
+		this.maxPacdots = maxPacdots;
+	}
+
+	/**
+	 * Reads the whole stream into a map.
+	 *
+	 * @param name Name of the map
+	 * @param inputStream Stream containing the JSON list of pacdots
+	 * @param cellSize Cell size of the spatial index of the map
+	 * @return The map which was read
+	 * @throws PmServerException If the stream is not a valid list of
+	 *         pacdots, or contains more than the maximum number of pacdots
+	 * @throws IOException If the stream could not be read
+	 */
+	public PacdotMap read(
+			String name, InputStream inputStream, double cellSize)
+			throws PmServerException, IOException {
+
+		try(JsonParser parser = jsonFactory.createParser(inputStream)) {
+
+			JsonToken token = parser.nextToken();
+			if(token == JsonToken.START_ARRAY) {
+				readPlainArray(parser);
+			}
+			else if(token == JsonToken.START_OBJECT) {
+				readFeatureCollection(parser);
+			}
+			else {
+				throw invalid(parser,
+						"Map must be a JSON array of pacdots or a GeoJSON " +
+						"FeatureCollection."
+				);
+			}
+
+		}
+		catch(JsonParseException e) {
+			String errorMessage = "Map is not valid JSON: " + e.getMessage();
+			log.warn(errorMessage);
+			throw new PmServerException(HttpStatus.BAD_REQUEST, errorMessage);
+		}
+
+		if(count == 0) {
+			String errorMessage = "Map must contain at least one pacdot.";
+			log.warn(errorMessage);
+			throw new PmServerException(HttpStatus.BAD_REQUEST, errorMessage);
+		}
+
+		log.info(
+				"Read map {} with {} pacdots ({} duplicates dropped)",
+				name, count, duplicates
+		);
+
+		PacdotMap map = new PacdotMap(
+				name,
+				Arrays.copyOf(latitudes, count),
+				Arrays.copyOf(longitudes, count),
+				powerdots,
+				cellSize
+		);
+
+		latitudes = null;
+		longitudes = null;
+		seenLocations = null;
+
+		return map;
+	}
+
+	/**
+	 * @return The number of locations dropped as duplicates
+	 */
+	public int getDuplicates() {
+		return duplicates;
+	}
+
+	private void readPlainArray(JsonParser parser)
+			throws PmServerException, IOException {
+
+		JsonToken token;
+		while((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+			if(token != JsonToken.START_OBJECT) {
+				throw invalid(parser, "Each pacdot must be a JSON object.");
+			}
+
+			Double latitude = null;
+			Double longitude = null;
+			boolean powerdot = false;
+
+			while(parser.nextToken() == JsonToken.FIELD_NAME) {
+				String field = parser.getCurrentName();
+				parser.nextToken();
+
+				if("latitude".equals(field)) {
+					latitude = readNumber(parser, field);
+				}
+				else if("longitude".equals(field)) {
+					longitude = readNumber(parser, field);
+				}
+				else if("powerdot".equals(field)) {
+					powerdot = readBoolean(parser, field);
+				}
+				else {
+					parser.skipChildren();
+				}
+			}
+
+			if(latitude == null || longitude == null) {
+				throw invalid(parser,
+						"Each pacdot requires latitude and longitude."
+				);
+			}
+			addPacdot(parser, latitude, longitude, powerdot);
+		}
+	}
+
+	private void readFeatureCollection(JsonParser parser)
+			throws PmServerException, IOException {
+
+		boolean hasFeatures = false;
+
+		while(parser.nextToken() == JsonToken.FIELD_NAME) {
+			String field = parser.getCurrentName();
+			JsonToken token = parser.nextToken();
+
+			if("type".equals(field)) {
+				if(!"FeatureCollection".equals(parser.getValueAsString())) {
+					throw invalid(parser,
+							"GeoJSON map must be a FeatureCollection."
+					);
+				}
+			}
+			else if("features".equals(field)) {
+				if(token != JsonToken.START_ARRAY) {
+					throw invalid(parser, "features must be an array.");
+				}
+				hasFeatures = true;
+				while(parser.nextToken() == JsonToken.START_OBJECT) {
+					readFeature(parser);
+				}
+				if(parser.getCurrentToken() != JsonToken.END_ARRAY) {
+					throw invalid(parser, "Each feature must be an object.");
+				}
+			}
+			else {
+				parser.skipChildren();
+			}
+		}
+
+		if(!hasFeatures) {
+			throw invalid(parser, "GeoJSON map requires features.");
+		}
+	}
+
+	private void readFeature(JsonParser parser)
+			throws PmServerException, IOException {
+
+		Double latitude = null;
+		Double longitude = null;
+		boolean powerdot = false;
+
+		while(parser.nextToken() == JsonToken.FIELD_NAME) {
+			String field = parser.getCurrentName();
+			JsonToken token = parser.nextToken();
+
+			if("geometry".equals(field)) {
+				if(token != JsonToken.START_OBJECT) {
+					throw invalid(parser, "geometry must be an object.");
+				}
+				while(parser.nextToken() == JsonToken.FIELD_NAME) {
+					String geometryField = parser.getCurrentName();
+					JsonToken geometryToken = parser.nextToken();
+
+					if("type".equals(geometryField)) {
+						if(!"Point".equals(parser.getValueAsString())) {
+							throw invalid(parser,
+									"Each feature must be a Point."
+							);
+						}
+					}
+					else if("coordinates".equals(geometryField)) {
+						if(geometryToken != JsonToken.START_ARRAY) {
+							throw invalid(parser,
+									"coordinates must be an array."
+							);
+						}
+						parser.nextToken();
+						longitude = readNumber(parser, "longitude");
+						parser.nextToken();
+						latitude = readNumber(parser, "latitude");
+						// Skip any altitude
+						while(parser.nextToken() != JsonToken.END_ARRAY) {
+							parser.skipChildren();
+						}
+					}
+					else {
+						parser.skipChildren();
+					}
+				}
+			}
+			else if("properties".equals(field) &&
+					token == JsonToken.START_OBJECT) {
+				while(parser.nextToken() == JsonToken.FIELD_NAME) {
+					String property = parser.getCurrentName();
+					parser.nextToken();
+					if("powerdot".equals(property)) {
+						powerdot = readBoolean(parser, property);
+					}
+					else {
+						parser.skipChildren();
+					}
+				}
+			}
+			else {
+				parser.skipChildren();
+			}
+		}
+
+		if(latitude == null || longitude == null) {
+			throw invalid(parser, "Each feature requires coordinates.");
+		}
+		addPacdot(parser, latitude, longitude, powerdot);
+	}
+
+	private void addPacdot(
+			JsonParser parser,
+			double latitude, double longitude, boolean powerdot)
+			throws PmServerException {
+
+		if(latitude < -90 || latitude > 90) {
+			throw invalid(parser, "Latitude must be between -90 and 90.");
+		}
+		if(longitude < -180 || longitude > 180) {
+			throw invalid(parser, "Longitude must be between -180 and 180.");
+		}
+
+		if(!seenLocations.add(quantize(latitude, longitude))) {
+			duplicates++;
+			return;
+		}
+
+		if(count == maxPacdots) {
+			String errorMessage =
+					"Map cannot contain more than " + maxPacdots +
+					" pacdots.";
+			log.warn(errorMessage);
+			throw new PmServerException(
+					HttpStatus.PAYLOAD_TOO_LARGE, errorMessage
+			);
+		}
+
+		if(count == latitudes.length) {
+			int capacity = (int) Math.min(
+					(long) maxPacdots, latitudes.length + (latitudes.length >> 1)
+			);
+			latitudes = Arrays.copyOf(latitudes, capacity);
+			longitudes = Arrays.copyOf(longitudes, capacity);
+		}
+
+		latitudes[count] = latitude;
+		longitudes[count] = longitude;
+		if(powerdot) {
+			powerdots.set(count);
+		}
+		count++;
+	}
+
+	private Double readNumber(JsonParser parser, String field)
+			throws PmServerException, IOException {
+		if(!parser.getCurrentToken().isNumeric()) {
+			throw invalid(parser, field + " must be a number.");
+		}
+		return parser.getDoubleValue();
+	}
+
+	private boolean readBoolean(JsonParser parser, String field)
+			throws PmServerException {
+		if(!parser.getCurrentToken().isBoolean()) {
+			throw invalid(parser, field + " must be a boolean.");
+		}
+		return parser.getCurrentToken() == JsonToken.VALUE_TRUE;
+	}
+
+	private static long quantize(double latitude, double longitude) {
+		long latitudeCell = Math.round(latitude / DEDUPE_QUANTUM);
+		long longitudeCell = Math.round(longitude / DEDUPE_QUANTUM);
+		return (latitudeCell << 32) | (longitudeCell & 0xffffffffL);
+	}
+
+	private static PmServerException invalid(
+			JsonParser parser, String message) {
+		JsonLocation location = parser.getCurrentLocation();
+		String errorMessage =
+				message +
+				" (line " + location.getLineNr() +
+				", column " + location.getColumnNr() + ")";
+		log.warn(errorMessage);
+		return new PmServerException(HttpStatus.BAD_REQUEST, errorMessage);
+	}
+
+	/**
+	 * Open-addressing hash set of quantized locations, stored in a single
+	 * primitive array.
+	 */
+	private static class QuantizedLocationSet {
+
+		// Quantized locations never equal this, since latitude cells are
+		// bounded well within an int.
+		private static final long EMPTY = Long.MIN_VALUE;
+
+		private long[] slots = newSlots(1024);
+
+		private int size = 0;
+
+		boolean add(long key) {
+			if(size * 2 >= slots.length) {
+				grow();
+			}
+			int mask = slots.length - 1;
+			int slot = mix(key) & mask;
+			while(slots[slot] != EMPTY) {
+				if(slots[slot] == key) {
+					return false;
+				}
+				slot = (slot + 1) & mask;
+			}
+			slots[slot] = key;
+			size++;
+			return true;
+		}
+
+		private void grow() {
+			long[] oldSlots = slots;
+			slots = newSlots(oldSlots.length * 2);
+			int mask = slots.length - 1;
+			for(long key : oldSlots) {
+				if(key != EMPTY) {
+					int slot = mix(key) & mask;
+					while(slots[slot] != EMPTY) {
+						slot = (slot + 1) & mask;
+					}
+					slots[slot] = key;
+				}
+			}
+		}
+
+		private static long[] newSlots(int capacity) {
+			long[] slots = new long[capacity];
+			Arrays.fill(slots, EMPTY);
+			return slots;
+		}
+
+		private static int mix(long key) {
+			long h = key * 0x9E3779B97F4A7C15L;
+			return (int) (h ^ (h >>> 32));
+		}
+
+	}
+
+}
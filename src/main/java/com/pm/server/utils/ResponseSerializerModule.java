@@ -0,0 +1,248 @@
+package com.pm.server.utils;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.pm.server.datatype.Coordinate;
+import com.pm.server.datatype.Player;
+import com.pm.server.response.LocationResponse;
+import com.pm.server.response.PacdotResponse;
+import com.pm.server.response.PacdotUneatenResponse;
+import com.pm.server.response.PlayerDetailsResponse;
+
+import java.io.IOException;
+
+/**
+ * Serializers for the response types written most often, which replace
+ * Jackson's reflective bean serializers for them.
+ *
+ * <p>
+ *     Each serializer writes its fields directly through the getters, with
+ *     the field names and enum values encoded once up front. The output is
+ *     the same as the bean serializers': the same fields in the same order,
+ *     with nulls written out.
+ * </p>
+ */
+public class ResponseSerializerModule extends SimpleModule {
+
+	private static final long serialVersionUID = 1L;
+
+	private static final SerializableString LATITUDE =
+			new SerializedString("latitude");
+	private static final SerializableString LONGITUDE =
+			new SerializedString("longitude");
+	private static final SerializableString LOCATION =
+			new SerializedString("location");
+	private static final SerializableString EATEN =
+			new SerializedString("eaten");
+	private static final SerializableString POWERDOT =
+			new SerializedString("powerdot");
+	private static final SerializableString NAME =
+			new SerializedString("name");
+	private static final SerializableString STATE =
+			new SerializedString("state");
+	private static final SerializableString OUT_OF_BOUNDS =
+			new SerializedString("outOfBounds");
+
+	private static final SerializableString[] NAMES =
+			encode(Player.Name.values());
+	private static final SerializableString[] STATES =
+			encode(Player.State.values());
+
+	public ResponseSerializerModule() {
+		super(ResponseSerializerModule.class.getSimpleName());
+		addSerializer(Coordinate.class, new CoordinateSerializer());
+		addSerializer(LocationResponse.class, new LocationSerializer());
+		addSerializer(PacdotResponse.class, new PacdotSerializer());
+		addSerializer(
+				PacdotUneatenResponse.class, new PacdotUneatenSerializer()
+		);
+		addSerializer(
+				PlayerDetailsResponse.class, new PlayerDetailsSerializer()
+		);
+	}
+
+	private static SerializableString[] encode(Enum<?>[] values) {
+		SerializableString[] encoded = new SerializableString[values.length];
+		for(int i = 0; i < values.length; i++) {
+			encoded[i] = new SerializedString(values[i].name());
+		}
+		return encoded;
+	}
+
+	private static void writeNumber(JsonGenerator generator, Double value)
+			throws IOException {
+		if(value == null) {
+			generator.writeNull();
+		}
+		else {
+			generator.writeNumber(value);
+		}
+	}
+
+	private static void writeBoolean(JsonGenerator generator, Boolean value)
+			throws IOException {
+		if(value == null) {
+			generator.writeNull();
+		}
+		else {
+			generator.writeBoolean(value);
+		}
+	}
+
+	private static void writeEnum(
+			JsonGenerator generator, Enum<?> value,
+			SerializableString[] encoded) throws IOException {
+		if(value == null) {
+			generator.writeNull();
+		}
+		else {
+			generator.writeString(encoded[value.ordinal()]);
+		}
+	}
+
+	private static void writeLocation(
+			JsonGenerator generator, LocationResponse location)
+			throws IOException {
+		if(location == null) {
+			generator.writeNull();
+			return;
+		}
+		generator.writeStartObject();
+		generator.writeFieldName(LATITUDE);
+		generator.writeNumber(location.getLatitude());
+		generator.writeFieldName(LONGITUDE);
+		generator.writeNumber(location.getLongitude());
+		generator.writeEndObject();
+	}
+
+	private static void writeCoordinate(
+			JsonGenerator generator, Coordinate coordinate)
+			throws IOException {
+		if(coordinate == null) {
+			generator.writeNull();
+			return;
+		}
+		generator.writeStartObject();
+		generator.writeFieldName(LATITUDE);
+		writeNumber(generator, coordinate.getLatitude());
+		generator.writeFieldName(LONGITUDE);
+		writeNumber(generator, coordinate.getLongitude());
+		generator.writeEndObject();
+	}
+
+	private static class CoordinateSerializer
+			extends StdSerializer<Coordinate> {
+
+		private static final long serialVersionUID = 1L;
+
+		CoordinateSerializer() {
+			super(Coordinate.class);
+		}
+
+		@Override
+		public void serialize(
+				Coordinate value, JsonGenerator generator,
+				SerializerProvider provider) throws IOException {
+			writeCoordinate(generator, value);
+		}
+
+	}
+
+	private static class LocationSerializer
+			extends StdSerializer<LocationResponse> {
+
+		private static final long serialVersionUID = 1L;
+
+		LocationSerializer() {
+			super(LocationResponse.class);
+		}
+
+		@Override
+		public void serialize(
+				LocationResponse value, JsonGenerator generator,
+				SerializerProvider provider) throws IOException {
+			writeLocation(generator, value);
+		}
+
+	}
+
+	private static class PacdotSerializer
+			extends StdSerializer<PacdotResponse> {
+
+		private static final long serialVersionUID = 1L;
+
+		PacdotSerializer() {
+			super(PacdotResponse.class);
+		}
+
+		@Override
+		public void serialize(
+				PacdotResponse value, JsonGenerator generator,
+				SerializerProvider provider) throws IOException {
+			generator.writeStartObject();
+			generator.writeFieldName(LOCATION);
+			writeLocation(generator, value.getLocation());
+			generator.writeFieldName(EATEN);
+			writeBoolean(generator, value.getEaten());
+			generator.writeFieldName(POWERDOT);
+			writeBoolean(generator, value.getPowerdot());
+			generator.writeEndObject();
+		}
+
+	}
+
+	private static class PacdotUneatenSerializer
+			extends StdSerializer<PacdotUneatenResponse> {
+
+		private static final long serialVersionUID = 1L;
+
+		PacdotUneatenSerializer() {
+			super(PacdotUneatenResponse.class);
+		}
+
+		@Override
+		public void serialize(
+				PacdotUneatenResponse value, JsonGenerator generator,
+				SerializerProvider provider) throws IOException {
+			generator.writeStartObject();
+			generator.writeFieldName(LOCATION);
+			writeLocation(generator, value.getLocation());
+			generator.writeFieldName(POWERDOT);
+			writeBoolean(generator, value.getPowerdot());
+			generator.writeEndObject();
+		}
+
+	}
+
+	private static class PlayerDetailsSerializer
+			extends StdSerializer<PlayerDetailsResponse> {
+
+		private static final long serialVersionUID = 1L;
+
+		PlayerDetailsSerializer() {
+			super(PlayerDetailsResponse.class);
+		}
+
+		@Override
+		public void serialize(
+				PlayerDetailsResponse value, JsonGenerator generator,
+				SerializerProvider provider) throws IOException {
+			generator.writeStartObject();
+			generator.writeFieldName(NAME);
+			writeEnum(generator, value.getName(), NAMES);
+			generator.writeFieldName(STATE);
+			writeEnum(generator, value.getState(), STATES);
+			generator.writeFieldName(LOCATION);
+			writeCoordinate(generator, value.getLocation());
+			generator.writeFieldName(OUT_OF_BOUNDS);
+			writeBoolean(generator, value.getOutOfBounds());
+			generator.writeEndObject();
+		}
+
+	}
+
+}
@@ -0,0 +1,106 @@
+package com.pm.server.utils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * The best entries offered so far, up to a capacity, in order from best to
+ * worst.
+ *
+ * <p>
+ *     Entries are kept in a concurrent skip list, so offering an entry
+ *     takes <code>O(log k)</code>, and reading never blocks or is blocked
+ *     by an offer: readers iterate the list as it changes, and may or may
+ *     not see an entry being offered. Offers are serialized so the list
+ *     never exceeds its capacity for long.
+ * </p>
+ * <p>
+ *     The comparator must order entries best first and never find two
+ *     distinct entries equal, or one of them is dropped.
+ * </p>
+ */
+public class TopK<T> {
+
+	private final ConcurrentSkipListSet<T> entries;
+
+	private final int capacity;
+
+	/**
+	 * Number of entries kept; only changed while holding this list.
+	 */
+	private volatile int size = 0;
+
+	/**
+	 * @param comparator Orders entries best first
+	 * @param capacity Number of entries kept
+	 * @throws IllegalArgumentException if the capacity is not positive
+	 */
+	public TopK(Comparator<? super T> comparator, int capacity)
+			throws IllegalArgumentException {
+		if(capacity <= 0) {
+			throw new IllegalArgumentException(
+					"The capacity of a top-k list must be positive."
+			);
+		}
+		this.entries = new ConcurrentSkipListSet<>(comparator);
+		this.capacity = capacity;
+	}
+
+	/**
+	 * Keeps the entry if it is among the best entries offered so far.
+	 *
+	 * @return Whether the entry was kept
+	 */
+	public synchronized boolean offer(T entry) {
+		if(size == capacity &&
+				entries.comparator().compare(entry, entries.last()) >= 0) {
+			return false;
+		}
+		if(!entries.add(entry)) {
+			return false;
+		}
+		if(size == capacity) {
+			entries.pollLast();
+		}
+		else {
+			size++;
+		}
+		return true;
+	}
+
+	/**
+	 * Removes every entry.
+	 */
+	public synchronized void clear() {
+		entries.clear();
+		size = 0;
+	}
+
+	/**
+	 * @param offset Number of best entries to skip
+	 * @param limit Most entries returned
+	 * @return Entries from the given rank, best first
+	 */
+	public List<T> page(int offset, int limit) {
+		List<T> page = new ArrayList<>(Math.min(limit, capacity));
+		Iterator<T> iterator = entries.iterator();
+		for(int i = 0; i < offset && iterator.hasNext(); i++) {
+			iterator.next();
+		}
+		while(page.size() < limit && iterator.hasNext()) {
+			page.add(iterator.next());
+		}
+		return page;
+	}
+
+	/**
+	 * @return The number of entries kept, at most the capacity
+	 */
+	public int size() {
+		return size;
+	}
+
+}
@@ -4,12 +4,15 @@ import com.pm.server.PmServerException;
 import com.pm.server.datatype.Coordinate;
 import com.pm.server.datatype.GameState;
 import com.pm.server.datatype.Player;
+import com.pm.server.request.ClusterNodesRequest;
 import com.pm.server.request.LocationRequest;
 import com.pm.server.request.StateRequest;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.http.HttpStatus;
 
+import java.util.List;
+
 public class ValidationUtils {
 
 	private final static Logger log =
@@ -150,4 +153,60 @@ public class ValidationUtils {
 
 	}
 
+	public static GameState validateRequestParamWithGameState(
+			String gameStateParam)
+			throws PmServerException {
+
+		try {
+			return GameState.valueOf(gameStateParam);
+		}
+		catch(IllegalArgumentException | NullPointerException e) {
+			String errorMessage = "Request requires a valid game state.";
+			log.warn(errorMessage);
+			throw new PmServerException(HttpStatus.BAD_REQUEST, errorMessage);
+		}
+
+	}
+
+	public static Player.State validateRequestParamWithState(
+			String stateParam)
+			throws PmServerException {
+
+		try {
+			return Player.State.valueOf(stateParam);
+		}
+		catch(IllegalArgumentException | NullPointerException e) {
+			String errorMessage = "Request requires a valid state.";
+			log.warn(errorMessage);
+			throw new PmServerException(HttpStatus.BAD_REQUEST, errorMessage);
+		}
+
+	}
+
+	public static List<String> validateRequestBodyWithNodes(
+			ClusterNodesRequest request)
+			throws PmServerException {
+
+		if(request == null || request.getNodes() == null ||
+				request.getNodes().isEmpty()) {
+			String errorMessage = "Request body requires a list of nodes.";
+			log.warn(errorMessage);
+			throw new PmServerException(HttpStatus.BAD_REQUEST, errorMessage);
+		}
+
+		for(String node : request.getNodes()) {
+			if(node == null || !node.matches("https?://[^/]+")) {
+				String errorMessage =
+						"Each node must be a base URL, e.g. http://host:8080.";
+				log.warn(errorMessage);
+				throw new PmServerException(
+						HttpStatus.BAD_REQUEST, errorMessage
+				);
+			}
+		}
+
+		return request.getNodes();
+
+	}
+
 }
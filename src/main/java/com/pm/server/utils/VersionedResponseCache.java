@@ -0,0 +1,71 @@
+package com.pm.server.utils;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Supplier;
+
+/**
+ * Caches encoded response bodies derived from data with a version number,
+ * such as every representation and content coding of the pacdot list.
+ *
+ * <p>
+ *     Bodies are kept only for the latest version seen; a newer version
+ *     discards them all. Two requests racing to encode the same body may
+ *     both do so, and one result is kept.
+ * </p>
+ */
+public class VersionedResponseCache {
+
+	private static class Entry {
+
+		final long version;
+
+		final AtomicReferenceArray<byte[]> bodies;
+
+		Entry(long version, int slots) {
+			this.version = version;
+			this.bodies = new AtomicReferenceArray<>(slots);
+		}
+
+	}
+
+	private final int slots;
+
+	private final AtomicReference<Entry> entry;
+
+	/**
+	 * @param slots Number of distinct bodies cached per version
+	 */
+	public VersionedResponseCache(int slots) {
+		this.slots = slots;
+		this.entry = new AtomicReference<>(new Entry(Long.MIN_VALUE, slots));
+	}
+
+	/**
+	 * @param version Version of the data the body is derived from
+	 * @param slot Which body, between 0 and the number of slots
+	 * @param encoder Encodes the body if it is not cached
+	 * @return The cached or newly encoded body, which must not be modified
+	 */
+	public byte[] get(long version, int slot, Supplier<byte[]> encoder) {
+
+		Entry current = entry.get();
+		if(current.version == version) {
+			byte[] body = current.bodies.get(slot);
+			if(body != null) {
+				return body;
+			}
+		}
+		else if(current.version < version) {
+			Entry newer = new Entry(version, slots);
+			current = entry.compareAndSet(current, newer) ? newer : entry.get();
+		}
+
+		byte[] body = encoder.get();
+		if(current.version == version) {
+			current.bodies.set(slot, body);
+		}
+		return body;
+	}
+
+}
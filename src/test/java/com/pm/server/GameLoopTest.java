@@ -0,0 +1,131 @@
+package com.pm.server;
+
+import com.pm.server.event.GameTickEvent;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.beans.HasPropertyWithValue.hasProperty;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class GameLoopTest {
+
+	private ScheduledExecutorService gameScheduler;
+
+	private GameLoop gameLoop;
+
+	private List<GameTickEvent> ticks = new ArrayList<>();
+
+	@Rule
+	public ExpectedException thrown = ExpectedException.none();
+
+	@Before
+	public void setUp() {
+		gameScheduler = Executors.newSingleThreadScheduledExecutor();
+		gameLoop = new GameLoop(gameScheduler, 10L);
+		gameLoop.setApplicationEventPublisher(new ApplicationEventPublisher() {
+			@Override
+			public void publishEvent(ApplicationEvent event) {
+				publishEvent((Object) event);
+			}
+
+			@Override
+			public void publishEvent(Object event) {
+				if(event instanceof GameTickEvent) {
+					synchronized(ticks) {
+						ticks.add((GameTickEvent) event);
+					}
+				}
+			}
+		});
+		gameLoop.start();
+	}
+
+	@After
+	public void cleanUp() {
+		gameLoop.stop();
+		gameScheduler.shutdownNow();
+	}
+
+	@Test
+	public void unitTest_call_appliedByTick() throws Exception {
+
+		// Given
+		Thread caller = Thread.currentThread();
+
+		// When
+		Thread applier = gameLoop.call(Thread::currentThread);
+
+		// Then
+		assertNotEquals(caller, applier);
+		// The tick's event is published after its inputs are applied
+		boolean published = false;
+		for(int i = 0; i < 100 && !published; i++) {
+			synchronized(ticks) {
+				published = ticks.stream()
+						.anyMatch(tick -> tick.getInputs() == 1);
+			}
+			if(!published) {
+				Thread.sleep(10);
+			}
+		}
+		assertTrue(published);
+
+	}
+
+	@Test
+	public void unitTest_call_rejected() throws Exception {
+
+		// Given
+		thrown.expect(PmServerException.class);
+		thrown.expect(hasProperty("status", is(HttpStatus.CONFLICT)));
+
+		// When
+		gameLoop.call(() -> {
+			throw new PmServerException(HttpStatus.CONFLICT, "Rejected");
+		});
+
+		// Then
+		// Exception thrown above
+
+	}
+
+	@Test
+	public void unitTest_execute_inputsBeforeTickTasks() throws Exception {
+
+		// Given
+		List<String> order = new ArrayList<>();
+		CountDownLatch applied = new CountDownLatch(1);
+		gameLoop.addTickTask(() -> {
+			if(!order.isEmpty()) {
+				order.add("task");
+				applied.countDown();
+			}
+		});
+
+		// When
+		gameLoop.execute(() -> order.add("input"));
+
+		// Then
+		assertTrue(applied.await(1, TimeUnit.SECONDS));
+		assertEquals("input", order.get(0));
+		assertEquals("task", order.get(1));
+
+	}
+
+}
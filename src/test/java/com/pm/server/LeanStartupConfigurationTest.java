@@ -0,0 +1,61 @@
+package com.pm.server;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.SpringApplicationConfiguration;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@SpringApplicationConfiguration(PmServerApplicationTests.class)
+@WebAppConfiguration
+@ActiveProfiles("lean")
+public class LeanStartupConfigurationTest {
+
+	@Autowired
+	private WebApplicationContext webApplicationContext;
+
+	@Test
+	public void integrationTest_beansCreatedOnFirstUse() throws Exception {
+
+		// Given
+		ConfigurableApplicationContext context =
+				(ConfigurableApplicationContext) webApplicationContext;
+		String beanName = "spectatorManagerImpl";
+
+		// Then
+		assertTrue(context.getBeanFactory()
+				.getBeanDefinition(beanName).isLazyInit());
+		assertFalse(context.getBeanFactory()
+				.containsSingleton(beanName));
+
+	}
+
+	@Test
+	public void integrationTest_home() throws Exception {
+
+		// Given
+		MockMvc mockMvc = MockMvcBuilders
+				.webAppContextSetup(webApplicationContext)
+				.build();
+
+		// When
+		mockMvc.perform(get("/"))
+
+		// Then
+				.andExpect(status().isOk());
+
+	}
+
+}
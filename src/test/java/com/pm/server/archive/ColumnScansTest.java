@@ -0,0 +1,59 @@
+package com.pm.server.archive;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import com.pm.server.utils.GeoUtils;
+import org.junit.Test;
+
+public class ColumnScansTest {
+
+	@Test
+	public void unitTest_pathMetres() {
+
+		// Given
+		int[] latitudes = { 492827000, 492837000, 492837000, 492847000 };
+		int[] longitudes = { -1231207000, -1231207000, -1231197000, -1231197000 };
+
+		// When
+		double metres = ColumnScans.pathMetres(latitudes, longitudes, 4);
+
+		// Then
+		double expected =
+				GeoUtils.distanceMetres(49.2827, -123.1207, 49.2837, -123.1207) +
+				GeoUtils.distanceMetres(49.2837, -123.1207, 49.2837, -123.1197) +
+				GeoUtils.distanceMetres(49.2837, -123.1197, 49.2847, -123.1197);
+		assertEquals(expected, metres, 0.5);
+		assertEquals(0, ColumnScans.pathMetres(latitudes, longitudes, 1), 0);
+
+	}
+
+	@Test
+	public void unitTest_sum() {
+
+		// Given
+		int[] values = { 1, 0, 1, 1, 5 };
+
+		// Then
+		assertEquals(3, ColumnScans.sum(values, 4));
+
+	}
+
+	@Test
+	public void unitTest_minByKey() {
+
+		// Given
+		int[] keys = { 2, 0, 2, 9 };
+		int[] values = { 300, 100, 200, 0 };
+
+		// When
+		int[] minimums = ColumnScans.minByKey(keys, values, 3, 3);
+
+		// Then
+		assertArrayEquals(
+				new int[] { 100, Integer.MAX_VALUE, 200 }, minimums
+		);
+
+	}
+
+}
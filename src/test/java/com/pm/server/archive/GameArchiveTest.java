@@ -0,0 +1,138 @@
+package com.pm.server.archive;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.when;
+
+import com.pm.server.datatype.Coordinate;
+import com.pm.server.datatype.GameState;
+import com.pm.server.datatype.Pacdot;
+import com.pm.server.datatype.Player;
+import com.pm.server.event.GameStateChangedEvent;
+import com.pm.server.event.PacdotsChangedEvent;
+import com.pm.server.event.PlayerLocationChangedEvent;
+import com.pm.server.event.PlayerStateChangedEvent;
+import com.pm.server.registry.PacdotRegistry;
+import com.pm.server.replication.ReplicationFollower;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.util.Arrays;
+import java.util.List;
+
+@RunWith(MockitoJUnitRunner.class)
+public class GameArchiveTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Mock
+	private PacdotRegistry pacdotRegistryMock;
+
+	@Mock
+	private ReplicationFollower replicationFollowerMock;
+
+	private GameArchive gameArchive;
+
+	@Before
+	public void setUp() {
+
+		List<Pacdot> pacdots = Arrays.asList(
+				new Pacdot(new Coordinate(49.2827, -123.1207), false, false),
+				new Pacdot(new Coordinate(49.2828, -123.1207), false, true)
+		);
+		when(pacdotRegistryMock.getInformationOfAllPacdots())
+				.thenReturn(pacdots);
+		when(pacdotRegistryMock.getMapName()).thenReturn("downtown");
+
+		gameArchive = new GameArchive(
+				pacdotRegistryMock, replicationFollowerMock,
+				folder.getRoot().getPath(), Runnable::run
+		);
+
+	}
+
+	@Test
+	public void unitTest_finishedGameArchived() throws Exception {
+
+		// Given
+		changeState(GameState.INITIALIZING, GameState.IN_PROGRESS);
+		long received = System.currentTimeMillis();
+		gameArchive.onPlayerLocationChanged(new PlayerLocationChangedEvent(
+				this, Player.Name.Pacman, Arrays.asList(
+						new Coordinate(49.2827, -123.1207),
+						new Coordinate(49.2828, -123.1207)
+				),
+				new long[] { received, received + 2000 }
+		));
+		gameArchive.onPacdotsChanged(new PacdotsChangedEvent(
+				this, 0, PacdotsChangedEvent.Change.EATEN, new int[] { 0, 1 }
+		));
+		gameArchive.onPlayerStateChanged(new PlayerStateChangedEvent(
+				this, Player.Name.Pacman,
+				Player.State.ACTIVE, Player.State.CAPTURED
+		));
+
+		// When
+		changeState(GameState.IN_PROGRESS, GameState.FINISHED_GHOSTS_WIN);
+
+		// Then
+		List<Long> ids = gameArchive.getGameIds();
+		assertEquals(1, ids.size());
+		GameColumns game = gameArchive.getGame(ids.get(0));
+		assertEquals("downtown", game.getMapName());
+		assertEquals(GameState.FINISHED_GHOSTS_WIN, game.getResult());
+		assertEquals(2, game.getFixLatitudes(Player.Name.Pacman).size());
+		int[] fixTimes = game.getFixTimes(Player.Name.Pacman).values();
+		assertEquals(2000, fixTimes[1] - fixTimes[0]);
+		assertEquals(2, game.getEatPacdots().size());
+		assertEquals(1, game.getEatPowerdots().values()[1]);
+		assertEquals(1, game.getCapturePlayers().size());
+
+	}
+
+	@Test
+	public void unitTest_reinitializedGameDiscarded() throws Exception {
+
+		// Given
+		changeState(GameState.INITIALIZING, GameState.IN_PROGRESS);
+		changeState(GameState.IN_PROGRESS, GameState.PAUSED);
+
+		// When
+		changeState(GameState.PAUSED, GameState.INITIALIZING);
+		changeState(GameState.INITIALIZING, GameState.FINISHED_PACMAN_WIN);
+
+		// Then
+		assertTrue(gameArchive.getGameIds().isEmpty());
+		assertNull(gameArchive.getGame(12345));
+
+	}
+
+	@Test
+	public void unitTest_followerArchivesNothing() throws Exception {
+
+		// Given
+		when(replicationFollowerMock.isFollower()).thenReturn(true);
+		changeState(GameState.INITIALIZING, GameState.IN_PROGRESS);
+
+		// When
+		changeState(GameState.IN_PROGRESS, GameState.FINISHED_GHOSTS_WIN);
+
+		// Then
+		assertTrue(gameArchive.getGameIds().isEmpty());
+
+	}
+
+	private void changeState(GameState previousState, GameState state) {
+		gameArchive.onGameStateChanged(
+				new GameStateChangedEvent(this, previousState, state)
+		);
+	}
+
+}
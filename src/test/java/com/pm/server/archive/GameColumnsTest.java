@@ -0,0 +1,95 @@
+package com.pm.server.archive;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import com.pm.server.datatype.GameState;
+import com.pm.server.datatype.Player;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+
+public class GameColumnsTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void unitTest_writeAndRead() throws Exception {
+
+		// Given
+		GameColumns game = new GameColumns(1000000, "downtown");
+		game.addFix(Player.Name.Pacman, 1000500, 49.2827, -123.1207);
+		game.addFix(Player.Name.Pacman, 1001500, 49.2826, -123.1209);
+		game.addFix(Player.Name.Inky, 1002000, -33.8688, 151.2093);
+		game.addEaten(1001500, 42, false);
+		game.addEaten(1001500, 7, true);
+		game.addCapture(1003000, Player.Name.Pacman);
+		game.finish(1004000, GameState.FINISHED_GHOSTS_WIN);
+		Path directory = folder.getRoot().toPath().resolve("game");
+
+		// When
+		game.write(directory);
+		GameColumns read = GameColumns.read(directory);
+
+		// Then
+		assertEquals(1000000, read.getId());
+		assertEquals("downtown", read.getMapName());
+		assertEquals(4000, read.getDurationMillis());
+		assertEquals(GameState.FINISHED_GHOSTS_WIN, read.getResult());
+
+		IntColumn times = read.getFixTimes(Player.Name.Pacman);
+		assertEquals(2, times.size());
+		assertArrayEquals(
+				new int[] { 500, 1500 },
+				Arrays.copyOf(times.values(), times.size())
+		);
+		assertEquals(
+				-1231209000,
+				read.getFixLongitudes(Player.Name.Pacman).values()[1]
+		);
+		assertEquals(
+				-338688000,
+				read.getFixLatitudes(Player.Name.Inky).values()[0]
+		);
+		assertEquals(0, read.getFixTimes(Player.Name.Clyde).size());
+
+		assertArrayEquals(
+				new int[] { 42, 7 },
+				Arrays.copyOf(read.getEatPacdots().values(), 2)
+		);
+		assertArrayEquals(
+				new int[] { 0, 1 },
+				Arrays.copyOf(read.getEatPowerdots().values(), 2)
+		);
+		assertEquals(3000, read.getCaptureTimes().values()[0]);
+		assertEquals(
+				Player.Name.Pacman.ordinal(),
+				read.getCapturePlayers().values()[0]
+		);
+
+	}
+
+	@Test
+	public void unitTest_writeAndRead_unfinished() throws Exception {
+
+		// Given
+		GameColumns game = new GameColumns(5, null);
+		Path directory = folder.getRoot().toPath().resolve("game");
+
+		// When
+		game.write(directory);
+		GameColumns read = GameColumns.read(directory);
+
+		// Then
+		assertNull(read.getMapName());
+		assertNull(read.getResult());
+		assertEquals(0, read.getEatTimes().size());
+
+	}
+
+}
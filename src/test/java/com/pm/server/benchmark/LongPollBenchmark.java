@@ -0,0 +1,170 @@
+package com.pm.server.benchmark;
+
+import com.pm.server.PmServerApplication;
+import com.pm.server.datatype.GameState;
+import com.pm.server.manager.AdminGameStateManager;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+
+/**
+ * Parks many concurrent <code>GET /gamestate?waitForChangeFrom=</code>
+ * long-polls on an in-process server, then changes the game state and
+ * reports how long it took to answer all of them and how many threads the
+ * server needed while they were waiting.
+ *
+ * <p>
+ *     The client side uses a single non-blocking selector, so the thread
+ *     counts reported are the server's.
+ * </p>
+ *
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dstart-class=com.pm.server.benchmark.LongPollBenchmark \
+ *     -Dexec.args="10000"
+ * </pre>
+ *
+ * <p>
+ *     <code>exec:java</code> runs the benchmark inside the Maven JVM, so JVM
+ *     options go in <code>MAVEN_OPTS</code>. On JDK 21, set it to
+ *     <code>--add-opens java.base/java.lang=ALL-UNNAMED
+ *     -Dpm.threads.virtual=true</code> to run the server's requests on
+ *     virtual threads. The open file limit
+ *     (<code>ulimit -n</code>) must be more than twice the number of polls.
+ * </p>
+ */
+public class LongPollBenchmark {
+
+	private static final byte[] REQUEST = (
+			"GET /gamestate?waitForChangeFrom=INITIALIZING HTTP/1.1\r\n" +
+			"Host: localhost\r\n" +
+			"Connection: close\r\n" +
+			"\r\n"
+	).getBytes(StandardCharsets.US_ASCII);
+
+	private static final byte[] OK_STATUS =
+			"HTTP/1.1 200".getBytes(StandardCharsets.US_ASCII);
+
+	public static void main(String[] args) throws Exception {
+
+		int polls = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+
+		ConfigurableApplicationContext context =
+				new SpringApplicationBuilder(PmServerApplication.class)
+						.properties(
+								"server.port=0",
+								"pm.tomcat.max-connections=" + (polls + 100),
+								"longpoll.timeout.millis=600000",
+								"logging.level.com.pm.server=WARN",
+								"logging.level.org.springframework=WARN",
+								"logging.level.org.apache=WARN"
+						)
+						.run(args);
+		int port = Integer.parseInt(
+				context.getEnvironment().getProperty("local.server.port")
+		);
+
+		ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+		int threadsAtStart = threads.getThreadCount();
+
+		Selector selector = Selector.open();
+		long connectStart = System.nanoTime();
+		for(int i = 0; i < polls; i++) {
+			SocketChannel channel = SocketChannel.open(
+					new InetSocketAddress("localhost", port)
+			);
+			channel.write(ByteBuffer.wrap(REQUEST));
+			channel.configureBlocking(false);
+			channel.register(
+					selector, SelectionKey.OP_READ, ByteBuffer.allocate(512)
+			);
+		}
+		long connectMillis = (System.nanoTime() - connectStart) / 1000000;
+
+		// Let the server accept and park every request
+		int peakThreads = threads.getThreadCount();
+		for(int i = 0; i < 30; i++) {
+			Thread.sleep(100);
+			peakThreads = Math.max(peakThreads, threads.getThreadCount());
+		}
+		int earlyResponses = selector.selectNow();
+		int threadsWhileParked = threads.getThreadCount();
+
+		long answerStart = System.nanoTime();
+		context.getBean(AdminGameStateManager.class)
+				.changeGameState(GameState.IN_PROGRESS);
+
+		int answered = 0;
+		int ok = 0;
+		while(answered < polls &&
+				System.nanoTime() - answerStart < 60_000_000_000L) {
+			selector.select(100);
+			peakThreads = Math.max(peakThreads, threads.getThreadCount());
+
+			Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+			while(keys.hasNext()) {
+				SelectionKey key = keys.next();
+				keys.remove();
+
+				ByteBuffer buffer = (ByteBuffer) key.attachment();
+				SocketChannel channel = (SocketChannel) key.channel();
+				if(!buffer.hasRemaining()) {
+					buffer.clear().position(OK_STATUS.length);
+				}
+				if(channel.read(buffer) < 0) {
+					answered++;
+					if(startsWith(buffer, OK_STATUS)) {
+						ok++;
+					}
+					key.cancel();
+					channel.close();
+				}
+			}
+		}
+		long answerMillis = (System.nanoTime() - answerStart) / 1000000;
+
+		System.out.println();
+		System.out.println("Long-poll benchmark");
+		System.out.println("  java.version:           " + System.getProperty("java.version"));
+		System.out.println("  pm.threads.virtual:     " + context.getEnvironment().getProperty("pm.threads.virtual", "false"));
+		System.out.println("  long-polls opened:      " + polls + " in " + connectMillis + " ms");
+		System.out.println("  answered early:         " + earlyResponses);
+		System.out.println("  answered after change:  " + answered + " (" + ok + " with 200) in " + answerMillis + " ms");
+		System.out.println("  live threads at start:  " + threadsAtStart);
+		System.out.println("  live threads parked:    " + threadsWhileParked);
+		System.out.println("  peak live threads:      " + peakThreads);
+		System.out.println();
+
+		for(SelectionKey key : selector.keys()) {
+			key.channel().close();
+		}
+		selector.close();
+		context.close();
+
+		// Tomcat 8.0 leaves its await thread running on newer JDKs, which
+		// would keep exec:java waiting
+		System.exit(0);
+	}
+
+	private static boolean startsWith(ByteBuffer buffer, byte[] prefix) {
+		if(buffer.position() < prefix.length) {
+			return false;
+		}
+		for(int i = 0; i < prefix.length; i++) {
+			if(buffer.get(i) != prefix[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+}
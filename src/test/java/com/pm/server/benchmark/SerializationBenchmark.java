@@ -0,0 +1,119 @@
+package com.pm.server.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pm.server.datatype.Coordinate;
+import com.pm.server.datatype.Pacdot;
+import com.pm.server.datatype.Player;
+import com.pm.server.response.PacdotResponse;
+import com.pm.server.response.PlayerDetailsResponse;
+import com.pm.server.utils.ResponseSerializerModule;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compares the time taken and memory allocated to encode the bodies of
+ * <code>GET /player/details</code> and <code>GET /pacdots</code> with
+ * Jackson's reflective bean serializers and with
+ * {@link ResponseSerializerModule}.
+ *
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dstart-class=com.pm.server.benchmark.SerializationBenchmark \
+ *     -Dexec.args="2000 5"
+ * </pre>
+ *
+ * <p>
+ *     The arguments are the number of pacdots and the number of rounds; the
+ *     first round of each is a warm-up and is not reported. Allocation is
+ *     read from the HotSpot thread allocation counter.
+ * </p>
+ */
+public class SerializationBenchmark {
+
+	private static final long ROUND_NANOS = 1_000_000_000L;
+
+	public static void main(String[] args) throws Exception {
+
+		int pacdotCount = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+		int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+		List<PlayerDetailsResponse> players = new ArrayList<>();
+		Random random = new Random(42);
+		for(Player.Name name : Player.Name.values()) {
+			players.add(new PlayerDetailsResponse(
+					name, Player.State.ACTIVE,
+					new Coordinate(
+							49.27 + random.nextDouble() / 100,
+							-122.92 + random.nextDouble() / 100
+					),
+					false
+			));
+		}
+
+		List<PacdotResponse> pacdots = new ArrayList<>();
+		for(int i = 0; i < pacdotCount; i++) {
+			pacdots.add(new PacdotResponse(new Pacdot(
+					new Coordinate(
+							49.27 + random.nextDouble() / 100,
+							-122.92 + random.nextDouble() / 100
+					),
+					random.nextBoolean(), i % 50 == 0
+			)));
+		}
+
+		ObjectMapper reflective = new ObjectMapper();
+		ObjectMapper precompiled =
+				new ObjectMapper().registerModule(new ResponseSerializerModule());
+
+		System.out.println();
+		System.out.println("Serialization benchmark");
+		System.out.println("  java.version:   " + System.getProperty("java.version"));
+		System.out.println("  pacdots:        " + pacdotCount);
+		for(int round = 0; round < rounds; round++) {
+			boolean report = round > 0;
+			run("/player/details reflective ", reflective, players, report);
+			run("/player/details precompiled", precompiled, players, report);
+			run("/pacdots reflective        ", reflective, pacdots, report);
+			run("/pacdots precompiled       ", precompiled, pacdots, report);
+		}
+	}
+
+	private static void run(
+			String label, ObjectMapper mapper, Object body, boolean report)
+			throws Exception {
+
+		com.sun.management.ThreadMXBean threads =
+				(com.sun.management.ThreadMXBean)
+						ManagementFactory.getThreadMXBean();
+		long thread = Thread.currentThread().getId();
+
+		long operations = 0;
+		long bytes = 0;
+		long allocatedStart = threads.getThreadAllocatedBytes(thread);
+		long start = System.nanoTime();
+		long elapsed;
+		do {
+			for(int i = 0; i < 100; i++) {
+				bytes += mapper.writeValueAsBytes(body).length;
+			}
+			operations += 100;
+			elapsed = System.nanoTime() - start;
+		} while(elapsed < ROUND_NANOS);
+		long allocated =
+				threads.getThreadAllocatedBytes(thread) - allocatedStart;
+
+		if(report) {
+			System.out.printf(
+					"  %s  %10.0f ns/op  %9d B/op  %7d B/body%n",
+					label,
+					(double) elapsed / operations,
+					allocated / operations,
+					bytes / operations
+			);
+		}
+	}
+
+}
@@ -0,0 +1,306 @@
+package com.pm.server.cluster;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.pm.server.PmServerApplication;
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Runs a cluster of servers in this JVM, each on its own port, and checks
+ * that requests reach the owner of their game and that games move when a
+ * node joins without losing the writes acknowledged meanwhile.
+ */
+public class ClusterTest {
+
+	private static final int VIRTUAL_NODES = 128;
+
+	private final RestTemplate restTemplate = new RestTemplate();
+
+	private final List<ConfigurableApplicationContext> servers =
+			new ArrayList<>();
+
+	@After
+	public void tearDown() {
+		for(ConfigurableApplicationContext server : servers) {
+			server.close();
+		}
+	}
+
+	@Test
+	public void integrationTest_gamesRoutedAndHandedOff() throws Exception {
+
+		// Given
+		String nodeA = "http://localhost:" + freePort();
+		String nodeB = "http://localhost:" + freePort();
+		String nodeC = "http://localhost:" + freePort();
+		List<String> twoNodes = Arrays.asList(nodeA, nodeB);
+		List<String> threeNodes = Arrays.asList(nodeA, nodeB, nodeC);
+
+		String stayingGame = game(twoNodes, threeNodes, nodeA, nodeA);
+		String movingGame = game(twoNodes, threeNodes, nodeB, nodeC);
+
+		start(nodeA, twoNodes);
+		start(nodeB, twoNodes);
+
+		send(HttpMethod.POST, nodeA, movingGame, "/player/Pacman",
+				"{\"latitude\":49.2807,\"longitude\":-123.1188}");
+		send(HttpMethod.POST, nodeB, stayingGame, "/player/Inky",
+				"{\"latitude\":49.2810,\"longitude\":-123.1190}");
+
+		String movingDetails = details(nodeA, movingGame);
+		String stayingDetails = details(nodeB, stayingGame);
+		assertEquals(movingDetails, details(nodeB, movingGame));
+		assertEquals(stayingDetails, details(nodeA, stayingGame));
+		assertNotEquals(movingDetails, stayingDetails);
+		assertEquals(movingGame, cluster(nodeB).get("hostedGameId"));
+		assertEquals(stayingGame, cluster(nodeA).get("hostedGameId"));
+
+		// When
+		start(nodeC, threeNodes);
+		changeMembership(nodeA, threeNodes);
+
+		// Then
+		assertEquals(movingGame, cluster(nodeC).get("hostedGameId"));
+		assertNull(cluster(nodeB).get("hostedGameId"));
+		assertEquals(stayingGame, cluster(nodeA).get("hostedGameId"));
+		assertEquals(threeNodes, cluster(nodeB).get("nodes"));
+
+		for(String node : threeNodes) {
+			assertEquals(movingDetails, details(node, movingGame));
+			assertEquals(stayingDetails, details(node, stayingGame));
+		}
+
+	}
+
+	@Test
+	public void integrationTest_handOffKeepsAcknowledgedWrites()
+			throws Exception {
+
+		// Given
+		String nodeA = "http://localhost:" + freePort();
+		String nodeB = "http://localhost:" + freePort();
+		List<String> oneNode = Collections.singletonList(nodeA);
+		List<String> twoNodes = Arrays.asList(nodeA, nodeB);
+		String movingGame = game(oneNode, twoNodes, nodeA, nodeB);
+
+		// A slow tick, so acknowledged fixes still wait on the game loop
+		// when the game moves
+		start(nodeA, oneNode, "--game.tick.millis=500");
+		start(nodeB, twoNodes, "--game.tick.millis=500");
+		send(HttpMethod.POST, nodeA, movingGame, "/player/Pacman",
+				"{\"latitude\":49.2807,\"longitude\":-123.1188}");
+
+		AtomicBoolean writing = new AtomicBoolean(true);
+		AtomicReference<Double> acknowledged = new AtomicReference<>();
+		Thread writer = new Thread(() -> {
+			for(int i = 1; writing.get(); i++) {
+				double latitude = 49.2807 + i * 0.000001;
+				try {
+					send(HttpMethod.PUT, nodeA, movingGame,
+							"/player/Pacman/location",
+							"{\"latitude\":" + latitude +
+									",\"longitude\":-123.1188}");
+					acknowledged.set(latitude);
+				}
+				catch(HttpServerErrorException e) {
+					// Turned away while the game moves; the last write
+					// acknowledged was made before it
+					return;
+				}
+			}
+		});
+		writer.start();
+		while(acknowledged.get() == null) {
+			Thread.sleep(10);
+		}
+
+		// When
+		changeMembership(nodeA, twoNodes);
+		writing.set(false);
+		writer.join();
+
+		// Then
+		assertEquals(movingGame, cluster(nodeB).get("hostedGameId"));
+		assertNull(cluster(nodeA).get("hostedGameId"));
+		long stopped = System.currentTimeMillis();
+		while(!acknowledged.get().equals(location(nodeB, movingGame))) {
+			assertTrue(
+					"Acknowledged write " + acknowledged.get() +
+							" was lost; node holds " +
+							location(nodeB, movingGame),
+					System.currentTimeMillis() - stopped < 1000
+			);
+			Thread.sleep(20);
+		}
+
+	}
+
+	@Test
+	public void integrationTest_nodeHostsNextGameOnceGameEnds()
+			throws Exception {
+
+		// Given
+		String node = "http://localhost:" + freePort();
+		List<String> oneNode = Collections.singletonList(node);
+		start(node, oneNode);
+		send(HttpMethod.POST, node, "first", "/player/Pacman",
+				"{\"latitude\":49.2807,\"longitude\":-123.1188}");
+		send(HttpMethod.PUT, node, "first", "/admin/gamestate",
+				"{\"state\":\"IN_PROGRESS\"}");
+		try {
+			send(HttpMethod.POST, node, "second", "/player/Inky",
+					"{\"latitude\":49.2810,\"longitude\":-123.1190}");
+			fail("A second game was hosted alongside the first");
+		}
+		catch(HttpClientErrorException e) {
+			assertEquals(HttpStatus.CONFLICT, e.getStatusCode());
+		}
+
+		// When
+		send(HttpMethod.PUT, node, "first", "/admin/gamestate",
+				"{\"state\":\"FINISHED_GHOSTS_WIN\"}");
+		assertNull(cluster(node).get("hostedGameId"));
+		send(HttpMethod.POST, node, "second", "/player/Inky",
+				"{\"latitude\":49.2810,\"longitude\":-123.1190}");
+
+		// Then
+		assertEquals("second", cluster(node).get("hostedGameId"));
+		assertEquals(0.0, location(node, "second"));
+
+		send(HttpMethod.PUT, node, "second", "/admin/gamestate",
+				"{\"state\":\"IN_PROGRESS\"}");
+		send(HttpMethod.PUT, node, "second", "/admin/gamestate",
+				"{\"state\":\"INITIALIZING\"}");
+		assertNull(cluster(node).get("hostedGameId"));
+
+	}
+
+	@Test
+	public void integrationTest_readDoesNotHostGame() throws Exception {
+
+		// Given
+		String node = "http://localhost:" + freePort();
+		List<String> oneNode = Collections.singletonList(node);
+		start(node, oneNode);
+
+		// When
+		details(node, "stray");
+
+		// Then
+		assertNull(cluster(node).get("hostedGameId"));
+		send(HttpMethod.POST, node, "game", "/player/Pacman",
+				"{\"latitude\":49.2807,\"longitude\":-123.1188}");
+		assertEquals("game", cluster(node).get("hostedGameId"));
+
+	}
+
+	/**
+	 * @return A game owned by the given node before and after the change
+	 */
+	private static String game(
+			List<String> nodesBefore, List<String> nodesAfter,
+			String ownerBefore, String ownerAfter) {
+		HashRing before = new HashRing(nodesBefore, VIRTUAL_NODES);
+		HashRing after = new HashRing(nodesAfter, VIRTUAL_NODES);
+		for(int i = 0; ; i++) {
+			String game = "game-" + i;
+			if(before.ownerOf(game).equals(ownerBefore) &&
+					after.ownerOf(game).equals(ownerAfter)) {
+				return game;
+			}
+		}
+	}
+
+	private void start(String url, List<String> nodes, String... properties) {
+		List<String> args = new ArrayList<>(Arrays.asList(
+				"--server.port=" + url.substring(url.lastIndexOf(':') + 1),
+				"--spring.jmx.enabled=false",
+				"--cluster.nodes=" + String.join(",", nodes),
+				"--cluster.self.url=" + url,
+				"--cluster.virtual.nodes=" + VIRTUAL_NODES
+		));
+		args.addAll(Arrays.asList(properties));
+		servers.add(new SpringApplicationBuilder(PmServerApplication.class)
+				.run(args.toArray(new String[args.size()])));
+	}
+
+	private void changeMembership(String node, List<String> nodes) {
+		HttpHeaders headers = new HttpHeaders();
+		headers.setContentType(MediaType.APPLICATION_JSON);
+		restTemplate.exchange(
+				node + "/cluster/nodes", HttpMethod.PUT,
+				new HttpEntity<>(
+						"{\"nodes\":[\"" + String.join("\",\"", nodes) +
+								"\"]}",
+						headers
+				),
+				String.class
+		);
+	}
+
+	private static int freePort() throws IOException {
+		try(ServerSocket socket = new ServerSocket(0)) {
+			return socket.getLocalPort();
+		}
+	}
+
+	private void send(
+			HttpMethod method, String node, String game, String path,
+			String body) {
+		HttpHeaders headers = new HttpHeaders();
+		headers.setContentType(MediaType.APPLICATION_JSON);
+		headers.set(ClusterRouter.GAME_ID_HEADER, game);
+		restTemplate.exchange(
+				node + path, method, new HttpEntity<>(body, headers),
+				String.class
+		);
+	}
+
+	private String details(String node, String game) {
+		HttpHeaders headers = new HttpHeaders();
+		headers.set(ClusterRouter.GAME_ID_HEADER, game);
+		return restTemplate.exchange(
+				node + "/player/details", HttpMethod.GET,
+				new HttpEntity<>(headers), String.class
+		).getBody();
+	}
+
+	private Object location(String node, String game) {
+		HttpHeaders headers = new HttpHeaders();
+		headers.set(ClusterRouter.GAME_ID_HEADER, game);
+		return restTemplate.exchange(
+				node + "/player/Pacman/location", HttpMethod.GET,
+				new HttpEntity<>(headers), Map.class
+		).getBody().get("latitude");
+	}
+
+	private Map<?, ?> cluster(String node) {
+		return restTemplate.getForObject(node + "/cluster", Map.class);
+	}
+
+}
@@ -0,0 +1,104 @@
+package com.pm.server.cluster;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class HashRingTest {
+
+	private static final int KEYS = 10000;
+
+	@Test
+	public void unitTest_ownerOf_sameForSameNodes() {
+
+		// Given
+		List<String> nodes = Arrays.asList("a", "b", "c");
+		HashRing ring = new HashRing(nodes, 64);
+		HashRing other = new HashRing(Arrays.asList("c", "a", "b"), 64);
+
+		// Then
+		for(int i = 0; i < KEYS; i++) {
+			assertEquals(ring.ownerOf("game-" + i), other.ownerOf("game-" + i));
+		}
+
+	}
+
+	@Test
+	public void unitTest_ownerOf_evenShares() {
+
+		// Given
+		List<String> nodes = Arrays.asList("a", "b", "c", "d");
+		HashRing ring = new HashRing(nodes, 128);
+
+		// When
+		Map<String, Integer> shares = new HashMap<>();
+		for(int i = 0; i < KEYS; i++) {
+			shares.merge(ring.ownerOf("game-" + i), 1, Integer::sum);
+		}
+
+		// Then
+		for(String node : nodes) {
+			int share = shares.get(node);
+			assertTrue(
+					node + " owns " + share,
+					share > KEYS / 4 * 0.8 && share < KEYS / 4 * 1.2
+			);
+		}
+
+	}
+
+	@Test
+	public void unitTest_ownerOf_addingNodeOnlyMovesKeysToIt() {
+
+		// Given
+		HashRing before = new HashRing(Arrays.asList("a", "b", "c", "d"), 128);
+		HashRing after =
+				new HashRing(Arrays.asList("a", "b", "c", "d", "e"), 128);
+
+		// When
+		int moved = 0;
+		for(int i = 0; i < KEYS; i++) {
+			String key = "game-" + i;
+			if(!before.ownerOf(key).equals(after.ownerOf(key))) {
+				assertEquals("e", after.ownerOf(key));
+				moved++;
+			}
+		}
+
+		// Then
+		assertTrue(
+				"Moved " + moved,
+				moved > KEYS / 5 * 0.8 && moved < KEYS / 5 * 1.2
+		);
+
+	}
+
+	@Test
+	public void unitTest_ownerOf_removingNodeOnlyMovesItsKeys() {
+
+		// Given
+		HashRing before = new HashRing(Arrays.asList("a", "b", "c"), 128);
+		HashRing after = new HashRing(Arrays.asList("a", "c"), 128);
+
+		// Then
+		for(int i = 0; i < KEYS; i++) {
+			String key = "game-" + i;
+			if(!before.ownerOf(key).equals("b")) {
+				assertEquals(before.ownerOf(key), after.ownerOf(key));
+			}
+		}
+
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void unitTest_hashRing_noNodes() {
+		new HashRing(Arrays.asList(), 128);
+	}
+
+}
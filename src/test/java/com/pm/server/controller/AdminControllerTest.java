@@ -5,11 +5,13 @@ import com.pm.server.manager.PacdotManager;
 import org.junit.Before;
 import org.junit.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.context.WebApplicationContext;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 public class AdminControllerTest extends ControllerTestTemplate {
@@ -45,8 +47,75 @@ public class AdminControllerTest extends ControllerTestTemplate {
 				.andExpect(status().isCreated());
 	}
 
+	@Test
+	public void unitTest_uploadMap() throws Exception {
+
+		// Given
+		final String path = pathForUploadMap("uploaded_test");
+		final String body = "[" +
+				"{\"latitude\":49.28,\"longitude\":-123.11}," +
+				"{\"latitude\":49.28,\"longitude\":-123.11}," +
+				"{\"latitude\":49.29,\"longitude\":-123.12,\"powerdot\":true}" +
+				"]";
+
+		// When
+		mockMvc
+				.perform(post(path)
+						.content(body)
+						.contentType(MediaType.APPLICATION_JSON)
+				)
+
+		// Then
+				.andExpect(status().isCreated())
+				.andExpect(jsonPath("$.name").value("uploaded_test"))
+				.andExpect(jsonPath("$.pacdots").value(2))
+				.andExpect(jsonPath("$.powerdots").value(1))
+				.andExpect(jsonPath("$.duplicates").value(1))
+				.andExpect(jsonPath("$.active").value(false));
+	}
+
+	@Test
+	public void unitTest_uploadMap_invalidName() throws Exception {
+
+		// Given
+		final String path = pathForUploadMap("../secret");
+		final String body = "[{\"latitude\":49.28,\"longitude\":-123.11}]";
+
+		// When
+		mockMvc
+				.perform(post(path)
+						.content(body)
+						.contentType(MediaType.APPLICATION_JSON)
+				)
+
+		// Then
+				.andExpect(status().isBadRequest());
+	}
+
+	@Test
+	public void unitTest_uploadMap_invalidBody() throws Exception {
+
+		// Given
+		final String path = pathForUploadMap("uploaded_test");
+		final String body = "{\"type\":\"Polygon\"}";
+
+		// When
+		mockMvc
+				.perform(post(path)
+						.content(body)
+						.contentType(MediaType.APPLICATION_JSON)
+				)
+
+		// Then
+				.andExpect(status().isBadRequest());
+	}
+
 	private String pathForResetPacdots() {
 		return BASE_MAPPING + "/pacdots/reset";
 	}
 
+	private String pathForUploadMap(String name) {
+		return BASE_MAPPING + "/maps?name=" + name;
+	}
+
 }
@@ -0,0 +1,120 @@
+package com.pm.server.controller;
+
+import com.pm.server.ControllerTestTemplate;
+import com.pm.server.archive.GameArchive;
+import com.pm.server.datatype.Coordinate;
+import com.pm.server.datatype.GameState;
+import com.pm.server.datatype.Player;
+import com.pm.server.event.GameStateChangedEvent;
+import com.pm.server.event.PlayerLocationChangedEvent;
+import com.pm.server.event.PlayerStateChangedEvent;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class ArchiveControllerTest extends ControllerTestTemplate {
+
+	private static final String BASE_MAPPING = "/archive";
+
+	@Autowired
+	private WebApplicationContext webApplicationContext;
+
+	@Autowired
+	private GameArchive gameArchive;
+
+	@Autowired
+	@Qualifier("archiveExecutor")
+	private ThreadPoolExecutor archiveExecutor;
+
+	private MockMvc mockMvc;
+
+	@Before
+	public void setUp() {
+
+		mockMvc = MockMvcBuilders
+				.webAppContextSetup(this.webApplicationContext)
+				.build();
+
+	}
+
+	@Test
+	public void unitTest_getArchivedGame() throws Exception {
+
+		// Given
+		gameArchive.onGameStateChanged(new GameStateChangedEvent(
+				this, GameState.INITIALIZING, GameState.IN_PROGRESS
+		));
+		gameArchive.onPlayerLocationChanged(new PlayerLocationChangedEvent(
+				this, Player.Name.Blinky, Arrays.asList(
+						new Coordinate(49.2827, -123.1207),
+						new Coordinate(49.2837, -123.1207)
+				),
+				new long[] {
+						System.currentTimeMillis(), System.currentTimeMillis()
+				}
+		));
+		gameArchive.onPlayerStateChanged(new PlayerStateChangedEvent(
+				this, Player.Name.Pacman,
+				Player.State.ACTIVE, Player.State.CAPTURED
+		));
+		gameArchive.onGameStateChanged(new GameStateChangedEvent(
+				this, GameState.IN_PROGRESS, GameState.FINISHED_GHOSTS_WIN
+		));
+		// Games are written one at a time, so this waits for the game above
+		archiveExecutor.submit(() -> {}).get();
+		List<Long> ids = gameArchive.getGameIds();
+		long id = ids.get(ids.size() - 1);
+
+		// When
+		mockMvc
+				.perform(get(BASE_MAPPING + "/games"))
+
+		// Then
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$[" + (ids.size() - 1) + "]").value(id));
+
+		// When
+		mockMvc
+				.perform(get(BASE_MAPPING + "/games/" + id))
+
+		// Then
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.id").value(id))
+				.andExpect(jsonPath("$.result").value("FINISHED_GHOSTS_WIN"))
+				.andExpect(jsonPath("$.captures").value(1))
+				.andExpect(jsonPath("$.players[0].name").value("Pacman"))
+				.andExpect(jsonPath("$.players[0].capturedAtMillis").isNumber())
+				.andExpect(jsonPath("$.players[1].name").value("Blinky"))
+				.andExpect(jsonPath("$.players[1].fixes").value(2))
+				.andExpect(jsonPath("$.players[1].distanceMetres").isNumber());
+
+	}
+
+	@Test
+	public void unitTest_getArchivedGame_notFound() throws Exception {
+
+		// Given
+		final String path = BASE_MAPPING + "/games/1";
+
+		// When
+		mockMvc
+				.perform(get(path))
+
+		// Then
+				.andExpect(status().isNotFound());
+
+	}
+
+}
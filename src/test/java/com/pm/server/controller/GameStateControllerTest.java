@@ -1,13 +1,17 @@
 package com.pm.server.controller;
 
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.context.WebApplicationContext;
 
@@ -40,6 +44,15 @@ public class GameStateControllerTest extends ControllerTestTemplate {
 
 	}
 
+	@After
+	public void cleanUp() {
+
+		if(gameStateRegistry.getCurrentState() != GameState.INITIALIZING) {
+			gameStateRegistry.resetGame();
+		}
+
+	}
+
 	@Test
 	public void unitTest_getGameState() throws Exception {
 
@@ -57,6 +70,75 @@ public class GameStateControllerTest extends ControllerTestTemplate {
 
 	}
 
+	@Test
+	public void unitTest_waitForGameStateChange() throws Exception {
+
+		// Given
+		final String path = pathForWaitForGameStateChange(
+				GameState.INITIALIZING
+		);
+
+		MvcResult mvcResult = mockMvc
+				.perform(get(path))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+
+		// When
+		gameStateRegistry.startGame();
+
+		// Then
+		mockMvc
+				.perform(asyncDispatch(mvcResult))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.state")
+						.value(GameState.IN_PROGRESS.toString()));
+
+	}
+
+	@Test
+	public void unitTest_waitForGameStateChange_alreadyChanged()
+			throws Exception {
+
+		// Given
+		final String path = pathForWaitForGameStateChange(
+				GameState.PAUSED
+		);
+
+		// When
+		MvcResult mvcResult = mockMvc
+				.perform(get(path))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+
+		// Then
+		mockMvc
+				.perform(asyncDispatch(mvcResult))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.state")
+						.value(GameState.INITIALIZING.toString()));
+
+	}
+
+	@Test
+	public void unitTest_waitForGameStateChange_invalidState()
+			throws Exception {
+
+		// Given
+		final String path = BASE_MAPPING + "?waitForChangeFrom=NOT_A_STATE";
+
+		// When
+		mockMvc
+				.perform(get(path))
+
+		// Then
+				.andExpect(status().isBadRequest());
+
+	}
+
+	private String pathForWaitForGameStateChange(GameState from) {
+		return BASE_MAPPING + "?waitForChangeFrom=" + from;
+	}
+
 	private String pathForGetGameState() {
 		return BASE_MAPPING;
 	}
@@ -0,0 +1,117 @@
+package com.pm.server.controller;
+
+import com.pm.server.ControllerTestTemplate;
+import com.pm.server.datatype.GameState;
+import com.pm.server.event.GameStateChangedEvent;
+import com.pm.server.leaderboard.Leaderboard;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class LeaderboardControllerTest extends ControllerTestTemplate {
+
+	private static final String BASE_MAPPING = "/leaderboard";
+
+	@Autowired
+	private WebApplicationContext webApplicationContext;
+
+	@Autowired
+	private Leaderboard leaderboard;
+
+	private MockMvc mockMvc;
+
+	@Before
+	public void setUp() {
+
+		mockMvc = MockMvcBuilders
+				.webAppContextSetup(this.webApplicationContext)
+				.build();
+
+	}
+
+	@Test
+	public void unitTest_getLeaderboard() throws Exception {
+
+		// Given
+		leaderboard.onGameStateChanged(new GameStateChangedEvent(
+				this, GameState.INITIALIZING, GameState.IN_PROGRESS
+		));
+		leaderboard.onGameStateChanged(new GameStateChangedEvent(
+				this, GameState.IN_PROGRESS, GameState.FINISHED_GHOSTS_WIN
+		));
+
+		// When
+		mockMvc
+				.perform(get(BASE_MAPPING)
+						.param("board", "GHOSTS_CAPTURE_MILLIS")
+						.param("limit", "1"))
+
+		// Then
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.board").value("GHOSTS_CAPTURE_MILLIS"))
+				.andExpect(jsonPath("$.offset").value(0))
+				.andExpect(jsonPath("$.total").value(greaterThanOrEqualTo(1)))
+				.andExpect(jsonPath("$.entries[0].rank").value(1))
+				.andExpect(jsonPath("$.entries[0].value").exists())
+				.andExpect(jsonPath("$.entries[1]").doesNotExist());
+
+	}
+
+	@Test
+	public void unitTest_getLeaderboard_unknownBoard() throws Exception {
+
+		// Given
+
+		// When
+		mockMvc
+				.perform(get(BASE_MAPPING).param("board", "FASTEST_GHOST"))
+
+		// Then
+				.andExpect(status().isBadRequest());
+
+	}
+
+	@Test
+	public void unitTest_getLeaderboard_negativeOffset() throws Exception {
+
+		// Given
+
+		// When
+		mockMvc
+				.perform(get(BASE_MAPPING).param("offset", "-1"))
+
+		// Then
+				.andExpect(status().isBadRequest());
+
+	}
+
+	@Test
+	public void unitTest_getLeaderboard_limitOutOfRange() throws Exception {
+
+		// Given
+
+		// When
+		mockMvc
+				.perform(get(BASE_MAPPING).param("limit", "0"))
+
+		// Then
+				.andExpect(status().isBadRequest());
+
+		// When
+		mockMvc
+				.perform(get(BASE_MAPPING).param("limit", "101"))
+
+		// Then
+				.andExpect(status().isBadRequest());
+
+	}
+
+}
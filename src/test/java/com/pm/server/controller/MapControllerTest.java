@@ -0,0 +1,148 @@
+package com.pm.server.controller;
+
+import com.pm.server.ControllerTestTemplate;
+import com.pm.server.datatype.Coordinate;
+import com.pm.server.registry.HeatmapRegistry;
+import com.pm.server.registry.PacdotRegistry;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class MapControllerTest extends ControllerTestTemplate {
+
+	private static final String BASE_MAPPING = "/maps";
+
+	@Autowired
+	private WebApplicationContext webApplicationContext;
+
+	@Autowired
+	private HeatmapRegistry heatmapRegistry;
+
+	@Autowired
+	private PacdotRegistry pacdotRegistry;
+
+	private MockMvc mockMvc;
+
+	@Before
+	public void setUp() {
+
+		mockMvc = MockMvcBuilders
+				.webAppContextSetup(this.webApplicationContext)
+				.build();
+
+	}
+
+	@Test
+	public void unitTest_getHeatmap_binary() throws Exception {
+
+		// Given
+		heatmapRegistry.addLocations(Collections.singletonList(
+				new Coordinate(49.2827, -123.1207)
+		));
+		final String path = pathForGetHeatmap(pacdotRegistry.getMapName());
+
+		// When
+		MvcResult result = mockMvc
+				.perform(get(path))
+
+		// Then
+				.andExpect(status().isOk())
+				.andExpect(content().contentType("application/octet-stream"))
+				.andReturn();
+
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(
+				result.getResponse().getContentAsByteArray()
+		));
+		int rows = in.readInt();
+		int columns = in.readInt();
+		assertEquals(256, rows);
+		assertEquals(256, columns);
+		double south = in.readDouble();
+		in.readDouble();
+		double north = in.readDouble();
+		in.readDouble();
+		assertTrue(south < 49.2827 && 49.2827 < north);
+		long total = 0;
+		for(int i = 0; i < rows * columns; i++) {
+			total += in.readInt();
+		}
+		assertTrue(total >= 1);
+
+	}
+
+	@Test
+	public void unitTest_getHeatmap_png() throws Exception {
+
+		// Given
+		heatmapRegistry.addLocations(Collections.singletonList(
+				new Coordinate(49.2827, -123.1207)
+		));
+		final String path =
+				pathForGetHeatmap(pacdotRegistry.getMapName()) + "?format=png";
+
+		// When
+		MvcResult result = mockMvc
+				.perform(get(path))
+
+		// Then
+				.andExpect(status().isOk())
+				.andExpect(content().contentType("image/png"))
+				.andReturn();
+		byte[] body = result.getResponse().getContentAsByteArray();
+		assertEquals((byte) 0x89, body[0]);
+		assertEquals('P', body[1]);
+		assertEquals('N', body[2]);
+		assertEquals('G', body[3]);
+
+	}
+
+	@Test
+	public void unitTest_getHeatmap_unknownMap() throws Exception {
+
+		// Given
+		final String path = pathForGetHeatmap("no_such_map");
+
+		// When
+		mockMvc
+				.perform(get(path))
+
+		// Then
+				.andExpect(status().isNotFound());
+
+	}
+
+	@Test
+	public void unitTest_getHeatmap_unknownFormat() throws Exception {
+
+		// Given
+		final String path =
+				pathForGetHeatmap(pacdotRegistry.getMapName()) + "?format=gif";
+
+		// When
+		mockMvc
+				.perform(get(path))
+
+		// Then
+				.andExpect(status().isBadRequest());
+
+	}
+
+	private String pathForGetHeatmap(String mapName) {
+		return BASE_MAPPING + "/" + mapName + "/heatmap";
+	}
+
+}
@@ -9,6 +9,7 @@ import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.context.WebApplicationContext;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 public class MetricsControllerTest extends ControllerTestTemplate {
@@ -41,7 +42,9 @@ public class MetricsControllerTest extends ControllerTestTemplate {
 				.perform(get(path))
 
 		// Then
-				.andExpect(status().isOk());
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.locationFixesReceived").exists())
+				.andExpect(jsonPath("$.locationSuppressionRatio").exists());
 
 	}
 
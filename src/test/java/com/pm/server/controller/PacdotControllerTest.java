@@ -1,13 +1,23 @@
 package com.pm.server.controller;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.context.WebApplicationContext;
 
@@ -100,6 +110,228 @@ public class PacdotControllerTest extends ControllerTestTemplate {
 
 	}
 
+	@Test
+	public void unitTest_getAllPacdots_gzip() throws Exception {
+
+		// Given
+		final String path = pathForGetAllPacdots();
+
+		// When
+		MvcResult result = mockMvc
+				.perform(get(path).header("Accept-Encoding", "deflate;q=0.5, gzip"))
+
+		// Then
+				.andExpect(status().isOk())
+				.andExpect(header().string("Content-Encoding", "gzip"))
+				.andReturn();
+
+		String body = gunzip(result.getResponse().getContentAsByteArray());
+		assertTrue(body.startsWith("[{\"location\":{"));
+
+	}
+
+	@Test
+	public void unitTest_getAllPacdots_unchangedBetweenPolls() throws Exception {
+
+		// Given
+		final String path = pathForGetAllPacdots();
+		byte[] first = mockMvc
+				.perform(get(path).header("Accept-Encoding", "gzip"))
+				.andReturn().getResponse().getContentAsByteArray();
+
+		// When
+		byte[] second = mockMvc
+				.perform(get(path).header("Accept-Encoding", "gzip"))
+				.andReturn().getResponse().getContentAsByteArray();
+
+		// Then
+		assertEquals(
+				new String(first, StandardCharsets.ISO_8859_1),
+				new String(second, StandardCharsets.ISO_8859_1)
+		);
+
+	}
+
+	@Test
+	public void unitTest_getAllPacdots_columnar() throws Exception {
+
+		// Given
+		final String path = pathForGetAllPacdots();
+
+		// When
+		mockMvc
+				.perform(get(path)
+						.header("Accept", "application/json;profile=columnar")
+				)
+
+		// Then
+				.andExpect(status().isOk())
+				.andExpect(header().string(
+						"Content-Type", "application/json;profile=columnar"
+				))
+				.andExpect(jsonPath("$.count").isNumber())
+				.andExpect(jsonPath("$.latitudes[0]").isNumber())
+				.andExpect(jsonPath("$.longitudes[0]").isNumber())
+				.andExpect(jsonPath("$.eaten").isString())
+				.andExpect(jsonPath("$.powerdots").isString());
+
+	}
+
+	@Test
+	public void unitTest_getPacdotDensity() throws Exception {
+
+		// Given
+		final String path = pathForGetPacdotDensity(2);
+
+		// When
+		mockMvc
+				.perform(get(path))
+
+		// Then
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.level").value(2))
+				.andExpect(jsonPath("$.rows").value(4))
+				.andExpect(jsonPath("$.columns").value(4))
+				.andExpect(jsonPath("$.south").isNumber())
+				.andExpect(jsonPath("$.east").isNumber())
+				.andExpect(jsonPath("$.total[15]").isNumber())
+				.andExpect(jsonPath("$.uneaten[15]").isNumber());
+
+	}
+
+	@Test
+	public void unitTest_getPacdotDensity_levelTooDeep() throws Exception {
+
+		// Given
+		final String path = pathForGetPacdotDensity(99);
+
+		// When
+		mockMvc
+				.perform(get(path))
+
+		// Then
+				.andExpect(status().isBadRequest());
+
+	}
+
+	@Test
+	public void unitTest_getNearestPacdots() throws Exception {
+
+		// Given
+		final String path = pathForGetNearestPacdots(49.2823, -123.1207, 3);
+
+		// When
+		mockMvc
+				.perform(get(path))
+
+		// Then
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$[0].location.latitude").isNumber())
+				.andExpect(jsonPath("$[0].powerdot").isBoolean())
+				.andExpect(jsonPath("$[2].distance").isNumber())
+				.andExpect(jsonPath("$[3]").doesNotExist());
+
+	}
+
+	@Test
+	public void unitTest_getNearestPacdots_tooMany() throws Exception {
+
+		// Given
+		final String path = pathForGetNearestPacdots(49.2823, -123.1207, 101);
+
+		// When
+		mockMvc
+				.perform(get(path))
+
+		// Then
+				.andExpect(status().isBadRequest());
+
+	}
+
+	@Test
+	public void unitTest_getPacdotTile() throws Exception {
+
+		// Given
+		final String path = pathForGetPacdotTile(16, 10354, 22427);
+
+		// When
+		MvcResult result = mockMvc
+				.perform(get(path))
+
+		// Then
+				.andExpect(status().isOk())
+				.andExpect(header().string("Cache-Control", "no-cache"))
+				.andExpect(jsonPath("$.zoom").value(16))
+				.andExpect(jsonPath("$.x").value(10354))
+				.andExpect(jsonPath("$.y").value(22427))
+				.andExpect(jsonPath("$.version").isNumber())
+				.andExpect(jsonPath("$.pacdots[0].location.latitude").isNumber())
+				.andReturn();
+		String eTag = result.getResponse().getHeader("ETag");
+		assertTrue(eTag.startsWith("W/\""));
+
+		// When
+		mockMvc
+				.perform(get(path).header("If-None-Match", eTag))
+
+		// Then
+				.andExpect(status().isNotModified())
+				.andExpect(header().string("ETag", eTag));
+
+	}
+
+	@Test
+	public void unitTest_getPacdotTile_outsideMap() throws Exception {
+
+		// Given
+		final String path = pathForGetPacdotTile(3, 0, 0);
+
+		// When
+		mockMvc
+				.perform(get(path))
+
+		// Then
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.pacdots").isEmpty());
+
+	}
+
+	@Test
+	public void unitTest_getPacdotTile_invalidTile() throws Exception {
+
+		// Given
+		final String tooDeep = pathForGetPacdotTile(21, 0, 0);
+		final String outOfRange = pathForGetPacdotTile(2, 4, 0);
+
+		// When
+		mockMvc
+				.perform(get(tooDeep))
+
+		// Then
+				.andExpect(status().isBadRequest());
+
+		// When
+		mockMvc
+				.perform(get(outOfRange))
+
+		// Then
+				.andExpect(status().isBadRequest());
+
+	}
+
+	private static String gunzip(byte[] bytes) throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try(InputStream in =
+				new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+			byte[] buffer = new byte[4096];
+			int read;
+			while((read = in.read(buffer)) > 0) {
+				out.write(buffer, 0, read);
+			}
+		}
+		return new String(out.toByteArray(), StandardCharsets.UTF_8);
+	}
+
 	private String pathForGetPacdotCount() {
 		return BASE_MAPPING + "/" + "count";
 	}
@@ -108,6 +340,20 @@ public class PacdotControllerTest extends ControllerTestTemplate {
 		return BASE_MAPPING + "/" + "uneaten";
 	}
 
+	private String pathForGetPacdotDensity(int level) {
+		return BASE_MAPPING + "/" + "density?level=" + level;
+	}
+
+	private String pathForGetNearestPacdots(
+			double latitude, double longitude, int k) {
+		return BASE_MAPPING + "/" + "nearest?lat=" + latitude +
+				"&lon=" + longitude + "&k=" + k;
+	}
+
+	private String pathForGetPacdotTile(int zoom, int x, int y) {
+		return BASE_MAPPING + "/" + "tiles/" + zoom + "/" + x + "/" + y;
+	}
+
 	private String pathForGetAllPacdots() {
 		return BASE_MAPPING;
 	}
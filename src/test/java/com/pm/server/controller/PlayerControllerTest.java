@@ -314,6 +314,53 @@ public class PlayerControllerTest extends ControllerTestTemplate {
 
 	}
 
+	@Test
+	public void unitTest_getPlayerTrail() throws Exception {
+
+		// Given
+		Player.Name player = Player.Name.Inky;
+		Coordinate location = new Coordinate(49.2827291, -123.1207375);
+		selectPlayer_failUponException(player, location);
+
+		String path = pathForGetPlayerTrail(player);
+
+		// When
+		mockMvc
+				.perform(get(path))
+
+		// Then
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.times", hasSize(1)))
+				.andExpect(jsonPath("$.latitudes[0]")
+						.value(location.getLatitude())
+				)
+				.andExpect(jsonPath("$.longitudes[0]")
+						.value(location.getLongitude())
+				);
+
+	}
+
+	@Test
+	public void unitTest_getPlayerTrail_since() throws Exception {
+
+		// Given
+		Player.Name player = Player.Name.Inky;
+		selectPlayer_failUponException(player, randomCoordinateList.get(0));
+
+		String path = pathForGetPlayerTrail(player);
+
+		// When
+		mockMvc
+				.perform(get(path)
+						.param("since", Long.toString(Long.MAX_VALUE))
+				)
+
+		// Then
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.times", hasSize(0)));
+
+	}
+
 	@Test
 	public void unitTest_getAllPlayerLocations_uninitialized() throws Exception {
 
@@ -551,6 +598,64 @@ public class PlayerControllerTest extends ControllerTestTemplate {
 
 	}
 
+	@Test
+	public void unitTest_getAllPlayerDetails_outOfBounds() throws Exception {
+
+		// Given
+		Player.Name player = Player.Name.Inky;
+		Coordinate location = randomCoordinateList.get(0);
+		selectPlayer_failUponException(player, location);
+
+		String path = pathForGetAllPlayerDetails();
+
+		// When
+		mockMvc
+				.perform(get(path))
+
+		// Then
+				.andExpect(status().isOk())
+				.andExpect(
+						jsonPath("$[?(@.name == 'Inky')].outOfBounds")
+						.value(true)
+				)
+				.andExpect(
+						jsonPath("$[?(@.name == 'Blinky')].outOfBounds")
+						.value(false)
+				);
+
+	}
+
+	@Test
+	public void unitTest_getAllPlayerDetails_backInBounds() throws Exception {
+
+		// Given
+		Player.Name player = Player.Name.Inky;
+		selectPlayer_failUponException(player, randomCoordinateList.get(0));
+
+		// A pacdot location of the default map
+		Coordinate location = new Coordinate(49.280738, -123.118839);
+		mockMvc
+				.perform(put(pathForSetPlayerLocation(player))
+						.content(JsonUtils.objectToJson(location))
+						.contentType(MediaType.APPLICATION_JSON)
+				)
+				.andExpect(status().isOk());
+
+		String path = pathForGetAllPlayerDetails();
+
+		// When
+		mockMvc
+				.perform(get(path))
+
+		// Then
+				.andExpect(status().isOk())
+				.andExpect(
+						jsonPath("$[?(@.name == 'Inky')].outOfBounds")
+						.value(false)
+				);
+
+	}
+
 	@Test
 	public void unitTest_setPlayerLocation() throws Exception {
 
@@ -893,6 +998,10 @@ public class PlayerControllerTest extends ControllerTestTemplate {
 		return BASE_MAPPING + "/" + player + "/" + "location";
 	}
 
+	private String pathForGetPlayerTrail(Player.Name player) {
+		return BASE_MAPPING + "/" + player + "/" + "trail";
+	}
+
 	private String pathForGetAllPlayerLocations() {
 		return BASE_MAPPING + "/" + "locations";
 	}
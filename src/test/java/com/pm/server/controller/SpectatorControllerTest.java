@@ -0,0 +1,57 @@
+package com.pm.server.controller;
+
+import com.pm.server.ControllerTestTemplate;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import static org.junit.Assert.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+public class SpectatorControllerTest extends ControllerTestTemplate {
+
+	private static final String BASE_MAPPING = "/spectate";
+
+	@Autowired
+	private WebApplicationContext webApplicationContext;
+
+	private MockMvc mockMvc;
+
+	@Before
+	public void setUp() {
+
+		mockMvc = MockMvcBuilders
+				.webAppContextSetup(this.webApplicationContext)
+				.build();
+
+	}
+
+	@Test
+	public void unitTest_spectate_receivesSnapshot() throws Exception {
+
+		// Given
+		final String path = BASE_MAPPING;
+
+		// When
+		MvcResult mvcResult = mockMvc
+				.perform(get(path))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+
+		// Then
+		String content = "";
+		for(int i = 0; i < 50 && !content.contains("gameState"); i++) {
+			Thread.sleep(100);
+			content = mvcResult.getResponse().getContentAsString();
+		}
+		assertTrue(content.startsWith("data:{"));
+		assertTrue(content.contains("\"players\":["));
+
+	}
+
+}
@@ -1,5 +1,6 @@
 package com.pm.server.controller;
 
+import com.pm.server.GameLoop;
 import com.pm.server.PmServerException;
 import com.pm.server.TestTemplate;
 import com.pm.server.datatype.Player;
@@ -13,10 +14,13 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.http.HttpStatus;
 
+import java.util.concurrent.ScheduledExecutorService;
+
 import static com.pm.server.datatype.Player.Name.Inky;
 import static com.pm.server.datatype.Player.Name.Pacman;
 import static org.hamcrest.beans.HasPropertyWithValue.hasProperty;
 import static org.hamcrest.core.Is.is;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 
 public class TagControllerTest extends TestTemplate {
@@ -32,7 +36,9 @@ public class TagControllerTest extends TestTemplate {
 	@Before
 	public void setUp() {
 		MockitoAnnotations.initMocks(this);
-		tagController = new TagController(tagManager);
+		tagController = new TagController(
+				tagManager, new GameLoop(mock(ScheduledExecutorService.class), 0L)
+		);
 	}
 
 	@Test
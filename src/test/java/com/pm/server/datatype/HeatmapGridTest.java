@@ -0,0 +1,115 @@
+package com.pm.server.datatype;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class HeatmapGridTest {
+
+	@Test
+	public void unitTest_add_countsCells() {
+
+		// Given
+		HeatmapGrid heatmap = new HeatmapGrid(0, 0, 1, 2, 2, 4, 1);
+
+		// When
+		heatmap.add(0, 0);
+		heatmap.add(0.1, 0.1);
+		heatmap.add(1, 2);
+		heatmap.add(0.75, 1.25);
+		heatmap.add(1.5, 1);
+		heatmap.add(-0.1, 1);
+
+		// Then
+		int[] counts = heatmap.getCounts();
+		assertEquals(8, counts.length);
+		assertEquals(2, counts[0]);
+		assertEquals(1, counts[4 + 2]);
+		assertEquals(1, counts[4 + 3]);
+		int total = 0;
+		for(int count : counts) {
+			total += count;
+		}
+		assertEquals(4, total);
+
+	}
+
+	@Test
+	public void unitTest_addCounts() {
+
+		// Given
+		HeatmapGrid heatmap = new HeatmapGrid(0, 0, 1, 2, 2, 4, 2);
+		heatmap.add(0, 0);
+
+		// When
+		heatmap.addCounts(new int[] {1, 0, 0, 0, 0, 0, 3, 0});
+
+		// Then
+		int[] counts = heatmap.getCounts();
+		assertEquals(2, counts[0]);
+		assertEquals(3, counts[4 + 2]);
+
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void unitTest_addCounts_wrongCellCount() {
+
+		// Given
+		HeatmapGrid heatmap = new HeatmapGrid(0, 0, 1, 2, 2, 4, 2);
+
+		// When
+		heatmap.addCounts(new int[4]);
+
+		// Then
+		// Exception thrown above
+
+	}
+
+	@Test
+	public void unitTest_add_concurrentThreads() throws Exception {
+
+		// Given
+		HeatmapGrid heatmap = new HeatmapGrid(0, 0, 1, 1, 8, 8, 3);
+		List<Thread> threads = new ArrayList<>();
+		for(int i = 0; i < 8; i++) {
+			threads.add(new Thread(() -> {
+				for(int j = 0; j < 10000; j++) {
+					heatmap.add((j % 8) / 8.0, 0.5);
+				}
+			}));
+		}
+
+		// When
+		for(Thread thread : threads) {
+			thread.start();
+		}
+		for(Thread thread : threads) {
+			thread.join();
+		}
+
+		// Then
+		int[] counts = heatmap.getCounts();
+		for(int row = 0; row < 8; row++) {
+			assertEquals(10000, counts[row * 8 + 4]);
+		}
+		assertEquals(true, heatmap.getStripesInUse() <= 4);
+
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void unitTest_constructor_noCells() {
+
+		// Given
+
+		// When
+		new HeatmapGrid(0, 0, 1, 1, 0, 8, 1);
+
+		// Then
+		// Exception thrown above
+
+	}
+
+}
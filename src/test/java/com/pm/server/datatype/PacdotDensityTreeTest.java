@@ -0,0 +1,104 @@
+package com.pm.server.datatype;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class PacdotDensityTreeTest {
+
+	// A point in each corner of the unit square, and two near its centre
+	private static final double[] LATITUDES = { 0, 0, 1, 1, 0.49, 0.51 };
+	private static final double[] LONGITUDES = { 0, 1, 0, 1, 0.49, 0.51 };
+
+	@Test
+	public void unitTest_counts_everyLevel() {
+
+		// Given
+		PacdotDensityTree tree =
+				new PacdotDensityTree(LATITUDES, LONGITUDES, 6, 3);
+
+		// Then
+		assertEquals(6, tree.getTotal(0, 0, 0));
+		assertEquals(2, tree.getTotal(1, 0, 0));
+		assertEquals(1, tree.getTotal(1, 0, 1));
+		assertEquals(1, tree.getTotal(1, 1, 0));
+		assertEquals(2, tree.getTotal(1, 1, 1));
+		assertEquals(1, tree.getTotal(3, 0, 0));
+		assertEquals(1, tree.getTotal(3, 7, 7));
+		assertEquals(1, tree.getTotal(3, 3, 3));
+		assertEquals(1, tree.getTotal(3, 4, 4));
+		assertEquals(0, tree.getTotal(3, 0, 6));
+		assertEquals(6, tree.getUneaten(0, 0, 0));
+
+	}
+
+	@Test
+	public void unitTest_eat_updatesEveryLevel() {
+
+		// Given
+		PacdotDensityTree tree =
+				new PacdotDensityTree(LATITUDES, LONGITUDES, 6, 3);
+
+		// When
+		tree.eat(3);
+		tree.eat(5);
+
+		// Then
+		assertEquals(4, tree.getUneaten(0, 0, 0));
+		assertEquals(0, tree.getUneaten(1, 1, 1));
+		assertEquals(2, tree.getUneaten(1, 0, 0));
+		assertEquals(0, tree.getUneaten(3, 7, 7));
+		assertEquals(6, tree.getTotal(0, 0, 0));
+
+	}
+
+	@Test
+	public void unitTest_reset() {
+
+		// Given
+		PacdotDensityTree tree =
+				new PacdotDensityTree(LATITUDES, LONGITUDES, 6, 3);
+		tree.eat(0);
+
+		// When
+		tree.reset();
+
+		// Then
+		assertEquals(6, tree.getUneaten(0, 0, 0));
+		assertEquals(1, tree.getUneaten(3, 0, 0));
+
+	}
+
+	@Test
+	public void unitTest_copyLevel_rowsFromTheSouthWest() {
+
+		// Given
+		PacdotDensityTree tree =
+				new PacdotDensityTree(LATITUDES, LONGITUDES, 6, 3);
+		tree.eat(1);
+		int[] total = new int[4];
+		int[] uneaten = new int[4];
+
+		// When
+		tree.copyLevel(1, total, uneaten);
+
+		// Then
+		assertEquals(2, total[0]);
+		assertEquals(1, total[1]);
+		assertEquals(1, total[2]);
+		assertEquals(2, total[3]);
+		assertEquals(0, uneaten[1]);
+
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void unitTest_densityTree_levelTooDeep() {
+
+		// When
+		new PacdotDensityTree(
+				LATITUDES, LONGITUDES, 6, PacdotDensityTree.MAX_LEVEL + 1
+		);
+
+	}
+
+}
@@ -0,0 +1,186 @@
+package com.pm.server.datatype;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+public class PacdotKdTreeTest {
+
+	// A point in each corner of the unit square, and two near its centre
+	private static final double[] LATITUDES = { 0, 0, 1, 1, 0.49, 0.51 };
+	private static final double[] LONGITUDES = { 0, 1, 0, 1, 0.49, 0.51 };
+
+	@Test
+	public void unitTest_nearest_nearestFirst() {
+
+		// Given
+		PacdotKdTree tree = new PacdotKdTree(LATITUDES, LONGITUDES, 6);
+		int[] found = new int[3];
+
+		// When
+		int count = tree.nearest(0.9, 0.95, found);
+
+		// Then
+		assertEquals(3, count);
+		assertArrayEquals(new int[] { 3, 5, 4 }, found);
+
+	}
+
+	@Test
+	public void unitTest_nearest_skipsEaten() {
+
+		// Given
+		PacdotKdTree tree = new PacdotKdTree(LATITUDES, LONGITUDES, 6);
+		int[] found = new int[2];
+
+		// When
+		tree.eat(3);
+		tree.eat(5);
+		tree.eat(5);
+		int count = tree.nearest(0.9, 0.95, found);
+
+		// Then
+		assertEquals(2, count);
+		assertArrayEquals(new int[] { 4, 1 }, found);
+		assertEquals(4, tree.uneatenCount());
+
+	}
+
+	@Test
+	public void unitTest_nearest_fewerUneatenThanSought() {
+
+		// Given
+		PacdotKdTree tree = new PacdotKdTree(LATITUDES, LONGITUDES, 6);
+		for(int i = 1; i < 6; i++) {
+			tree.eat(i);
+		}
+		int[] found = new int[4];
+
+		// When
+		int count = tree.nearest(1, 1, found);
+
+		// Then
+		assertEquals(1, count);
+		assertEquals(0, found[0]);
+
+		// When
+		tree.eat(0);
+
+		// Then
+		assertEquals(0, tree.nearest(1, 1, found));
+
+	}
+
+	@Test
+	public void unitTest_reset() {
+
+		// Given
+		PacdotKdTree tree = new PacdotKdTree(LATITUDES, LONGITUDES, 6);
+		tree.eat(3);
+
+		// When
+		tree.reset();
+
+		// Then
+		int[] found = new int[1];
+		assertEquals(1, tree.nearest(0.9, 0.95, found));
+		assertEquals(3, found[0]);
+		assertEquals(6, tree.uneatenCount());
+
+	}
+
+	@Test
+	public void unitTest_nearest_empty() {
+
+		// Given
+		PacdotKdTree tree = new PacdotKdTree(new double[0], new double[0], 0);
+
+		// Then
+		assertEquals(0, tree.nearest(0, 0, new int[3]));
+		assertEquals(0, tree.uneatenCount());
+
+	}
+
+	@Test
+	public void unitTest_forEachUneatenInBox() {
+
+		// Given
+		PacdotKdTree tree = new PacdotKdTree(LATITUDES, LONGITUDES, 6);
+		tree.eat(5);
+		List<Integer> found = new ArrayList<>();
+
+		// When
+		tree.forEachUneatenInBox(0, 0, 0.51, 1, found::add);
+
+		// Then
+		Collections.sort(found);
+		assertEquals(Arrays.asList(0, 1, 4), found);
+
+	}
+
+	@Test
+	public void unitTest_nearest_matchesBruteForce() {
+
+		// Given
+		Random random = new Random(7);
+		int count = 5000;
+		double[] latitudes = new double[count];
+		double[] longitudes = new double[count];
+		for(int i = 0; i < count; i++) {
+			// A coarse grid, so many points share a coordinate
+			latitudes[i] = 49.27 + random.nextInt(200) * 0.0001;
+			longitudes[i] = -123.13 + random.nextDouble() * 0.02;
+		}
+		PacdotKdTree tree = new PacdotKdTree(latitudes, longitudes, count);
+		boolean[] eaten = new boolean[count];
+		for(int i = 0; i < count; i++) {
+			if(random.nextInt(10) < 9) {
+				tree.eat(i);
+				eaten[i] = true;
+			}
+		}
+
+		for(int query = 0; query < 200; query++) {
+			double latitude = 49.265 + random.nextDouble() * 0.03;
+			double longitude = -123.135 + random.nextDouble() * 0.03;
+			int[] found = new int[1 + random.nextInt(20)];
+
+			// When
+			int foundCount = tree.nearest(latitude, longitude, found);
+
+			// Then
+			Comparator<Integer> byDistance = Comparator.comparingDouble(i ->
+					Math.hypot(latitudes[i] - latitude, longitudes[i] - longitude)
+			);
+			Integer[] expected = IntStream.range(0, count)
+					.filter(i -> !eaten[i])
+					.boxed()
+					.sorted(byDistance)
+					.limit(found.length)
+					.toArray(Integer[]::new);
+			assertEquals(expected.length, foundCount);
+			double[] expectedDistances = Arrays.stream(expected)
+					.mapToDouble(i -> Math.hypot(
+							latitudes[i] - latitude, longitudes[i] - longitude
+					))
+					.toArray();
+			double[] foundDistances = Arrays.stream(found)
+					.mapToDouble(i -> Math.hypot(
+							latitudes[i] - latitude, longitudes[i] - longitude
+					))
+					.toArray();
+			assertArrayEquals(expectedDistances, foundDistances, 0);
+		}
+
+	}
+
+}
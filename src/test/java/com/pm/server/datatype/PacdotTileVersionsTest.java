@@ -0,0 +1,79 @@
+package com.pm.server.datatype;
+
+import static org.junit.Assert.assertEquals;
+
+import com.pm.server.utils.GeoUtils;
+import org.junit.Test;
+
+public class PacdotTileVersionsTest {
+
+	private static final double LATITUDE = 49.2827;
+	private static final double LONGITUDE = -123.1207;
+
+	@Test
+	public void unitTest_eaten_onlyContainingTiles() {
+
+		// Given
+		PacdotTileVersions versions = new PacdotTileVersions(18, 3);
+
+		// When
+		versions.eaten(LATITUDE, LONGITUDE, 7);
+
+		// Then
+		for(int zoom = 0; zoom <= 18; zoom++) {
+			int x = GeoUtils.tileX(LONGITUDE, zoom);
+			int y = GeoUtils.tileY(LATITUDE, zoom);
+			assertEquals(7, versions.getVersion(zoom, x, y));
+		}
+		int x = GeoUtils.tileX(LONGITUDE, 18);
+		int y = GeoUtils.tileY(LATITUDE, 18);
+		assertEquals(3, versions.getVersion(18, x + 1, y));
+		assertEquals(3, versions.getVersion(18, x, y - 1));
+
+	}
+
+	@Test
+	public void unitTest_reset() {
+
+		// Given
+		PacdotTileVersions versions = new PacdotTileVersions(18, 3);
+		versions.eaten(LATITUDE, LONGITUDE, 7);
+		int x = GeoUtils.tileX(LONGITUDE, 18);
+		int y = GeoUtils.tileY(LATITUDE, 18);
+
+		// When
+		versions.reset(8);
+
+		// Then
+		assertEquals(8, versions.getVersion(18, x, y));
+		assertEquals(8, versions.getVersion(0, 0, 0));
+
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void unitTest_constructor_zoomOverlapsTileKey() {
+
+		// Given
+
+		// When
+		new PacdotTileVersions(PacdotTileVersions.MAX_ZOOM + 1, 0);
+
+		// Then
+		// Exception thrown above
+
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void unitTest_constructor_zoomTooDeep() {
+
+		// Given
+
+		// When
+		new PacdotTileVersions(31, 0);
+
+		// Then
+		// Exception thrown above
+
+	}
+
+}
@@ -0,0 +1,109 @@
+package com.pm.server.datatype;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PlayAreaTest {
+
+	// An L shape, which is not convex
+	private static final double[] L_LATITUDES = { 0, 0, 1, 1, 3, 3 };
+	private static final double[] L_LONGITUDES = { 0, 2, 2, 1, 1, 0 };
+
+	// A square hole in a larger square
+	private static final double[] OUTER_LATITUDES = { 0, 0, 4, 4 };
+	private static final double[] OUTER_LONGITUDES = { 0, 4, 4, 0 };
+	private static final double[] HOLE_LATITUDES = { 1, 1, 3, 3 };
+	private static final double[] HOLE_LONGITUDES = { 1, 3, 3, 1 };
+
+	@Test
+	public void unitTest_contains_concave() {
+
+		// Given
+		PlayArea playArea = new PlayArea(
+				new double[][] { L_LATITUDES },
+				new double[][] { L_LONGITUDES },
+				8
+		);
+
+		// When
+
+		// Then
+		assertTrue(playArea.contains(0.5, 1.5));
+		assertTrue(playArea.contains(2.5, 0.5));
+		assertFalse(playArea.contains(2.5, 1.5));
+		assertFalse(playArea.contains(5, 0.5));
+
+	}
+
+	@Test
+	public void unitTest_contains_hole() {
+
+		// Given
+		PlayArea playArea = new PlayArea(
+				new double[][] { OUTER_LATITUDES, HOLE_LATITUDES },
+				new double[][] { OUTER_LONGITUDES, HOLE_LONGITUDES },
+				4
+		);
+
+		// When
+
+		// Then
+		assertTrue(playArea.contains(0.5, 0.5));
+		assertFalse(playArea.contains(2, 2));
+		assertTrue(playArea.contains(3.5, 2));
+
+	}
+
+	@Test
+	public void unitTest_contains_matchesCoarseGrid() {
+
+		// Given
+		PlayArea fine = new PlayArea(
+				new double[][] { L_LATITUDES },
+				new double[][] { L_LONGITUDES },
+				64
+		);
+		PlayArea coarse = new PlayArea(
+				new double[][] { L_LATITUDES },
+				new double[][] { L_LONGITUDES },
+				1
+		);
+		Random random = new Random(1);
+
+		// When
+
+		// Then
+		for(int i = 0; i < 10000; i++) {
+			double latitude = random.nextDouble() * 3.2 - 0.1;
+			double longitude = random.nextDouble() * 2.2 - 0.1;
+			assertEquals(
+					coarse.contains(latitude, longitude),
+					fine.contains(latitude, longitude)
+			);
+		}
+
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void unitTest_constructor_tooFewVertices() {
+
+		// Given
+
+		// When
+		new PlayArea(
+				new double[][] { { 0, 1 } },
+				new double[][] { { 0, 1 } },
+				4
+		);
+
+		// Then
+		// Exception thrown above
+
+	}
+
+}
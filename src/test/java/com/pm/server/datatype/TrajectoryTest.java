@@ -0,0 +1,107 @@
+package com.pm.server.datatype;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class TrajectoryTest {
+
+	private Trajectory trajectory;
+
+	@Before
+	public void setUp() {
+		trajectory = new Trajectory(3);
+	}
+
+	@Test
+	public void unitTest_forEachSince() {
+
+		// Given
+		trajectory.add(100, 49.2827291, -123.1207375);
+		trajectory.add(200, 49.2827292, -123.1207376);
+
+		// When
+		List<Double> latitudes = new ArrayList<>();
+		trajectory.forEachSince(
+				0, (time, latitude, longitude) -> latitudes.add(latitude)
+		);
+
+		// Then
+		assertEquals(2, latitudes.size());
+		assertEquals(49.2827291, latitudes.get(0), 1e-9);
+		assertEquals(49.2827292, latitudes.get(1), 1e-9);
+
+	}
+
+	@Test
+	public void unitTest_countSince() {
+
+		// Given
+		trajectory.add(100, 1, 1);
+		trajectory.add(200, 2, 2);
+		trajectory.add(300, 3, 3);
+
+		// When
+		int count = trajectory.countSince(200);
+
+		// Then
+		assertEquals(1, count);
+
+	}
+
+	@Test
+	public void unitTest_add_overwritesOldest() {
+
+		// Given
+		for(int i = 1; i <= 5; i++) {
+			trajectory.add(i * 100, i, i);
+		}
+
+		// When
+		List<Long> times = new ArrayList<>();
+		trajectory.forEachSince(
+				0, (time, latitude, longitude) -> times.add(time)
+		);
+
+		// Then
+		assertEquals(3, trajectory.size());
+		assertEquals(300L, times.get(0).longValue());
+		assertEquals(500L, times.get(2).longValue());
+
+	}
+
+	@Test
+	public void unitTest_add_timeNeverDecreases() {
+
+		// Given
+		trajectory.add(200, 1, 1);
+
+		// When
+		trajectory.add(100, 2, 2);
+
+		// Then
+		assertEquals(0, trajectory.countSince(200));
+		assertEquals(2, trajectory.countSince(199));
+
+	}
+
+	@Test
+	public void unitTest_clear() {
+
+		// Given
+		trajectory.add(100, 1, 1);
+
+		// When
+		trajectory.clear();
+
+		// Then
+		assertEquals(0, trajectory.size());
+		assertEquals(0, trajectory.countSince(0));
+
+	}
+
+}
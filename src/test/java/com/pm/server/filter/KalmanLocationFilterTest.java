@@ -0,0 +1,54 @@
+package com.pm.server.filter;
+
+import com.pm.server.datatype.Coordinate;
+import com.pm.server.datatype.Player;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class KalmanLocationFilterTest {
+
+	private static final Player.Name name = Player.Name.Pacman;
+
+	@Test
+	public void unitTest_filter_smoothsWobble() {
+
+		// Given
+		LocationFilter locationFilter = new KalmanLocationFilter(10.0);
+		for(int i = 0; i < 5; i++) {
+			locationFilter.filter(
+					name, i * 1000, new Coordinate(49.28000, -123.12)
+			);
+		}
+
+		// When
+		Coordinate result = locationFilter.filter(
+				name, 5000, new Coordinate(49.28010, -123.12)
+		);
+
+		// Then
+		double moved = result.getLatitude() - 49.28000;
+		assertTrue(moved > 0);
+		assertTrue(moved < 0.00010 / 2);
+
+	}
+
+	@Test
+	public void unitTest_filter_disabled() {
+
+		// Given
+		LocationFilter locationFilter = new KalmanLocationFilter(0.0);
+		locationFilter.filter(name, 0, new Coordinate(49.28000, -123.12));
+
+		// When
+		Coordinate result = locationFilter.filter(
+				name, 1000, new Coordinate(49.28010, -123.12)
+		);
+
+		// Then
+		assertEquals(49.28010, result.getLatitude(), 0);
+
+	}
+
+}
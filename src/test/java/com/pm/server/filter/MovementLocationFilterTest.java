@@ -0,0 +1,53 @@
+package com.pm.server.filter;
+
+import com.pm.server.datatype.Coordinate;
+import com.pm.server.datatype.Player;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class MovementLocationFilterTest {
+
+	private static final Player.Name name = Player.Name.Pacman;
+
+	private LocationFilter locationFilter;
+
+	@Before
+	public void setUp() {
+		locationFilter = new MovementLocationFilter(5.0);
+		locationFilter.filter(name, 0, new Coordinate(49.28000, -123.12));
+	}
+
+	@Test
+	public void unitTest_filter_stationary() {
+
+		// Given
+
+		// When
+		Coordinate result = locationFilter.filter(
+				name, 1000, new Coordinate(49.28002, -123.12)
+		);
+
+		// Then
+		assertNull(result);
+
+	}
+
+	@Test
+	public void unitTest_filter_moved() {
+
+		// Given
+
+		// When
+		Coordinate result = locationFilter.filter(
+				name, 1000, new Coordinate(49.28010, -123.12)
+		);
+
+		// Then
+		assertNotNull(result);
+
+	}
+
+}
@@ -0,0 +1,67 @@
+package com.pm.server.filter;
+
+import com.pm.server.datatype.Coordinate;
+import com.pm.server.datatype.Player;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class SpeedLocationFilterTest {
+
+	private static final Player.Name name = Player.Name.Pacman;
+
+	// About 111 metres apart
+	private static final Coordinate location1 = new Coordinate(49.280, -123.12);
+	private static final Coordinate location2 = new Coordinate(49.281, -123.12);
+
+	private LocationFilter locationFilter;
+
+	@Before
+	public void setUp() {
+		locationFilter = new SpeedLocationFilter(10.0);
+		locationFilter.filter(name, 0, location1);
+	}
+
+	@Test
+	public void unitTest_filter_plausible() {
+
+		// Given
+
+		// When
+		Coordinate result = locationFilter.filter(name, 20000, location2);
+
+		// Then
+		assertNotNull(result);
+
+	}
+
+	@Test
+	public void unitTest_filter_tooFast() {
+
+		// Given
+
+		// When
+		Coordinate result = locationFilter.filter(name, 2000, location2);
+
+		// Then
+		assertNull(result);
+
+	}
+
+	@Test
+	public void unitTest_filter_afterReset() {
+
+		// Given
+		locationFilter.reset(name);
+
+		// When
+		Coordinate result = locationFilter.filter(name, 2000, location2);
+
+		// Then
+		assertNotNull(result);
+
+	}
+
+}
@@ -0,0 +1,245 @@
+package com.pm.server.leaderboard;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.when;
+
+import com.pm.server.datatype.GameState;
+import com.pm.server.event.GameStateChangedEvent;
+import com.pm.server.manager.GameStateManager;
+import com.pm.server.registry.PacdotRegistry;
+import com.pm.server.replication.ReplicationFollower;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+@RunWith(MockitoJUnitRunner.class)
+public class LeaderboardTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Mock
+	private GameStateManager gameStateManagerMock;
+
+	@Mock
+	private PacdotRegistry pacdotRegistryMock;
+
+	@Mock
+	private ReplicationFollower replicationFollowerMock;
+
+	private File journal;
+
+	private Leaderboard leaderboard;
+
+	@Before
+	public void setUp() {
+
+		when(pacdotRegistryMock.getMapName()).thenReturn("downtown");
+
+		journal = new File(folder.getRoot(), "journal/leaderboard.ndjson");
+		leaderboard = newLeaderboard(3);
+
+	}
+
+	@Test
+	public void unitTest_finishedGameRanked() {
+
+		// Given
+		when(gameStateManagerMock.getScore()).thenReturn(120);
+
+		// When
+		playGame(leaderboard, GameState.FINISHED_PACMAN_WIN);
+
+		// Then
+		List<LeaderboardEntry> scores =
+				leaderboard.getPage(Leaderboard.Board.PACMAN_SCORE, 0, 10);
+		assertEquals(1, scores.size());
+		assertEquals(120L, (long) scores.get(0).getValue());
+		assertEquals("downtown", scores.get(0).getMapName());
+
+		assertEquals(1, leaderboard.getSize(
+				Leaderboard.Board.PACMAN_CLEAR_MILLIS
+		));
+		assertTrue(leaderboard.getPage(
+				Leaderboard.Board.PACMAN_CLEAR_MILLIS, 0, 1
+		).get(0).getValue() >= 0);
+		assertEquals(0, leaderboard.getSize(
+				Leaderboard.Board.GHOSTS_CAPTURE_MILLIS
+		));
+
+	}
+
+	@Test
+	public void unitTest_scoresRankedHighestFirstUpToCapacity() {
+
+		// Given
+		int[] scores = { 50, 200, 10, 120 };
+
+		// When
+		for(int score : scores) {
+			when(gameStateManagerMock.getScore()).thenReturn(score);
+			playGame(leaderboard, GameState.FINISHED_GHOSTS_WIN);
+		}
+
+		// Then
+		List<LeaderboardEntry> page =
+				leaderboard.getPage(Leaderboard.Board.PACMAN_SCORE, 0, 10);
+		assertEquals(3, page.size());
+		assertEquals(200L, (long) page.get(0).getValue());
+		assertEquals(120L, (long) page.get(1).getValue());
+		assertEquals(50L, (long) page.get(2).getValue());
+		assertEquals(3, leaderboard.getSize(
+				Leaderboard.Board.GHOSTS_CAPTURE_MILLIS
+		));
+
+	}
+
+	@Test
+	public void unitTest_gameRestartedNotTimed() {
+
+		// Given
+		when(gameStateManagerMock.getScore()).thenReturn(0);
+		changeState(leaderboard, GameState.INITIALIZING, GameState.IN_PROGRESS);
+		changeState(leaderboard, GameState.IN_PROGRESS, GameState.INITIALIZING);
+
+		// When
+		changeState(
+				leaderboard,
+				GameState.INITIALIZING, GameState.FINISHED_GHOSTS_WIN
+		);
+
+		// Then
+		assertEquals(1, leaderboard.getSize(Leaderboard.Board.PACMAN_SCORE));
+		assertEquals(0, leaderboard.getSize(
+				Leaderboard.Board.GHOSTS_CAPTURE_MILLIS
+		));
+
+	}
+
+	@Test
+	public void unitTest_followerRecordsNothing() {
+
+		// Given
+		when(gameStateManagerMock.getScore()).thenReturn(120);
+		when(replicationFollowerMock.isFollower()).thenReturn(true);
+
+		// When
+		playGame(leaderboard, GameState.FINISHED_PACMAN_WIN);
+
+		// Then
+		assertEquals(0, leaderboard.getSize(Leaderboard.Board.PACMAN_SCORE));
+		assertEquals(0, leaderboard.getSize(
+				Leaderboard.Board.PACMAN_CLEAR_MILLIS
+		));
+		assertFalse(journal.exists());
+
+	}
+
+	@Test
+	public void unitTest_followerRanksReplicatedResults() {
+
+		// Given
+		when(gameStateManagerMock.getScore()).thenReturn(30);
+		playGame(leaderboard, GameState.FINISHED_PACMAN_WIN);
+		LeaderboardEntry taken = newEntry(50, 1000);
+		LeaderboardEntry recorded = newEntry(90, 2000);
+
+		// When
+		leaderboard.replicateResults(Collections.singletonList(taken), true);
+		// Recorded while the boards were taken, and sent again on its own
+		leaderboard.replicateResults(Collections.singletonList(taken), false);
+		leaderboard.replicateResults(
+				Collections.singletonList(recorded), false
+		);
+
+		// Then
+		for(Leaderboard board : Arrays.asList(leaderboard, newLeaderboard(3))) {
+			List<LeaderboardEntry> page =
+					board.getPage(Leaderboard.Board.PACMAN_SCORE, 0, 10);
+			assertEquals(2, page.size());
+			assertEquals(90L, (long) page.get(0).getValue());
+			assertEquals(50L, (long) page.get(1).getValue());
+			assertEquals(0, board.getSize(
+					Leaderboard.Board.PACMAN_CLEAR_MILLIS
+			));
+		}
+
+	}
+
+	@Test
+	public void unitTest_journalReplayed() throws Exception {
+
+		// Given
+		for(int score : new int[] { 30, 70 }) {
+			when(gameStateManagerMock.getScore()).thenReturn(score);
+			playGame(leaderboard, GameState.FINISHED_PACMAN_WIN);
+		}
+		// A line cut short by a crash
+		Files.write(
+				journal.toPath(),
+				"{\"board\":\"PACMAN_SC".getBytes(StandardCharsets.UTF_8),
+				StandardOpenOption.APPEND
+		);
+
+		// When
+		Leaderboard replayed = newLeaderboard(3);
+
+		// Then
+		List<LeaderboardEntry> page =
+				replayed.getPage(Leaderboard.Board.PACMAN_SCORE, 0, 10);
+		assertEquals(2, page.size());
+		assertEquals(70L, (long) page.get(0).getValue());
+		assertEquals(30L, (long) page.get(1).getValue());
+		assertEquals(2, replayed.getSize(
+				Leaderboard.Board.PACMAN_CLEAR_MILLIS
+		));
+
+	}
+
+	private Leaderboard newLeaderboard(int capacity) {
+		Leaderboard newLeaderboard = new Leaderboard(
+				gameStateManagerMock, pacdotRegistryMock,
+				replicationFollowerMock, capacity, journal.getPath(),
+				Runnable::run
+		);
+		newLeaderboard.replayJournal();
+		return newLeaderboard;
+	}
+
+	private static LeaderboardEntry newEntry(long score, long finishedMillis) {
+		LeaderboardEntry entry = new LeaderboardEntry();
+		entry.setBoard(Leaderboard.Board.PACMAN_SCORE);
+		entry.setValue(score);
+		entry.setFinishedMillis(finishedMillis);
+		entry.setMapName("downtown");
+		return entry;
+	}
+
+	private void playGame(Leaderboard leaderboard, GameState result) {
+		changeState(leaderboard, GameState.INITIALIZING, GameState.IN_PROGRESS);
+		changeState(leaderboard, GameState.IN_PROGRESS, result);
+	}
+
+	private void changeState(
+			Leaderboard leaderboard,
+			GameState previousState, GameState state) {
+		leaderboard.onGameStateChanged(
+				new GameStateChangedEvent(this, previousState, state)
+		);
+	}
+
+}
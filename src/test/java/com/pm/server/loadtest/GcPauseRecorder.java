@@ -0,0 +1,134 @@
+package com.pm.server.loadtest;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+
+import javax.management.ListenerNotFoundException;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+import java.io.PrintStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Records the garbage collections of this JVM while it is started, from
+ * the notifications the collectors send at the end of each collection.
+ *
+ * <p>
+ *     Collectors which run alongside the application, and report whole
+ *     concurrent cycles rather than pauses, are left out, so the durations
+ *     recorded are the pauses of the application.
+ * </p>
+ */
+public class GcPauseRecorder implements NotificationListener {
+
+	private final List<NotificationEmitter> emitters = new ArrayList<>();
+
+	private final List<Long> pauses = new ArrayList<>();
+
+	private final Map<String, Integer> collections = new TreeMap<>();
+
+	public synchronized void start() {
+		for(GarbageCollectorMXBean collector :
+				ManagementFactory.getGarbageCollectorMXBeans()) {
+			if(collector instanceof NotificationEmitter &&
+					!isConcurrent(collector.getName())) {
+				NotificationEmitter emitter = (NotificationEmitter) collector;
+				emitter.addNotificationListener(this, null, null);
+				emitters.add(emitter);
+			}
+		}
+	}
+
+	public synchronized void stop() {
+		for(NotificationEmitter emitter : emitters) {
+			try {
+				emitter.removeNotificationListener(this);
+			}
+			catch(ListenerNotFoundException e) {
+				// Already removed
+			}
+		}
+		emitters.clear();
+	}
+
+	@Override
+	public synchronized void handleNotification(
+			Notification notification, Object handback) {
+
+		if(!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION
+				.equals(notification.getType())) {
+			return;
+		}
+
+		GarbageCollectionNotificationInfo info =
+				GarbageCollectionNotificationInfo.from(
+						(CompositeData) notification.getUserData()
+				);
+		pauses.add(info.getGcInfo().getDuration());
+		collections.merge(
+				info.getGcName() + " (" + info.getGcAction() + ")", 1,
+				Integer::sum
+		);
+	}
+
+	public synchronized int getCount() {
+		return pauses.size();
+	}
+
+	/**
+	 * @return Total time paused, in milliseconds
+	 */
+	public synchronized long getTotalMillis() {
+		return pauses.stream().mapToLong(Long::longValue).sum();
+	}
+
+	/**
+	 * @return The given percentile of the pauses, in milliseconds
+	 */
+	public synchronized long getPercentileMillis(double percentile) {
+		if(pauses.isEmpty()) {
+			return 0;
+		}
+		List<Long> sorted = new ArrayList<>(pauses);
+		Collections.sort(sorted);
+		int rank = (int) Math.ceil(percentile / 100 * sorted.size());
+		return sorted.get(Math.max(0, Math.min(sorted.size(), rank) - 1));
+	}
+
+	public synchronized void print(PrintStream out, long elapsedNanos) {
+		double elapsedMillis = elapsedNanos / 1e6;
+		out.printf(
+				"  pauses:            %d, %d ms in all (%.2f%% of the run)%n",
+				getCount(), getTotalMillis(),
+				100 * getTotalMillis() / elapsedMillis
+		);
+		out.printf(
+				"  pause ms:          p50 %d, p99 %d, max %d%n",
+				getPercentileMillis(50), getPercentileMillis(99),
+				getPercentileMillis(100)
+		);
+		for(Map.Entry<String, Integer> collector : collections.entrySet()) {
+			out.printf(
+					"  %-18s %d%n",
+					collector.getKey() + ":", collector.getValue()
+			);
+		}
+	}
+
+	/**
+	 * @return Whether the collector reports concurrent cycles rather than
+	 *         pauses, as G1's, ZGC's and Shenandoah's cycle collectors do
+	 */
+	private static boolean isConcurrent(String collectorName) {
+		return collectorName.contains("Concurrent") ||
+				collectorName.endsWith("Cycles");
+	}
+
+}
@@ -0,0 +1,140 @@
+package com.pm.server.loadtest;
+
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Collects the latency and status of every request of a load test, and
+ * reports throughput and latency percentiles per endpoint.
+ *
+ * <p>
+ *     Every latency is kept, so the percentiles are exact.
+ * </p>
+ */
+public class LatencyReport {
+
+	private static final double[] PERCENTILES = { 50, 90, 99, 99.9 };
+
+	private final Map<String, Endpoint> endpoints = new TreeMap<>();
+
+	/**
+	 * @param status HTTP status, or 0 if the server could not be reached
+	 */
+	public synchronized void record(
+			String endpoint, long latencyNanos, int status) {
+		endpoints.computeIfAbsent(endpoint, e -> new Endpoint())
+				.record(latencyNanos, status);
+	}
+
+	public synchronized long getCount(String endpoint) {
+		Endpoint recorded = endpoints.get(endpoint);
+		return recorded == null ? 0 : recorded.count;
+	}
+
+	/**
+	 * @return Requests of every endpoint answered other than with 2xx
+	 */
+	public synchronized long getFailures() {
+		long failures = 0;
+		for(Endpoint endpoint : endpoints.values()) {
+			for(Map.Entry<Integer, Long> status :
+					endpoint.statuses.entrySet()) {
+				if(status.getKey() < 200 || status.getKey() >= 300) {
+					failures += status.getValue();
+				}
+			}
+		}
+		return failures;
+	}
+
+	/**
+	 * @return The given percentile of an endpoint's latencies
+	 */
+	public synchronized long getPercentileNanos(
+			String endpoint, double percentile) {
+		Endpoint recorded = endpoints.get(endpoint);
+		return recorded == null ? 0 : recorded.percentile(percentile);
+	}
+
+	/**
+	 * Prints a line for each endpoint, and one for every endpoint together.
+	 */
+	public synchronized void print(PrintStream out, long elapsedNanos) {
+		out.printf(
+				"  %-36s %8s %9s %8s %8s %8s %8s %8s  %s%n",
+				"endpoint", "requests", "req/s",
+				"p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms", "statuses"
+		);
+		Endpoint all = new Endpoint();
+		for(Map.Entry<String, Endpoint> entry : endpoints.entrySet()) {
+			print(out, entry.getKey(), entry.getValue(), elapsedNanos);
+			all.add(entry.getValue());
+		}
+		if(endpoints.size() > 1) {
+			print(out, "all", all, elapsedNanos);
+		}
+	}
+
+	private static void print(
+			PrintStream out, String name, Endpoint endpoint,
+			long elapsedNanos) {
+		out.printf(
+				"  %-36s %8d %9.1f %8.2f %8.2f %8.2f %8.2f %8.2f  %s%n",
+				name, endpoint.count, endpoint.count / (elapsedNanos / 1e9),
+				endpoint.percentile(PERCENTILES[0]) / 1e6,
+				endpoint.percentile(PERCENTILES[1]) / 1e6,
+				endpoint.percentile(PERCENTILES[2]) / 1e6,
+				endpoint.percentile(PERCENTILES[3]) / 1e6,
+				endpoint.percentile(100) / 1e6,
+				endpoint.statuses
+		);
+	}
+
+	private static class Endpoint {
+
+		private long[] latencies = new long[1024];
+
+		private int count = 0;
+
+		private boolean sorted = true;
+
+		private final Map<Integer, Long> statuses = new TreeMap<>();
+
+		void record(long latencyNanos, int status) {
+			if(count == latencies.length) {
+				latencies = Arrays.copyOf(latencies, count * 2);
+			}
+			latencies[count++] = latencyNanos;
+			sorted = false;
+			statuses.merge(status, 1L, Long::sum);
+		}
+
+		void add(Endpoint other) {
+			latencies = Arrays.copyOf(latencies, count + other.count);
+			System.arraycopy(
+					other.latencies, 0, latencies, count, other.count
+			);
+			count += other.count;
+			sorted = false;
+			other.statuses.forEach(
+					(status, n) -> statuses.merge(status, n, Long::sum)
+			);
+		}
+
+		long percentile(double percentile) {
+			if(count == 0) {
+				return 0;
+			}
+			if(!sorted) {
+				Arrays.sort(latencies, 0, count);
+				sorted = true;
+			}
+			int rank = (int) Math.ceil(percentile / 100 * count);
+			return latencies[Math.max(0, Math.min(count, rank) - 1)];
+		}
+
+	}
+
+}
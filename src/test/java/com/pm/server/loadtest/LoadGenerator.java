@@ -0,0 +1,230 @@
+package com.pm.server.loadtest;
+
+import com.pm.server.datatype.Player;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Measures the capacity of the server with a single command: starts a
+ * server in this JVM for each of any number of games, plays every game
+ * with simulated players and spectators, and reports throughput, latency
+ * percentiles per endpoint and garbage collection pauses.
+ *
+ * <p>
+ *     In each game, five players walk the streets of the map
+ *     ({@link SyntheticTraceGenerator}) at a set rate of fixes, a ghost
+ *     reports tagging Pacman every so often, and each spectator polls the
+ *     player locations, pacdot count and score in turn. Tags are reported
+ *     only by the tagger, so the tag path is exercised without ending the
+ *     game. The games are played by {@link ReplayDriver}, at the speed they
+ *     would be played.
+ * </p>
+ *
+ * <pre>
+ * scripts/load_test.sh --loadtest.games=20 --loadtest.seconds=120
+ * </pre>
+ *
+ * <ul>
+ *     <li><code>loadtest.games</code>: Games, each on its own server, by
+ *         default 10</li>
+ *     <li><code>loadtest.seconds</code>: Length of the test, by default
+ *         60</li>
+ *     <li><code>loadtest.fix.millis</code>: Time between the fixes of a
+ *         player, by default 1000</li>
+ *     <li><code>loadtest.tag.millis</code>: Time between the tags of a
+ *         game, by default 5000</li>
+ *     <li><code>loadtest.spectators</code>: Spectators of each game, by
+ *         default 2</li>
+ *     <li><code>loadtest.poll.millis</code>: Time between the polls of a
+ *         spectator, by default 1000</li>
+ *     <li><code>loadtest.map</code>: Pacdots file the players walk, by
+ *         default <code>pacdots_downtown_vancouver.json</code></li>
+ *     <li><code>loadtest.seed</code>: Seed of the walks and tags, by
+ *         default 1</li>
+ * </ul>
+ *
+ * <p>
+ *     Every other argument is passed to the servers, e.g.
+ *     <code>--game.tick.millis=50</code>.
+ * </p>
+ */
+public class LoadGenerator {
+
+	private static final String[] SPECTATOR_PATHS = {
+			"/player/locations", "/pacdots/count", "/gamestate/score"
+	};
+
+	private final String map;
+
+	private final long seed;
+
+	private long durationMillis = 60000;
+
+	private long fixMillis = 1000;
+
+	private long tagMillis = 5000;
+
+	private int spectators = 2;
+
+	private long pollMillis = 1000;
+
+	public LoadGenerator(String map, long seed) {
+		this.map = map;
+		this.seed = seed;
+	}
+
+	public LoadGenerator setDurationMillis(long durationMillis) {
+		this.durationMillis = durationMillis;
+		return this;
+	}
+
+	public LoadGenerator setFixMillis(long fixMillis) {
+		this.fixMillis = fixMillis;
+		return this;
+	}
+
+	/**
+	 * @param tagMillis Time between tags, or 0 for no tags
+	 */
+	public LoadGenerator setTagMillis(long tagMillis) {
+		this.tagMillis = tagMillis;
+		return this;
+	}
+
+	public LoadGenerator setSpectators(int spectators, long pollMillis) {
+		this.spectators = spectators;
+		this.pollMillis = pollMillis;
+		return this;
+	}
+
+	/**
+	 * @return The streams of requests which play one game: its players,
+	 *         then its tags if any, then each of its spectators
+	 */
+	public List<List<ReplayRequest>> generate() throws IOException {
+
+		List<List<ReplayRequest>> streams = new ArrayList<>();
+		streams.add(ReplayRequest.fromTrace(
+				new SyntheticTraceGenerator(map, seed)
+						.setFixMillis(fixMillis)
+						.generate(durationMillis)
+		));
+
+		// The game starts half a fix after the players join, so tags and
+		// polls start a fix after
+		long started = fixMillis;
+		Random random = new Random(seed);
+
+		if(tagMillis > 0) {
+			Player.Name[] names = Player.Name.values();
+			List<ReplayRequest> tags = new ArrayList<>();
+			for(long time = started; time <= durationMillis;
+					time += tagMillis) {
+				Player.Name ghost = names[1 + random.nextInt(names.length - 1)];
+				tags.add(new ReplayRequest(
+						time, "POST", "/tag/" + ghost,
+						"{\"destination\":\"" + Player.Name.Pacman + "\"}",
+						"POST /tag/{reporter}"
+				));
+			}
+			streams.add(tags);
+		}
+
+		for(int spectator = 0; spectator < spectators; spectator++) {
+			List<ReplayRequest> polls = new ArrayList<>();
+			int poll = 0;
+			// Spectators poll out of step with each other
+			for(long time = started + random.nextInt((int) pollMillis);
+					time <= durationMillis; time += pollMillis) {
+				String path = SPECTATOR_PATHS[poll++ % SPECTATOR_PATHS.length];
+				polls.add(new ReplayRequest(
+						time, "GET", path, null, "GET " + path
+				));
+			}
+			streams.add(polls);
+		}
+
+		return streams;
+	}
+
+	public static void main(String[] args) throws Exception {
+
+		List<String> serverArgs = new ArrayList<>();
+		Map<String, String> options =
+				ReplayDriver.parseArgs(args, serverArgs);
+
+		int games = Integer.parseInt(options.getOrDefault("games", "10"));
+		long seconds = Long.parseLong(options.getOrDefault("seconds", "60"));
+		long fixMillis =
+				Long.parseLong(options.getOrDefault("fix.millis", "1000"));
+		long tagMillis =
+				Long.parseLong(options.getOrDefault("tag.millis", "5000"));
+		int spectators =
+				Integer.parseInt(options.getOrDefault("spectators", "2"));
+		long pollMillis =
+				Long.parseLong(options.getOrDefault("poll.millis", "1000"));
+		String map = options.getOrDefault(
+				"map", "pacdots_downtown_vancouver.json"
+		);
+		long seed = Long.parseLong(options.getOrDefault("seed", "1"));
+
+		List<List<ReplayRequest>> streams = new LoadGenerator(map, seed)
+				.setDurationMillis(seconds * 1000)
+				.setFixMillis(fixMillis)
+				.setTagMillis(tagMillis)
+				.setSpectators(spectators, pollMillis)
+				.generate();
+
+		List<ConfigurableApplicationContext> contexts = new ArrayList<>();
+		List<String> servers = new ArrayList<>();
+		for(int i = 0; i < games; i++) {
+			ConfigurableApplicationContext context =
+					ReplayDriver.startServer(serverArgs);
+			contexts.add(context);
+			servers.add(ReplayDriver.getUrl(context));
+		}
+
+		GcPauseRecorder gc = new GcPauseRecorder();
+		gc.start();
+		ReplayDriver driver = new ReplayDriver(servers, games, 1, streams);
+		LatencyReport report = driver.run();
+		gc.stop();
+
+		long requests = 0;
+		for(List<ReplayRequest> stream : streams) {
+			requests += stream.size();
+		}
+		requests *= games;
+		double elapsed = driver.getElapsedNanos() / 1e9;
+
+		System.out.println();
+		System.out.println("Load test");
+		System.out.println("  java.version:      " + System.getProperty("java.version"));
+		System.out.println("  games:             " + games + ", each with " + Player.Name.values().length + " players and " + spectators + " spectators");
+		System.out.println("  fixes:             every " + fixMillis + " ms per player");
+		System.out.println("  tags:              " + (tagMillis > 0 ? "every " + tagMillis + " ms per game" : "none"));
+		System.out.println("  polls:             every " + pollMillis + " ms per spectator");
+		System.out.printf ("  elapsed:           %.1f s%n", elapsed);
+		System.out.printf ("  throughput:        %.1f requests/s%n", requests / elapsed);
+		System.out.println("  failed requests:   " + report.getFailures());
+		System.out.println("  latency, from when each request was due:");
+		report.print(System.out, driver.getElapsedNanos());
+		System.out.println("  garbage collection, servers and load generator:");
+		gc.print(System.out, driver.getElapsedNanos());
+		System.out.println();
+
+		for(ConfigurableApplicationContext context : contexts) {
+			context.close();
+		}
+
+		// Tomcat 8.0 leaves its await thread running on newer JDKs, which
+		// would keep exec:java waiting
+		System.exit(0);
+	}
+
+}
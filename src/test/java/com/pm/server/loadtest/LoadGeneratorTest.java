@@ -0,0 +1,65 @@
+package com.pm.server.loadtest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.List;
+
+public class LoadGeneratorTest {
+
+	private static final String MAP = "pacdots_downtown_vancouver.json";
+
+	@Test
+	public void unitTest_generate_playersTagsAndSpectators() throws Exception {
+
+		// Given
+		LoadGenerator generator = new LoadGenerator(MAP, 3)
+				.setDurationMillis(30000)
+				.setFixMillis(500)
+				.setTagMillis(5000)
+				.setSpectators(3, 1000);
+
+		// When
+		List<List<ReplayRequest>> streams = generator.generate();
+
+		// Then
+		assertEquals(1 + 1 + 3, streams.size());
+
+		List<ReplayRequest> tags = streams.get(1);
+		assertEquals(6, tags.size());
+		for(ReplayRequest tag : tags) {
+			assertEquals("POST /tag/{reporter}", tag.getEndpoint());
+			assertTrue(!tag.getPath().equals("/tag/Pacman"));
+			assertTrue(tag.getOffsetMillis() >= 500);
+		}
+
+		for(List<ReplayRequest> polls : streams.subList(2, 5)) {
+			assertTrue(polls.size() >= 29);
+			for(ReplayRequest poll : polls) {
+				assertEquals("GET", poll.getMethod());
+				assertTrue(poll.getOffsetMillis() <= 30000);
+			}
+		}
+
+	}
+
+	@Test
+	public void unitTest_generate_noTags() throws Exception {
+
+		// Given
+		LoadGenerator generator = new LoadGenerator(MAP, 3)
+				.setDurationMillis(10000)
+				.setTagMillis(0)
+				.setSpectators(0, 1000);
+
+		// When
+		List<List<ReplayRequest>> streams = generator.generate();
+
+		// Then
+		assertEquals(1, streams.size());
+
+	}
+
+}
@@ -0,0 +1,343 @@
+package com.pm.server.loadtest;
+
+import com.pm.server.PmServerApplication;
+import com.pm.server.cluster.ClusterRouter;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.embedded.EmbeddedWebApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Replays a {@link Trace} against servers through their HTTP API, faster
+ * than it was played if asked, as any number of games at once, and reports
+ * throughput and latency percentiles per endpoint.
+ *
+ * <p>
+ *     Each game is played by a thread of its own, which sends the requests
+ *     of the trace ({@link ReplayRequest#fromTrace(Trace)}) in order, each
+ *     when it is due. A game may also be played as several streams of
+ *     requests, such as its players and its spectators, each on a thread of
+ *     its own. Latency is measured from when a request was due rather
+ *     than when it was sent, so a server which falls behind is charged for
+ *     the requests waiting on it. Every game plays the same trace, so a run
+ *     is repeatable.
+ * </p>
+ * <p>
+ *     A server hosts one game. Game <code>i</code> is sent to server
+ *     <code>i</code> modulo the number of servers, named
+ *     <code>replay-i</code> by the <code>X-Game-Id</code> header, so games
+ *     may share a cluster (see {@link ClusterRouter}) but must not share a
+ *     server outside one. Without <code>loadtest.servers</code>, a server
+ *     is started in this JVM for each game, and every argument not
+ *     starting <code>--loadtest.</code> is passed to those servers.
+ * </p>
+ *
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dstart-class=com.pm.server.loadtest.ReplayDriver \
+ *     -Dexec.args="--loadtest.speed=100 --loadtest.games=4 \
+ *         --throttle.location.rate=0"
+ * </pre>
+ *
+ * <ul>
+ *     <li><code>loadtest.trace</code>: Trace file to replay; by default a
+ *         trace is generated by {@link SyntheticTraceGenerator}</li>
+ *     <li><code>loadtest.map</code>: Pacdots file the generated players
+ *         walk, by default <code>pacdots_downtown_vancouver.json</code></li>
+ *     <li><code>loadtest.seconds</code>: Length of a generated game, by
+ *         default 600</li>
+ *     <li><code>loadtest.seed</code>: Seed of a generated trace, by
+ *         default 1</li>
+ *     <li><code>loadtest.save</code>: File to save the trace to</li>
+ *     <li><code>loadtest.speed</code>: Speed of the replay, from 1 to 1000
+ *         times the speed of the trace, by default 1</li>
+ *     <li><code>loadtest.games</code>: Games played at once, by
+ *         default 1</li>
+ *     <li><code>loadtest.servers</code>: Base URLs of the servers, comma
+ *         separated</li>
+ * </ul>
+ */
+public class ReplayDriver {
+
+	private static final String PREFIX = "--loadtest.";
+
+	private static final double MAX_SPEED = 1000;
+
+	private final List<String> servers;
+
+	private final List<List<ReplayRequest>> streams;
+
+	private final double speed;
+
+	private final int games;
+
+	private final LatencyReport report = new LatencyReport();
+
+	private long elapsedNanos;
+
+	/**
+	 * @param speed Multiple of the speed of the trace, from 1 to 1000
+	 * @throws IllegalArgumentException If the speed is out of range, or
+	 *         there are no servers or games
+	 */
+	public ReplayDriver(
+			List<String> servers, List<ReplayRequest> requests, double speed,
+			int games) throws IllegalArgumentException {
+		this(servers, games, speed, Collections.singletonList(requests));
+	}
+
+	/**
+	 * @param streams Streams of requests played at once in every game
+	 * @param speed Multiple of the speed of the streams, from 1 to 1000
+	 * @throws IllegalArgumentException If the speed is out of range, or
+	 *         there are no servers or games
+	 */
+	public ReplayDriver(
+			List<String> servers, int games, double speed,
+			List<List<ReplayRequest>> streams)
+			throws IllegalArgumentException {
+
+		if(speed < 1 || speed > MAX_SPEED) {
+			throw new IllegalArgumentException(
+					"The speed must be from 1 to " + (int) MAX_SPEED + "."
+			);
+		}
+		if(servers.isEmpty() || games < 1) {
+			throw new IllegalArgumentException(
+					"A replay requires at least one server and one game."
+			);
+		}
+
+		this.servers = new ArrayList<>(servers);
+		this.streams = new ArrayList<>(streams);
+		this.speed = speed;
+		this.games = games;
+	}
+
+	/**
+	 * Plays every game to the end of the trace.
+	 */
+	public LatencyReport run() throws InterruptedException {
+
+		long start = System.nanoTime();
+		List<Thread> players = new ArrayList<>();
+		for(int game = 0; game < games; game++) {
+			String server = servers.get(game % servers.size());
+			String gameId = "replay-" + game;
+			for(int stream = 0; stream < streams.size(); stream++) {
+				List<ReplayRequest> requests = streams.get(stream);
+				Thread player = new Thread(
+						() -> play(server, gameId, requests, start),
+						gameId + "-" + stream
+				);
+				player.start();
+				players.add(player);
+			}
+		}
+		for(Thread player : players) {
+			player.join();
+		}
+		elapsedNanos = System.nanoTime() - start;
+
+		return report;
+	}
+
+	public LatencyReport getReport() {
+		return report;
+	}
+
+	public long getElapsedNanos() {
+		return elapsedNanos;
+	}
+
+	private void play(
+			String server, String gameId, List<ReplayRequest> requests,
+			long start) {
+		for(ReplayRequest request : requests) {
+			long due = start +
+					(long) (request.getOffsetMillis() * 1e6 / speed);
+			long wait;
+			while((wait = due - System.nanoTime()) > 0) {
+				LockSupport.parkNanos(wait);
+			}
+
+			int status = send(server, gameId, request);
+			report.record(
+					request.getEndpoint(), System.nanoTime() - due, status
+			);
+		}
+	}
+
+	/**
+	 * @return The status of the response, or 0 if the server could not be
+	 *         reached
+	 */
+	private static int send(
+			String server, String gameId, ReplayRequest request) {
+
+		try {
+			HttpURLConnection connection = (HttpURLConnection)
+					new URL(server + request.getPath()).openConnection();
+			connection.setRequestMethod(request.getMethod());
+			connection.setRequestProperty(ClusterRouter.GAME_ID_HEADER, gameId);
+			if(request.getBody() != null) {
+				connection.setRequestProperty(
+						"Content-Type", "application/json"
+				);
+				connection.setDoOutput(true);
+				try(OutputStream out = connection.getOutputStream()) {
+					out.write(
+							request.getBody().getBytes(StandardCharsets.UTF_8)
+					);
+				}
+			}
+
+			int status = connection.getResponseCode();
+			// Reading the response to the end keeps the connection alive
+			InputStream body = status < 400 ?
+					connection.getInputStream() :
+					connection.getErrorStream();
+			if(body != null) {
+				try(InputStream in = body) {
+					byte[] buffer = new byte[4096];
+					while(in.read(buffer) >= 0);
+				}
+			}
+			return status;
+		}
+		catch(IOException e) {
+			return 0;
+		}
+	}
+
+	public static void main(String[] args) throws Exception {
+
+		List<String> serverArgs = new ArrayList<>();
+		Map<String, String> options = parseArgs(args, serverArgs);
+
+		Trace trace;
+		String source;
+		if(options.containsKey("trace")) {
+			source = options.get("trace");
+			trace = Trace.read(Paths.get(source));
+		}
+		else {
+			String map = options.getOrDefault(
+					"map", "pacdots_downtown_vancouver.json"
+			);
+			long seed = Long.parseLong(options.getOrDefault("seed", "1"));
+			long seconds =
+					Long.parseLong(options.getOrDefault("seconds", "600"));
+			source = "synthetic, " + map + ", seed " + seed;
+			trace = new SyntheticTraceGenerator(map, seed)
+					.generate(seconds * 1000);
+		}
+		if(options.containsKey("save")) {
+			trace.write(Paths.get(options.get("save")));
+		}
+
+		double speed = Double.parseDouble(options.getOrDefault("speed", "1"));
+		int games = Integer.parseInt(options.getOrDefault("games", "1"));
+
+		List<ConfigurableApplicationContext> contexts = new ArrayList<>();
+		List<String> servers = new ArrayList<>();
+		if(options.containsKey("servers")) {
+			for(String server : options.get("servers").split(",")) {
+				servers.add(server.trim());
+			}
+		}
+		else {
+			for(int i = 0; i < games; i++) {
+				ConfigurableApplicationContext context =
+						startServer(serverArgs);
+				contexts.add(context);
+				servers.add(getUrl(context));
+			}
+		}
+
+		List<ReplayRequest> requests = ReplayRequest.fromTrace(trace);
+		ReplayDriver driver =
+				new ReplayDriver(servers, requests, speed, games);
+		LatencyReport report = driver.run();
+		double seconds = driver.getElapsedNanos() / 1e9;
+
+		System.out.println();
+		System.out.println("Replay");
+		System.out.println("  trace:             " + source);
+		System.out.println("  trace length:      " + trace.getDurationMillis() / 1000 + " s, " + trace.getEntries().size() + " entries, " + requests.size() + " requests");
+		System.out.println("  speed:             " + speed + "x");
+		System.out.println("  games:             " + games + " on " + servers.size() + " servers");
+		System.out.printf ("  elapsed:           %.1f s%n", seconds);
+		System.out.printf ("  throughput:        %.1f requests/s%n", (double) requests.size() * games / seconds);
+		System.out.println("  failed requests:   " + report.getFailures());
+		System.out.println("  latency, from when each request was due:");
+		report.print(System.out, driver.getElapsedNanos());
+		System.out.println();
+
+		for(ConfigurableApplicationContext context : contexts) {
+			context.close();
+		}
+
+		// Tomcat 8.0 leaves its await thread running on newer JDKs, which
+		// would keep exec:java waiting
+		System.exit(0);
+	}
+
+	/**
+	 * Sorts command line arguments into load test options, returned without
+	 * their <code>--loadtest.</code> prefix, and arguments for the servers.
+	 *
+	 * @param serverArgs Filled with the arguments for the servers
+	 */
+	static Map<String, String> parseArgs(
+			String[] args, List<String> serverArgs) {
+
+		serverArgs.addAll(Arrays.asList(
+				"--server.port=0",
+				"--spring.jmx.enabled=false",
+				"--logging.level.com.pm.server=WARN",
+				"--logging.level.org.springframework=WARN",
+				"--logging.level.org.apache=WARN"
+		));
+
+		Map<String, String> options = new HashMap<>();
+		for(String arg : args) {
+			if(arg.startsWith(PREFIX) && arg.contains("=")) {
+				int equals = arg.indexOf('=');
+				options.put(
+						arg.substring(PREFIX.length(), equals),
+						arg.substring(equals + 1)
+				);
+			}
+			else {
+				serverArgs.add(arg);
+			}
+		}
+		return options;
+	}
+
+	static ConfigurableApplicationContext startServer(List<String> args) {
+		return new SpringApplicationBuilder(PmServerApplication.class)
+				.run(args.toArray(new String[args.size()]));
+	}
+
+	static String getUrl(ConfigurableApplicationContext server) {
+		return "http://localhost:" + ((EmbeddedWebApplicationContext) server)
+				.getEmbeddedServletContainer().getPort();
+	}
+
+}
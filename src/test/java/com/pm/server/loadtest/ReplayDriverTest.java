@@ -0,0 +1,173 @@
+package com.pm.server.loadtest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.pm.server.PmServerApplication;
+import com.pm.server.datatype.GameState;
+import com.pm.server.datatype.Player;
+import com.pm.server.utils.JsonUtils;
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.embedded.EmbeddedWebApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.web.client.RestTemplate;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+public class ReplayDriverTest {
+
+	private static final String MAP = "pacdots_downtown_vancouver.json";
+
+	private final List<ConfigurableApplicationContext> servers =
+			new ArrayList<>();
+
+	@After
+	public void tearDown() {
+		for(ConfigurableApplicationContext server : servers) {
+			server.close();
+		}
+	}
+
+	@Test
+	public void unitTest_generate_sameSeedSameTrace() throws Exception {
+
+		// Given
+		SyntheticTraceGenerator generator =
+				new SyntheticTraceGenerator(MAP, 7);
+
+		// When
+		Trace first = generator.generate(60000);
+		Trace second = generator.generate(60000);
+
+		// Then
+		assertEquals(toJson(first), toJson(second));
+		assertEquals(
+				1 + Player.Name.values().length * 61,
+				first.getEntries().size()
+		);
+
+	}
+
+	@Test
+	public void unitTest_write_readsBackTheSameTrace() throws Exception {
+
+		// Given
+		Trace trace = new SyntheticTraceGenerator(MAP, 7).generate(10000);
+		Path file = Files.createTempFile("trace", ".ndjson");
+
+		// When
+		trace.write(file);
+		Trace read = Trace.read(file);
+
+		// Then
+		assertEquals(toJson(trace), toJson(read));
+		Files.delete(file);
+
+	}
+
+	@Test
+	public void unitTest_fromTrace_selectsThenMovesPlayers() throws Exception {
+
+		// Given
+		Trace trace = new SyntheticTraceGenerator(MAP, 7).generate(2000);
+
+		// When
+		List<ReplayRequest> requests = ReplayRequest.fromTrace(trace);
+
+		// Then
+		int players = Player.Name.values().length;
+		for(int i = 0; i < players; i++) {
+			assertEquals("POST", requests.get(i).getMethod());
+		}
+		assertEquals("/admin/gamestate", requests.get(players).getPath());
+		assertTrue(requests.get(players).getBody()
+				.contains(GameState.IN_PROGRESS.toString()));
+		for(int i = players + 1; i < requests.size(); i++) {
+			assertEquals(
+					"PUT /player/{playerName}/location",
+					requests.get(i).getEndpoint()
+			);
+		}
+		assertEquals(players * 3 + 1, requests.size());
+
+	}
+
+	@Test
+	public void unitTest_latencyReport_percentiles() {
+
+		// Given
+		LatencyReport report = new LatencyReport();
+
+		// When
+		for(long latency = 1; latency <= 1000; latency++) {
+			report.record("GET /", latency, latency <= 990 ? 200 : 503);
+		}
+
+		// Then
+		assertEquals(1000, report.getCount("GET /"));
+		assertEquals(500, report.getPercentileNanos("GET /", 50));
+		assertEquals(990, report.getPercentileNanos("GET /", 99));
+		assertEquals(1000, report.getPercentileNanos("GET /", 100));
+		assertEquals(10, report.getFailures());
+
+	}
+
+	@Test
+	public void integrationTest_run_playsEveryGameToTheEnd() throws Exception {
+
+		// Given
+		Trace trace = new SyntheticTraceGenerator(MAP, 7).generate(60000);
+		List<ReplayRequest> requests = ReplayRequest.fromTrace(trace);
+		List<String> urls = new ArrayList<>();
+		urls.add(start());
+		urls.add(start());
+
+		// When
+		ReplayDriver driver = new ReplayDriver(urls, requests, 1000, 2);
+		LatencyReport report = driver.run();
+
+		// Then
+		assertEquals(0, report.getFailures());
+		assertEquals(2, report.getCount("PUT /admin/gamestate"));
+		assertEquals(
+				2 * (requests.size() - Player.Name.values().length - 1),
+				report.getCount("PUT /player/{playerName}/location")
+		);
+
+		RestTemplate restTemplate = new RestTemplate();
+		for(String url : urls) {
+			Map<?, ?> gameState =
+					restTemplate.getForObject(url + "/gamestate", Map.class);
+			assertEquals(
+					GameState.IN_PROGRESS.toString(), gameState.get("state")
+			);
+		}
+
+	}
+
+	private String start() {
+		ConfigurableApplicationContext server =
+				new SpringApplicationBuilder(PmServerApplication.class).run(
+						"--server.port=0",
+						"--spring.jmx.enabled=false",
+						"--throttle.location.rate=0"
+				);
+		servers.add(server);
+
+		int port = ((EmbeddedWebApplicationContext) server)
+				.getEmbeddedServletContainer().getPort();
+		return "http://localhost:" + port;
+	}
+
+	private static String toJson(Trace trace) throws Exception {
+		return JsonUtils.getObjectMapper()
+				.writeValueAsString(trace.getEntries());
+	}
+
+}
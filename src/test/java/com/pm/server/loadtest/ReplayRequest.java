@@ -0,0 +1,145 @@
+package com.pm.server.loadtest;
+
+import com.pm.server.datatype.Coordinate;
+import com.pm.server.datatype.GameState;
+import com.pm.server.datatype.Player;
+import com.pm.server.replication.ReplicationEntry;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A request to the HTTP API which plays back one entry of a {@link Trace}.
+ */
+public class ReplayRequest {
+
+	private final long offsetMillis;
+
+	private final String method;
+
+	private final String path;
+
+	private final String body;
+
+	private final String endpoint;
+
+	ReplayRequest(
+			long offsetMillis, String method, String path, String body,
+			String endpoint) {
+		this.offsetMillis = offsetMillis;
+		this.method = method;
+		this.path = path;
+		this.body = body;
+		this.endpoint = endpoint;
+	}
+
+	/**
+	 * Works out the requests which would have made the changes of a trace.
+	 *
+	 * <p>
+	 *     A player's first location selects the player, and later ones move
+	 *     it; a player reset to uninitialized is deselected. Game state
+	 *     changes are made as an admin. Everything else the server works out
+	 *     for itself from those, so pacdots, player states and heartbeats in
+	 *     the trace are skipped.
+	 * </p>
+	 *
+	 * @return The requests, each timed from the start of the trace
+	 */
+	public static List<ReplayRequest> fromTrace(Trace trace) {
+
+		List<ReplayRequest> requests = new ArrayList<>();
+		List<ReplicationEntry> entries = trace.getEntries();
+		if(entries.isEmpty()) {
+			return requests;
+		}
+		long start = entries.get(0).getTime();
+
+		Map<Player.Name, Coordinate> locations =
+				new EnumMap<>(Player.Name.class);
+		GameState gameState = GameState.INITIALIZING;
+
+		for(ReplicationEntry entry : entries) {
+			long offset = entry.getTime() - start;
+			switch(entry.getType()) {
+				case PLAYER:
+					Player.Name name = entry.getName();
+					Coordinate location = entry.getLocation();
+					boolean selected = locations.containsKey(name);
+					if(entry.getState() == Player.State.UNINITIALIZED) {
+						if(selected) {
+							requests.add(new ReplayRequest(
+									offset, "DELETE", "/player/" + name, null,
+									"DELETE /player/{playerName}"
+							));
+							locations.remove(name);
+						}
+					}
+					else if(location != null &&
+							!location.equals(locations.get(name))) {
+						String body = "{\"latitude\":" +
+								location.getLatitude() + ",\"longitude\":" +
+								location.getLongitude() + "}";
+						requests.add(selected ?
+								new ReplayRequest(
+										offset, "PUT",
+										"/player/" + name + "/location", body,
+										"PUT /player/{playerName}/location"
+								) :
+								new ReplayRequest(
+										offset, "POST", "/player/" + name,
+										body, "POST /player/{playerName}"
+								)
+						);
+						locations.put(name, location);
+					}
+					break;
+
+				case GAME:
+					if(entry.getGameState() != gameState) {
+						gameState = entry.getGameState();
+						requests.add(new ReplayRequest(
+								offset, "PUT", "/admin/gamestate",
+								"{\"state\":\"" + gameState + "\"}",
+								"PUT /admin/gamestate"
+						));
+					}
+					break;
+
+				default:
+					break;
+			}
+		}
+
+		return requests;
+	}
+
+	public long getOffsetMillis() {
+		return offsetMillis;
+	}
+
+	public String getMethod() {
+		return method;
+	}
+
+	public String getPath() {
+		return path;
+	}
+
+	/**
+	 * @return JSON body, or null if the request has none
+	 */
+	public String getBody() {
+		return body;
+	}
+
+	/**
+	 * @return Method and path template, by which latencies are reported
+	 */
+	public String getEndpoint() {
+		return endpoint;
+	}
+
+}
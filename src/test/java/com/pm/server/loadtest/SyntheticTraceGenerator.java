@@ -0,0 +1,223 @@
+package com.pm.server.loadtest;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.pm.server.datatype.Coordinate;
+import com.pm.server.datatype.GameState;
+import com.pm.server.datatype.Player;
+import com.pm.server.replication.ReplicationEntry;
+import com.pm.server.utils.JsonUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Generates a {@link Trace} of a game in which every player walks the
+ * streets of a map, reporting a GPS fix at a steady rate.
+ *
+ * <p>
+ *     The pacdots of a map are laid along its streets, so each player walks
+ *     from pacdot to pacdot, each time to one of the nearest few, at a
+ *     steady speed of its own. Each fix is off the true position by
+ *     Gaussian noise, as GPS fixes are. The game starts once every player
+ *     has joined.
+ * </p>
+ * <p>
+ *     The same seed always generates the same trace.
+ * </p>
+ */
+public class SyntheticTraceGenerator {
+
+	private static final double METERS_PER_DEGREE_LATITUDE = 111320;
+
+	private static final int NEIGHBOURS = 3;
+
+	private final List<Coordinate> pacdots;
+
+	private final long seed;
+
+	private long fixMillis = 1000;
+
+	private double gpsErrorMeters = 4;
+
+	private double walkingSpeed = 1.5;
+
+	private double runningSpeed = 3;
+
+	/**
+	 * @param pacdotsFilename Pacdots file on the class path, e.g.
+	 *                        <code>pacdots_downtown_vancouver.json</code>
+	 */
+	public SyntheticTraceGenerator(String pacdotsFilename, long seed)
+			throws IOException {
+
+		try(InputStream in = getClass().getClassLoader()
+				.getResourceAsStream(pacdotsFilename)) {
+			if(in == null) {
+				throw new IOException(pacdotsFilename + " was not found.");
+			}
+			pacdots = JsonUtils.getObjectMapper().readValue(
+					in, new TypeReference<List<Coordinate>>() {}
+			);
+		}
+		if(pacdots.size() < 2) {
+			throw new IOException(
+					pacdotsFilename + " has too few pacdots to walk between."
+			);
+		}
+		this.seed = seed;
+	}
+
+	public SyntheticTraceGenerator setFixMillis(long fixMillis) {
+		this.fixMillis = fixMillis;
+		return this;
+	}
+
+	public SyntheticTraceGenerator setGpsErrorMeters(double gpsErrorMeters) {
+		this.gpsErrorMeters = gpsErrorMeters;
+		return this;
+	}
+
+	/**
+	 * @param walkingSpeed Slowest speed of a player, in metres per second
+	 * @param runningSpeed Fastest speed of a player, in metres per second
+	 */
+	public SyntheticTraceGenerator setSpeeds(
+			double walkingSpeed, double runningSpeed) {
+		this.walkingSpeed = walkingSpeed;
+		this.runningSpeed = runningSpeed;
+		return this;
+	}
+
+	/**
+	 * @param durationMillis Length of the game once it has started
+	 */
+	public Trace generate(long durationMillis) {
+
+		Random random = new Random(seed);
+		List<ReplicationEntry> entries = new ArrayList<>();
+
+		List<Walker> walkers = new ArrayList<>();
+		for(Player.Name name : Player.Name.values()) {
+			Walker walker = new Walker(name, random);
+			walkers.add(walker);
+			entries.add(walker.fix(0, random));
+		}
+
+		ReplicationEntry start = new ReplicationEntry();
+		start.setTime(fixMillis / 2);
+		start.setType(ReplicationEntry.Type.GAME);
+		start.setGameState(GameState.IN_PROGRESS);
+		entries.add(start);
+
+		for(long time = fixMillis; time <= durationMillis; time += fixMillis) {
+			for(Walker walker : walkers) {
+				walker.walk(fixMillis / 1000.0, random);
+				// Players report out of step with each other
+				long jitter = (long) (random.nextDouble() * fixMillis / 10);
+				entries.add(walker.fix(time + jitter, random));
+			}
+		}
+
+		for(int i = 0; i < entries.size(); i++) {
+			entries.get(i).setSeq(i + 1);
+		}
+		return new Trace(entries);
+	}
+
+	private double distanceMeters(Coordinate a, Coordinate b) {
+		double north = (b.getLatitude() - a.getLatitude()) *
+				METERS_PER_DEGREE_LATITUDE;
+		double east = (b.getLongitude() - a.getLongitude()) *
+				METERS_PER_DEGREE_LATITUDE *
+				Math.cos(Math.toRadians(a.getLatitude()));
+		return Math.sqrt(north * north + east * east);
+	}
+
+	private class Walker {
+
+		private final Player.Name name;
+
+		private final double speed;
+
+		private int from;
+
+		private int to;
+
+		/**
+		 * Metres walked from the pacdot walked from.
+		 */
+		private double walked = 0;
+
+		Walker(Player.Name name, Random random) {
+			this.name = name;
+			this.speed = walkingSpeed +
+					random.nextDouble() * (runningSpeed - walkingSpeed);
+			this.from = random.nextInt(pacdots.size());
+			this.to = next(from, -1, random);
+		}
+
+		void walk(double seconds, Random random) {
+			walked += speed * seconds;
+			double length;
+			while(walked >= (length = distanceMeters(
+					pacdots.get(from), pacdots.get(to)))) {
+				walked -= length;
+				int previous = from;
+				from = to;
+				to = next(from, previous, random);
+			}
+		}
+
+		ReplicationEntry fix(long time, Random random) {
+			Coordinate a = pacdots.get(from);
+			Coordinate b = pacdots.get(to);
+			double length = distanceMeters(a, b);
+			double along = length == 0 ? 0 : walked / length;
+
+			double latitude = a.getLatitude() +
+					along * (b.getLatitude() - a.getLatitude());
+			double longitude = a.getLongitude() +
+					along * (b.getLongitude() - a.getLongitude());
+			latitude += random.nextGaussian() * gpsErrorMeters /
+					METERS_PER_DEGREE_LATITUDE;
+			longitude += random.nextGaussian() * gpsErrorMeters /
+					(METERS_PER_DEGREE_LATITUDE *
+							Math.cos(Math.toRadians(latitude)));
+
+			ReplicationEntry entry = new ReplicationEntry();
+			entry.setTime(time);
+			entry.setType(ReplicationEntry.Type.PLAYER);
+			entry.setName(name);
+			entry.setLocation(new Coordinate(latitude, longitude));
+			return entry;
+		}
+
+		/**
+		 * @return One of the nearest pacdots to the given one, avoiding the
+		 *         one just walked from unless it is a dead end
+		 */
+		private int next(int current, int previous, Random random) {
+			Coordinate here = pacdots.get(current);
+			List<Integer> nearest = IntStream.range(0, pacdots.size())
+					.filter(i -> i != current && i != previous)
+					.boxed()
+					.sorted(Comparator.comparingDouble(
+							i -> distanceMeters(here, pacdots.get(i))
+					))
+					.limit(NEIGHBOURS)
+					.collect(Collectors.toList());
+			if(nearest.isEmpty()) {
+				return previous;
+			}
+			return nearest.get(random.nextInt(nearest.size()));
+		}
+
+	}
+
+}
@@ -0,0 +1,87 @@
+package com.pm.server.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pm.server.replication.ReplicationEntry;
+import com.pm.server.utils.JsonUtils;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * A recorded or generated game, as a journal of
+ * {@link ReplicationEntry ReplicationEntries} in time order.
+ *
+ * <p>
+ *     A trace is stored the way a server's replication log is streamed, one
+ *     entry per line of JSON, so a real game can be recorded with
+ *     <code>api-calls/replication/get_stream.sh</code> (less the response
+ *     headers) and replayed as it was played.
+ * </p>
+ */
+public class Trace {
+
+	private static final ObjectMapper objectMapper =
+			JsonUtils.getObjectMapper();
+
+	private final List<ReplicationEntry> entries;
+
+	public Trace(List<ReplicationEntry> entries) {
+		List<ReplicationEntry> sorted = new ArrayList<>(entries);
+		// Stable, so entries logged in the same millisecond keep their order
+		sorted.sort(Comparator.comparingLong(ReplicationEntry::getTime));
+		this.entries = Collections.unmodifiableList(sorted);
+	}
+
+	public static Trace read(Path path) throws IOException {
+		List<ReplicationEntry> entries = new ArrayList<>();
+		try(BufferedReader lines =
+				Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+			String line;
+			while((line = lines.readLine()) != null) {
+				line = line.trim();
+				// Skips blank lines and anything else which is not an entry,
+				// such as response headers saved with the stream
+				if(line.startsWith("{")) {
+					entries.add(
+							objectMapper.readValue(line, ReplicationEntry.class)
+					);
+				}
+			}
+		}
+		return new Trace(entries);
+	}
+
+	public void write(Path path) throws IOException {
+		try(BufferedWriter out =
+				Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+			for(ReplicationEntry entry : entries) {
+				out.write(objectMapper.writeValueAsString(entry));
+				out.newLine();
+			}
+		}
+	}
+
+	public List<ReplicationEntry> getEntries() {
+		return entries;
+	}
+
+	/**
+	 * @return Time from the first entry to the last
+	 */
+	public long getDurationMillis() {
+		if(entries.isEmpty()) {
+			return 0;
+		}
+		return entries.get(entries.size() - 1).getTime() -
+				entries.get(0).getTime();
+	}
+
+}
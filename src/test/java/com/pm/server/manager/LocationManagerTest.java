@@ -0,0 +1,328 @@
+package com.pm.server.manager;
+
+import com.pm.server.GameLoop;
+import com.pm.server.TestTemplate;
+import com.pm.server.datatype.Coordinate;
+import com.pm.server.datatype.Player;
+import com.pm.server.filter.LocationFilter;
+import com.pm.server.registry.PlayerRegistry;
+import com.pm.server.replication.ReplicationLog;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class LocationManagerTest extends TestTemplate {
+
+    @Mock
+    private PlayerRegistry mockPlayerRegistry;
+
+    @Mock
+    private TagManager mockTagManager;
+
+    @Mock
+    private GameLoop mockGameLoop;
+
+    @Mock
+    private ReplicationLog mockReplicationLog;
+
+    private static final Player.Name name = Player.Name.Pacman;
+
+    private final Coordinate location1 = new Coordinate(49.2, -123.1);
+    private final Coordinate location2 = new Coordinate(49.3, -123.2);
+    private final Coordinate location3 = new Coordinate(49.4, -123.3);
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+        when(mockPlayerRegistry.getPlayerState(name))
+                .thenReturn(Player.State.ACTIVE);
+    }
+
+    @Test
+    public void unitTest_setPlayerLocation_noWindow() throws Exception {
+
+        // Given
+        LocationManager locationManager = new LocationManagerImpl(
+                mockPlayerRegistry, mockTagManager, mockGameLoop,
+                mockReplicationLog, Collections.emptyList(), 0L
+        );
+
+        // When
+        locationManager.setPlayerLocation(name, location1);
+
+        // Then
+        verify(mockPlayerRegistry).setPlayerPathByName(
+                eq(name), eq(Collections.singletonList(location1)),
+                any(long[].class)
+        );
+        verify(mockTagManager).tagNearbyPlayers(name);
+        verify(mockGameLoop, never()).schedule(
+                any(Runnable.class), anyLong(), any(TimeUnit.class)
+        );
+
+    }
+
+    @Test
+    public void unitTest_setPlayerLocation_coalesced() throws Exception {
+
+        // Given
+        LocationManager locationManager = new LocationManagerImpl(
+                mockPlayerRegistry, mockTagManager, mockGameLoop,
+                mockReplicationLog, Collections.emptyList(), 50L
+        );
+
+        // When
+        locationManager.setPlayerLocation(name, location1);
+        locationManager.setPlayerLocation(name, location2);
+        locationManager.setPlayerLocation(name, location3);
+
+        // Then
+        verify(mockPlayerRegistry, never())
+                .setPlayerPathByName(
+                        any(Player.Name.class), anyListOf(Coordinate.class),
+                        any(long[].class)
+                );
+        runScheduledFlushes(1);
+        verify(mockPlayerRegistry).setPlayerPathByName(
+                eq(name), eq(Arrays.asList(location1, location2, location3)),
+                any(long[].class)
+        );
+
+    }
+
+    @Test
+    public void unitTest_setPlayerLocation_afterFlush() throws Exception {
+
+        // Given
+        LocationManager locationManager = new LocationManagerImpl(
+                mockPlayerRegistry, mockTagManager, mockGameLoop,
+                mockReplicationLog, Collections.emptyList(), 50L
+        );
+        locationManager.setPlayerLocation(name, location1);
+        runScheduledFlushes(1);
+
+        // When
+        locationManager.setPlayerLocation(name, location2);
+
+        // Then
+        runScheduledFlushes(2);
+        verify(mockPlayerRegistry).setPlayerPathByName(
+                eq(name), eq(Collections.singletonList(location2)),
+                any(long[].class)
+        );
+
+    }
+
+    @Test
+    public void unitTest_setPlayerLocation_deselectedBeforeFlush()
+            throws Exception {
+
+        // Given
+        LocationManager locationManager = new LocationManagerImpl(
+                mockPlayerRegistry, mockTagManager, mockGameLoop,
+                mockReplicationLog, Collections.emptyList(), 50L
+        );
+        locationManager.setPlayerLocation(name, location1);
+
+        // When
+        when(mockPlayerRegistry.getPlayerState(name))
+                .thenReturn(Player.State.UNINITIALIZED);
+        runScheduledFlushes(1);
+
+        // Then
+        verify(mockPlayerRegistry, never())
+                .setPlayerPathByName(
+                        any(Player.Name.class), anyListOf(Coordinate.class),
+                        any(long[].class)
+                );
+
+    }
+
+    @Test
+    public void unitTest_setPlayerLocation_ticking() throws Exception {
+
+        // Given
+        when(mockGameLoop.isTicking()).thenReturn(true);
+        LocationManager locationManager = new LocationManagerImpl(
+                mockPlayerRegistry, mockTagManager, mockGameLoop,
+                mockReplicationLog, Collections.emptyList(), 0L
+        );
+        ArgumentCaptor<Runnable> tickTask =
+                ArgumentCaptor.forClass(Runnable.class);
+        verify(mockGameLoop).addTickTask(tickTask.capture());
+
+        // When
+        locationManager.setPlayerLocation(name, location1);
+        locationManager.setPlayerLocation(name, location2);
+
+        // Then
+        verify(mockPlayerRegistry, never())
+                .setPlayerPathByName(
+                        any(Player.Name.class), anyListOf(Coordinate.class),
+                        any(long[].class)
+                );
+        tickTask.getValue().run();
+        verify(mockPlayerRegistry).setPlayerPathByName(
+                eq(name), eq(Arrays.asList(location1, location2)),
+                any(long[].class)
+        );
+
+    }
+
+    @Test
+    public void unitTest_setPlayerLocation_filtered() throws Exception {
+
+        // Given
+        LocationFilter dropSecond = new LocationFilter() {
+            private int fixes = 0;
+
+            @Override
+            public Coordinate filter(
+                    Player.Name name, long timeMillis, Coordinate location) {
+                return ++fixes == 2 ? null : location;
+            }
+
+            @Override
+            public void reset(Player.Name name) {
+            }
+        };
+        LocationManager locationManager = new LocationManagerImpl(
+                mockPlayerRegistry, mockTagManager, mockGameLoop,
+                mockReplicationLog, Collections.singletonList(dropSecond), 0L
+        );
+
+        // When
+        locationManager.setPlayerLocation(name, location1);
+        locationManager.setPlayerLocation(name, location2);
+        locationManager.setPlayerLocation(name, location3);
+
+        // Then
+        verify(mockPlayerRegistry, never()).setPlayerPathByName(
+                eq(name), eq(Collections.singletonList(location2)),
+                any(long[].class)
+        );
+        assertEquals(3, locationManager.getReceivedFixes());
+        assertEquals(1, locationManager.getFilteredFixes());
+        assertEquals(2, locationManager.getAppliedUpdates());
+
+    }
+
+    @Test
+    public void unitTest_setPlayerLocation_coalescedKeepsReceiveTimes()
+            throws Exception {
+
+        // Given
+        LocationManager locationManager = new LocationManagerImpl(
+                mockPlayerRegistry, mockTagManager, mockGameLoop,
+                mockReplicationLog, Collections.emptyList(), 50L
+        );
+
+        // When
+        long before = System.currentTimeMillis();
+        locationManager.setPlayerLocation(name, location1);
+        Thread.sleep(20);
+        locationManager.setPlayerLocation(name, location2);
+        long after = System.currentTimeMillis();
+        Thread.sleep(20);
+        runScheduledFlushes(1);
+
+        // Then
+        ArgumentCaptor<long[]> times = ArgumentCaptor.forClass(long[].class);
+        verify(mockPlayerRegistry).setPlayerPathByName(
+                eq(name), eq(Arrays.asList(location1, location2)),
+                times.capture()
+        );
+        assertEquals(2, times.getValue().length);
+        assertTrue(times.getValue()[0] >= before);
+        assertTrue(times.getValue()[1] >= times.getValue()[0] + 20);
+        assertTrue(times.getValue()[1] <= after);
+
+    }
+
+    @Test
+    public void unitTest_setPlayerLocation_coalescedWithStandby()
+            throws Exception {
+
+        // Given
+        when(mockReplicationLog.hasStandby()).thenReturn(true);
+        LocationManager locationManager = new LocationManagerImpl(
+                mockPlayerRegistry, mockTagManager, mockGameLoop,
+                mockReplicationLog, Collections.emptyList(), 50L
+        );
+
+        // When
+        locationManager.setPlayerLocation(name, location1);
+
+        // Then
+        verify(mockPlayerRegistry).setPlayerPathByName(
+                eq(name), eq(Collections.singletonList(location1)),
+                any(long[].class)
+        );
+        verify(mockGameLoop, never()).schedule(
+                any(Runnable.class), anyLong(), any(TimeUnit.class)
+        );
+
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void unitTest_setPlayerLocation_tickingWithStandby()
+            throws Exception {
+
+        // Given
+        when(mockGameLoop.isTicking()).thenReturn(true);
+        when(mockReplicationLog.hasStandby()).thenReturn(true);
+        when(mockGameLoop.call(any(GameLoop.GameInput.class))).thenAnswer(
+                invocation -> ((GameLoop.GameInput<?>)
+                        invocation.getArguments()[0]).apply()
+        );
+        LocationManager locationManager = new LocationManagerImpl(
+                mockPlayerRegistry, mockTagManager, mockGameLoop,
+                mockReplicationLog, Collections.emptyList(), 0L
+        );
+
+        // When
+        locationManager.setPlayerLocation(name, location1);
+
+        // Then
+        verify(mockGameLoop).call(any(GameLoop.GameInput.class));
+        verify(mockPlayerRegistry).setPlayerPathByName(
+                eq(name), eq(Collections.singletonList(location1)),
+                any(long[].class)
+        );
+
+    }
+
+    /**
+     * Runs the latest flush scheduled on the mock game loop, after checking
+     * how many flushes have been scheduled in total.
+     */
+    private void runScheduledFlushes(int expectedFlushes) {
+        ArgumentCaptor<Runnable> flush = ArgumentCaptor.forClass(Runnable.class);
+        verify(mockGameLoop, times(expectedFlushes)).schedule(
+                flush.capture(), eq(50L), eq(TimeUnit.MILLISECONDS)
+        );
+        flush.getValue().run();
+    }
+
+}
@@ -2,6 +2,7 @@ package com.pm.server.manager;
 
 import com.pm.server.PmServerException;
 import com.pm.server.TestTemplate;
+import com.pm.server.datatype.Coordinate;
 import com.pm.server.datatype.GameState;
 import com.pm.server.datatype.Player;
 import com.pm.server.registry.GameStateRegistry;
@@ -21,6 +22,8 @@ import static com.pm.server.datatype.Player.Name.*;
 import static org.hamcrest.beans.HasPropertyWithValue.hasProperty;
 import static org.hamcrest.core.Is.is;
 import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -47,7 +50,8 @@ public class TagManagerTest extends TestTemplate {
         tagManager = new TagManagerImpl(
                 mockGameStateRegistry,
                 mockPlayerRegistry,
-                mockTagRegistry
+                mockTagRegistry,
+                0.0
         );
     }
 
@@ -360,4 +364,91 @@ public class TagManagerTest extends TestTemplate {
 
     }
 
+    @Test
+    public void unitTest_tagNearbyPlayers_ghostTagsPacman() {
+
+        // Given
+        TagManager autoTagManager = new TagManagerImpl(
+                mockGameStateRegistry,
+                mockPlayerRegistry,
+                mockTagRegistry,
+                0.0005
+        );
+        givenPlayerInPlay(Pacman, Player.State.ACTIVE, 49.2800, -123.1200);
+        givenPlayerInPlay(Inky, Player.State.ACTIVE, 49.2801, -123.1201);
+        when(mockGameStateRegistry.getCurrentState())
+                .thenReturn(GameState.IN_PROGRESS);
+
+        // When
+        autoTagManager.tagNearbyPlayers(Inky);
+
+        // Then
+        verify(mockPlayerRegistry).setPlayerStateByName(
+                Pacman, Player.State.CAPTURED
+        );
+        verify(mockGameStateRegistry).setWinnerGhosts();
+
+    }
+
+    @Test
+    public void unitTest_tagNearbyPlayers_poweredUpPacmanTagsGhost() {
+
+        // Given
+        TagManager autoTagManager = new TagManagerImpl(
+                mockGameStateRegistry,
+                mockPlayerRegistry,
+                mockTagRegistry,
+                0.0005
+        );
+        givenPlayerInPlay(Pacman, Player.State.POWERUP, 49.2800, -123.1200);
+        givenPlayerInPlay(Inky, Player.State.ACTIVE, 49.2801, -123.1201);
+        givenPlayerInPlay(Blinky, Player.State.ACTIVE, 49.2900, -123.1300);
+        givenPlayerInPlay(Pinky, Player.State.ACTIVE, 49.2900, -123.1300);
+        givenPlayerInPlay(Clyde, Player.State.ACTIVE, 49.2900, -123.1300);
+        when(mockGameStateRegistry.getCurrentState())
+                .thenReturn(GameState.IN_PROGRESS);
+
+        // When
+        autoTagManager.tagNearbyPlayers(Pacman);
+
+        // Then
+        verify(mockPlayerRegistry).setPlayerStateByName(
+                Inky, Player.State.CAPTURED
+        );
+        verify(mockPlayerRegistry, never()).setPlayerStateByName(
+                Blinky, Player.State.CAPTURED
+        );
+        verify(mockPlayerRegistry, never()).setPlayerStateByName(
+                Pacman, Player.State.CAPTURED
+        );
+
+    }
+
+    @Test
+    public void unitTest_tagNearbyPlayers_disabled() {
+
+        // Given
+        givenPlayerInPlay(Pacman, Player.State.ACTIVE, 49.2800, -123.1200);
+        givenPlayerInPlay(Inky, Player.State.ACTIVE, 49.2800, -123.1200);
+        when(mockGameStateRegistry.getCurrentState())
+                .thenReturn(GameState.IN_PROGRESS);
+
+        // When
+        tagManager.tagNearbyPlayers(Inky);
+
+        // Then
+        verify(mockPlayerRegistry, never()).setPlayerStateByName(
+                any(Player.Name.class), any(Player.State.class)
+        );
+
+    }
+
+    private void givenPlayerInPlay(
+            Player.Name name, Player.State state,
+            double latitude, double longitude) {
+        when(mockPlayerRegistry.getPlayerState(name)).thenReturn(state);
+        when(mockPlayerRegistry.getPlayerLocation(name))
+                .thenReturn(new Coordinate(latitude, longitude));
+    }
+
 }
@@ -4,7 +4,9 @@ import com.pm.server.TestTemplate;
 import com.pm.server.datatype.Coordinate;
 import com.pm.server.datatype.EatenDotsReport;
 import com.pm.server.datatype.Pacdot;
+import com.pm.server.datatype.PacdotDensityTree;
 import com.pm.server.repository.PacdotRepository;
+import com.pm.server.utils.GeoUtils;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -13,8 +15,10 @@ import org.mockito.MockitoAnnotations;
 import org.mockito.runners.MockitoJUnitRunner;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.when;
@@ -36,7 +40,8 @@ public class PacdotRegistryTest extends TestTemplate {
 		when(pacdotRepositoryMock.getAllPacdots()).thenReturn(pacdotList);
 
 		pacdotRegistry = new PacdotRegistryImpl(
-				pacdotRepositoryMock, "pacdots_test.json", "powerdots_test.json", 0.0005
+				pacdotRepositoryMock, "pacdots_test.json", "powerdots_test.json",
+				0.0005, 0.0, 6, 20
 		);
 		pacdotRegistry.postConstruct();
 
@@ -123,6 +128,187 @@ public class PacdotRegistryTest extends TestTemplate {
 
 	}
 
+	@Test
+	public void unitTest_eatPacdotsAlongPath() {
+
+		// Given
+		Pacdot pacdot = new Pacdot();
+		pacdot.setLocation(new Coordinate(3919.2, 9488.6));
+		pacdot.setUneaten();
+		pacdotList.add(pacdot);
+
+		List<Coordinate> path = new ArrayList<>();
+		path.add(new Coordinate(pacdotList.get(0).getLocation()));
+		path.add(new Coordinate(-99999.0, -99999.0));
+		path.add(new Coordinate(pacdot.getLocation()));
+
+		// When
+		EatenDotsReport eatenDots = pacdotRegistry.eatPacdotsAlongPath(null, path);
+
+		// Then
+		for(Pacdot p : pacdotList) {
+			assertTrue(p.isEaten());
+		}
+		assertEquals(2, eatenDots.getEatenPowerdots().intValue());
+		assertEquals(1, eatenDots.getEatenPacdots().intValue());
+
+	}
+
+	@Test
+	public void unitTest_eatPacdotsNearLocation_updatesDensity() {
+
+		// Given
+		Pacdot pacdot = new Pacdot();
+		pacdot.setLocation(new Coordinate(3919.2, 9488.6));
+		pacdot.setUneaten();
+		pacdotList.add(pacdot);
+
+		// When
+		pacdotRegistry.eatPacdotsNearLocation(pacdot.getLocation());
+
+		// Then
+		PacdotDensityTree density = pacdotRegistry.getDensity();
+		assertEquals(3, density.getTotal(0, 0, 0));
+		assertEquals(2, density.getUneaten(0, 0, 0));
+		int side = 1 << density.getMaxLevel();
+		assertEquals(0, density.getUneaten(
+				density.getMaxLevel(), side - 1, side - 1
+		));
+
+		// When
+		pacdotRegistry.resetPacdots();
+
+		// Then
+		assertEquals(3, pacdotRegistry.getDensity().getUneaten(0, 0, 0));
+
+	}
+
+	@Test
+	public void unitTest_getNearestUneatenPacdots() {
+
+		// Given
+		Pacdot pacdot = new Pacdot();
+		pacdot.setLocation(new Coordinate(3919.2, 9488.6));
+		pacdot.setUneaten();
+		pacdotList.add(pacdot);
+		Coordinate location = pacdotList.get(0).getLocation();
+
+		// When
+		pacdotRegistry.eatPacdotsNearLocation(location);
+		List<Pacdot> nearest =
+				pacdotRegistry.getNearestUneatenPacdots(location, 2);
+
+		// Then
+		assertEquals(Collections.singletonList(pacdot), nearest);
+
+		// When
+		pacdotRegistry.resetPacdots();
+		nearest = pacdotRegistry.getNearestUneatenPacdots(location, 2);
+
+		// Then
+		assertEquals(2, nearest.size());
+		assertTrue(nearest.get(0) == pacdotList.get(0));
+		assertTrue(nearest.get(1) == pacdotList.get(1));
+
+	}
+
+	@Test
+	public void unitTest_getUneatenPacdotsInTile() {
+
+		// Given
+		Pacdot pacdot = new Pacdot();
+		pacdot.setLocation(new Coordinate(49.2827, -123.1207));
+		pacdot.setUneaten();
+		pacdotList.add(pacdot);
+		Pacdot neighbour = new Pacdot();
+		neighbour.setLocation(new Coordinate(49.2827, -123.1107));
+		neighbour.setUneaten();
+		pacdotList.add(neighbour);
+		int x = GeoUtils.tileX(-123.1207, 16);
+		int y = GeoUtils.tileY(49.2827, 16);
+
+		// When
+		pacdotRegistry.eatPacdotsNearLocation(neighbour.getLocation());
+
+		// Then
+		assertEquals(
+				Collections.singletonList(pacdot),
+				pacdotRegistry.getUneatenPacdotsInTile(16, x, y)
+		);
+		long version = pacdotRegistry.getTileVersion(16, x, y);
+		assertTrue(version < pacdotRegistry.getTileVersion(
+				16, GeoUtils.tileX(-123.1107, 16), y
+		));
+
+		// When
+		pacdotRegistry.eatPacdotsNearLocation(pacdot.getLocation());
+
+		// Then
+		assertTrue(pacdotRegistry.getUneatenPacdotsInTile(16, x, y).isEmpty());
+		assertTrue(version < pacdotRegistry.getTileVersion(16, x, y));
+
+	}
+
+	@Test
+	public void unitTest_eatPacdotsAlongPath_swept() throws Exception {
+
+		// Given
+		PacdotRegistryImpl sweepingRegistry = new PacdotRegistryImpl(
+				pacdotRepositoryMock, "pacdots_test.json", "powerdots_test.json",
+				0.0005, 0.01, 6, 20
+		);
+		sweepingRegistry.postConstruct();
+
+		Pacdot pacdot = pacdotList.get(0);
+		Coordinate start = new Coordinate(
+				pacdot.getLocation().getLatitude() - 0.004,
+				pacdot.getLocation().getLongitude()
+		);
+		Coordinate end = new Coordinate(
+				pacdot.getLocation().getLatitude() + 0.004,
+				pacdot.getLocation().getLongitude()
+		);
+
+		// When
+		sweepingRegistry.eatPacdotsAlongPath(
+				start, Collections.singletonList(end)
+		);
+
+		// Then
+		assertTrue(pacdot.isEaten());
+
+	}
+
+	@Test
+	public void unitTest_eatPacdotsAlongPath_jumpNotSwept() throws Exception {
+
+		// Given
+		PacdotRegistryImpl sweepingRegistry = new PacdotRegistryImpl(
+				pacdotRepositoryMock, "pacdots_test.json", "powerdots_test.json",
+				0.0005, 0.001, 6, 20
+		);
+		sweepingRegistry.postConstruct();
+
+		Pacdot pacdot = pacdotList.get(0);
+		Coordinate start = new Coordinate(
+				pacdot.getLocation().getLatitude() - 0.004,
+				pacdot.getLocation().getLongitude()
+		);
+		Coordinate end = new Coordinate(
+				pacdot.getLocation().getLatitude() + 0.004,
+				pacdot.getLocation().getLongitude()
+		);
+
+		// When
+		sweepingRegistry.eatPacdotsAlongPath(
+				start, Collections.singletonList(end)
+		);
+
+		// Then
+		assertFalse(pacdot.isEaten());
+
+	}
+
 	@Test(expected = NullPointerException.class)
 	public void unitTest_eatPacdotsNearLocation_nullLocation() {
 
@@ -0,0 +1,109 @@
+package com.pm.server.registry;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pm.server.datatype.Coordinate;
+import com.pm.server.datatype.PlayArea;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.io.InputStream;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(MockitoJUnitRunner.class)
+public class PlayAreaRegistryTest {
+
+	private static final String[] MAPS = {
+			"downtown_vancouver", "sfu_burnaby"
+	};
+
+	private static final int GRID_SIZE = 64;
+
+	@Mock
+	private PacdotRegistry pacdotRegistryMock;
+
+	@Test
+	public void unitTest_getPlayArea_fewBoundaryCells() {
+
+		// Given
+		PlayAreaRegistry playAreaRegistry =
+				new PlayAreaRegistryImpl(pacdotRegistryMock, GRID_SIZE);
+
+		for(String map : MAPS) {
+
+			// When
+			PlayArea playArea = playAreaRegistry.getPlayArea(map);
+
+			// Then
+			// Only the cells an edge crosses need an edge check, which for
+			// the shipped maps is well under a tenth of the grid
+			assertNotNull(playArea);
+			assertTrue(
+					map + " has " + playArea.boundaryCellCount() +
+					" boundary cells",
+					playArea.boundaryCellCount() < GRID_SIZE * GRID_SIZE / 10
+			);
+		}
+
+	}
+
+	@Test
+	public void unitTest_getPlayArea_matchesCoarseGrid() throws Exception {
+
+		// Given
+		PlayAreaRegistry fineRegistry =
+				new PlayAreaRegistryImpl(pacdotRegistryMock, GRID_SIZE);
+		PlayAreaRegistry coarseRegistry =
+				new PlayAreaRegistryImpl(pacdotRegistryMock, 1);
+		Random random = new Random(1);
+
+		for(String map : MAPS) {
+
+			double minLatitude = Double.POSITIVE_INFINITY;
+			double minLongitude = Double.POSITIVE_INFINITY;
+			double maxLatitude = Double.NEGATIVE_INFINITY;
+			double maxLongitude = Double.NEGATIVE_INFINITY;
+			for(Coordinate vertex : readRings(map).get(0)) {
+				minLatitude = Math.min(minLatitude, vertex.getLatitude());
+				minLongitude = Math.min(minLongitude, vertex.getLongitude());
+				maxLatitude = Math.max(maxLatitude, vertex.getLatitude());
+				maxLongitude = Math.max(maxLongitude, vertex.getLongitude());
+			}
+
+			// When
+			PlayArea fine = fineRegistry.getPlayArea(map);
+			PlayArea coarse = coarseRegistry.getPlayArea(map);
+
+			// Then
+			for(int i = 0; i < 10000; i++) {
+				double latitude = minLatitude +
+						random.nextDouble() * (maxLatitude - minLatitude);
+				double longitude = minLongitude +
+						random.nextDouble() * (maxLongitude - minLongitude);
+				assertEquals(
+						coarse.contains(latitude, longitude),
+						fine.contains(latitude, longitude)
+				);
+			}
+		}
+
+	}
+
+	private List<List<Coordinate>> readRings(String map) throws Exception {
+		try(InputStream in = getClass()
+				.getClassLoader()
+				.getResourceAsStream("playarea_" + map + ".json")) {
+			return new ObjectMapper().readValue(
+					in, new TypeReference<List<List<Coordinate>>>(){}
+			);
+		}
+	}
+
+}
@@ -1,8 +1,10 @@
 package com.pm.server.registry;
 
+import com.pm.server.GameLoop;
 import com.pm.server.PmServerException;
 import com.pm.server.TestTemplate;
 import com.pm.server.datatype.Player;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -11,6 +13,9 @@ import org.junit.runner.RunWith;
 import org.mockito.runners.MockitoJUnitRunner;
 import org.springframework.http.HttpStatus;
 
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
 import static junit.framework.TestCase.assertFalse;
 import static junit.framework.TestCase.assertTrue;
 import static org.hamcrest.beans.HasPropertyWithValue.hasProperty;
@@ -21,12 +26,20 @@ public class TagRegistryTest extends TestTemplate {
 
 	private TagRegistry tagRegistry;
 
+	private ScheduledExecutorService gameScheduler;
+
 	@Rule
 	public ExpectedException thrown = ExpectedException.none();
 
 	@Before
 	public void setUp() {
-		tagRegistry = new TagRegistryImpl();
+		gameScheduler = Executors.newSingleThreadScheduledExecutor();
+		tagRegistry = new TagRegistryImpl(new GameLoop(gameScheduler, 0L));
+	}
+
+	@After
+	public void cleanUp() {
+		gameScheduler.shutdownNow();
 	}
 
 	@Test
@@ -0,0 +1,272 @@
+package com.pm.server.replication;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.pm.server.GameLoop;
+import com.pm.server.utils.JsonUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ReplicationFollowerTest {
+
+	@Mock
+	private ReplicationApplier applierMock;
+
+	@Mock
+	private GameLoop gameLoopMock;
+
+	private ServerSocket primary;
+
+	private final List<Socket> streams = new CopyOnWriteArrayList<>();
+
+	private final AtomicInteger connections = new AtomicInteger();
+
+	private final Queue<List<ReplicationEntry>> scripts =
+			new ConcurrentLinkedQueue<>();
+
+	private final AtomicBoolean closeAfterScript = new AtomicBoolean();
+
+	private final AtomicBoolean heartbeats = new AtomicBoolean();
+
+	private ReplicationFollower follower;
+
+	@Before
+	public void setUp() throws Exception {
+
+		// A primary which answers the stream with the next script, if any,
+		// and then falls silent without closing it, as a half-open
+		// connection does, or sends only heartbeats
+		primary = new ServerSocket(0);
+		Thread acceptor = new Thread(() -> {
+			while(!primary.isClosed()) {
+				try {
+					Socket stream = primary.accept();
+					streams.add(stream);
+					BufferedReader request = new BufferedReader(
+							new InputStreamReader(
+									stream.getInputStream(),
+									StandardCharsets.UTF_8
+							)
+					);
+					String line;
+					while((line = request.readLine()) != null &&
+							!line.isEmpty());
+					OutputStream response = stream.getOutputStream();
+					response.write((
+							"HTTP/1.1 200 OK\r\n" +
+							"Content-Type: application/x-ndjson\r\n\r\n"
+					).getBytes(StandardCharsets.UTF_8));
+					List<ReplicationEntry> script = scripts.poll();
+					if(script != null) {
+						for(ReplicationEntry entry : script) {
+							response.write(line(entry));
+						}
+					}
+					response.flush();
+					connections.incrementAndGet();
+					if(closeAfterScript.get() && script != null) {
+						stream.close();
+					}
+					else if(heartbeats.get()) {
+						sendHeartbeats(stream);
+					}
+				}
+				catch(IOException e) {
+					return;
+				}
+			}
+		});
+		acceptor.setDaemon(true);
+		acceptor.start();
+
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		if(follower != null) {
+			follower.stop();
+		}
+		primary.close();
+		for(Socket stream : streams) {
+			stream.close();
+		}
+	}
+
+	@Test
+	public void unitTest_readReplica_reconnectsSilentStream()
+			throws Exception {
+
+		// Given
+		follower = new ReplicationFollower(
+				applierMock, gameLoopMock,
+				"http://localhost:" + primary.getLocalPort(),
+				50L, false, 1000L, 50L
+		);
+
+		// When
+		follower.start();
+
+		// Then
+		long start = System.currentTimeMillis();
+		while(connections.get() < 2 &&
+				System.currentTimeMillis() - start < 5000) {
+			Thread.sleep(10);
+		}
+		assertTrue(
+				"Follower did not reconnect after " + connections.get() +
+				" connection(s)",
+				connections.get() >= 2
+		);
+
+	}
+
+	@Test
+	public void unitTest_earlierStreamDoesNotResync() throws Exception {
+
+		// Given
+		List<Runnable> pending = new CopyOnWriteArrayList<>();
+		doAnswer(invocation -> {
+			pending.add((Runnable) invocation.getArguments()[0]);
+			return null;
+		}).when(gameLoopMock).execute(any(Runnable.class));
+		when(applierMock.apply(any(ReplicationEntry.class)))
+				.thenReturn(false);
+
+		scripts.add(Collections.singletonList(
+				entry(1, ReplicationEntry.Type.PACDOTS, null)
+		));
+		closeAfterScript.set(true);
+		heartbeats.set(true);
+		follower = new ReplicationFollower(
+				applierMock, gameLoopMock,
+				"http://localhost:" + primary.getLocalPort(),
+				50L, false, 1000L, 50L
+		);
+		follower.start();
+		awaitConnections(2);
+
+		// When
+		for(Runnable tick : pending) {
+			tick.run();
+		}
+		Thread.sleep(300);
+
+		// Then
+		assertEquals(2, connections.get());
+
+	}
+
+	@Test
+	public void unitTest_dropsEntriesInSnapshot() throws Exception {
+
+		// Given
+		doAnswer(invocation -> {
+			((Runnable) invocation.getArguments()[0]).run();
+			return null;
+		}).when(gameLoopMock).execute(any(Runnable.class));
+		when(applierMock.apply(any(ReplicationEntry.class)))
+				.thenReturn(true);
+
+		scripts.add(Arrays.asList(
+				entry(5, ReplicationEntry.Type.GAME, true),
+				entry(5, ReplicationEntry.Type.PLAYER, null),
+				entry(4, ReplicationEntry.Type.PLAYER, null),
+				entry(6, ReplicationEntry.Type.PLAYER, null)
+		));
+		heartbeats.set(true);
+		follower = new ReplicationFollower(
+				applierMock, gameLoopMock,
+				"http://localhost:" + primary.getLocalPort(),
+				50L, false, 1000L, 50L
+		);
+
+		// When
+		follower.start();
+
+		// Then
+		long start = System.currentTimeMillis();
+		while(follower.getAppliedSeq() < 6 &&
+				System.currentTimeMillis() - start < 5000) {
+			Thread.sleep(10);
+		}
+		ArgumentCaptor<ReplicationEntry> applied =
+				ArgumentCaptor.forClass(ReplicationEntry.class);
+		verify(applierMock, times(2)).apply(applied.capture());
+		assertEquals(5, applied.getAllValues().get(0).getSeq());
+		assertEquals(6, applied.getAllValues().get(1).getSeq());
+
+	}
+
+	private void awaitConnections(int count) throws Exception {
+		long start = System.currentTimeMillis();
+		while(connections.get() < count &&
+				System.currentTimeMillis() - start < 5000) {
+			Thread.sleep(10);
+		}
+		assertEquals(count, connections.get());
+	}
+
+	private void sendHeartbeats(Socket stream) {
+		Thread sender = new Thread(() -> {
+			try {
+				OutputStream response = stream.getOutputStream();
+				while(!stream.isClosed()) {
+					response.write(line(
+							entry(0, ReplicationEntry.Type.HEARTBEAT, null)
+					));
+					response.flush();
+					Thread.sleep(20);
+				}
+			}
+			catch(IOException | InterruptedException e) {
+				// The follower went away
+			}
+		});
+		sender.setDaemon(true);
+		sender.start();
+	}
+
+	private static ReplicationEntry entry(
+			long seq, ReplicationEntry.Type type, Boolean snapshot) {
+		ReplicationEntry entry = new ReplicationEntry();
+		entry.setSeq(seq);
+		entry.setTime(System.currentTimeMillis());
+		entry.setType(type);
+		entry.setSnapshot(snapshot);
+		return entry;
+	}
+
+	private static byte[] line(ReplicationEntry entry) throws IOException {
+		return (JsonUtils.getObjectMapper().writeValueAsString(entry) + "\n")
+				.getBytes(StandardCharsets.UTF_8);
+	}
+
+}
@@ -0,0 +1,303 @@
+package com.pm.server.replication;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.pm.server.PmServerApplication;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.embedded.EmbeddedWebApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs a primary and two followers in this JVM, each on its own port, and
+ * checks that the followers converge on the primary's game.
+ */
+public class ReplicationTest {
+
+	private static final String[] READS = {
+			"/player/details", "/gamestate", "/pacdots/count"
+	};
+
+	private static final long CONVERGENCE_TIMEOUT_MILLIS = 10000;
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private final RestTemplate restTemplate = new RestTemplate();
+
+	private final List<ConfigurableApplicationContext> servers =
+			new ArrayList<>();
+
+	private String primary;
+
+	private String followerA;
+
+	private String followerB;
+
+	private final static Logger log =
+			LogManager.getLogger(ReplicationTest.class.getName());
+
+	@Before
+	public void setUp() throws Exception {
+		primary = start(null);
+		followerA = start(primary);
+		followerB = start(primary);
+
+		awaitConnected(followerA);
+		awaitConnected(followerB);
+	}
+
+	@After
+	public void tearDown() {
+		for(ConfigurableApplicationContext server : servers) {
+			server.close();
+		}
+	}
+
+	@Test
+	public void integrationTest_followersConverge() throws Exception {
+
+		// Given
+		String pacmanLocation =
+				"{\"latitude\":49.280738,\"longitude\":-123.118839}";
+
+		// When
+		send(HttpMethod.POST, followerA, "/player/Pacman",
+				"{\"latitude\":49.2807,\"longitude\":-123.1188}");
+		send(HttpMethod.POST, followerB, "/player/Inky",
+				"{\"latitude\":49.2810,\"longitude\":-123.1190}");
+		send(HttpMethod.PUT, primary, "/admin/gamestate",
+				"{\"state\":\"IN_PROGRESS\"}");
+		send(HttpMethod.PUT, followerA, "/player/Pacman/location",
+				pacmanLocation);
+
+		// Then
+		long start = System.currentTimeMillis();
+		List<String> expected = readAll(primary);
+		while(!expected.equals(readAll(followerA)) ||
+				!expected.equals(readAll(followerB))) {
+			assertTrue(
+					"Followers did not converge on " + expected,
+					System.currentTimeMillis() - start <
+							CONVERGENCE_TIMEOUT_MILLIS
+			);
+			Thread.sleep(20);
+			expected = readAll(primary);
+		}
+		log.info("Followers converged within {} ms",
+				System.currentTimeMillis() - start);
+
+		assertTrue(expected.get(1).contains("IN_PROGRESS"));
+		Map<?, ?> count = restTemplate.getForObject(
+				primary + "/pacdots/count", Map.class
+		);
+		assertNotEquals(0, count.get("eaten"));
+
+		for(String follower : Arrays.asList(followerA, followerB)) {
+			Map<?, ?> status = restTemplate.getForObject(
+					follower + "/replication/status", Map.class
+			);
+			assertEquals("follower", status.get("role"));
+			assertEquals(true, status.get("connected"));
+			log.info("Follower {} lag {} ms",
+					follower, status.get("lagMillis"));
+		}
+
+	}
+
+	@Test
+	public void integrationTest_lateFollowerCatchesUp()
+			throws Exception {
+
+		// Given
+		send(HttpMethod.POST, primary, "/player/Blinky",
+				"{\"latitude\":49.2807,\"longitude\":-123.1188}");
+		String lateFollower = start(primary);
+		awaitConnected(lateFollower);
+
+		// When
+		send(HttpMethod.POST, lateFollower, "/player/Clyde",
+				"{\"latitude\":49.2810,\"longitude\":-123.1190}");
+
+		// Then
+		long start = System.currentTimeMillis();
+		while(!readAll(primary).equals(readAll(lateFollower))) {
+			assertTrue(
+					"Late follower did not catch up",
+					System.currentTimeMillis() - start <
+							CONVERGENCE_TIMEOUT_MILLIS
+			);
+			Thread.sleep(20);
+		}
+
+	}
+
+	@Test
+	public void integrationTest_followersCountHeatmap() throws Exception {
+
+		// Given
+		send(HttpMethod.POST, primary, "/player/Pacman",
+				"{\"latitude\":49.2807,\"longitude\":-123.1188}");
+		send(HttpMethod.PUT, primary, "/admin/gamestate",
+				"{\"state\":\"IN_PROGRESS\"}");
+
+		// When
+		send(HttpMethod.PUT, followerA, "/player/Pacman/location",
+				"{\"latitude\":49.280738,\"longitude\":-123.118839}");
+		String lateFollower = start(primary);
+		awaitConnected(lateFollower);
+
+		// Then
+		long start = System.currentTimeMillis();
+		byte[] expected = readHeatmap(primary);
+		while(expected == null ||
+				!Arrays.equals(expected, readHeatmap(followerA)) ||
+				!Arrays.equals(expected, readHeatmap(lateFollower))) {
+			assertTrue(
+					"Followers did not count the heatmap",
+					System.currentTimeMillis() - start <
+							CONVERGENCE_TIMEOUT_MILLIS
+			);
+			Thread.sleep(20);
+			expected = readHeatmap(primary);
+		}
+
+	}
+
+	@Test
+	public void integrationTest_followersRankResults() throws Exception {
+
+		// Given
+		send(HttpMethod.PUT, primary, "/admin/gamestate",
+				"{\"state\":\"IN_PROGRESS\"}");
+
+		// When
+		send(HttpMethod.PUT, followerA, "/admin/gamestate",
+				"{\"state\":\"FINISHED_GHOSTS_WIN\"}");
+		String lateFollower = start(primary);
+		awaitConnected(lateFollower);
+
+		// Then
+		List<String> expected = readLeaderboard(primary);
+		assertTrue(expected.get(0).contains("\"total\":1"));
+		assertTrue(expected.get(1).contains("\"total\":1"));
+
+		long start = System.currentTimeMillis();
+		while(!expected.equals(readLeaderboard(followerA)) ||
+				!expected.equals(readLeaderboard(followerB)) ||
+				!expected.equals(readLeaderboard(lateFollower))) {
+			assertTrue(
+					"Followers did not rank the primary's results",
+					System.currentTimeMillis() - start <
+							CONVERGENCE_TIMEOUT_MILLIS
+			);
+			Thread.sleep(20);
+		}
+
+	}
+
+	private String start(String primaryUrl) throws IOException {
+		List<String> args = new ArrayList<>(Arrays.asList(
+				"--server.port=0",
+				"--spring.jmx.enabled=false",
+				"--replication.reconnect.millis=100",
+				// Each server keeps its own results, as on its own host
+				"--leaderboard.journal.file=" + new File(
+						folder.newFolder(), "leaderboard.ndjson"
+				).getPath()
+		));
+		if(primaryUrl != null) {
+			args.add("--replication.primary.url=" + primaryUrl);
+		}
+
+		ConfigurableApplicationContext server =
+				new SpringApplicationBuilder(PmServerApplication.class)
+						.run(args.toArray(new String[args.size()]));
+		servers.add(server);
+
+		int port = ((EmbeddedWebApplicationContext) server)
+				.getEmbeddedServletContainer().getPort();
+		return "http://localhost:" + port;
+	}
+
+	private void awaitConnected(String follower) throws Exception {
+		long start = System.currentTimeMillis();
+		while(!Boolean.TRUE.equals(restTemplate.getForObject(
+				follower + "/replication/status", Map.class
+		).get("connected"))) {
+			assertTrue(
+					"Follower did not connect",
+					System.currentTimeMillis() - start <
+							CONVERGENCE_TIMEOUT_MILLIS
+			);
+			Thread.sleep(20);
+		}
+	}
+
+	private void send(
+			HttpMethod method, String server, String path, String body) {
+		HttpHeaders headers = new HttpHeaders();
+		headers.setContentType(MediaType.APPLICATION_JSON);
+		restTemplate.exchange(
+				server + path, method, new HttpEntity<>(body, headers),
+				String.class
+		);
+	}
+
+	/**
+	 * @return The heatmap of the default map, or null until a location has
+	 *         been counted on it
+	 */
+	private byte[] readHeatmap(String server) {
+		try {
+			return restTemplate.getForObject(
+					server + "/maps/downtown_vancouver/heatmap", byte[].class
+			);
+		}
+		catch(HttpClientErrorException e) {
+			return null;
+		}
+	}
+
+	private List<String> readLeaderboard(String server) {
+		List<String> bodies = new ArrayList<>();
+		for(String board : new String[] {
+				"PACMAN_SCORE", "GHOSTS_CAPTURE_MILLIS"
+		}) {
+			bodies.add(restTemplate.getForObject(
+					server + "/leaderboard?board=" + board, String.class
+			));
+		}
+		return bodies;
+	}
+
+	private List<String> readAll(String server) {
+		List<String> bodies = new ArrayList<>();
+		for(String path : READS) {
+			bodies.add(restTemplate.getForObject(server + path, String.class));
+		}
+		return bodies;
+	}
+
+}
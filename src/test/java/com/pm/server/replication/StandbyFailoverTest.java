@@ -0,0 +1,258 @@
+package com.pm.server.replication;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.pm.server.PmServerApplication;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.embedded.EmbeddedWebApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.File;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs a primary in its own process and a standby in this JVM, kills the
+ * primary, and checks that the standby takes over quickly without losing
+ * any change the primary acknowledged, both when changes apply at once and
+ * when they wait for a tick or a coalescing window.
+ */
+public class StandbyFailoverTest {
+
+	private static final String[] READS = {
+			"/player/details", "/gamestate", "/pacdots/count"
+	};
+
+	private static final long STARTUP_TIMEOUT_MILLIS = 60000;
+
+	private static final long FAILOVER_LIMIT_MILLIS = 2000;
+
+	private final RestTemplate restTemplate = new RestTemplate();
+
+	private Process primaryProcess;
+
+	private ConfigurableApplicationContext standbyServer;
+
+	private String primary;
+
+	private String standby;
+
+	private final static Logger log =
+			LogManager.getLogger(StandbyFailoverTest.class.getName());
+
+	/**
+	 * Starts the primary and the standby, both with the given properties,
+	 * and waits until the standby is connected.
+	 */
+	private void start(String... properties) throws Exception {
+		int port = freePort();
+		primary = "http://localhost:" + port;
+
+		List<String> command = new ArrayList<>(Arrays.asList(
+				System.getProperty("java.home") + File.separator + "bin" +
+						File.separator + "java",
+				"-cp", System.getProperty("java.class.path"),
+				"-Dlog4j.configurationFile=log4j.prod.xml",
+				PmServerApplication.class.getName(),
+				"--server.port=" + port,
+				"--spring.jmx.enabled=false",
+				// Keep the test's data where the build put it
+				"--archive.directory=" + System.getProperty(
+						"archive.directory", "target/test-data/archive"
+				),
+				"--leaderboard.journal.file=" + System.getProperty(
+						"leaderboard.journal.file",
+						"target/test-data/leaderboard.ndjson"
+				)
+		));
+		command.addAll(Arrays.asList(properties));
+		ProcessBuilder builder = new ProcessBuilder(command);
+		builder.redirectErrorStream(true);
+		builder.redirectOutput(new File("target", "standby-primary.log"));
+		primaryProcess = builder.start();
+		awaitUp(primary);
+
+		List<String> args = new ArrayList<>(Arrays.asList(
+				"--server.port=0",
+				"--spring.jmx.enabled=false",
+				"--replication.primary.url=" + primary,
+				"--replication.standby=true",
+				"--replication.reconnect.millis=100"
+		));
+		args.addAll(Arrays.asList(properties));
+		standbyServer = new SpringApplicationBuilder(PmServerApplication.class)
+				.run(args.toArray(new String[args.size()]));
+		standby = "http://localhost:" + ((EmbeddedWebApplicationContext)
+				standbyServer).getEmbeddedServletContainer().getPort();
+		awaitConnected(standby);
+	}
+
+	@After
+	public void tearDown() {
+		if(primaryProcess != null) {
+			primaryProcess.destroyForcibly();
+		}
+		if(standbyServer != null) {
+			standbyServer.close();
+		}
+	}
+
+	@Test
+	public void integrationTest_standbyTakesOverWithoutLosingWrites()
+			throws Exception {
+		start();
+		failOver();
+	}
+
+	@Test
+	public void integrationTest_standbyTakesOverWithoutLosingWrites_ticking()
+			throws Exception {
+		start("--game.tick.millis=50");
+		failOver();
+	}
+
+	@Test
+	public void integrationTest_standbyTakesOverWithoutLosingWrites_coalesced()
+			throws Exception {
+		start("--location.coalesce.millis=200");
+		failOver();
+	}
+
+	/**
+	 * Makes changes on the primary, the last one a location fix killed
+	 * right after it is acknowledged, and checks the standby has them all.
+	 */
+	private void failOver() throws Exception {
+
+		// Given
+		send(HttpMethod.POST, primary, "/player/Pacman",
+				"{\"latitude\":49.2807,\"longitude\":-123.1188}");
+		send(HttpMethod.POST, primary, "/player/Inky",
+				"{\"latitude\":49.2810,\"longitude\":-123.1190}");
+		send(HttpMethod.PUT, primary, "/admin/gamestate",
+				"{\"state\":\"IN_PROGRESS\"}");
+		send(HttpMethod.PUT, primary, "/player/Pacman/location",
+				"{\"latitude\":49.280738,\"longitude\":-123.118839}");
+		send(HttpMethod.PUT, primary, "/player/Inky/location",
+				"{\"latitude\":49.2812,\"longitude\":-123.1192}");
+		List<String> expected = readAll(primary);
+
+		// When
+		primaryProcess.destroyForcibly();
+		long killed = System.currentTimeMillis();
+		while(!"primary".equals(restTemplate.getForObject(
+				standby + "/replication/status", Map.class
+		).get("role"))) {
+			assertTrue(
+					"Standby did not take over",
+					System.currentTimeMillis() - killed <
+							STARTUP_TIMEOUT_MILLIS
+			);
+			Thread.sleep(10);
+		}
+		long failoverMillis = System.currentTimeMillis() - killed;
+		log.info("Standby took over within {} ms", failoverMillis);
+
+		// Then
+		assertTrue(
+				"Failover took " + failoverMillis + " ms",
+				failoverMillis < FAILOVER_LIMIT_MILLIS
+		);
+		assertEquals(expected, readAll(standby));
+		Map<?, ?> acknowledged = restTemplate.getForObject(
+				standby + "/player/Inky/location", Map.class
+		);
+		assertEquals(49.2812, acknowledged.get("latitude"));
+
+		send(HttpMethod.PUT, standby, "/player/Inky/location",
+				"{\"latitude\":49.2815,\"longitude\":-123.1195}");
+
+		// With no standby of its own, the new primary may apply the fix at
+		// its next tick or flush
+		long sent = System.currentTimeMillis();
+		while(!Double.valueOf(49.2815).equals(restTemplate.getForObject(
+				standby + "/player/Inky/location", Map.class
+		).get("latitude"))) {
+			assertTrue(
+					"New primary did not apply the fix",
+					System.currentTimeMillis() - sent < FAILOVER_LIMIT_MILLIS
+			);
+			Thread.sleep(10);
+		}
+
+	}
+
+	private static int freePort() throws Exception {
+		try(ServerSocket socket = new ServerSocket(0)) {
+			return socket.getLocalPort();
+		}
+	}
+
+	private void awaitUp(String server) throws Exception {
+		long start = System.currentTimeMillis();
+		while(true) {
+			try {
+				restTemplate.getForObject(
+						server + "/replication/status", Map.class
+				);
+				return;
+			}
+			catch(RestClientException e) {
+				assertTrue(
+						"Primary did not start",
+						primaryProcess.isAlive() &&
+								System.currentTimeMillis() - start <
+										STARTUP_TIMEOUT_MILLIS
+				);
+				Thread.sleep(100);
+			}
+		}
+	}
+
+	private void awaitConnected(String follower) throws Exception {
+		long start = System.currentTimeMillis();
+		while(!Boolean.TRUE.equals(restTemplate.getForObject(
+				follower + "/replication/status", Map.class
+		).get("connected"))) {
+			assertTrue(
+					"Standby did not connect",
+					System.currentTimeMillis() - start <
+							STARTUP_TIMEOUT_MILLIS
+			);
+			Thread.sleep(20);
+		}
+	}
+
+	private void send(
+			HttpMethod method, String server, String path, String body) {
+		HttpHeaders headers = new HttpHeaders();
+		headers.setContentType(MediaType.APPLICATION_JSON);
+		restTemplate.exchange(
+				server + path, method, new HttpEntity<>(body, headers),
+				String.class
+		);
+	}
+
+	private List<String> readAll(String server) {
+		List<String> bodies = new ArrayList<>();
+		for(String path : READS) {
+			bodies.add(restTemplate.getForObject(server + path, String.class));
+		}
+		return bodies;
+	}
+
+}
@@ -0,0 +1,66 @@
+package com.pm.server.throttle;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class LatencyShedderTest {
+
+	private static final long MILLIS = 1000000;
+
+	@Test
+	public void unitTest_tryAcquire_atLimit() {
+
+		// Given
+		LatencyShedder shedder = new LatencyShedder(100, 1000, 1, 2);
+		shedder.tryAcquire();
+		shedder.tryAcquire();
+
+		// When
+		boolean third = shedder.tryAcquire();
+
+		// Then
+		assertFalse(third);
+		assertEquals(2, shedder.getInFlight());
+
+	}
+
+	@Test
+	public void unitTest_release_slowRequestsLowerLimit() {
+
+		// Given
+		LatencyShedder shedder = new LatencyShedder(100, 0, 10, 100);
+
+		// When
+		assertTrue(shedder.tryAcquire());
+		shedder.release(500 * MILLIS);
+
+		// Then
+		assertEquals(75, shedder.getLimit());
+		assertTrue(shedder.getLastP99Nanos() >= 500 * MILLIS);
+
+	}
+
+	@Test
+	public void unitTest_release_fastRequestsRaiseLimit() {
+
+		// Given
+		LatencyShedder shedder = new LatencyShedder(100, 0, 10, 100);
+		for(int i = 0; i < 4; i++) {
+			shedder.tryAcquire();
+			shedder.release(500 * MILLIS);
+		}
+		int lowered = shedder.getLimit();
+
+		// When
+		shedder.tryAcquire();
+		shedder.release(MILLIS);
+
+		// Then
+		assertTrue(shedder.getLimit() > lowered);
+
+	}
+
+}
@@ -0,0 +1,96 @@
+package com.pm.server.throttle;
+
+import com.pm.server.PmServerException;
+import com.pm.server.datatype.Player;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class RateLimitInterceptorTest {
+
+	private RateLimitInterceptor interceptor;
+
+	private AtomicLong rejected;
+
+	@Before
+	public void setUp() {
+		rejected = new AtomicLong();
+		interceptor = new RateLimitInterceptor(
+				"PUT", "playerName",
+				new TokenBuckets(Player.Name.values().length, 1, 1),
+				rejected
+		);
+	}
+
+	@Test
+	public void unitTest_preHandle_limited() throws Exception {
+
+		// Given
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		assertTrue(interceptor.preHandle(
+				requestFor("PUT", "Pacman"), response, null
+		));
+
+		// When
+		try {
+			interceptor.preHandle(requestFor("PUT", "Pacman"), response, null);
+			fail();
+		}
+
+		// Then
+		catch(PmServerException e) {
+			assertEquals(HttpStatus.TOO_MANY_REQUESTS, e.getStatus());
+		}
+		assertEquals(1, rejected.get());
+		assertNotNull(response.getHeader("Retry-After"));
+
+	}
+
+	@Test
+	public void unitTest_preHandle_otherPlayerAndMethod() throws Exception {
+
+		// Given
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		interceptor.preHandle(requestFor("PUT", "Pacman"), response, null);
+
+		// When
+		boolean otherPlayer = interceptor.preHandle(
+				requestFor("PUT", "Inky"), response, null
+		);
+		boolean otherMethod = interceptor.preHandle(
+				requestFor("GET", "Pacman"), response, null
+		);
+		boolean unknownPlayer = interceptor.preHandle(
+				requestFor("PUT", "Nobody"), response, null
+		);
+
+		// Then
+		assertTrue(otherPlayer && otherMethod && unknownPlayer);
+		assertEquals(0, rejected.get());
+
+	}
+
+	private static MockHttpServletRequest requestFor(
+			String method, String playerName) {
+		MockHttpServletRequest request = new MockHttpServletRequest(
+				method, "/player/" + playerName + "/location"
+		);
+		request.setAttribute(
+				HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE,
+				Collections.singletonMap("playerName", playerName)
+		);
+		return request;
+	}
+
+}
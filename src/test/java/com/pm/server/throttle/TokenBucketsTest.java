@@ -0,0 +1,75 @@
+package com.pm.server.throttle;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TokenBucketsTest {
+
+	@Test
+	public void unitTest_tryAcquire_burstThenLimited() {
+
+		// Given
+		TokenBuckets buckets = new TokenBuckets(2, 1, 3);
+
+		// When
+		boolean first = buckets.tryAcquire(0);
+		boolean second = buckets.tryAcquire(0);
+		boolean third = buckets.tryAcquire(0);
+		boolean fourth = buckets.tryAcquire(0);
+
+		// Then
+		assertTrue(first && second && third);
+		assertFalse(fourth);
+		assertTrue(buckets.millisUntilAvailable(0) > 0);
+
+	}
+
+	@Test
+	public void unitTest_tryAcquire_bucketsIndependent() {
+
+		// Given
+		TokenBuckets buckets = new TokenBuckets(2, 1, 1);
+		buckets.tryAcquire(0);
+
+		// When
+		boolean other = buckets.tryAcquire(1);
+
+		// Then
+		assertTrue(other);
+		assertEquals(0, buckets.millisUntilAvailable(0) > 0 ? 0 : 1);
+
+	}
+
+	@Test
+	public void unitTest_tryAcquire_refills() throws Exception {
+
+		// Given
+		TokenBuckets buckets = new TokenBuckets(1, 100, 1);
+		buckets.tryAcquire(0);
+		assertFalse(buckets.tryAcquire(0));
+
+		// When
+		Thread.sleep(20);
+
+		// Then
+		assertTrue(buckets.tryAcquire(0));
+
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void unitTest_constructor_zeroRate() {
+
+		// Given
+
+		// When
+		new TokenBuckets(1, 0, 1);
+
+		// Then
+		// Exception thrown above
+
+	}
+
+}
@@ -0,0 +1,259 @@
+package com.pm.server.utils;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class BroadcastHubTest {
+
+	/**
+	 * Records frames, optionally blocking on each until released.
+	 */
+	private static class RecordingSink implements BroadcastHub.FrameSink {
+
+		final List<byte[]> frames = new ArrayList<>();
+
+		/**
+		 * First byte and arrival time of each frame.
+		 */
+		final List<long[]> received = new ArrayList<>();
+
+		CountDownLatch release = new CountDownLatch(0);
+
+		final CountDownLatch sending = new CountDownLatch(1);
+
+		boolean closed = false;
+
+		@Override
+		public void send(byte[] frame) throws IOException {
+			sending.countDown();
+			try {
+				release.await();
+			}
+			catch(InterruptedException e) {
+				throw new IOException(e);
+			}
+			synchronized(frames) {
+				frames.add(frame);
+				received.add(new long[] { frame[0], System.nanoTime() });
+			}
+		}
+
+		@Override
+		public void close() {
+			closed = true;
+		}
+
+	}
+
+	@Test
+	public void unitTest_publish_sharesFrame() {
+
+		// Given
+		BroadcastHub hub = new BroadcastHub(Runnable::run, 1, 1000);
+		RecordingSink sink1 = new RecordingSink();
+		RecordingSink sink2 = new RecordingSink();
+		hub.subscribe(sink1);
+		hub.subscribe(sink2);
+
+		// When
+		byte[] frame = { 1, 2, 3 };
+		hub.publish(frame);
+
+		// Then
+		assertSame(frame, sink1.frames.get(0));
+		assertSame(frame, sink2.frames.get(0));
+
+	}
+
+	@Test
+	public void unitTest_subscribe_receivesLatestFrame() {
+
+		// Given
+		BroadcastHub hub = new BroadcastHub(Runnable::run, 1, 1000);
+		byte[] frame = { 1 };
+		hub.publish(frame);
+
+		// When
+		RecordingSink sink = new RecordingSink();
+		hub.subscribe(sink);
+
+		// Then
+		assertEquals(1, sink.frames.size());
+		assertSame(frame, sink.frames.get(0));
+
+	}
+
+	@Test
+	public void unitTest_publish_slowSubscriberSkipsAhead() throws Exception {
+
+		// Given
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		BroadcastHub hub = new BroadcastHub(executor, 1, 60000);
+		RecordingSink sink = new RecordingSink();
+		sink.release = new CountDownLatch(1);
+		hub.subscribe(sink);
+
+		hub.publish(new byte[] { 1 });
+		sink.sending.await();
+
+		// When
+		hub.publish(new byte[] { 2 });
+		hub.publish(new byte[] { 3 });
+		sink.release.countDown();
+
+		// Then
+		executor.shutdown();
+		executor.awaitTermination(1, TimeUnit.SECONDS);
+		assertEquals(2, sink.frames.size());
+		assertEquals(1, sink.frames.get(0)[0]);
+		assertEquals(3, sink.frames.get(1)[0]);
+		assertEquals(1, hub.getFramesSkipped());
+
+	}
+
+	@Test
+	public void unitTest_publish_dropsStuckSubscriber() throws Exception {
+
+		// Given
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		BroadcastHub hub = new BroadcastHub(executor, 1, 0);
+		RecordingSink sink = new RecordingSink();
+		sink.release = new CountDownLatch(1);
+		hub.subscribe(sink);
+
+		hub.publish(new byte[] { 1 });
+		sink.sending.await();
+		Thread.sleep(5);
+
+		// When
+		hub.publish(new byte[] { 2 });
+
+		// Then
+		assertTrue(sink.closed);
+		assertEquals(0, hub.size());
+		assertEquals(1, hub.getSubscribersDropped());
+
+		sink.release.countDown();
+		executor.shutdown();
+		executor.awaitTermination(1, TimeUnit.SECONDS);
+		assertEquals(1, sink.frames.size());
+
+	}
+
+	@Test
+	public void unitTest_publish_stuckSubscribersDoNotDelayOthers()
+			throws Exception {
+
+		// Given
+		ExecutorService executor = Executors.newCachedThreadPool();
+		BroadcastHub hub = new BroadcastHub(executor, 2, 50);
+
+		// Never return, even when interrupted
+		CountDownLatch never = new CountDownLatch(1);
+		List<RecordingSink> stuckSinks = new ArrayList<>();
+		for(int i = 0; i < 4; i++) {
+			RecordingSink sink = new RecordingSink() {
+				@Override
+				public void send(byte[] frame) {
+					sending.countDown();
+					while(never.getCount() > 0) {
+						try {
+							never.await();
+						}
+						catch(InterruptedException e) {
+							// Keep blocking
+						}
+					}
+				}
+			};
+			stuckSinks.add(sink);
+			hub.subscribe(sink);
+		}
+		List<RecordingSink> sinks = new ArrayList<>();
+		for(int i = 0; i < 3; i++) {
+			RecordingSink sink = new RecordingSink();
+			sinks.add(sink);
+			hub.subscribe(sink);
+		}
+
+		// When
+		int frameCount = 25;
+		long[] publishedNanos = new long[frameCount];
+		for(int i = 0; i < frameCount; i++) {
+			publishedNanos[i] = System.nanoTime();
+			hub.publish(new byte[] { (byte) i });
+			Thread.sleep(20);
+		}
+		Thread.sleep(200);
+
+		// Then
+		for(RecordingSink sink : stuckSinks) {
+			assertTrue(sink.closed);
+		}
+		assertEquals(3, hub.size());
+		for(RecordingSink sink : sinks) {
+			List<long[]> received;
+			synchronized(sink.frames) {
+				received = new ArrayList<>(sink.received);
+			}
+			assertEquals(frameCount - 1, received.get(received.size() - 1)[0]);
+
+			// Each frame, or a newer one, arrives within a few slow writes
+			for(int i = 0; i < frameCount; i++) {
+				long arrival = Long.MAX_VALUE;
+				for(long[] frame : received) {
+					if(frame[0] >= i) {
+						arrival = frame[1];
+						break;
+					}
+				}
+				assertTrue(
+						"Frame " + i + " late",
+						arrival - publishedNanos[i] <
+								TimeUnit.MILLISECONDS.toNanos(300)
+				);
+			}
+		}
+
+		never.countDown();
+		executor.shutdown();
+		assertTrue(executor.awaitTermination(1, TimeUnit.SECONDS));
+
+	}
+
+	@Test
+	public void unitTest_publish_dropsFailedSubscriber() {
+
+		// Given
+		BroadcastHub hub = new BroadcastHub(Runnable::run, 1, 1000);
+		hub.subscribe(new BroadcastHub.FrameSink() {
+			@Override
+			public void send(byte[] frame) throws IOException {
+				throw new IOException("Broken pipe");
+			}
+
+			@Override
+			public void close() {
+			}
+		});
+
+		// When
+		hub.publish(new byte[] { 1 });
+
+		// Then
+		assertEquals(0, hub.size());
+
+	}
+
+}
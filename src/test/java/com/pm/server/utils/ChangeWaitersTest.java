@@ -0,0 +1,90 @@
+package com.pm.server.utils;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ChangeWaitersTest {
+
+	private ChangeWaiters<String> changeWaiters;
+
+	private String currentValue;
+
+	@Before
+	public void setUp() {
+		changeWaiters = new ChangeWaiters<>();
+		currentValue = "a";
+	}
+
+	@Test
+	public void unitTest_waitForChange_completesOnPublish() throws Exception {
+
+		// Given
+		CompletableFuture<String> future =
+				changeWaiters.waitForChange("a", () -> currentValue);
+		assertFalse(future.isDone());
+
+		// When
+		currentValue = "b";
+		changeWaiters.publish(currentValue);
+
+		// Then
+		assertEquals("b", future.get());
+		assertEquals(0, changeWaiters.size());
+
+	}
+
+	@Test
+	public void unitTest_waitForChange_sameValuePublished() {
+
+		// Given
+		CompletableFuture<String> future =
+				changeWaiters.waitForChange("a", () -> currentValue);
+
+		// When
+		changeWaiters.publish("a");
+
+		// Then
+		assertFalse(future.isDone());
+		assertEquals(1, changeWaiters.size());
+
+	}
+
+	@Test
+	public void unitTest_waitForChange_alreadyChanged() throws Exception {
+
+		// Given
+		currentValue = "b";
+
+		// When
+		CompletableFuture<String> future =
+				changeWaiters.waitForChange("a", () -> currentValue);
+
+		// Then
+		assertTrue(future.isDone());
+		assertEquals("b", future.get());
+		assertEquals(0, changeWaiters.size());
+
+	}
+
+	@Test
+	public void unitTest_waitForChange_cancelled() {
+
+		// Given
+		CompletableFuture<String> future =
+				changeWaiters.waitForChange("a", () -> currentValue);
+
+		// When
+		future.cancel(false);
+
+		// Then
+		assertEquals(0, changeWaiters.size());
+
+	}
+
+}
@@ -0,0 +1,63 @@
+package com.pm.server.utils;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.util.zip.InflaterInputStream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class ContentCodingTest {
+
+	@Test
+	public void unitTest_negotiate() {
+
+		// Given
+
+		// When
+
+		// Then
+		assertEquals(ContentCoding.IDENTITY, ContentCoding.negotiate(null));
+		assertEquals(ContentCoding.IDENTITY, ContentCoding.negotiate("br"));
+		assertEquals(
+				ContentCoding.GZIP,
+				ContentCoding.negotiate("gzip, deflate, br")
+		);
+		assertEquals(
+				ContentCoding.DEFLATE,
+				ContentCoding.negotiate("gzip;q=0.2, deflate")
+		);
+		assertEquals(
+				ContentCoding.IDENTITY,
+				ContentCoding.negotiate("gzip;q=0")
+		);
+		assertEquals(ContentCoding.GZIP, ContentCoding.negotiate("*"));
+
+	}
+
+	@Test
+	public void unitTest_encode_deflate() throws Exception {
+
+		// Given
+		byte[] body = "[{\"eaten\":false},{\"eaten\":false}]".getBytes("UTF-8");
+
+		// When
+		byte[] encoded = ContentCoding.DEFLATE.encode(body);
+
+		// Then
+		byte[] decoded = new byte[body.length];
+		try(InflaterInputStream in = new InflaterInputStream(
+				new ByteArrayInputStream(encoded))) {
+			int offset = 0;
+			int read;
+			while(offset < decoded.length &&
+					(read = in.read(decoded, offset, decoded.length - offset)) > 0) {
+				offset += read;
+			}
+		}
+		assertArrayEquals(body, decoded);
+
+	}
+
+}
@@ -0,0 +1,50 @@
+package com.pm.server.utils;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class GeoUtilsTest {
+
+	@Test
+	public void unitTest_tiles() {
+
+		// Given
+		double latitude = 49.2827;
+		double longitude = -123.1207;
+
+		// When
+		int x = GeoUtils.tileX(longitude, 16);
+		int y = GeoUtils.tileY(latitude, 16);
+
+		// Then
+		assertEquals(10354, x);
+		assertEquals(22427, y);
+		assertTrue(GeoUtils.tileWest(x, 16) <= longitude);
+		assertTrue(GeoUtils.tileWest(x + 1, 16) > longitude);
+		assertTrue(GeoUtils.tileNorth(y, 16) >= latitude);
+		assertTrue(GeoUtils.tileNorth(y + 1, 16) < latitude);
+
+	}
+
+	@Test
+	public void unitTest_tiles_clamped() {
+
+		// Given
+
+		// When
+
+		// Then
+		assertEquals(0, GeoUtils.tileX(-180, 4));
+		assertEquals(15, GeoUtils.tileX(180, 4));
+		assertEquals(0, GeoUtils.tileY(90, 4));
+		assertEquals(15, GeoUtils.tileY(-90, 4));
+		assertEquals(0, GeoUtils.tileX(-123.1207, 0));
+		assertEquals(
+				GeoUtils.MAX_TILE_LATITUDE, GeoUtils.tileNorth(0, 0), 1e-9
+		);
+
+	}
+
+}
@@ -0,0 +1,186 @@
+package com.pm.server.utils;
+
+import com.pm.server.PmServerException;
+import com.pm.server.datatype.PacdotMap;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.springframework.http.HttpStatus;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.hamcrest.Matchers.hasProperty;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PacdotMapReaderTest {
+
+	private static final double CELL_SIZE = 0.0005;
+
+	@Rule
+	public ExpectedException thrown = ExpectedException.none();
+
+	@Test
+	public void unitTest_read_plainArray() throws Exception {
+
+		// Given
+		String json = "[" +
+				"{\"latitude\":49.28,\"longitude\":-123.11}," +
+				"{\"latitude\":49.29,\"longitude\":-123.12,\"powerdot\":true}" +
+				"]";
+		PacdotMapReader reader = new PacdotMapReader(10);
+
+		// When
+		PacdotMap map = reader.read("test", streamOf(json), CELL_SIZE);
+
+		// Then
+		assertEquals(2, map.getCount());
+		assertEquals(1, map.getPowerdotCount());
+		assertEquals(49.28, map.getLatitude(0), 0);
+		assertEquals(-123.11, map.getLongitude(0), 0);
+		assertFalse(map.isPowerdot(0));
+		assertTrue(map.isPowerdot(1));
+
+	}
+
+	@Test
+	public void unitTest_read_featureCollection() throws Exception {
+
+		// Given
+		String json = "{\"type\":\"FeatureCollection\",\"features\":[" +
+				"{\"type\":\"Feature\",\"geometry\":{\"type\":\"Point\"," +
+				"\"coordinates\":[-123.11,49.28]},\"properties\":{}}," +
+				"{\"type\":\"Feature\",\"geometry\":{\"type\":\"Point\"," +
+				"\"coordinates\":[-123.12,49.29,10.0]}," +
+				"\"properties\":{\"powerdot\":true,\"street\":\"Robson\"}}" +
+				"]}";
+		PacdotMapReader reader = new PacdotMapReader(10);
+
+		// When
+		PacdotMap map = reader.read("test", streamOf(json), CELL_SIZE);
+
+		// Then
+		assertEquals(2, map.getCount());
+		assertEquals(49.29, map.getLatitude(1), 0);
+		assertEquals(-123.12, map.getLongitude(1), 0);
+		assertTrue(map.isPowerdot(1));
+
+	}
+
+	@Test
+	public void unitTest_read_duplicates() throws Exception {
+
+		// Given
+		String json = "[" +
+				"{\"latitude\":49.28,\"longitude\":-123.11}," +
+				"{\"latitude\":49.2800001,\"longitude\":-123.1100001}," +
+				"{\"latitude\":49.28,\"longitude\":-123.11}" +
+				"]";
+		PacdotMapReader reader = new PacdotMapReader(10);
+
+		// When
+		PacdotMap map = reader.read("test", streamOf(json), CELL_SIZE);
+
+		// Then
+		assertEquals(1, map.getCount());
+		assertEquals(2, reader.getDuplicates());
+
+	}
+
+	@Test
+	public void unitTest_read_indexFindsNearbyPacdots() throws Exception {
+
+		// Given
+		String json = "[" +
+				"{\"latitude\":49.28,\"longitude\":-123.11}," +
+				"{\"latitude\":49.2801,\"longitude\":-123.1101}," +
+				"{\"latitude\":49.29,\"longitude\":-123.12}" +
+				"]";
+		PacdotMap map = new PacdotMapReader(10)
+				.read("test", streamOf(json), CELL_SIZE);
+		final int[] found = new int[1];
+
+		// When
+		map.getIndex().forEachWithin(49.28, -123.11, CELL_SIZE, i -> found[0]++);
+
+		// Then
+		assertEquals(2, found[0]);
+
+	}
+
+	@Test
+	public void unitTest_read_tooManyPacdots() throws Exception {
+
+		// Given
+		String json = "[" +
+				"{\"latitude\":49.28,\"longitude\":-123.11}," +
+				"{\"latitude\":49.29,\"longitude\":-123.12}" +
+				"]";
+		PacdotMapReader reader = new PacdotMapReader(1);
+
+		// Then
+		thrown.expect(PmServerException.class);
+		thrown.expect(hasProperty("status", is(HttpStatus.PAYLOAD_TOO_LARGE)));
+
+		// When
+		reader.read("test", streamOf(json), CELL_SIZE);
+
+	}
+
+	@Test
+	public void unitTest_read_missingLongitude() throws Exception {
+
+		// Given
+		String json = "[{\"latitude\":49.28}]";
+		PacdotMapReader reader = new PacdotMapReader(10);
+
+		// Then
+		thrown.expect(PmServerException.class);
+		thrown.expect(hasProperty("status", is(HttpStatus.BAD_REQUEST)));
+
+		// When
+		reader.read("test", streamOf(json), CELL_SIZE);
+
+	}
+
+	@Test
+	public void unitTest_read_latitudeOutOfRange() throws Exception {
+
+		// Given
+		String json = "[{\"latitude\":91.0,\"longitude\":-123.11}]";
+		PacdotMapReader reader = new PacdotMapReader(10);
+
+		// Then
+		thrown.expect(PmServerException.class);
+		thrown.expect(hasProperty("status", is(HttpStatus.BAD_REQUEST)));
+
+		// When
+		reader.read("test", streamOf(json), CELL_SIZE);
+
+	}
+
+	@Test
+	public void unitTest_read_malformedJson() throws Exception {
+
+		// Given
+		String json = "[{\"latitude\":49.28,";
+		PacdotMapReader reader = new PacdotMapReader(10);
+
+		// Then
+		thrown.expect(PmServerException.class);
+		thrown.expect(hasProperty("status", is(HttpStatus.BAD_REQUEST)));
+
+		// When
+		reader.read("test", streamOf(json), CELL_SIZE);
+
+	}
+
+	private static InputStream streamOf(String json) {
+		return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+	}
+
+}
@@ -0,0 +1,83 @@
+package com.pm.server.utils;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pm.server.datatype.Coordinate;
+import com.pm.server.datatype.Pacdot;
+import com.pm.server.datatype.Player;
+import com.pm.server.response.LocationResponse;
+import com.pm.server.response.PacdotResponse;
+import com.pm.server.response.PacdotUneatenResponse;
+import com.pm.server.response.PlayerDetailsResponse;
+
+public class ResponseSerializerModuleTest {
+
+	private final ObjectMapper reflective = new ObjectMapper();
+
+	private final ObjectMapper precompiled =
+			new ObjectMapper().registerModule(new ResponseSerializerModule());
+
+	@Test
+	public void unitTest_playerDetails_sameAsReflective() throws Exception {
+
+		// Given
+		List<PlayerDetailsResponse> responses = new ArrayList<>();
+		responses.add(new PlayerDetailsResponse(
+				Player.Name.Pacman, Player.State.ACTIVE,
+				new Coordinate(49.2796, -122.9199), false
+		));
+		responses.add(new PlayerDetailsResponse(
+				Player.Name.Clyde, Player.State.UNINITIALIZED,
+				new Coordinate(null, null), null
+		));
+		responses.add(new PlayerDetailsResponse(null, null, null, true));
+
+		// Then
+		assertEquals(
+				reflective.writeValueAsString(responses),
+				precompiled.writeValueAsString(responses)
+		);
+
+	}
+
+	@Test
+	public void unitTest_pacdots_sameAsReflective() throws Exception {
+
+		// Given
+		Pacdot pacdot =
+				new Pacdot(new Coordinate(49.2812, -123.1168), true, false);
+
+		List<PacdotResponse> responses = new ArrayList<>();
+		responses.add(new PacdotResponse(pacdot));
+		responses.add(new PacdotResponse());
+
+		PacdotUneatenResponse uneaten = new PacdotUneatenResponse();
+		LocationResponse location = new LocationResponse();
+		location.setLatitude(-0.5);
+		location.setLongitude(1e-7);
+		uneaten.setLocation(location);
+		uneaten.setPowerdot(true);
+
+		// Then
+		assertEquals(
+				reflective.writeValueAsString(responses),
+				precompiled.writeValueAsString(responses)
+		);
+		assertEquals(
+				reflective.writeValueAsString(uneaten),
+				precompiled.writeValueAsString(uneaten)
+		);
+		assertEquals(
+				reflective.writeValueAsString(new PacdotUneatenResponse()),
+				precompiled.writeValueAsString(new PacdotUneatenResponse())
+		);
+
+	}
+
+}
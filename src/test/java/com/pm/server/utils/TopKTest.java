@@ -0,0 +1,112 @@
+package com.pm.server.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+
+public class TopKTest {
+
+	@Test
+	public void unitTest_offer_keepsBestInOrder() {
+
+		// Given
+		TopK<Integer> topK = new TopK<>(Comparator.reverseOrder(), 3);
+
+		// When
+		for(int value : new int[] { 5, 1, 9, 7, 3 }) {
+			topK.offer(value);
+		}
+
+		// Then
+		assertEquals(3, topK.size());
+		assertEquals(Arrays.asList(9, 7, 5), topK.page(0, 10));
+
+	}
+
+	@Test
+	public void unitTest_offer_worseThanAllWhenFull() {
+
+		// Given
+		TopK<Integer> topK = new TopK<>(Comparator.reverseOrder(), 2);
+		topK.offer(5);
+		topK.offer(4);
+
+		// When
+		boolean kept = topK.offer(3);
+
+		// Then
+		assertFalse(kept);
+		assertEquals(Arrays.asList(5, 4), topK.page(0, 10));
+
+	}
+
+	@Test
+	public void unitTest_offer_duplicate() {
+
+		// Given
+		TopK<Integer> topK = new TopK<>(Comparator.reverseOrder(), 2);
+		assertTrue(topK.offer(5));
+
+		// When
+		boolean kept = topK.offer(5);
+
+		// Then
+		assertFalse(kept);
+		assertEquals(1, topK.size());
+
+	}
+
+	@Test
+	public void unitTest_page() {
+
+		// Given
+		TopK<Integer> topK = new TopK<>(Comparator.naturalOrder(), 10);
+		for(int value = 0; value < 10; value++) {
+			topK.offer(value);
+		}
+
+		// When
+		// Then
+		assertEquals(Arrays.asList(3, 4, 5), topK.page(3, 3));
+		assertEquals(Arrays.asList(8, 9), topK.page(8, 3));
+		assertEquals(Collections.emptyList(), topK.page(10, 3));
+
+	}
+
+	@Test
+	public void unitTest_clear() {
+
+		// Given
+		TopK<Integer> topK = new TopK<>(Comparator.naturalOrder(), 2);
+		topK.offer(1);
+		topK.offer(2);
+
+		// When
+		topK.clear();
+		topK.offer(3);
+
+		// Then
+		assertEquals(1, topK.size());
+		assertEquals(Collections.singletonList(3), topK.page(0, 2));
+
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void unitTest_constructor_capacityNotPositive() {
+
+		// Given
+		// When
+		new TopK<Integer>(Comparator.naturalOrder(), 0);
+
+		// Then
+		// Exception thrown above
+
+	}
+
+}